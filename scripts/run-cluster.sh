@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Runs several application instances against one file-backed H2 database (TCP server)
+# with lease-based enrichment work sharing (profile "cluster").
+#
+#   scripts/run-cluster.sh [nodes]        # default 3 nodes on ports 8081, 8082, ...
+#
+# Kill a node (kill <pid>) to see its PENDING leases expire and get claimed by the others;
+# enrichment.cluster.* metrics on each node show claimed / lost claims / in-flight counts.
+set -euo pipefail
+
+NODES=${1:-3}
+H2_TCP_PORT=${H2_TCP_PORT:-9092}
+DATA_DIR=${DATA_DIR:-data/cluster}
+JAR=target/movie-library-1.0.0.jar
+
+cd "$(dirname "$0")/.."
+[ -f "$JAR" ] || mvn -q -DskipTests package
+mkdir -p "$DATA_DIR" target/cluster-logs
+
+PIDS=()
+cleanup() {
+    echo "Stopping cluster..."
+    kill "${PIDS[@]}" 2>/dev/null || true
+    wait 2>/dev/null || true
+}
+trap cleanup EXIT INT TERM
+
+# H2 ships inside the application jar; start its TCP server through the Boot launcher
+java -Dloader.main=org.h2.tools.Server -cp "$JAR" org.springframework.boot.loader.launch.PropertiesLauncher \
+    -tcp -tcpPort "$H2_TCP_PORT" -baseDir "$DATA_DIR" -ifNotExists > target/cluster-logs/h2.log 2>&1 &
+PIDS+=($!)
+sleep 2
+
+start_node() {
+    local port=$1
+    H2_TCP_PORT=$H2_TCP_PORT PORT=$port INGEST_DIR="$DATA_DIR/ingest-$port" \
+        HISTORY_DIR="$DATA_DIR/history-$port" java -jar "$JAR" --spring.profiles.active=cluster \
+        --enrichment.cluster.node-id="node-$port" > "target/cluster-logs/node-$port.log" 2>&1 &
+    PIDS+=($!)
+    echo "node-$port pid $! (log: target/cluster-logs/node-$port.log)"
+}
+
+wait_healthy() {
+    until curl -sf "http://localhost:$1/actuator/health" > /dev/null; do sleep 1; done
+}
+
+# The first node creates the schema; start the others once it is up
+start_node 8081
+wait_healthy 8081
+for ((i = 2; i <= NODES; i++)); do
+    start_node $((8080 + i))
+done
+for ((i = 2; i <= NODES; i++)); do
+    wait_healthy $((8080 + i))
+done
+
+echo "Cluster of $NODES nodes is up. Press Ctrl+C to stop."
+wait
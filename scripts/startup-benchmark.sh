@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+# Measures startup time and first-request latency of the application in four modes:
+#
+#   production              java -jar, --spring.profiles.active=production
+#   fast-startup            + fast-startup profile (lazy bean initialization)
+#   fast-startup+cds        + class-data-sharing archive trained during the build (-Pcds)
+#   fast-startup+cds+aot    + Spring AOT initializers (-Paot, -Dspring.aot.enabled=true)
+#
+#   scripts/startup-benchmark.sh [runs]   # default 5 fresh JVMs per mode, medians reported
+#
+# "Startup" is the JVM uptime Spring logs in "Started ... (process running for X)"; "first request" is
+# GET /api/movies/1 timed by curl right after that line. Results go to target/startup-benchmark.txt.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+PROFILES=production,fast-startup
+JAR=target/movie-library-1.0.0.jar
+CDS_DIR=target/cds
+REPORT=target/startup-benchmark.txt
+
+cd "$(dirname "$0")/.."
+mvn -q -DskipTests -Pcds,aot package \
+    -Dspring-boot.aot.jvmArguments="-Dspring.profiles.active=$PROFILES"
+CDS_CLASSPATH="$CDS_DIR/movie-library-1.0.0-cds.jar:$(cat "$CDS_DIR/classpath.txt")"
+mkdir -p target/startup-logs
+
+APP_PID=
+cleanup() {
+    [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true
+}
+trap cleanup EXIT INT TERM
+
+# Starts the application, waits for the "Started" line, times one request, stops it.
+# Prints "<startup seconds> <first request seconds>".
+measure() {
+    local log=$1
+    shift
+    : > "$log"
+    "$@" --server.port="$PORT" --omdb.api.url=http://127.0.0.1:9/ > "$log" 2>&1 &
+    APP_PID=$!
+    until grep -q "Started MovieLibraryApplication" "$log"; do
+        if ! kill -0 "$APP_PID" 2>/dev/null; then
+            echo "Application exited, see $log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    local first
+    first=$(curl -s --max-time 60 -o /dev/null -w '%{time_total}' -u user:user123 "http://localhost:$PORT/api/movies/1")
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+    local started
+    started=$(grep -o "process running for [0-9.]*" "$log" | awk '{print $4}')
+    echo "$started $first"
+}
+
+median() {
+    sort -n | awk '{v[NR]=$1} END {print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2}'
+}
+
+run_mode() {
+    local mode=$1
+    shift
+    local startups=() firsts=()
+    for run in $(seq 1 "$RUNS"); do
+        read -r startup first < <(measure "target/startup-logs/$mode-$run.log" "$@")
+        startups+=("$startup")
+        firsts+=("$first")
+    done
+    printf "%-24s %12.2f %18.0f\n" "$mode" \
+        "$(printf '%s\n' "${startups[@]}" | median)" \
+        "$(printf '%s\n' "${firsts[@]}" | median | awk '{print $1 * 1000}')"
+}
+
+{
+    echo "Startup benchmark, $RUNS runs per mode, $(java -version 2>&1 | head -1), $(nproc) CPU"
+    printf "%-24s %12s %18s\n" "Mode" "Startup (s)" "First request (ms)"
+    run_mode production java -jar "$JAR" --spring.profiles.active=production
+    run_mode fast-startup java -jar "$JAR" --spring.profiles.active="$PROFILES"
+    run_mode fast-startup+cds java -XX:SharedArchiveFile="$CDS_DIR/movie-library.jsa" -Xlog:cds=off \
+        -cp "$CDS_CLASSPATH" com.example.demo.MovieLibraryApplication --spring.profiles.active="$PROFILES"
+    run_mode fast-startup+cds+aot java -XX:SharedArchiveFile="$CDS_DIR/movie-library.jsa" -Xlog:cds=off \
+        -Dspring.aot.enabled=true \
+        -cp "$CDS_CLASSPATH" com.example.demo.MovieLibraryApplication --spring.profiles.active="$PROFILES"
+} | tee "$REPORT"
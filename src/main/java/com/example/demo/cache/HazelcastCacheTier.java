@@ -0,0 +1,139 @@
+package com.example.demo.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.ExtendedMapEntry;
+import com.hazelcast.map.IMap;
+import com.hazelcast.topic.ITopic;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link SharedCacheTier} on an embedded Hazelcast member. The application nodes form a peer-to-peer
+ * cluster (TCP/IP join on the configured members), so no cache server has to be run. Each cache is a
+ * partitioned map spread over the nodes, and invalidations go out on one topic.
+ * <p>
+ * An entry holds its value together with its version; writes run as entry processors on the key's
+ * partition, so checking and bumping the version is atomic. An invalidated key keeps its version, with no
+ * value, for the cache's TTL.
+ * <p>
+ * Topic delivery is best effort: a node that misses an invalidation serves its near entry until that
+ * entry expires.
+ */
+@Slf4j
+public class HazelcastCacheTier implements SharedCacheTier, AutoCloseable {
+
+    private static final String INVALIDATIONS_TOPIC = "cache-invalidations";
+
+    private record Invalidation(String cache, String key) implements Serializable {
+    }
+
+    private record Versioned(byte[] value, long version) implements Serializable {
+    }
+
+    private record PutIfVersion(byte[] value, long expectedVersion, long ttlMillis)
+            implements EntryProcessor<String, Versioned, Boolean> {
+
+        @Override
+        public Boolean process(Map.Entry<String, Versioned> entry) {
+            if (version(entry) != expectedVersion) {
+                return false;
+            }
+            store(entry, new Versioned(value, expectedVersion), ttlMillis);
+            return true;
+        }
+    }
+
+    /**
+     * Stores the value, or no value for an invalidation, under the next version.
+     */
+    private record PutNextVersion(byte[] value, long ttlMillis) implements EntryProcessor<String, Versioned, Void> {
+
+        @Override
+        public Void process(Map.Entry<String, Versioned> entry) {
+            store(entry, new Versioned(value, version(entry) + 1), ttlMillis);
+            return null;
+        }
+    }
+
+    private final HazelcastInstance hazelcast;
+    private final ITopic<Invalidation> invalidations;
+    private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+    public HazelcastCacheTier(String clusterName, int port, List<String> members) {
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        config.setProperty("hazelcast.logging.type", "slf4j");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        config.setProperty("hazelcast.shutdownhook.enabled", "false");
+        config.getNetworkConfig().setPort(port).setPortAutoIncrement(true);
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).setMembers(members);
+        this.hazelcast = Hazelcast.newHazelcastInstance(config);
+        this.invalidations = hazelcast.getTopic(INVALIDATIONS_TOPIC);
+        invalidations.addMessageListener(message -> {
+            if (!message.getPublishingMember().localMember()) {
+                Invalidation invalidation = message.getMessageObject();
+                listeners.forEach(listener -> listener.accept(invalidation.cache(), invalidation.key()));
+            }
+        });
+        log.info("Shared cache tier joined cluster '{}' with {} members", clusterName,
+                hazelcast.getCluster().getMembers().size());
+    }
+
+    @Override
+    public Entry get(String cache, String key) {
+        Versioned versioned = map(cache).get(key);
+        return versioned == null ? new Entry(null, 0) : new Entry(versioned.value(), versioned.version());
+    }
+
+    @Override
+    public boolean putIfVersion(String cache, String key, byte[] value, long expectedVersion, Duration ttl) {
+        return map(cache).executeOnKey(key, new PutIfVersion(value, expectedVersion, ttl.toMillis()));
+    }
+
+    @Override
+    public void put(String cache, String key, byte[] value, Duration ttl) {
+        map(cache).executeOnKey(key, new PutNextVersion(value, ttl.toMillis()));
+    }
+
+    @Override
+    public void invalidate(String cache, String key, Duration ttl) {
+        map(cache).executeOnKey(key, new PutNextVersion(null, ttl.toMillis()));
+        invalidations.publish(new Invalidation(cache, key));
+    }
+
+    @Override
+    public void onRemoteInvalidation(BiConsumer<String, String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        hazelcast.shutdown();
+    }
+
+    private IMap<String, Versioned> map(String cache) {
+        return hazelcast.getMap(cache);
+    }
+
+    private static long version(Map.Entry<String, Versioned> entry) {
+        return entry.getValue() == null ? 0 : entry.getValue().version();
+    }
+
+    private static void store(Map.Entry<String, Versioned> entry, Versioned versioned, long ttlMillis) {
+        ((ExtendedMapEntry<String, Versioned>) entry).setValue(versioned, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.cache;
+
+import com.example.demo.exceptions.IdempotencyKeyReusedException;
+import com.example.demo.models.dtos.MovieRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Remembers which movie a client's {@code Idempotency-Key} created, so a retried create returns
+ * that movie instead of inserting again. Keys are scoped by the authenticated user, so two clients
+ * that pick the same key do not see each other's movies, and remember the request they came with: the
+ * same key with a different body is rejected. Bounded LRU with a time-to-live; keys are local to this
+ * node, the dedup key constraint still catches retries that land on another one.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private record Key(String user, String idempotencyKey) {
+    }
+
+    private record Entry(Long movieId, MovieRequest request, long expiresAtMillis) {
+    }
+
+    private final Map<Key, Entry> entries;
+    private final long ttlMillis;
+
+    public IdempotencyKeyStore(@Value("${movies.idempotency.max-keys:10000}") int maxKeys,
+                               @Value("${movies.idempotency.ttl:PT24H}") Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    /**
+     * The movie the current user created with this key.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used with a different request
+     */
+    public synchronized Optional<Long> find(String idempotencyKey, MovieRequest request) {
+        Key key = new Key(currentUser(), idempotencyKey);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAtMillis() < System.currentTimeMillis()) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        if (!entry.request().equals(request)) {
+            throw new IdempotencyKeyReusedException(
+                    "Idempotency-Key '" + idempotencyKey + "' was already used with a different request");
+        }
+        return Optional.of(entry.movieId());
+    }
+
+    public synchronized void put(String idempotencyKey, MovieRequest request, Long movieId) {
+        // a copy: the caller's request object may still change
+        MovieRequest remembered = new MovieRequest(request.getTitle(), request.getDirector(), request.getReleaseYear());
+        entries.put(new Key(currentUser(), idempotencyKey),
+                new Entry(movieId, remembered, System.currentTimeMillis() + ttlMillis));
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? ""
+                : authentication.getName();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.cache;
+
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.models.dtos.MovieResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of single movies ({@code GET /api/movies/{id}}), invalidated after commit by every
+ * {@link MovieChangedEvent}, here and, through the shared tier, on the other nodes. A write on another
+ * node also clears this node's {@link MovieListCache}, which only hears local events.
+ */
+@Component
+public class MovieCache {
+
+    /**
+     * Name of the cache in the shared tier and in its invalidations.
+     */
+    public static final String NAME = "movies";
+
+    private final TwoTierCache<MovieResponse> cache;
+
+    public MovieCache(ObjectProvider<SharedCacheTier> sharedCacheTier,
+                      ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry,
+                      MovieListCache movieListCache,
+                      @Value("${movies.cache.near.max-entries:10000}") int nearMaxEntries,
+                      @Value("${movies.cache.near.ttl:PT1M}") Duration nearTtl,
+                      @Value("${movies.cache.shared.ttl:PT10M}") Duration sharedTtl) {
+        this.cache = new TwoTierCache<>(NAME, MovieResponse.class, sharedCacheTier.getIfAvailable(),
+                objectMapper, nearMaxEntries, nearTtl, sharedTtl, meterRegistry, movieId -> movieListCache.clear());
+    }
+
+    /**
+     * The cached movie; the returned instance is shared, so callers must not modify it.
+     */
+    public MovieResponse get(long movieId, Supplier<MovieResponse> loader) {
+        return cache.get(String.valueOf(movieId), loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        cache.invalidate(String.valueOf(event.movieId()));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.WebConfig;
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.models.dtos.MovieRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache of fully serialized {@code GET /api/movies} response bodies, keyed by page and media type.
+ * <p>
+ * A hit is written to the response as-is, without querying, mapping or serializing again.
+ * Entries are invalidated after commit by {@link MovieChangedEvent}s, and only where the change can
+ * show up: an update drops the pages whose id range contains the movie, a create or delete drops
+ * the pages at or after the movie's position plus the last (partial) page, and any change drops
+ * the unpaged full list. A body loaded while a change committed is not stored, and beyond
+ * {@code max-entries} the least recently used page is dropped.
+ */
+@Component
+public class MovieListCache {
+
+    public static final int WHOLE_LIST = -1;
+
+    private static final List<MediaType> SUPPORTED_MEDIA_TYPES = List.of(
+            MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, WebConfig.APPLICATION_SMILE);
+
+    public record Key(int page, int size, MediaType mediaType) {
+
+        public static Key wholeList(MediaType mediaType) {
+            return new Key(WHOLE_LIST, 0, mediaType);
+        }
+
+        boolean isWholeList() {
+            return page == WHOLE_LIST;
+        }
+    }
+
+    private record Entry(byte[] body, long minId, long maxId, boolean fullPage) {
+    }
+
+    private final Map<Key, Entry> entries;
+    private final Map<MediaType, ObjectWriter> writers;
+    // guarded by entries, like the map itself
+    private long generation;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public MovieListCache(ObjectMapper objectMapper,
+                          ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                          MeterRegistry meterRegistry,
+                          @Value("${movies.list-cache.max-entries:512}") int maxEntries) {
+        TypeReference<List<MovieRow>> listType = new TypeReference<>() {
+        };
+        this.writers = Map.of(
+                MediaType.APPLICATION_JSON, objectMapper.writerFor(listType),
+                MediaType.APPLICATION_CBOR, WebConfig.compactBinaryMapper(
+                        objectMapperBuilder.getObject(), new CBORFactory()).writerFor(listType),
+                WebConfig.APPLICATION_SMILE, WebConfig.compactBinaryMapper(
+                        objectMapperBuilder.getObject(), new SmileFactory()).writerFor(listType));
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("movies.list-cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("movies.list-cache.misses").register(meterRegistry);
+        this.evictions = Counter.builder("movies.list-cache.evictions").register(meterRegistry);
+        Gauge.builder("movies.list-cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Picks the representation for an {@code Accept} header, defaulting to JSON.
+     */
+    public static MediaType negotiate(String acceptHeader) {
+        if (acceptHeader == null || acceptHeader.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        try {
+            List<MediaType> accepted = MediaType.parseMediaTypes(acceptHeader);
+            MimeTypeUtils.sortBySpecificity(accepted);
+            accepted.sort(MediaType.QUALITY_VALUE_COMPARATOR);
+            for (MediaType mediaType : accepted) {
+                for (MediaType supported : SUPPORTED_MEDIA_TYPES) {
+                    if (mediaType.isCompatibleWith(supported)) {
+                        return supported;
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // fall through to the default
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Returns the serialized body for the key, loading and serializing it on a miss.
+     */
+    public byte[] get(Key key, Supplier<List<MovieRow>> loader) {
+        long generationBeforeLoad;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                return entry.body();
+            }
+            generationBeforeLoad = generation;
+        }
+        misses.increment();
+
+        List<MovieRow> movies = loader.get();
+        byte[] body = serialize(key.mediaType(), movies);
+        long minId = movies.stream().mapToLong(MovieRow::id).min().orElse(Long.MAX_VALUE);
+        long maxId = movies.stream().mapToLong(MovieRow::id).max().orElse(Long.MIN_VALUE);
+        Entry loaded = new Entry(body, minId, maxId, !key.isWholeList() && movies.size() == key.size());
+
+        // Only cache if no write committed while loading; otherwise the body may already be stale.
+        // Checked under the same lock as the invalidation, so one cannot slip in between.
+        synchronized (entries) {
+            if (generation == generationBeforeLoad) {
+                entries.put(key, loaded);
+            }
+        }
+        return body;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        long movieId = event.movieId();
+        synchronized (entries) {
+            generation++;
+            entries.entrySet().removeIf(cached -> {
+                boolean affected = isAffected(cached.getKey(), cached.getValue(), event.changeType(), movieId);
+                if (affected) {
+                    evictions.increment();
+                }
+                return affected;
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    private static boolean isAffected(Key key, Entry entry, MovieChangedEvent.ChangeType changeType, long movieId) {
+        if (key.isWholeList()) {
+            return true;
+        }
+        return switch (changeType) {
+            case UPDATED, RATING_UPDATED -> movieId >= entry.minId() && movieId <= entry.maxId();
+            case CREATED, DELETED -> !entry.fullPage() || movieId <= entry.maxId();
+        };
+    }
+
+    private byte[] serialize(MediaType mediaType, List<MovieRow> movies) {
+        try {
+            return writers.get(mediaType).writeValueAsBytes(movies);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
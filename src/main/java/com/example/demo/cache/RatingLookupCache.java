@@ -0,0 +1,54 @@
+package com.example.demo.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of rating provider answers by title and year, so that a lookup one node made is not
+ * repeated by another within {@code movies.cache.ratings.ttl}. "Not found" answers are cached only for
+ * {@code movies.cache.ratings.not-found-ttl}: one provider's "not found" can stand for providers that
+ * failed or timed out in the same lookup, and a movie missing today may be listed tomorrow. Failed lookups
+ * are not cached. Refreshes bypass the cache and store their fresh answer.
+ */
+@Component
+public class RatingLookupCache {
+
+    record CachedRating(Double rating) {
+    }
+
+    private final TwoTierCache<CachedRating> cache;
+
+    public RatingLookupCache(ObjectProvider<SharedCacheTier> sharedCacheTier,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${movies.cache.near.max-entries:10000}") int nearMaxEntries,
+                             @Value("${movies.cache.ratings.ttl:PT1H}") Duration ttl,
+                             @Value("${movies.cache.ratings.not-found-ttl:PT5M}") Duration notFoundTtl) {
+        Duration notFound = notFoundTtl.compareTo(ttl) < 0 ? notFoundTtl : ttl;
+        this.cache = new TwoTierCache<>("ratings", CachedRating.class, sharedCacheTier.getIfAvailable(),
+                objectMapper, nearMaxEntries, ttl, ttl, cached -> cached.rating() == null ? notFound : ttl,
+                meterRegistry, key -> {
+                });
+    }
+
+    public Optional<Double> get(String title, Integer year, Supplier<Optional<Double>> lookup) {
+        return Optional.ofNullable(cache.get(key(title, year), () -> new CachedRating(lookup.get().orElse(null)))
+                .rating());
+    }
+
+    public void put(String title, Integer year, Optional<Double> rating) {
+        cache.put(key(title, year), new CachedRating(rating.orElse(null)));
+    }
+
+    private static String key(String title, Integer year) {
+        return title.trim().toLowerCase(Locale.ROOT) + '|' + (year == null ? "" : year);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache tier shared by all application nodes, behind the per-node near caches of {@link TwoTierCache}.
+ * Entries are opaque bytes, grouped by cache name. Implementations may throw on a broken connection;
+ * callers treat that as a miss.
+ * <p>
+ * Every key carries a version that grows with each {@link #put} and {@link #invalidate}. A value loaded
+ * after a read is stored with {@link #putIfVersion}, so a load that raced with a write on another node
+ * cannot put back the value the write replaced.
+ */
+public interface SharedCacheTier {
+
+    /**
+     * A key's value, null when the key was invalidated or never stored, and its version (0 if unknown).
+     */
+    record Entry(byte[] value, long version) {
+    }
+
+    /**
+     * The key's entry; never null.
+     */
+    Entry get(String cache, String key);
+
+    /**
+     * Stores the value if the key is still at {@code expectedVersion}, the version read before loading it.
+     *
+     * @return whether the value was stored
+     */
+    boolean putIfVersion(String cache, String key, byte[] value, long expectedVersion, Duration ttl);
+
+    /**
+     * Stores the value under a new version, so loads that read the key before are no longer stored.
+     */
+    void put(String cache, String key, byte[] value, Duration ttl);
+
+    /**
+     * Removes the value, keeping a new version for {@code ttl}, and tells the other nodes to drop the key
+     * from their near caches.
+     */
+    void invalidate(String cache, String key, Duration ttl);
+
+    /**
+     * Registers a listener for invalidations published by other nodes: (cache, key).
+     */
+    void onRemoteInvalidation(BiConsumer<String, String> listener);
+}
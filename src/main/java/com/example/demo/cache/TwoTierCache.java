@@ -0,0 +1,247 @@
+package com.example.demo.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache with two tiers: a bounded in-process near cache in front of an optional
+ * {@link SharedCacheTier} that every node reads and fills.
+ * <p>
+ * A get tries the near cache, then the shared tier, and only then the loader. A shared hit or a load
+ * fills the tiers in front of it. Values cross the shared tier as JSON. {@link #invalidate(String)}
+ * drops the key here and in the shared tier, and the shared tier tells the other nodes to drop it from
+ * their near caches. A value loaded while an invalidation came in is returned but not cached. A loaded
+ * value goes to the shared tier only if the key's version is still the one read before loading, so a
+ * load that raced with a write on another node is not served to every node for {@code sharedTtl}, even
+ * when the invalidation reaches this node late. Near entries expire after {@code nearTtl}, which bounds
+ * how long a lost invalidation goes unnoticed. A value can be given a shorter lifetime than the cache's
+ * TTLs ({@code valueTtl}), which then applies in both tiers.
+ * Without a shared tier the cache is local to the node.
+ * <p>
+ * Metrics, tagged {@code cache=<name>}: {@code cache.gets{tier=near|shared, result=hit|miss}},
+ * {@code cache.invalidations{source=local|remote}}, {@code cache.shared.errors} and {@code cache.near.size}.
+ */
+@Slf4j
+public class TwoTierCache<V> {
+
+    private record NearEntry<V>(V value, long expiresAtNanos) {
+    }
+
+    /**
+     * Read without a shared tier, or failed: nothing is stored in the shared tier afterwards.
+     */
+    private static final SharedCacheTier.Entry UNKNOWN = new SharedCacheTier.Entry(null, -1);
+
+    private final String name;
+    private final SharedCacheTier shared;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final int nearMaxEntries;
+    private final long nearTtlNanos;
+    private final Duration sharedTtl;
+    private final Function<V, Duration> valueTtl;
+    private final Map<String, NearEntry<V>> near = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    private final Counter sharedErrors;
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    /**
+     * @param shared        the shared tier, or null for a node-local cache
+     * @param onRemoteEvict called with the key after another node invalidated it (for derived caches)
+     */
+    public TwoTierCache(String name, Class<V> type, SharedCacheTier shared, ObjectMapper objectMapper,
+                        int nearMaxEntries, Duration nearTtl, Duration sharedTtl, MeterRegistry meterRegistry,
+                        Consumer<String> onRemoteEvict) {
+        this(name, type, shared, objectMapper, nearMaxEntries, nearTtl, sharedTtl, value -> sharedTtl, meterRegistry,
+                onRemoteEvict);
+    }
+
+    /**
+     * @param valueTtl lifetime of a stored value in the shared tier, and in the near cache if shorter than
+     *                 {@code nearTtl}; {@code sharedTtl} still applies to invalidated keys
+     */
+    public TwoTierCache(String name, Class<V> type, SharedCacheTier shared, ObjectMapper objectMapper,
+                        int nearMaxEntries, Duration nearTtl, Duration sharedTtl, Function<V, Duration> valueTtl,
+                        MeterRegistry meterRegistry, Consumer<String> onRemoteEvict) {
+        this.name = name;
+        this.shared = shared;
+        this.reader = objectMapper.readerFor(type);
+        this.writer = objectMapper.writerFor(type);
+        this.nearMaxEntries = nearMaxEntries;
+        this.nearTtlNanos = nearTtl.toNanos();
+        this.sharedTtl = sharedTtl;
+        this.valueTtl = valueTtl;
+        this.nearHits = gets(meterRegistry, "near", "hit");
+        this.nearMisses = gets(meterRegistry, "near", "miss");
+        this.sharedHits = gets(meterRegistry, "shared", "hit");
+        this.sharedMisses = gets(meterRegistry, "shared", "miss");
+        this.sharedErrors = Counter.builder("cache.shared.errors").tag("cache", name)
+                .description("Shared tier calls that failed and were treated as misses")
+                .register(meterRegistry);
+        this.localInvalidations = invalidations(meterRegistry, "local");
+        this.remoteInvalidations = invalidations(meterRegistry, "remote");
+        Gauge.builder("cache.near.size", near, Map::size).tag("cache", name).register(meterRegistry);
+        if (shared != null) {
+            shared.onRemoteInvalidation((cache, key) -> {
+                if (cache.equals(name)) {
+                    generation.incrementAndGet();
+                    near.remove(key);
+                    remoteInvalidations.increment();
+                    onRemoteEvict.accept(key);
+                }
+            });
+        }
+    }
+
+    private Counter gets(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.gets").tag("cache", name).tag("tier", tier).tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter invalidations(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("cache.invalidations").tag("cache", name).tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached value, loading it on a miss in both tiers. A null from the loader is not cached.
+     */
+    public V get(String key, Supplier<V> loader) {
+        NearEntry<V> entry = near.get(key);
+        if (entry != null && entry.expiresAtNanos() - System.nanoTime() > 0) {
+            nearHits.increment();
+            return entry.value();
+        }
+        nearMisses.increment();
+
+        long generationBeforeLoad = generation.get();
+        SharedCacheTier.Entry sharedEntry = getShared(key);
+        V value = decode(key, sharedEntry);
+        if (value == null) {
+            value = loader.get();
+            if (value == null || generation.get() != generationBeforeLoad) {
+                return value;
+            }
+            putShared(key, value, sharedEntry.version());
+        }
+        if (generation.get() == generationBeforeLoad) {
+            putNear(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value that was just looked up without the cache, in both tiers.
+     */
+    public void put(String key, V value) {
+        // a load running concurrently may carry an older value: keep it out
+        generation.incrementAndGet();
+        if (shared != null) {
+            try {
+                shared.put(name, key, writer.writeValueAsBytes(value), valueTtl.apply(value));
+            } catch (IOException | RuntimeException e) {
+                sharedErrors.increment();
+                log.warn("Shared cache tier write of {} '{}' failed: {}", name, key, e.getMessage());
+            }
+        }
+        putNear(key, value);
+    }
+
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        near.remove(key);
+        localInvalidations.increment();
+        if (shared != null) {
+            try {
+                shared.invalidate(name, key, sharedTtl);
+            } catch (RuntimeException e) {
+                sharedErrors.increment();
+                log.warn("Could not invalidate {} '{}' in the shared cache tier: {}", name, key, e.getMessage());
+            }
+        }
+    }
+
+    public int nearSize() {
+        return near.size();
+    }
+
+    private SharedCacheTier.Entry getShared(String key) {
+        if (shared == null) {
+            return UNKNOWN;
+        }
+        try {
+            SharedCacheTier.Entry entry = shared.get(name, key);
+            if (entry.value() == null) {
+                sharedMisses.increment();
+            } else {
+                sharedHits.increment();
+            }
+            return entry;
+        } catch (RuntimeException e) {
+            sharedErrors.increment();
+            log.warn("Shared cache tier read of {} '{}' failed: {}", name, key, e.getMessage());
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * The shared entry's value, or null on a miss or an unreadable value (replaced by the next load).
+     */
+    private V decode(String key, SharedCacheTier.Entry entry) {
+        if (entry.value() == null) {
+            return null;
+        }
+        try {
+            return reader.readValue(entry.value());
+        } catch (IOException e) {
+            sharedErrors.increment();
+            log.warn("Shared cache tier value of {} '{}' is unreadable: {}", name, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putShared(String key, V value, long expectedVersion) {
+        if (shared == null || expectedVersion < 0) {
+            return;
+        }
+        try {
+            shared.putIfVersion(name, key, writer.writeValueAsBytes(value), expectedVersion, valueTtl.apply(value));
+        } catch (IOException | RuntimeException e) {
+            sharedErrors.increment();
+            log.warn("Shared cache tier write of {} '{}' failed: {}", name, key, e.getMessage());
+        }
+    }
+
+    private void putNear(String key, V value) {
+        if (near.size() >= nearMaxEntries && !near.containsKey(key)) {
+            // make room by dropping an arbitrary entry: hash order is close enough to random here
+            Iterator<String> keys = near.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        long ttlNanos = Math.min(nearTtlNanos, valueTtl.apply(value).toNanos());
+        near.put(key, new NearEntry<>(value, System.nanoTime() + ttlNanos));
+    }
+}
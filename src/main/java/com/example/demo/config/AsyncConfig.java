@@ -1,45 +1,101 @@
 package com.example.demo.config;
 
+import com.example.demo.services.enrichment.EnrichmentLane;
+import com.example.demo.services.enrichment.EnrichmentResultBuffer;
+import com.example.demo.services.enrichment.EnrichmentScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 
 @Configuration
 @EnableAsync
 @Slf4j
 public class AsyncConfig {
 
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    @Value("${enrichment.scheduler.pool-size:5}")
+    private int poolSize;
+
+    @Value("${enrichment.scheduler.interactive.weight:4}")
+    private int interactiveWeight;
+
+    @Value("${enrichment.scheduler.interactive.max-concurrency:4}")
+    private int interactiveMaxConcurrency;
 
-        // Core pool size - minimum number of threads
-        executor.setCorePoolSize(2);
+    @Value("${enrichment.scheduler.interactive.queue-capacity:100}")
+    private int interactiveQueueCapacity;
 
-        // Max pool size - maximum number of threads
-        executor.setMaxPoolSize(5);
+    @Value("${enrichment.scheduler.background.weight:1}")
+    private int backgroundWeight;
 
-        // Queue capacity - number of tasks that can be queued
-        executor.setQueueCapacity(100);
+    @Value("${enrichment.scheduler.background.max-concurrency:2}")
+    private int backgroundMaxConcurrency;
 
-        // Thread name prefix for easy identification
-        executor.setThreadNamePrefix("rating-enrichment-");
+    @Value("${enrichment.scheduler.background.queue-capacity:50000}")
+    private int backgroundQueueCapacity;
 
-        // Wait for tasks to complete on shutdown
-        executor.setWaitForTasksToCompleteOnShutdown(true);
+    @Bean
+    public EnrichmentScheduler enrichmentScheduler(MeterRegistry meterRegistry, Environment environment,
+                                                   EnrichmentResultBuffer enrichmentResultBuffer) {
+        EnrichmentScheduler scheduler = new EnrichmentScheduler(
+                poolSize,
+                Map.of(
+                        EnrichmentLane.INTERACTIVE, new EnrichmentScheduler.LaneSettings(
+                                interactiveWeight, interactiveMaxConcurrency, interactiveQueueCapacity),
+                        EnrichmentLane.BACKGROUND, new EnrichmentScheduler.LaneSettings(
+                                backgroundWeight, backgroundMaxConcurrency, backgroundQueueCapacity)),
+                workerThreadFactory(environment),
+                meterRegistry);
+
+        // Wait for queued tasks to complete on shutdown
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
 
         // Maximum time to wait for tasks to complete on shutdown
-        executor.setAwaitTerminationSeconds(30);
+        scheduler.setAwaitTerminationSeconds(30);
+
+        // Then write the results those tasks left in the write-behind buffer
+        scheduler.setAfterShutdown(enrichmentResultBuffer::flush);
 
-        executor.initialize();
+        scheduler.initialize();
 
-        log.info("Async task executor initialized with core pool size: {}, max pool size: {}",
-                executor.getCorePoolSize(), executor.getMaxPoolSize());
+        return scheduler;
+    }
+
+    /**
+     * With {@code spring.threads.virtual.enabled} (Java 21) workers are virtual threads; the pool size and
+     * lane limits still bound how many enrichments call OMDb at once.
+     */
+    private static ThreadFactory workerThreadFactory(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Rating enrichment runs on virtual threads");
+            return new VirtualThreadTaskExecutor("rating-enrichment-").getVirtualThreadFactory();
+        }
+        return new CustomizableThreadFactory("rating-enrichment-");
+    }
+
+    /**
+     * Default {@code @Async} executor: single create/update enrichment runs in the interactive lane.
+     */
+    @Bean(name = "taskExecutor")
+    public Executor taskExecutor(EnrichmentScheduler enrichmentScheduler) {
+        return enrichmentScheduler.executor(EnrichmentLane.INTERACTIVE);
+    }
 
-        return executor;
+    /**
+     * Executor for bulk work (imports, recovery sweeps) that must not delay interactive enrichment.
+     */
+    @Bean(name = "backgroundTaskExecutor")
+    public Executor backgroundTaskExecutor(EnrichmentScheduler enrichmentScheduler) {
+        return enrichmentScheduler.executor(EnrichmentLane.BACKGROUND);
     }
 }
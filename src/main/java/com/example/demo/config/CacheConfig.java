@@ -0,0 +1,26 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.HazelcastCacheTier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Shared tier behind the near caches ({@code movies.cache.shared.*}). Without it every node caches on
+ * its own and sees only its own writes.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "movies.cache.shared.enabled", havingValue = "true")
+    public HazelcastCacheTier sharedCacheTier(
+            @Value("${movies.cache.shared.cluster-name:movie-library}") String clusterName,
+            @Value("${movies.cache.shared.port:5701}") int port,
+            @Value("${movies.cache.shared.members:127.0.0.1}") List<String> members) {
+        return new HazelcastCacheTier(clusterName, port, members);
+    }
+}
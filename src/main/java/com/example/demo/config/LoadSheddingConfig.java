@@ -0,0 +1,47 @@
+package com.example.demo.config;
+
+import com.example.demo.web.AdaptiveConcurrencyLimit;
+import com.example.demo.web.LoadSheddingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Adaptive load shedding for the REST API, with separate read and write budgets.
+ */
+@Configuration
+public class LoadSheddingConfig {
+
+    /**
+     * First filter for API requests: ahead of Spring Security, so shed requests skip BCrypt, and
+     * ahead of the virtual-thread bulkhead, so they are rejected instead of waiting for a permit.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "api.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(
+            @Value("${api.load-shedding.read.initial-limit:20}") int readInitial,
+            @Value("${api.load-shedding.read.min-limit:4}") int readMin,
+            @Value("${api.load-shedding.read.max-limit:200}") int readMax,
+            @Value("${api.load-shedding.write.initial-limit:5}") int writeInitial,
+            @Value("${api.load-shedding.write.min-limit:1}") int writeMin,
+            @Value("${api.load-shedding.write.max-limit:20}") int writeMax,
+            @Value("${api.load-shedding.latency-tolerance:2.0}") double tolerance,
+            @Value("${api.load-shedding.retry-after:PT1S}") Duration retryAfter,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        LoadSheddingFilter filter = new LoadSheddingFilter(
+                new AdaptiveConcurrencyLimit(readInitial, readMin, readMax, tolerance),
+                new AdaptiveConcurrencyLimit(writeInitial, writeMin, writeMax, tolerance),
+                retryAfter, objectMapper, meterRegistry);
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import com.example.demo.ratelimit.UserRateLimits;
+import com.example.demo.web.RateLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-user rate limits for the REST API ({@code api.rate-limit.*}).
+ */
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Right after Spring Security, which has authenticated the user by then.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(UserRateLimits userRateLimits,
+                                                                   ObjectMapper objectMapper) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(userRateLimits, objectMapper));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
@@ -1,20 +1,128 @@
 package com.example.demo.config;
 
+import com.example.demo.services.rating.OmdbRecordReplayInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 
+/**
+ * Outbound HTTP client for rating lookups: a pooled Apache HttpClient that keeps connections alive
+ * between lookups instead of paying TCP/TLS setup per request. Pool usage (leased, available, pending)
+ * is published as {@code httpcomponents.httpclient.pool.*} metrics tagged {@code httpclient=omdb}.
+ * With {@code omdb.replay.mode} set, lookups are recorded to or replayed from a local archive.
+ */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${omdb.api.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+
+    // Hung reads are abandoned at the hedging deadline; this only bounds how long their thread lingers
+    @Value("${omdb.api.read-timeout:PT5S}")
+    private Duration readTimeout;
+
+    @Value("${omdb.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${omdb.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    // Upper bound on how long an idle connection is reused; shorter if the server says so (Keep-Alive header)
+    @Value("${omdb.http.keep-alive:PT30S}")
+    private Duration keepAlive;
+
+    @Value("${omdb.http.idle-eviction:PT30S}")
+    private Duration idleEviction;
+
+    @Value("${omdb.http.connection-ttl:PT5M}")
+    private Duration connectionTimeToLive;
+
+    @Value("${omdb.http.validate-after-inactivity:PT2S}")
+    private Duration validateAfterInactivity;
+
+    // How long a lookup waits for a free pooled connection before failing
+    @Value("${omdb.http.pool-timeout:PT1S}")
+    private Duration poolTimeout;
+
+    @Bean
+    public PoolingHttpClientConnectionManager ratingClientConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(connectionTimeToLive.toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivity.toMillis()))
+                        .build())
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(10))
+    public CloseableHttpClient ratingHttpClient(PoolingHttpClientConnectionManager ratingClientConnectionManager) {
+        TimeValue maxKeepAlive = TimeValue.ofMilliseconds(keepAlive.toMillis());
+        return HttpClients.custom()
+                .setConnectionManager(ratingClientConnectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue announced = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(announced) && announced.compareTo(maxKeepAlive) < 0
+                            ? announced
+                            : maxKeepAlive;
+                })
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+                .evictExpiredConnections()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
                 .build();
     }
+
+    @Bean
+    public MeterBinder ratingClientPoolMetrics(PoolingHttpClientConnectionManager ratingClientConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(ratingClientConnectionManager, "omdb");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "omdb.replay.mode")
+    public OmdbRecordReplayInterceptor omdbRecordReplayInterceptor(
+            @Value("${omdb.replay.mode}") OmdbRecordReplayInterceptor.Mode mode,
+            @Value("${omdb.replay.archive:omdb-archive.bin.gz}") Path archive,
+            @Value("${omdb.replay.latency.median:PT0.1S}") Duration medianLatency,
+            @Value("${omdb.replay.latency.p99:PT0.5S}") Duration p99Latency,
+            @Value("${omdb.replay.error-rate:0}") double errorRate,
+            MeterRegistry meterRegistry) throws IOException {
+        return new OmdbRecordReplayInterceptor(mode, archive, medianLatency, p99Latency, errorRate, meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient ratingHttpClient,
+                                     ObjectProvider<OmdbRecordReplayInterceptor> recordReplay) {
+        RestTemplateBuilder configured = builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(ratingHttpClient));
+        OmdbRecordReplayInterceptor interceptor = recordReplay.getIfAvailable();
+        return interceptor == null ? configured.build() : configured.additionalInterceptors(interceptor).build();
+    }
 }
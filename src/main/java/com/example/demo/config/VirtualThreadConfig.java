@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import com.example.demo.logging.VirtualThreadPinningMonitor;
+import com.example.demo.web.ConcurrencyBulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Guard rails for the virtual-thread mode ({@code virtual-threads} profile, Java 21):
+ * a request bulkhead sized to the connection pool, and JFR-based pinning detection.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    /**
+     * Runs ahead of Spring Security, so shed requests do not pay for BCrypt first.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "api.bulkhead.enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyBulkheadFilter> concurrencyBulkheadFilter(
+            @Value("${api.bulkhead.max-concurrent-requests:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int maxConcurrentRequests,
+            @Value("${api.bulkhead.max-wait:PT1S}") Duration maxWait,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyBulkheadFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyBulkheadFilter(maxConcurrentRequests, maxWait, objectMapper, meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${virtual-threads.pinned-threshold:PT0.02S}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
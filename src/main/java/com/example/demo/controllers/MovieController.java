@@ -1,11 +1,22 @@
 package com.example.demo.controllers;
 
+import com.example.demo.cache.MovieListCache;
+import com.example.demo.config.WebConfig;
+import com.example.demo.exceptions.ConstraintViolations;
+import com.example.demo.logging.SampledLogger;
 import com.example.demo.models.dtos.ErrorResponse;
+import com.example.demo.models.dtos.IngestStatus;
+import com.example.demo.models.dtos.MovieChangesResponse;
 import com.example.demo.models.dtos.MovieRequest;
 import com.example.demo.models.dtos.MovieResponse;
+import com.example.demo.models.dtos.RatingHistoryEntry;
+import com.example.demo.models.dtos.ReEnrichmentStatus;
+import com.example.demo.models.dtos.TitleMatch;
+import com.example.demo.models.dtos.TopRatedMovie;
 import com.example.demo.services.MovieService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,31 +24,46 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/movies")
 @RequiredArgsConstructor
-@Slf4j
 @Tag(name = "Movie Library", description = "CRUD operations for movie management")
 @SecurityRequirement(name = "basicAuth")
 public class MovieController {
 
+    private static final SampledLogger requestLog = SampledLogger.of(MovieController.class, 20);
+    private static final int MAX_INGEST_MOVIES = 1000;
+
     private final MovieService movieService;
+    private final MovieListCache movieListCache;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(
             summary = "Create a new movie",
             description = "Creates a new movie and triggers background rating enrichment from OMDb API. " +
-                    "Returns immediately without waiting for rating lookup. Requires ADMIN role."
+                    "Returns immediately without waiting for rating lookup. Idempotent: if the same movie " +
+                    "(normalized title, year and director) or the same Idempotency-Key was already created, " +
+                    "the existing movie is returned with 200 and nothing is inserted. Idempotency keys are " +
+                    "per user; reusing one with a different body is rejected with 422. Requires ADMIN role."
     )
     @ApiResponses({
             @ApiResponse(
@@ -45,6 +71,11 @@ public class MovieController {
                     description = "Movie created successfully",
                     content = @Content(schema = @Schema(implementation = MovieResponse.class))
             ),
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Movie already existed; the existing movie is returned",
+                    content = @Content(schema = @Schema(implementation = MovieResponse.class))
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Invalid input",
@@ -57,34 +88,246 @@ public class MovieController {
             @ApiResponse(
                     responseCode = "403",
                     description = "Forbidden - requires ADMIN role"
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Idempotency-Key already used by this user with a different request",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
     public ResponseEntity<MovieResponse> createMovie(
-            @Valid @RequestBody MovieRequest request) {
-        log.info("REST request to create movie: {}", request.getTitle());
-        MovieResponse response = movieService.createMovie(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            @Valid @RequestBody MovieRequest request,
+            @Parameter(description = "Client-chosen key; retries with the same key return the movie created first")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        requestLog.info("REST request to create movie: {}", request.getTitle());
+        MovieService.CreateResult result;
+        try {
+            result = movieService.createMovie(request, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isDuplicateMovie(e)) {
+                throw e;
+            }
+            // An identical movie was inserted concurrently and won the unique dedup key
+            result = movieService.findStoredDuplicate(request, idempotencyKey)
+                    .map(existing -> new MovieService.CreateResult(existing, false))
+                    .orElseThrow(() -> e);
+        }
+        return ResponseEntity.status(result.created() ? HttpStatus.CREATED : HttpStatus.OK).body(result.movie());
     }
 
-    @GetMapping
+    @GetMapping(produces = {
+            MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE,
+            WebConfig.APPLICATION_SMILE_VALUE
+    })
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     @Operation(
             summary = "Get all movies",
-            description = "Retrieves all movies in the library. Accessible by both ADMIN and USER roles."
+            description = "Retrieves all movies in the library, or one page of them ordered by id when " +
+                    "page is given. Accessible by both ADMIN and USER roles. " +
+                    "Send Accept: application/cbor or application/x-jackson-smile for a compact binary body."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "List of movies retrieved successfully",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = MovieResponse.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid page or size",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            )
+    })
+    public ResponseEntity<byte[]> getAllMovies(
+            @Parameter(description = "Zero-based page number; omit to get all movies", example = "0")
+            @RequestParam(required = false) @Min(0) Integer page,
+            @Parameter(description = "Page size", example = "50")
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        requestLog.debug("REST request to get all movies (page {}, size {})", page, size);
+
+        // Served from pre-serialized bytes; a miss loads, maps and serializes once
+        MediaType mediaType = MovieListCache.negotiate(accept);
+        byte[] body = page == null
+                ? movieListCache.get(MovieListCache.Key.wholeList(mediaType), movieService::getAllMovies)
+                : movieListCache.get(new MovieListCache.Key(page, size, mediaType),
+                        () -> movieService.getMoviesPage(page, size));
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .contentLength(body.length)
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(
+            summary = "Search movies by similar title",
+            description = "Fuzzy title lookup (\"did you mean\") using a trigram similarity index. Returns up to " +
+                    "limit movies ranked by similarity, tolerant to typos, word order and accents. " +
+                    "Accessible by both ADMIN and USER roles."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching movies, best match first",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = TitleMatch.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid title, limit or minSimilarity",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            )
+    })
+    public ResponseEntity<List<TitleMatch>> searchByTitle(
+            @Parameter(description = "Title to look up, possibly misspelled", example = "Shawshenk Redemtion")
+            @RequestParam @NotBlank @Size(max = 200) String title,
+            @Parameter(description = "Maximum number of results", example = "10")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @Parameter(description = "Minimum similarity in percent", example = "30")
+            @RequestParam(defaultValue = "30") @Min(0) @Max(100) int minSimilarity) {
+        requestLog.debug("REST request to search movies by title: {}", title);
+        return ResponseEntity.ok(movieService.searchByTitle(title, limit, minSimilarity / 100.0));
+    }
+
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(
+            summary = "Get catalog changes since a sequence number",
+            description = "Incremental sync for downstream mirrors. Returns movies created, updated or deleted " +
+                    "after the given sequence number, oldest first, each changed movie once in its current state. " +
+                    "Pass nextSince as since on the next call, and snapshotFrom from the first page of a sync from 0 " +
+                    "along with it; resyncRequired means deletions were purged and the mirror must reload the full " +
+                    "catalog. Accessible by both ADMIN and USER roles."
     )
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
-                    description = "List of movies retrieved successfully"
+                    description = "Changes after the sequence number",
+                    content = @Content(schema = @Schema(implementation = MovieChangesResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid since or limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized"
             )
     })
-    public ResponseEntity<List<MovieResponse>> getAllMovies() {
-        log.debug("REST request to get all movies");
-        return ResponseEntity.ok(movieService.getAllMovies());
+    public ResponseEntity<MovieChangesResponse> getChanges(
+            @Parameter(description = "Last sequence number already applied; 0 for everything", example = "0")
+            @RequestParam(defaultValue = "0") @Min(0) long since,
+            @Parameter(description = "snapshotFrom returned by the first page of a sync from 0", example = "1042")
+            @RequestParam(defaultValue = "0") @Min(0) long snapshotFrom,
+            @Parameter(description = "Maximum number of changes", example = "500")
+            @RequestParam(defaultValue = "500") @Min(1) @Max(5000) int limit) {
+        requestLog.debug("REST request to get catalog changes after sequence: {}", since);
+        return ResponseEntity.ok(movieService.getChanges(since, snapshotFrom, limit));
+    }
+
+    @GetMapping("/top-rated")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(
+            summary = "Get the top rated movies",
+            description = "Best rated movies in the library, highest rating first, from a leaderboard kept up to date as " +
+                    "ratings are written. Accessible by both ADMIN and USER roles."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Top rated movies, best first",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = TopRatedMovie.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            )
+    })
+    public ResponseEntity<List<TopRatedMovie>> getTopRated(
+            @Parameter(description = "Maximum number of movies", example = "10")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        requestLog.debug("REST request to get top rated movies");
+        return ResponseEntity.ok(movieService.getTopRated(null, null, limit));
+    }
+
+    @GetMapping("/top-rated/years/{year}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(
+            summary = "Get the top rated movies of a release year",
+            description = "Best rated movies released in the given year, highest rating first. " +
+                    "Accessible by both ADMIN and USER roles."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Top rated movies of the year, best first; empty if none is rated",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = TopRatedMovie.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid year or limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            )
+    })
+    public ResponseEntity<List<TopRatedMovie>> getTopRatedOfYear(
+            @Parameter(description = "Release year", example = "1994")
+            @PathVariable int year,
+            @Parameter(description = "Maximum number of movies", example = "10")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        requestLog.debug("REST request to get top rated movies of year: {}", year);
+        return ResponseEntity.ok(movieService.getTopRated(year, null, limit));
+    }
+
+    @GetMapping("/top-rated/directors/{director}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(
+            summary = "Get the top rated movies of a director",
+            description = "Best rated movies of the given director (matched ignoring case), highest rating first. " +
+                    "Accessible by both ADMIN and USER roles."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Top rated movies of the director, best first; empty if none is rated",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = TopRatedMovie.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            )
+    })
+    public ResponseEntity<List<TopRatedMovie>> getTopRatedOfDirector(
+            @Parameter(description = "Director name", example = "Christopher Nolan")
+            @PathVariable String director,
+            @Parameter(description = "Maximum number of movies", example = "10")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        requestLog.debug("REST request to get top rated movies of director: {}", director);
+        return ResponseEntity.ok(movieService.getTopRated(null, director, limit));
     }
 
     @GetMapping("/{id}")
@@ -112,10 +355,51 @@ public class MovieController {
     public ResponseEntity<MovieResponse> getMovieById(
             @Parameter(description = "Movie ID", example = "1")
             @PathVariable Long id) {
-        log.debug("REST request to get movie with id: {}", id);
+        requestLog.debug("REST request to get movie with id: {}", id);
         return ResponseEntity.ok(movieService.getMovieById(id));
     }
 
+    @GetMapping("/{id}/history")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(
+            summary = "Get the rating history of a movie",
+            description = "Lists how the movie's rating and rating status changed over time, oldest first, " +
+                    "optionally limited to a time range. Accessible by both ADMIN and USER roles."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Rating changes in the range",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = RatingHistoryEntry.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid range or limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Movie not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<List<RatingHistoryEntry>> getRatingHistory(
+            @Parameter(description = "Movie ID", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Only changes at or after this time", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only changes at or before this time", example = "2024-12-31T23:59:59")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Maximum number of changes", example = "100")
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        requestLog.debug("REST request to get rating history of movie with id: {}", id);
+        return ResponseEntity.ok(movieService.getRatingHistory(id, from, to, limit));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(
@@ -152,7 +436,7 @@ public class MovieController {
             @Parameter(description = "Movie ID", example = "1")
             @PathVariable Long id,
             @Valid @RequestBody MovieRequest request) {
-        log.info("REST request to update movie with id: {}", id);
+        requestLog.info("REST request to update movie with id: {}", id);
         return ResponseEntity.ok(movieService.updateMovie(id, request));
     }
 
@@ -184,9 +468,188 @@ public class MovieController {
     public ResponseEntity<Void> deleteMovie(
             @Parameter(description = "Movie ID", example = "1")
             @PathVariable Long id) {
-        log.info("REST request to delete movie with id: {}", id);
+        requestLog.info("REST request to delete movie with id: {}", id);
         movieService.deleteMovie(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    @PostMapping("/re-enrichment")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Start re-enriching the whole catalog",
+            description = "Looks up the rating of every movie that is not PENDING again, in the background, in " +
+                    "parallel id-range chunks and within the job's own outbound rate limit. Resumes the last job " +
+                    "instead if it was interrupted. Requires ADMIN role."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Job started or resumed",
+                    content = @Content(schema = @Schema(implementation = ReEnrichmentStatus.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - requires ADMIN role"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "A job is already running",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<ReEnrichmentStatus> startReEnrichment() {
+        requestLog.info("REST request to start catalog re-enrichment");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(movieService.startReEnrichment());
+    }
+
+    @GetMapping("/re-enrichment")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get re-enrichment progress",
+            description = "Progress of the running or last re-enrichment job: movies done out of total, " +
+                    "outcomes, throughput and estimated time left. Requires ADMIN role."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Job progress",
+                    content = @Content(schema = @Schema(implementation = ReEnrichmentStatus.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - requires ADMIN role"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "No job has been started",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<ReEnrichmentStatus> getReEnrichmentStatus() {
+        requestLog.debug("REST request to get re-enrichment progress");
+        return ResponseEntity.ok(movieService.getReEnrichmentStatus());
+    }
+
+    @DeleteMapping("/re-enrichment")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Cancel re-enrichment",
+            description = "Cancels the running or interrupted re-enrichment job; ratings already refreshed are " +
+                    "kept. Requires ADMIN role."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Job cancelled, or already finished",
+                    content = @Content(schema = @Schema(implementation = ReEnrichmentStatus.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - requires ADMIN role"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "No job has been started",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<ReEnrichmentStatus> cancelReEnrichment() {
+        requestLog.info("REST request to cancel catalog re-enrichment");
+        return ResponseEntity.ok(movieService.cancelReEnrichment());
+    }
+
+    @PostMapping("/ingest")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Queue movies for creation",
+            description = "Validates the movies, appends them to the node's durable ingest log and answers at " +
+                    "once with a ticket; a background writer creates them in batched transactions. Movies that " +
+                    "already exist are skipped as duplicates. Poll the Location URL on the same node for the " +
+                    "outcome. Every movie is charged to the enrichment budget. Requires ADMIN role."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Movies queued; Location points to the ticket",
+                    content = @Content(schema = @Schema(implementation = IngestStatus.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid movie, or an empty or too large request",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - requires ADMIN role"
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Enrichment quota exceeded",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Ingest backlog full; retry after the Retry-After header",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<IngestStatus> ingestMovies(
+            @RequestBody @Size(min = 1, max = MAX_INGEST_MOVIES) List<@Valid MovieRequest> movies) {
+        requestLog.info("REST request to ingest {} movies", movies.size());
+        IngestStatus status = movieService.ingestMovies(movies);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/movies/ingest/" + status.getTicketId()))
+                .body(status);
+    }
+
+    @GetMapping("/ingest/{ticketId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get an ingest ticket",
+            description = "QUEUED while the movies wait in the ingest log, then COMPLETED with the number of movies " +
+                    "created, skipped as duplicates and failed. Queued tickets are only known to the node that " +
+                    "accepted them. Requires ADMIN role."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Ticket status",
+                    content = @Content(schema = @Schema(implementation = IngestStatus.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized"
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - requires ADMIN role"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Unknown ticket",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<IngestStatus> getIngestStatus(
+            @Parameter(description = "Ticket ID returned by POST /api/movies/ingest")
+            @PathVariable String ticketId) {
+        requestLog.debug("REST request to get ingest ticket {}", ticketId);
+        return ResponseEntity.ok(movieService.getIngestStatus(ticketId));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.events;
+
+import com.example.demo.models.Movie;
+
+/**
+ * Published for every write to a movie (see {@link MovieEntityListener}), with the movie's state after
+ * the write. Listeners that keep derived state (caches, indexes, leaderboards) should react after the
+ * surrounding transaction commits.
+ */
+public record MovieChangedEvent(Long movieId, String title, String dedupKey, Integer releaseYear, String director,
+                                Double rating, Movie.RatingStatus ratingStatus, ChangeType changeType) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        RATING_UPDATED,
+        DELETED
+    }
+
+    public static MovieChangedEvent created(Movie movie) {
+        return of(movie, ChangeType.CREATED);
+    }
+
+    public static MovieChangedEvent updated(Movie movie) {
+        return of(movie, ChangeType.UPDATED);
+    }
+
+    public static MovieChangedEvent ratingUpdated(Movie movie) {
+        return of(movie, ChangeType.RATING_UPDATED);
+    }
+
+    public static MovieChangedEvent deleted(Movie movie) {
+        return of(movie, ChangeType.DELETED);
+    }
+
+    private static MovieChangedEvent of(Movie movie, ChangeType changeType) {
+        return new MovieChangedEvent(movie.getId(), movie.getTitle(), movie.getDedupKey(), movie.getReleaseYear(),
+                movie.getDirector(), movie.getRating(), movie.getRatingStatus(), changeType);
+    }
+}
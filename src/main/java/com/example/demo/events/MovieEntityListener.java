@@ -0,0 +1,70 @@
+package com.example.demo.events;
+
+import com.example.demo.feed.MovieChangeFeed;
+import com.example.demo.models.Movie;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns every persisted change to a {@link Movie} into a {@link MovieChangedEvent}, whichever
+ * code path made it (services, enrichment, direct repository calls).
+ * Hibernate obtains this listener from the Spring context, so it can publish application events.
+ * It also gives every write its place in the {@link MovieChangeFeed} (absent in JPA test slices).
+ */
+@Component
+@RequiredArgsConstructor
+public class MovieEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<MovieChangeFeed> changeFeed;
+
+    @PrePersist
+    @PreUpdate
+    public void onWrite(Movie movie) {
+        changeFeed.ifAvailable(feed -> movie.setChangeSeq(feed.nextSequence()));
+    }
+
+    @PreRemove
+    public void onDelete(Movie movie) {
+        changeFeed.ifAvailable(feed -> feed.recordDeletion(movie));
+    }
+
+    @PostLoad
+    public void onLoad(Movie movie) {
+        movie.markPersisted();
+    }
+
+    @PostPersist
+    public void onPersist(Movie movie) {
+        movie.markPersisted();
+        eventPublisher.publishEvent(MovieChangedEvent.created(movie));
+    }
+
+    @PostUpdate
+    public void onUpdate(Movie movie) {
+        boolean ratingChanged = movie.isRatingChangedSincePersisted();
+        MovieChangedEvent event = ratingChanged
+                ? MovieChangedEvent.ratingUpdated(movie)
+                : MovieChangedEvent.updated(movie);
+        RatingChangedEvent ratingEvent = ratingChanged ? RatingChangedEvent.of(movie) : null;
+        movie.markPersisted();
+        eventPublisher.publishEvent(event);
+        if (ratingEvent != null) {
+            eventPublisher.publishEvent(ratingEvent);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Movie movie) {
+        eventPublisher.publishEvent(MovieChangedEvent.deleted(movie));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.events;
+
+import com.example.demo.models.Movie;
+
+/**
+ * Published with {@link MovieChangedEvent.ChangeType#RATING_UPDATED} changes, carrying the rating and
+ * status before and after the write (see {@link MovieEntityListener}).
+ */
+public record RatingChangedEvent(Long movieId, Double oldRating, Double newRating, Movie.RatingStatus status) {
+
+    public static RatingChangedEvent of(Movie movie) {
+        return new RatingChangedEvent(movie.getId(), movie.getPersistedRating(), movie.getRating(),
+                movie.getRatingStatus());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.exceptions;
+
+import com.example.demo.models.Movie;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which constraint a {@link DataIntegrityViolationException} broke, so that only a duplicate
+ * movie is answered as a conflict and other violations are not mistaken for one.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Whether the violation is the unique dedup key of movies, i.e. an identical movie already exists.
+     */
+    public static boolean isDuplicateMovie(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                // databases report the name upper-cased and may qualify it with schema or index suffixes
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Movie.DEDUP_KEY_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.exceptions;
+
+import lombok.Getter;
+
+/**
+ * The ingest log holds more unwritten data than allowed; the client should retry after {@code retryAfterSeconds}.
+ */
+@Getter
+public class IngestBacklogFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public IngestBacklogFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
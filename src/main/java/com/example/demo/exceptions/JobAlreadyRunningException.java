@@ -0,0 +1,8 @@
+package com.example.demo.exceptions;
+
+public class JobAlreadyRunningException extends RuntimeException {
+
+    public JobAlreadyRunningException(String message) {
+        super(message);
+    }
+}
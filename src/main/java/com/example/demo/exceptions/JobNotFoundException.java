@@ -0,0 +1,8 @@
+package com.example.demo.exceptions;
+
+public class JobNotFoundException extends RuntimeException {
+
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+}
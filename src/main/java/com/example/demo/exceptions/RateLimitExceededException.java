@@ -0,0 +1,15 @@
+package com.example.demo.exceptions;
+
+import com.example.demo.ratelimit.SlidingWindowRateLimiter;
+import lombok.Getter;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final SlidingWindowRateLimiter.Decision decision;
+
+    public RateLimitExceededException(String message, SlidingWindowRateLimiter.Decision decision) {
+        super(message);
+        this.decision = decision;
+    }
+}
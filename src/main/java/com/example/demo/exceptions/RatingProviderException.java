@@ -0,0 +1,12 @@
+package com.example.demo.exceptions;
+
+public class RatingProviderException extends RuntimeException {
+
+    public RatingProviderException(String message) {
+        super(message);
+    }
+
+    public RatingProviderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
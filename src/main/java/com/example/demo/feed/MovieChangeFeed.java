@@ -0,0 +1,255 @@
+package com.example.demo.feed;
+
+import com.example.demo.models.ChangeFeedState;
+import com.example.demo.models.Movie;
+import com.example.demo.models.MovieTombstone;
+import com.example.demo.models.dtos.MovieChange;
+import com.example.demo.models.dtos.MovieChangesResponse;
+import com.example.demo.models.dtos.MovieResponse;
+import com.example.demo.repositories.ChangeFeedStateRepository;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.repositories.MovieTombstoneRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Monotonic change feed over the movie catalog for downstream mirrors ({@code GET /api/movies/changes}).
+ * <p>
+ * Every insert and update of a movie, whichever code path makes it, takes the next value of the
+ * {@code movie_change_seq} database sequence into {@code movies.change_seq}; a delete writes a tombstone
+ * with its own sequence number. The feed is compacted by construction: a movie row only carries its
+ * latest sequence number, so a consumer receives each changed movie once, in its current state.
+ * Tombstones are kept for {@code tombstone-retention}; a consumer whose position is older than the
+ * purged tombstones is told to resync. A fresh consumer ({@code since=0}) reads the whole catalog and
+ * needs no tombstones of deletions before it started, so it is never told to. The first page of such a
+ * snapshot reports where the feed stood ({@code snapshotFrom}); passed back on the following pages, it
+ * keeps the consumer from being told to resync over tombstones purged that its snapshot never needed.
+ * <p>
+ * Sequence numbers are taken at flush time, not at commit, so a smaller number can commit after a
+ * larger one. Reads therefore stop below the oldest sequence number still in flight on this node; a
+ * consumer never moves past a write that has yet to become visible. While a number is being fetched,
+ * a reservation just above the last number this node saw stands in for it. Other nodes' in-flight writes are
+ * not seen, so in cluster mode consumers should re-read a small overlap.
+ */
+@Component
+@Slf4j
+public class MovieChangeFeed {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovieRepository movieRepository;
+    private final MovieTombstoneRepository tombstoneRepository;
+    private final ChangeFeedStateRepository stateRepository;
+    private final Duration tombstoneRetention;
+    // sequence number or reservation -> writes holding it, guarded by itself
+    private final TreeMap<Long, Integer> inFlight = new TreeMap<>();
+    private long lastSequence;
+
+    public MovieChangeFeed(JdbcTemplate jdbcTemplate,
+                           MovieRepository movieRepository,
+                           MovieTombstoneRepository tombstoneRepository,
+                           ChangeFeedStateRepository stateRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${movies.change-feed.tombstone-retention:P7D}") Duration tombstoneRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.movieRepository = movieRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.stateRepository = stateRepository;
+        this.tombstoneRetention = tombstoneRetention;
+        Gauge.builder("movies.change-feed.in-flight", this, MovieChangeFeed::inFlightCount).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void createSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS movie_change_seq");
+    }
+
+    /**
+     * Gives rows written without the entity listener (seed data, bulk SQL) a place in the feed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void sequenceUnsequencedMovies() {
+        int sequenced = jdbcTemplate.update(
+                "UPDATE movies SET change_seq = NEXT VALUE FOR movie_change_seq WHERE change_seq IS NULL");
+        if (sequenced > 0) {
+            log.info("Assigned change feed sequence numbers to {} movies", sequenced);
+        }
+        long highest = highestWrittenSequence();
+        synchronized (inFlight) {
+            lastSequence = Math.max(lastSequence, highest);
+        }
+    }
+
+    /**
+     * Next sequence number for a write in the current transaction. It counts as in flight until
+     * the transaction completes.
+     */
+    public long nextSequence() {
+        // The database round trip runs outside the lock, so concurrent writers do not queue behind it.
+        // Until the number is known, the reservation holds the low-water mark down: the sequence only
+        // grows, so the number fetched cannot be below the last one this node saw.
+        long reservation;
+        synchronized (inFlight) {
+            reservation = lastSequence + 1;
+            hold(reservation);
+        }
+        boolean tracked = TransactionSynchronizationManager.isSynchronizationActive();
+        long sequence;
+        try {
+            sequence = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR movie_change_seq", Long.class);
+            synchronized (inFlight) {
+                lastSequence = Math.max(lastSequence, sequence);
+                if (tracked) {
+                    hold(sequence);
+                }
+            }
+        } finally {
+            synchronized (inFlight) {
+                release(reservation);
+            }
+        }
+        if (tracked) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (inFlight) {
+                        release(sequence);
+                    }
+                }
+            });
+        }
+        return sequence;
+    }
+
+    /**
+     * Writes the tombstone of a movie being deleted, in the deleting transaction.
+     */
+    public void recordDeletion(Movie movie) {
+        jdbcTemplate.update("INSERT INTO movie_tombstones (movie_id, change_seq, deleted_at) VALUES (?, ?, ?)",
+                movie.getId(), nextSequence(), LocalDateTime.now());
+    }
+
+    /**
+     * Changes after {@code since}, oldest first, at most {@code limit}.
+     *
+     * @param snapshotFrom where the feed stood when the consumer's snapshot started, 0 if unknown
+     */
+    @Transactional(readOnly = true)
+    public MovieChangesResponse read(long since, long snapshotFrom, int limit) {
+        long upTo = stableSequence();
+        // a deletion after this point has a higher sequence, or is still in flight below upTo
+        long snapshotStart = since == 0 ? Math.min(upTo, highestWrittenSequence()) : snapshotFrom;
+        long purgedThrough = stateRepository.findById(ChangeFeedState.ID)
+                .map(ChangeFeedState::getPurgedThroughSeq)
+                .orElse(0L);
+
+        PageRequest page = PageRequest.ofSize(limit);
+        List<Movie> movies = movieRepository
+                .findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(since, upTo, page);
+        List<MovieTombstone> tombstones = tombstoneRepository
+                .findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(since, upTo, page);
+
+        // merge the two sequence-ordered lists
+        List<MovieChange> changes = new ArrayList<>(Math.min(limit, movies.size() + tombstones.size()));
+        int m = 0;
+        int t = 0;
+        while (changes.size() < limit && (m < movies.size() || t < tombstones.size())) {
+            boolean takeMovie = t == tombstones.size()
+                    || m < movies.size() && movies.get(m).getChangeSeq() < tombstones.get(t).getChangeSeq();
+            changes.add(takeMovie ? upsert(movies.get(m++)) : delete(tombstones.get(t++)));
+        }
+
+        return MovieChangesResponse.builder()
+                .changes(changes)
+                .nextSince(changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence())
+                .hasMore(movies.size() == limit || tombstones.size() == limit)
+                .snapshotFrom(snapshotStart > 0 ? snapshotStart : null)
+                // a snapshot needs the tombstones of deletions after it started, a later position those after it
+                .resyncRequired(since > 0 && Math.max(since, snapshotStart) < purgedThrough)
+                .build();
+    }
+
+    /**
+     * Drops tombstones older than the retention and records how far the feed was purged.
+     */
+    @Scheduled(fixedDelayString = "${movies.change-feed.purge-interval:PT1H}",
+            initialDelayString = "${movies.change-feed.purge-interval:PT1H}")
+    @Transactional
+    public void purgeTombstones() {
+        Long purgeThrough = tombstoneRepository.findMaxChangeSeqDeletedBefore(
+                LocalDateTime.now().minus(tombstoneRetention));
+        if (purgeThrough == null) {
+            return;
+        }
+        int purged = tombstoneRepository.deleteUpToChangeSeq(purgeThrough);
+        ChangeFeedState state = stateRepository.findById(ChangeFeedState.ID)
+                .orElseGet(() -> new ChangeFeedState(ChangeFeedState.ID, 0));
+        state.setPurgedThroughSeq(Math.max(state.getPurgedThroughSeq(), purgeThrough));
+        stateRepository.save(state);
+        log.info("Change feed: purged {} tombstones up to sequence {}", purged, purgeThrough);
+    }
+
+    /**
+     * Highest sequence number below which no write of this node is still uncommitted.
+     */
+    public long stableSequence() {
+        synchronized (inFlight) {
+            return inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.firstKey() - 1;
+        }
+    }
+
+    private long highestWrittenSequence() {
+        return jdbcTemplate.queryForObject("SELECT GREATEST("
+                + "COALESCE((SELECT MAX(change_seq) FROM movies), 0), "
+                + "COALESCE((SELECT MAX(change_seq) FROM movie_tombstones), 0))", Long.class);
+    }
+
+    private int inFlightCount() {
+        synchronized (inFlight) {
+            return inFlight.size();
+        }
+    }
+
+    private void hold(long sequence) {
+        inFlight.merge(sequence, 1, Integer::sum);
+    }
+
+    private void release(long sequence) {
+        inFlight.computeIfPresent(sequence, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static MovieChange upsert(Movie movie) {
+        return MovieChange.builder()
+                .sequence(movie.getChangeSeq())
+                .type(MovieChange.Type.UPSERT)
+                .movieId(movie.getId())
+                .movie(MovieResponse.fromEntity(movie))
+                .build();
+    }
+
+    private static MovieChange delete(MovieTombstone tombstone) {
+        return MovieChange.builder()
+                .sequence(tombstone.getChangeSeq())
+                .type(MovieChange.Type.DELETE)
+                .movieId(tombstone.getMovieId())
+                .deletedAt(tombstone.getDeletedAt())
+                .build();
+    }
+}
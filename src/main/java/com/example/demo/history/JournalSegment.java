@@ -0,0 +1,200 @@
+package com.example.demo.history;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One file of the {@link RatingJournal}: fixed-size records appended to a memory-mapped region.
+ * <p>
+ * Record layout (33 bytes): movie id, timestamp (epoch millis), old rating, new rating (NaN for none),
+ * status code. The status byte is written last and is never 0, so a zero byte marks the end of the
+ * written records when a segment is reopened. Timestamps never decrease within a segment, which
+ * lets a sparse index (the timestamp of every {@value #INDEX_INTERVAL}th record) find the start of a
+ * time range by binary search. A Bloom filter over movie ids lets reads skip segments without the movie.
+ * <p>
+ * One writer appends under the journal's lock; readers run concurrently and only look at records
+ * below the volatile {@code size}, which is published after each record is complete.
+ */
+final class JournalSegment {
+
+    static final int RECORD_SIZE = 33;
+    static final int INDEX_INTERVAL = 64;
+    static final byte TOMBSTONE = Byte.MAX_VALUE;
+
+    private static final int MOVIE_ID = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int OLD_RATING = 16;
+    private static final int NEW_RATING = 24;
+    private static final int STATUS = 32;
+    private static final int BLOOM_BITS_PER_RECORD = 8;
+
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long[] bloom;
+    private final long bloomMask;
+    private final long[] sparseTimestamps;
+    private volatile int size;
+
+    private JournalSegment(long id, Path path, MappedByteBuffer buffer, int capacity) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        long bloomBits = Long.highestOneBit(Math.max(64L, (long) capacity * BLOOM_BITS_PER_RECORD) - 1) << 1;
+        this.bloom = new long[(int) (bloomBits >>> 6)];
+        this.bloomMask = bloomBits - 1;
+        this.sparseTimestamps = new long[Math.max(1, capacity / INDEX_INTERVAL + 1)];
+    }
+
+    /**
+     * Creates a new, empty segment file with room for {@code capacity} records.
+     */
+    static JournalSegment create(long id, Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+            return new JournalSegment(id, path, buffer, capacity);
+        }
+    }
+
+    /**
+     * Maps an existing segment file and rebuilds its sparse index and Bloom filter.
+     */
+    static JournalSegment open(long id, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int capacity = (int) (channel.size() / RECORD_SIZE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+            JournalSegment segment = new JournalSegment(id, path, buffer, capacity);
+            int recovered = 0;
+            while (recovered < capacity && buffer.get(recovered * RECORD_SIZE + STATUS) != 0) {
+                segment.indexRecord(recovered);
+                recovered++;
+            }
+            segment.size = recovered;
+            return segment;
+        }
+    }
+
+    long id() {
+        return id;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    long sizeInBytes() {
+        return (long) capacity * RECORD_SIZE;
+    }
+
+    void append(long movieId, long timestamp, double oldRating, double newRating, byte statusCode) {
+        int index = size;
+        int offset = index * RECORD_SIZE;
+        buffer.putLong(offset + MOVIE_ID, movieId);
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putDouble(offset + OLD_RATING, oldRating);
+        buffer.putDouble(offset + NEW_RATING, newRating);
+        buffer.put(offset + STATUS, statusCode);
+        indexRecord(index);
+        size = index + 1;
+    }
+
+    /**
+     * Copies record {@code index} of {@code source} unchanged, used by compaction.
+     */
+    void copy(JournalSegment source, int index) {
+        append(source.movieId(index), source.timestamp(index), source.oldRating(index),
+                source.newRating(index), source.statusCode(index));
+    }
+
+    long movieId(int index) {
+        return buffer.getLong(index * RECORD_SIZE + MOVIE_ID);
+    }
+
+    long timestamp(int index) {
+        return buffer.getLong(index * RECORD_SIZE + TIMESTAMP);
+    }
+
+    double oldRating(int index) {
+        return buffer.getDouble(index * RECORD_SIZE + OLD_RATING);
+    }
+
+    double newRating(int index) {
+        return buffer.getDouble(index * RECORD_SIZE + NEW_RATING);
+    }
+
+    byte statusCode(int index) {
+        return buffer.get(index * RECORD_SIZE + STATUS);
+    }
+
+    /**
+     * False if the segment certainly holds no record of the movie; true means it probably does.
+     * Callers must read {@link #size()} first so that the filter covers those records.
+     */
+    boolean mightContain(long movieId) {
+        long hash = mix(movieId);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < 3; i++) {
+            long bit = (hash + i * step) & bloomMask;
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Index of the first record that may have a timestamp at or after {@code fromMillis}, using only
+     * the sparse index over the first {@code recordCount} records; the caller scans forward from there.
+     */
+    int seek(long fromMillis, int recordCount) {
+        int low = 0;
+        int high = (recordCount + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sparseTimestamps[mid] < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // records before the first indexed timestamp >= fromMillis may still be in range
+        return Math.max(0, low - 1) * INDEX_INTERVAL;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    private void indexRecord(int index) {
+        if (index % INDEX_INTERVAL == 0) {
+            sparseTimestamps[index / INDEX_INTERVAL] = timestamp(index);
+        }
+        long hash = mix(movieId(index));
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < 3; i++) {
+            long bit = (hash + i * step) & bloomMask;
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static long mix(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        hash *= 0xD6E8FEB86659FD93L;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.history;
+
+import com.example.demo.models.Movie;
+
+/**
+ * One journaled rating write: the rating before and after, and the resulting status.
+ */
+public record RatingChange(long movieId, long timestampMillis, Double oldRating, Double newRating,
+                           Movie.RatingStatus status) {
+}
@@ -0,0 +1,385 @@
+package com.example.demo.history;
+
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.events.RatingChangedEvent;
+import com.example.demo.models.Movie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of rating changes behind {@code GET /api/movies/{id}/history}.
+ * <p>
+ * Every committed rating write ({@link RatingChangedEvent}, from enrichment and
+ * {@code MovieService.updateMovieRating} alike) becomes one fixed-size record in the active
+ * memory-mapped {@link JournalSegment}; a full segment is flushed and sealed, and the next one is
+ * started. Appending happens after commit and costs a few memory writes, so it adds no statements or
+ * locks to the database transaction. Deleting a movie appends a tombstone.
+ * <p>
+ * Reads skip whole segments by time range and Bloom filter, and seek into the rest with the sparse
+ * timestamp index. Compaction rewrites sealed segments without the records of deleted movies and,
+ * with a {@code retention}, without records older than that.
+ * <p>
+ * Without a configured {@code directory} the journal lives in a temporary directory that is removed on
+ * shutdown, matching the in-memory database; point it at a persistent directory together with a
+ * persistent database ({@code require-directory} makes a blank directory fail the startup). The journal
+ * is local to the node that made the write.
+ * <p>
+ * Compaction and {@link #close()} are serialized on the compaction lock, so shutdown waits for a running
+ * compaction instead of deleting or unmapping the files it is rewriting, and no compaction starts after it.
+ */
+@Component
+@Slf4j
+public class RatingJournal {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final Movie.RatingStatus[] STATUSES = Movie.RatingStatus.values();
+
+    private final Path directory;
+    private final boolean temporaryDirectory;
+    private final int segmentCapacity;
+    private final Duration retention;
+    private final Object compactionLock = new Object();
+    private final Counter appends;
+    private final Counter compactedRecords;
+    private final Timer readTimer;
+    private final Timer compactionTimer;
+    private volatile List<JournalSegment> segments;
+    private long lastTimestamp;
+    private volatile boolean closed;
+
+    public RatingJournal(@Value("${movies.rating-history.directory:}") String directory,
+                         @Value("${movies.rating-history.segment-size:4MB}") DataSize segmentSize,
+                         @Value("${movies.rating-history.retention:P0D}") Duration retention,
+                         @Value("${movies.rating-history.require-directory:false}") boolean requireDirectory,
+                         MeterRegistry meterRegistry) throws IOException {
+        if (directory.isBlank() && requireDirectory) {
+            throw new IllegalStateException("movies.rating-history.directory must be set: rating history would be "
+                    + "lost with the temporary journal on restart");
+        }
+        this.temporaryDirectory = directory.isBlank();
+        this.directory = temporaryDirectory
+                ? Files.createTempDirectory("rating-journal")
+                : Files.createDirectories(Path.of(directory));
+        this.segmentCapacity = (int) Math.min(Integer.MAX_VALUE / JournalSegment.RECORD_SIZE,
+                Math.max(JournalSegment.INDEX_INTERVAL, segmentSize.toBytes() / JournalSegment.RECORD_SIZE));
+        this.retention = retention;
+        this.segments = openSegments();
+        for (JournalSegment segment : segments) {
+            if (segment.size() > 0) {
+                lastTimestamp = Math.max(lastTimestamp, segment.timestamp(segment.size() - 1));
+            }
+        }
+
+        this.appends = Counter.builder("movies.rating-history.appends").register(meterRegistry);
+        this.compactedRecords = Counter.builder("movies.rating-history.compacted-records")
+                .description("Journal records dropped by compaction")
+                .register(meterRegistry);
+        this.readTimer = Timer.builder("movies.rating-history.read")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.compactionTimer = Timer.builder("movies.rating-history.compaction").register(meterRegistry);
+        Gauge.builder("movies.rating-history.segments", this, RatingJournal::segmentCount).register(meterRegistry);
+        Gauge.builder("movies.rating-history.bytes", this, RatingJournal::sizeInBytes).register(meterRegistry);
+
+        log.info("Rating journal opened in {} ({} segments)", this.directory, segments.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        try {
+            append(event.movieId(), event.oldRating(), event.newRating(), event.status());
+        } catch (RuntimeException e) {
+            // the rating itself is committed; history must never fail the write
+            log.warn("Could not journal rating change of movie {}: {}", event.movieId(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.changeType() != MovieChangedEvent.ChangeType.DELETED) {
+            return;
+        }
+        try {
+            write(event.movieId(), Double.NaN, Double.NaN, JournalSegment.TOMBSTONE);
+        } catch (RuntimeException e) {
+            log.warn("Could not journal deletion of movie {}: {}", event.movieId(), e.getMessage());
+        }
+    }
+
+    public void append(long movieId, Double oldRating, Double newRating, Movie.RatingStatus status) {
+        write(movieId, toDouble(oldRating), toDouble(newRating), (byte) (status.ordinal() + 1));
+    }
+
+    /**
+     * Rating changes of one movie with {@code fromMillis <= timestamp <= toMillis}, oldest first,
+     * at most {@code limit} of them.
+     */
+    public List<RatingChange> read(long movieId, long fromMillis, long toMillis, int limit) {
+        return readTimer.record(() -> {
+            List<RatingChange> changes = new ArrayList<>();
+            for (JournalSegment segment : segments) {
+                int size = segment.size();
+                if (size == 0) {
+                    continue;
+                }
+                if (segment.timestamp(0) > toMillis) {
+                    break;
+                }
+                if (segment.timestamp(size - 1) < fromMillis || !segment.mightContain(movieId)) {
+                    continue;
+                }
+                for (int i = segment.seek(fromMillis, size); i < size; i++) {
+                    long timestamp = segment.timestamp(i);
+                    if (timestamp > toMillis) {
+                        return changes;
+                    }
+                    if (timestamp < fromMillis || segment.movieId(i) != movieId) {
+                        continue;
+                    }
+                    if (segment.statusCode(i) == JournalSegment.TOMBSTONE) {
+                        // the movie was deleted; what came before is waiting for compaction
+                        changes.clear();
+                        continue;
+                    }
+                    changes.add(new RatingChange(movieId, timestamp, toRating(segment.oldRating(i)),
+                            toRating(segment.newRating(i)), STATUSES[segment.statusCode(i) - 1]));
+                    if (changes.size() == limit) {
+                        return changes;
+                    }
+                }
+            }
+            return changes;
+        });
+    }
+
+    /**
+     * Rewrites sealed segments without the records of deleted movies and of expired ones.
+     * The active segment is left alone, so appends never wait for compaction.
+     */
+    @Scheduled(fixedDelayString = "${movies.rating-history.compaction-interval:PT1H}",
+            initialDelayString = "${movies.rating-history.compaction-interval:PT1H}")
+    public void compact() {
+        synchronized (compactionLock) {
+            List<JournalSegment> current = segments;
+            if (closed || current.size() < 2) {
+                return;
+            }
+            long started = System.nanoTime();
+            Set<Long> deletedMovies = tombstonedMovies(current);
+            long cutoff = retention.isZero() ? Long.MIN_VALUE : System.currentTimeMillis() - retention.toMillis();
+
+            Map<Long, JournalSegment> replacements = new HashMap<>();
+            List<JournalSegment> emptied = new ArrayList<>();
+            try {
+                for (JournalSegment segment : current.subList(0, current.size() - 1)) {
+                    JournalSegment compacted = compact(segment, deletedMovies, cutoff);
+                    if (compacted == null) {
+                        emptied.add(segment);
+                    } else if (compacted != segment) {
+                        replacements.put(segment.id(), compacted);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Rating journal compaction failed: {}", e.getMessage());
+            }
+            if (replacements.isEmpty() && emptied.isEmpty()) {
+                return;
+            }
+
+            synchronized (this) {
+                List<JournalSegment> swapped = new ArrayList<>();
+                for (JournalSegment segment : segments) {
+                    if (!emptied.contains(segment)) {
+                        swapped.add(replacements.getOrDefault(segment.id(), segment));
+                    }
+                }
+                segments = List.copyOf(swapped);
+            }
+            // readers still scanning a replaced segment keep its mapping; deleting the file does not unmap it
+            for (JournalSegment segment : emptied) {
+                deleteQuietly(segment.path());
+            }
+            compactionTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            log.info("Rating journal compacted: {} segments rewritten, {} removed",
+                    replacements.size(), emptied.size());
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long sizeInBytes() {
+        return segments.stream().mapToLong(JournalSegment::sizeInBytes).sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        // same lock order as compact(): compaction lock, then this
+        synchronized (compactionLock) {
+            synchronized (this) {
+                closed = true;
+                for (JournalSegment segment : segments) {
+                    segment.force();
+                }
+                if (temporaryDirectory) {
+                    for (JournalSegment segment : segments) {
+                        deleteQuietly(segment.path());
+                    }
+                    deleteQuietly(directory);
+                }
+            }
+        }
+    }
+
+    private synchronized void write(long movieId, double oldRating, double newRating, byte statusCode) {
+        if (closed) {
+            return;
+        }
+        JournalSegment active = activeSegment();
+        // timestamps never decrease, so the sparse index can be searched
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        active.append(movieId, timestamp, oldRating, newRating, statusCode);
+        lastTimestamp = timestamp;
+        appends.increment();
+    }
+
+    private JournalSegment activeSegment() {
+        List<JournalSegment> current = segments;
+        JournalSegment last = current.isEmpty() ? null : current.get(current.size() - 1);
+        if (last != null && !last.isFull()) {
+            return last;
+        }
+        if (last != null) {
+            last.force();
+        }
+        long id = last == null ? 1 : last.id() + 1;
+        try {
+            JournalSegment next = JournalSegment.create(id, segmentPath(id), segmentCapacity);
+            List<JournalSegment> rolled = new ArrayList<>(current);
+            rolled.add(next);
+            segments = List.copyOf(rolled);
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copy of the segment without dropped records, the segment itself if nothing is dropped,
+     * or null if nothing is left.
+     */
+    private JournalSegment compact(JournalSegment segment, Set<Long> deletedMovies, long cutoff) throws IOException {
+        int size = segment.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (keep(segment, i, deletedMovies, cutoff)) {
+                kept++;
+            }
+        }
+        if (kept == size) {
+            return segment;
+        }
+        compactedRecords.increment(size - kept);
+        if (kept == 0) {
+            return null;
+        }
+
+        Path temporary = directory.resolve(segmentFileName(segment.id()) + COMPACTING_SUFFIX);
+        Files.deleteIfExists(temporary);
+        JournalSegment compacted = JournalSegment.create(segment.id(), temporary, kept);
+        for (int i = 0; i < size; i++) {
+            if (keep(segment, i, deletedMovies, cutoff)) {
+                compacted.copy(segment, i);
+            }
+        }
+        compacted.force();
+        Files.move(temporary, segment.path(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return JournalSegment.open(segment.id(), segment.path());
+    }
+
+    private static boolean keep(JournalSegment segment, int index, Set<Long> deletedMovies, long cutoff) {
+        return segment.timestamp(index) >= cutoff && !deletedMovies.contains(segment.movieId(index));
+    }
+
+    private static Set<Long> tombstonedMovies(List<JournalSegment> segments) {
+        Set<Long> deleted = new HashSet<>();
+        for (JournalSegment segment : segments) {
+            int size = segment.size();
+            for (int i = 0; i < size; i++) {
+                if (segment.statusCode(i) == JournalSegment.TOMBSTONE) {
+                    deleted.add(segment.movieId(i));
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private List<JournalSegment> openSegments() throws IOException {
+        List<JournalSegment> opened = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(COMPACTING_SUFFIX)) {
+                    // interrupted compaction; the original segment is still in place
+                    Files.delete(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    long id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    opened.add(JournalSegment.open(id, file));
+                }
+            }
+        }
+        opened.sort(Comparator.comparingLong(JournalSegment::id));
+        return List.copyOf(opened);
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(segmentFileName(id));
+    }
+
+    private static String segmentFileName(long id) {
+        return String.format("%019d%s", id, SEGMENT_SUFFIX);
+    }
+
+    private static double toDouble(Double rating) {
+        return rating == null ? Double.NaN : rating;
+    }
+
+    private static Double toRating(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
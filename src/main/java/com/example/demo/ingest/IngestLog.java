@@ -0,0 +1,279 @@
+package com.example.demo.ingest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable, append-only log of accepted bulk ingest requests, drained into the database by the
+ * {@link IngestWriter}.
+ * <p>
+ * Each request is one checksummed record in the active {@link IngestSegment}. With {@code fsync} on,
+ * an append returns only once the record is on disk, so an accepted request survives a crash. A
+ * segment that reaches {@code segment-size} is sealed and the next one starts where it ends. Records
+ * are addressed by log offset, which only grows. The writer records how far it got in the database,
+ * under the log's {@link #id()}, and then drops the segments below that offset.
+ * <p>
+ * Without a configured {@code directory} the log lives in a temporary directory that is removed on
+ * shutdown, matching the in-memory database; point it at a persistent directory together with a
+ * persistent database ({@code require-directory} makes a blank directory fail the startup). The log is
+ * local to the node that accepted the request: each node drains its own log, and its id, kept in the
+ * directory, keeps its offset apart from the other nodes' in the shared database.
+ */
+@Component
+@Slf4j
+public class IngestLog {
+
+    /**
+     * A record and the offset right after it.
+     */
+    public record Entry(long offset, long nextOffset, byte[] payload) {
+    }
+
+    private static final String SEGMENT_SUFFIX = ".ingest";
+    private static final String ID_FILE = "log.id";
+
+    private final Path directory;
+    private final boolean temporaryDirectory;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final String id;
+    private final Timer appendTimer;
+    private volatile List<IngestSegment> segments;
+    private long nextBaseOffset;
+    private boolean closed;
+
+    public IngestLog(@Value("${movies.ingest.directory:}") String directory,
+                     @Value("${movies.ingest.segment-size:16MB}") DataSize segmentSize,
+                     @Value("${movies.ingest.fsync:true}") boolean fsync,
+                     @Value("${movies.ingest.require-directory:false}") boolean requireDirectory,
+                     MeterRegistry meterRegistry) throws IOException {
+        if (directory.isBlank() && requireDirectory) {
+            throw new IllegalStateException("movies.ingest.directory must be set: accepted requests would be "
+                    + "lost with the temporary log on restart");
+        }
+        this.temporaryDirectory = directory.isBlank();
+        this.directory = temporaryDirectory
+                ? Files.createTempDirectory("ingest-log")
+                : Files.createDirectories(Path.of(directory));
+        this.segmentSize = segmentSize.toBytes();
+        this.fsync = fsync;
+        this.id = readOrCreateId();
+        this.segments = openSegments();
+
+        this.appendTimer = Timer.builder("movies.ingest.append")
+                .description("Time to append an accepted request to the ingest log, fsync included")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("movies.ingest.segments", this, IngestLog::segmentCount).register(meterRegistry);
+
+        log.info("Ingest log opened in {} ({} segments, offsets {}..{})", this.directory, segments.size(),
+                startOffset(), endOffset());
+    }
+
+    /**
+     * Appends a record and returns its offset.
+     */
+    public synchronized long append(byte[] payload) {
+        if (closed) {
+            throw new IllegalStateException("Ingest log is closed");
+        }
+        long started = System.nanoTime();
+        IngestSegment active = activeSegment();
+        long offset = active.endOffset();
+        try {
+            active.append(payload, fsync);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        appendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        notifyAll();
+        return offset;
+    }
+
+    /**
+     * Up to {@code maxRecords} records starting at offset {@code from}, oldest first.
+     */
+    public List<Entry> read(long from, int maxRecords) {
+        List<Entry> entries = new ArrayList<>();
+        long offset = from;
+        try {
+            for (IngestSegment segment : segments) {
+                // a segment left short by a crash is followed by a gap up to the next one
+                offset = Math.max(offset, segment.baseOffset());
+                while (offset < segment.endOffset() && entries.size() < maxRecords) {
+                    byte[] payload = segment.read(offset - segment.baseOffset());
+                    long next = offset + IngestSegment.HEADER_SIZE + payload.length;
+                    entries.add(new Entry(offset, next, payload));
+                    offset = next;
+                }
+                if (entries.size() == maxRecords) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+
+    /**
+     * Waits until a record is appended at or after {@code from}, at most {@code timeout}.
+     */
+    public synchronized void awaitAppend(long from, Duration timeout) throws InterruptedException {
+        if (!closed && endOffset() <= from) {
+            wait(Math.max(1, timeout.toMillis()));
+        }
+    }
+
+    /**
+     * Deletes the sealed segments that lie wholly below {@code offset}. Must not run while the same
+     * segments are being read.
+     */
+    public synchronized void truncateBefore(long offset) {
+        List<IngestSegment> current = segments;
+        List<IngestSegment> kept = new ArrayList<>();
+        for (int i = 0; i < current.size(); i++) {
+            IngestSegment segment = current.get(i);
+            boolean sealed = i < current.size() - 1;
+            if (sealed && segment.endOffset() <= offset) {
+                closeQuietly(segment);
+                deleteQuietly(segment.path());
+            } else {
+                kept.add(segment);
+            }
+        }
+        if (kept.size() < current.size()) {
+            segments = List.copyOf(kept);
+        }
+    }
+
+    /**
+     * Lets the first segment of an empty log start at {@code offset}, so that offsets keep growing
+     * when the log directory was emptied but the database remembers a drained offset.
+     */
+    public synchronized void startAt(long offset) {
+        if (segments.isEmpty()) {
+            nextBaseOffset = Math.max(nextBaseOffset, offset);
+        }
+    }
+
+    public long startOffset() {
+        List<IngestSegment> current = segments;
+        return current.isEmpty() ? nextBaseOffset : current.get(0).baseOffset();
+    }
+
+    public long endOffset() {
+        List<IngestSegment> current = segments;
+        return current.isEmpty() ? nextBaseOffset : current.get(current.size() - 1).endOffset();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Identifies this log (and so the node writing it) for as long as its directory is kept.
+     */
+    public String id() {
+        return id;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+        for (IngestSegment segment : segments) {
+            closeQuietly(segment);
+        }
+        if (temporaryDirectory) {
+            for (IngestSegment segment : segments) {
+                deleteQuietly(segment.path());
+            }
+            deleteQuietly(directory.resolve(ID_FILE));
+            deleteQuietly(directory);
+        }
+    }
+
+    private IngestSegment activeSegment() {
+        List<IngestSegment> current = segments;
+        IngestSegment last = current.isEmpty() ? null : current.get(current.size() - 1);
+        if (last != null && last.size() < segmentSize) {
+            return last;
+        }
+        try {
+            long baseOffset = nextBaseOffset;
+            if (last != null) {
+                last.force();
+                baseOffset = last.endOffset();
+            }
+            IngestSegment next = IngestSegment.create(baseOffset, directory.resolve(segmentFileName(baseOffset)));
+            List<IngestSegment> rolled = new ArrayList<>(current);
+            rolled.add(next);
+            segments = List.copyOf(rolled);
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String readOrCreateId() throws IOException {
+        Path file = directory.resolve(ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file).trim();
+        }
+        String created = UUID.randomUUID().toString();
+        Files.writeString(file, created);
+        return created;
+    }
+
+    private List<IngestSegment> openSegments() throws IOException {
+        List<IngestSegment> opened = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                opened.add(IngestSegment.open(baseOffset, file));
+            }
+        }
+        opened.sort(Comparator.comparingLong(IngestSegment::baseOffset));
+        return List.copyOf(opened);
+    }
+
+    private static String segmentFileName(long baseOffset) {
+        return String.format("%019d%s", baseOffset, SEGMENT_SUFFIX);
+    }
+
+    private static void closeQuietly(IngestSegment segment) {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.debug("Could not close {}: {}", segment.path(), e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.ingest;
+
+import com.example.demo.models.dtos.MovieRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Payload of one ingest log record: an accepted request and the ticket it is tracked by.
+ */
+record IngestRequest(String ticketId, String requestedBy, LocalDateTime acceptedAt, List<MovieRequest> movies) {
+}
@@ -0,0 +1,154 @@
+package com.example.demo.ingest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the {@link IngestLog}: variable-length records appended through a file channel.
+ * <p>
+ * Record layout: payload length (int), CRC32 of the payload (int), payload. The segment is named after
+ * the log offset of its first byte, so a log offset maps to a segment and a position within it. When a
+ * segment is reopened, records are kept up to the first one that is cut short or fails its checksum (a
+ * write torn by a crash), and the file is truncated there.
+ * <p>
+ * One writer appends under the log's lock; readers run concurrently and only look at bytes below the
+ * volatile {@code size}, which is published after each record is complete.
+ */
+final class IngestSegment {
+
+    static final int HEADER_SIZE = 8;
+
+    private final long baseOffset;
+    private final Path path;
+    private final FileChannel channel;
+    private volatile long size;
+
+    private IngestSegment(long baseOffset, Path path, FileChannel channel, long size) {
+        this.baseOffset = baseOffset;
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    /**
+     * Creates a new, empty segment file starting at log offset {@code baseOffset}.
+     */
+    static IngestSegment create(long baseOffset, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new IngestSegment(baseOffset, path, channel, 0);
+    }
+
+    /**
+     * Opens an existing segment file and drops a torn record at its end.
+     */
+    static IngestSegment open(long baseOffset, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long fileSize = channel.size();
+        long recovered = 0;
+        while (true) {
+            long next = validRecordEnd(channel, recovered, fileSize);
+            if (next < 0) {
+                break;
+            }
+            recovered = next;
+        }
+        if (recovered < fileSize) {
+            channel.truncate(recovered);
+            channel.force(true);
+        }
+        return new IngestSegment(baseOffset, path, channel, recovered);
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long endOffset() {
+        return baseOffset + size;
+    }
+
+    void append(byte[] payload, boolean force) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        record.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        long position = size;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        if (force) {
+            channel.force(false);
+        }
+        size = position;
+    }
+
+    /**
+     * Payload of the record at {@code position}, which must be the start of a record below {@link #size()}.
+     */
+    byte[] read(long position) throws IOException {
+        ByteBuffer header = readFully(channel, position, HEADER_SIZE);
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length < 0 || position + HEADER_SIZE + length > size) {
+            throw new IOException("Corrupt ingest record at " + (baseOffset + position) + " in " + path);
+        }
+        byte[] payload = readFully(channel, position + HEADER_SIZE, length).array();
+        if (checksum(payload) != checksum) {
+            throw new IOException("Checksum mismatch of ingest record at " + (baseOffset + position) + " in " + path);
+        }
+        return payload;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * End of the record at {@code position} if it is complete and intact, -1 otherwise.
+     */
+    private static long validRecordEnd(FileChannel channel, long position, long fileSize) throws IOException {
+        if (position + HEADER_SIZE > fileSize) {
+            return -1;
+        }
+        ByteBuffer header = readFully(channel, position, HEADER_SIZE);
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length < 0 || position + HEADER_SIZE + length > fileSize) {
+            return -1;
+        }
+        byte[] payload = readFully(channel, position + HEADER_SIZE, length).array();
+        return checksum(payload) == checksum ? position + HEADER_SIZE + length : -1;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of ingest segment at " + position);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
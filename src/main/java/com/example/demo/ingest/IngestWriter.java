@@ -0,0 +1,336 @@
+package com.example.demo.ingest;
+
+import com.example.demo.exceptions.ConstraintViolations;
+import com.example.demo.models.IngestState;
+import com.example.demo.models.IngestTicket;
+import com.example.demo.models.dtos.MovieRequest;
+import com.example.demo.repositories.IngestStateRepository;
+import com.example.demo.repositories.IngestTicketRepository;
+import com.example.demo.search.TitleNormalizer;
+import com.example.demo.services.MovieService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer that drains the {@link IngestLog} into the database.
+ * <p>
+ * One thread reads records in log order and writes about {@code batch-size} movies per transaction,
+ * so the commit cost is shared by the whole batch instead of paid per movie. The same transaction
+ * stores the tickets' outcomes and the offset drained so far ({@link IngestState}, one row per node's
+ * log); after a restart the writer resumes at that offset, so every record is written exactly once. Movies that are already
+ * stored, or appear twice in one batch, count as duplicates.
+ * <p>
+ * If the batch transaction fails (typically a concurrent create of the same movie hitting the unique
+ * key), its movies are written again one transaction each. A movie that still fails is tried again after
+ * a growing delay and, after {@code max-attempts} tries, counted as failed on its ticket, while the rest
+ * of the batch is written on; so a bad record cannot block the log, and every movie's outcome is known.
+ * If the batch still cannot be completed, the writer retries it later, and the movies it already
+ * committed keep counting as created rather than as duplicates. Metrics: {@code movies.ingest.batch} (timer)
+ * and {@code movies.ingest.batch-size} (movies).
+ */
+@Component
+@Slf4j
+public class IngestWriter {
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final IngestLog ingestLog;
+    private final MovieIngest movieIngest;
+    private final MovieService movieService;
+    private final IngestStateRepository stateRepository;
+    private final IngestTicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSizes;
+    private final ExecutorService executor;
+    // dedup keys committed by a one-by-one pass over the batch at nextOffset that did not complete
+    private final Set<String> createdByFailedPass = new HashSet<>();
+    private volatile boolean running;
+    private long nextOffset;
+    private int attempts;
+
+    public IngestWriter(IngestLog ingestLog,
+                        MovieIngest movieIngest,
+                        MovieService movieService,
+                        IngestStateRepository stateRepository,
+                        IngestTicketRepository ticketRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${movies.ingest.batch-size:500}") int batchSize,
+                        @Value("${movies.ingest.poll-interval:PT1S}") Duration pollInterval,
+                        @Value("${movies.ingest.retry-delay:PT1S}") Duration retryDelay,
+                        @Value("${movies.ingest.max-attempts:5}") int maxAttempts) {
+        this.ingestLog = ingestLog;
+        this.movieIngest = movieIngest;
+        this.movieService = movieService;
+        this.stateRepository = stateRepository;
+        this.ticketRepository = ticketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.batchTimer = Timer.builder("movies.ingest.batch")
+                .description("Time to write one batch of ingested movies")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("movies.ingest.batch-size")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+        this.executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("ingest-writer-"));
+    }
+
+    /**
+     * Resumes at the drained offset, re-tracks the requests still in the log and starts draining.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long drained = stateRepository.findById(ingestLog.id()).map(IngestState::getDrainedOffset).orElse(0L);
+        ingestLog.startAt(drained);
+        if (drained > ingestLog.endOffset()) {
+            log.warn("Ingest log ends at {} but offset {} was drained; the log does not belong to this database",
+                    ingestLog.endOffset(), drained);
+        }
+        nextOffset = Math.max(drained, ingestLog.startOffset());
+
+        int requeued = 0;
+        long offset = nextOffset;
+        for (List<IngestLog.Entry> entries = ingestLog.read(offset, 1000); !entries.isEmpty();
+             entries = ingestLog.read(offset, 1000)) {
+            for (IngestLog.Entry entry : entries) {
+                IngestRequest request = decode(entry);
+                if (request != null) {
+                    movieIngest.requeue(request);
+                    requeued++;
+                }
+                offset = entry.nextOffset();
+            }
+        }
+        movieIngest.drainedTo(nextOffset);
+        if (requeued > 0) {
+            log.info("Resuming ingest at offset {} with {} queued requests", nextOffset, requeued);
+        }
+        running = true;
+        executor.execute(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        // the batch in progress is finished; the rest stays in the log for the next start
+        if (!executor.awaitTermination(pollInterval.toMillis() + 10_000, TimeUnit.MILLISECONDS)) {
+            log.warn("Ingest writer did not stop in time");
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<IngestLog.Entry> entries = ingestLog.read(nextOffset, batchSize);
+                if (entries.isEmpty()) {
+                    ingestLog.awaitAppend(nextOffset, pollInterval);
+                    continue;
+                }
+                drain(entries);
+                attempts = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                attempts++;
+                log.warn("Ingest batch at offset {} failed (attempt {} of {}): {}", nextOffset, attempts,
+                        maxAttempts, e.getMessage());
+                if (!sleep(retryDelay.multipliedBy(attempts))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the leading records of {@code entries} that make up about {@code batch-size} movies.
+     */
+    private void drain(List<IngestLog.Entry> entries) {
+        List<IngestRequest> requests = new ArrayList<>();
+        int movies = 0;
+        long endOffset = nextOffset;
+        for (IngestLog.Entry entry : entries) {
+            if (movies >= batchSize) {
+                break;
+            }
+            IngestRequest request = decode(entry);
+            if (request != null) {
+                requests.add(request);
+                movies += request.movies().size();
+            }
+            endOffset = entry.nextOffset();
+        }
+
+        long started = System.nanoTime();
+        long drainedOffset = endOffset;
+        List<IngestTicket> tickets;
+        try {
+            tickets = transactionTemplate.execute(status -> writeBatch(requests, drainedOffset));
+        } catch (RuntimeException e) {
+            log.info("Ingest batch of {} movies rolled back ({}), writing them one by one", movies, e.getMessage());
+            tickets = writeOneByOne(requests, drainedOffset);
+        }
+        batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        batchSizes.record(movies);
+
+        nextOffset = drainedOffset;
+        createdByFailedPass.clear();
+        movieIngest.completed(tickets, drainedOffset);
+        ingestLog.truncateBefore(drainedOffset);
+    }
+
+    private List<IngestTicket> writeBatch(List<IngestRequest> requests, long drainedOffset) {
+        Set<String> batchKeys = new HashSet<>();
+        List<IngestTicket> tickets = new ArrayList<>();
+        for (IngestRequest request : requests) {
+            IngestTicket ticket = ticketFor(request);
+            for (MovieRequest movie : request.movies()) {
+                String key = dedupKey(movie);
+                if (batchKeys.add(key)
+                        && (createdByFailedPass.contains(key) || movieService.createIngestedMovie(movie))) {
+                    ticket.setCreated(ticket.getCreated() + 1);
+                } else {
+                    ticket.setDuplicates(ticket.getDuplicates() + 1);
+                }
+            }
+            tickets.add(ticket);
+        }
+        return complete(tickets, drainedOffset);
+    }
+
+    /**
+     * Fallback for a failed batch, one transaction per movie. A failing movie is retried on its own and
+     * then counted as failed; it does not stop the pass.
+     */
+    private List<IngestTicket> writeOneByOne(List<IngestRequest> requests, long drainedOffset) {
+        Set<String> batchKeys = new HashSet<>();
+        List<IngestTicket> tickets = new ArrayList<>();
+        for (IngestRequest request : requests) {
+            IngestTicket ticket = ticketFor(request);
+            for (MovieRequest movie : request.movies()) {
+                String key = dedupKey(movie);
+                if (!batchKeys.add(key)) {
+                    ticket.setDuplicates(ticket.getDuplicates() + 1);
+                    continue;
+                }
+                switch (writeOne(movie, key, request.ticketId())) {
+                    case CREATED -> ticket.setCreated(ticket.getCreated() + 1);
+                    case DUPLICATE -> ticket.setDuplicates(ticket.getDuplicates() + 1);
+                    case FAILED -> ticket.setFailed(ticket.getFailed() + 1);
+                }
+            }
+            tickets.add(ticket);
+        }
+        return transactionTemplate.execute(status -> complete(tickets, drainedOffset));
+    }
+
+    private enum Outcome {
+        CREATED, DUPLICATE, FAILED
+    }
+
+    private Outcome writeOne(MovieRequest movie, String key, String ticketId) {
+        if (createdByFailedPass.contains(key)) {
+            return Outcome.CREATED;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(
+                        status -> movieService.createIngestedMovie(movie)))) {
+                    createdByFailedPass.add(key);
+                    return Outcome.CREATED;
+                }
+                return Outcome.DUPLICATE;
+            } catch (RuntimeException e) {
+                if (e instanceof DataIntegrityViolationException violation
+                        && ConstraintViolations.isDuplicateMovie(violation)) {
+                    // created concurrently through the regular endpoint
+                    return Outcome.DUPLICATE;
+                }
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up on ingested movie '{}' of ticket {} after {} attempts: {}",
+                            movie.getTitle(), ticketId, attempt, e.getMessage());
+                    return Outcome.FAILED;
+                }
+                if (!sleep(retryDelay.multipliedBy(attempt))) {
+                    // stopping: the batch is written again on the next start
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private List<IngestTicket> complete(List<IngestTicket> tickets, long drainedOffset) {
+        LocalDateTime now = LocalDateTime.now();
+        tickets.forEach(ticket -> ticket.setCompletedAt(now));
+        ticketRepository.saveAll(tickets);
+        stateRepository.save(new IngestState(ingestLog.id(), drainedOffset));
+        return tickets;
+    }
+
+    /**
+     * The record's request, or null for a record that cannot be read (logged and skipped).
+     */
+    private IngestRequest decode(IngestLog.Entry entry) {
+        try {
+            return movieIngest.decode(entry.payload());
+        } catch (IOException e) {
+            log.error("Skipping unreadable ingest record at offset {}: {}", entry.offset(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static IngestTicket ticketFor(IngestRequest request) {
+        return IngestTicket.builder()
+                .id(request.ticketId())
+                .movies(request.movies().size())
+                .requestedBy(request.requestedBy())
+                .acceptedAt(request.acceptedAt())
+                .build();
+    }
+
+    private static String dedupKey(MovieRequest movie) {
+        return TitleNormalizer.dedupKey(movie.getTitle(), movie.getReleaseYear(), movie.getDirector());
+    }
+
+    private boolean sleep(Duration delay) {
+        try {
+            Thread.sleep(Math.min(delay.toMillis(), MAX_RETRY_DELAY.toMillis()));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.demo.ingest;
+
+import com.example.demo.exceptions.IngestBacklogFullException;
+import com.example.demo.models.IngestTicket;
+import com.example.demo.models.dtos.IngestStatus;
+import com.example.demo.models.dtos.MovieRequest;
+import com.example.demo.ratelimit.UserRateLimits;
+import com.example.demo.repositories.IngestTicketRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepting side of the bulk ingest behind {@code POST /api/movies/ingest}.
+ * <p>
+ * An accepted request is appended to the {@link IngestLog} and answered right away with a QUEUED ticket;
+ * the {@link IngestWriter} writes its movies later. So the request costs one log append, not a database
+ * transaction per movie. Every movie is charged to the user's enrichment budget when the request is
+ * accepted, since the writer has no user to charge; the charge is given back if the append fails, and for
+ * the movies that turn out to be duplicates or fail once the ticket completes. When more than
+ * {@code max-backlog} bytes of the log are still unwritten, requests are turned away until the writer
+ * catches up.
+ * <p>
+ * Queued tickets are kept in memory and rebuilt from the log on startup; completed tickets are read from
+ * the database. Metrics: {@code movies.ingest.accepted} (movies), {@code movies.ingest.rejected},
+ * {@code movies.ingest.backlog} (bytes) and {@code movies.ingest.queued-tickets}.
+ */
+@Component
+@Slf4j
+public class MovieIngest {
+
+    private final IngestLog ingestLog;
+    private final IngestTicketRepository ticketRepository;
+    private final UserRateLimits userRateLimits;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final long maxBacklogBytes;
+    private final Duration retryAfter;
+    private final Map<String, IngestStatus> queued = new ConcurrentHashMap<>();
+    // ticket id to the user charged for it, by this process (requests requeued after a restart are not)
+    private final Map<String, String> charged = new ConcurrentHashMap<>();
+    private final Counter acceptedMovies;
+    private final Counter rejected;
+    private volatile long drainedOffset;
+
+    public MovieIngest(IngestLog ingestLog,
+                       IngestTicketRepository ticketRepository,
+                       UserRateLimits userRateLimits,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${movies.ingest.max-backlog:64MB}") DataSize maxBacklog,
+                       @Value("${movies.ingest.retry-after:PT5S}") Duration retryAfter) {
+        this.ingestLog = ingestLog;
+        this.ticketRepository = ticketRepository;
+        this.userRateLimits = userRateLimits;
+        this.writer = objectMapper.writerFor(IngestRequest.class);
+        this.reader = objectMapper.readerFor(IngestRequest.class);
+        this.maxBacklogBytes = maxBacklog.toBytes();
+        this.retryAfter = retryAfter;
+        this.drainedOffset = ingestLog.startOffset();
+        this.acceptedMovies = Counter.builder("movies.ingest.accepted")
+                .description("Movies accepted into the ingest log")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("movies.ingest.rejected")
+                .description("Ingest requests turned away because the backlog was full")
+                .register(meterRegistry);
+        Gauge.builder("movies.ingest.backlog", this, MovieIngest::backlogBytes)
+                .description("Bytes of the ingest log not yet written to the database")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("movies.ingest.queued-tickets", queued, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Logs the movies for the writer and returns their QUEUED ticket.
+     *
+     * @throws IngestBacklogFullException when the writer is too far behind
+     * @throws com.example.demo.exceptions.RateLimitExceededException when the user's enrichment
+     *                                                                budget cannot cover the movies
+     */
+    public IngestStatus accept(List<MovieRequest> movies) {
+        long backlog = backlogBytes();
+        if (backlog > maxBacklogBytes) {
+            rejected.increment();
+            throw new IngestBacklogFullException("Ingest backlog is full (" + backlog + " bytes waiting)",
+                    Math.max(1, retryAfter.toSeconds()));
+        }
+        IngestRequest request = new IngestRequest(UUID.randomUUID().toString(), currentUser(),
+                LocalDateTime.now(), List.copyOf(movies));
+        byte[] payload;
+        try {
+            payload = writer.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        // charged before the append so that an over-budget request is never logged
+        userRateLimits.chargeEnrichment(movies.size());
+        // registered first: the writer may complete the ticket as soon as it is in the log
+        IngestStatus status = queuedStatus(request);
+        queued.put(request.ticketId(), status);
+        if (request.requestedBy() != null) {
+            charged.put(request.ticketId(), request.requestedBy());
+        }
+        try {
+            ingestLog.append(payload);
+        } catch (RuntimeException e) {
+            queued.remove(request.ticketId());
+            charged.remove(request.ticketId());
+            userRateLimits.refundEnrichment(request.requestedBy(), movies.size());
+            throw e;
+        }
+        acceptedMovies.increment(movies.size());
+        return status;
+    }
+
+    public Optional<IngestStatus> status(String ticketId) {
+        IngestStatus status = queued.get(ticketId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        return ticketRepository.findById(ticketId).map(IngestStatus::fromEntity);
+    }
+
+    public long backlogBytes() {
+        return Math.max(0, ingestLog.endOffset() - drainedOffset);
+    }
+
+    IngestRequest decode(byte[] payload) throws IOException {
+        return reader.readValue(payload);
+    }
+
+    /**
+     * Tracks a request found in the log on startup, accepted before the restart.
+     */
+    void requeue(IngestRequest request) {
+        queued.put(request.ticketId(), queuedStatus(request));
+    }
+
+    /**
+     * Called by the writer once the tickets are committed together with their movies. Duplicates and
+     * failed movies trigger no enrichment, so their charge is given back.
+     */
+    void completed(List<IngestTicket> tickets, long drainedOffset) {
+        for (IngestTicket ticket : tickets) {
+            queued.remove(ticket.getId());
+            String user = charged.remove(ticket.getId());
+            if (user != null) {
+                userRateLimits.refundEnrichment(user, ticket.getDuplicates() + ticket.getFailed());
+            }
+        }
+        this.drainedOffset = drainedOffset;
+    }
+
+    void drainedTo(long drainedOffset) {
+        this.drainedOffset = drainedOffset;
+    }
+
+    private static IngestStatus queuedStatus(IngestRequest request) {
+        return IngestStatus.builder()
+                .ticketId(request.ticketId())
+                .state(IngestStatus.State.QUEUED)
+                .movies(request.movies().size())
+                .requestedBy(request.requestedBy())
+                .acceptedAt(request.acceptedAt())
+                .build();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? null
+                : authentication.getName();
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.demo.leaderboard;
+
+import com.example.demo.cache.MovieCache;
+import com.example.demo.cache.SharedCacheTier;
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.models.dtos.MovieRow;
+import com.example.demo.models.dtos.TopRatedMovie;
+import com.example.demo.repositories.MovieRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Materialized top-rated leaderboards: overall, per release year and per director.
+ * <p>
+ * Every rated movie sits in its boards' sorted sets (best rating first, ties by id). Each board also
+ * publishes its first {@code movies.leaderboard.size} movies as an immutable ranked list. A write
+ * rebuilds that list only when it enters or leaves it, and a read returns it (or a prefix of it)
+ * without sorting or locking. Loaded on startup and kept current by {@link MovieChangedEvent}s after
+ * commit. Those events cover every rating write, from enrichment and from {@code updateMovieRating}
+ * alike.
+ * <p>
+ * The boards are per node. With a shared cache tier, a write on another node reaches this one as an
+ * invalidation of the movie cache; the invalidated ids are collected and, every
+ * {@code remote-refresh-interval}, their current rows are read back in one query and applied like local
+ * events. Invalidations are best effort, so a board can miss a write made elsewhere until that movie
+ * changes again or the node restarts.
+ */
+@Component
+@Slf4j
+public class TopRatedLeaderboards {
+
+    private static final int LOAD_BATCH_SIZE = 5_000;
+    private static final Comparator<Ranked> BEST_FIRST = Comparator.comparingDouble(Ranked::rating).reversed()
+            .thenComparingLong(Ranked::movieId);
+
+    private record Ranked(long movieId, String title, String director, Integer releaseYear, double rating) {
+    }
+
+    private final MovieRepository movieRepository;
+    private final int size;
+    private final Map<Long, Ranked> rankedById = new HashMap<>();
+    private final Board overall = new Board();
+    private final Map<Integer, Board> byYear = new ConcurrentHashMap<>();
+    private final Map<String, Board> byDirector = new ConcurrentHashMap<>();
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+    private final Set<Long> changedRemotely = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changedWhileRefreshing = new HashSet<>();
+    private boolean loading;
+    private boolean refreshing;
+
+    public TopRatedLeaderboards(MovieRepository movieRepository,
+                                ObjectProvider<SharedCacheTier> sharedCacheTier,
+                                MeterRegistry meterRegistry,
+                                @Value("${movies.leaderboard.size:100}") int size) {
+        this.movieRepository = movieRepository;
+        this.size = size;
+        Gauge.builder("movies.leaderboard.movies", this, TopRatedLeaderboards::ratedMovies)
+                .description("Rated movies on the leaderboards")
+                .register(meterRegistry);
+        SharedCacheTier shared = sharedCacheTier.getIfAvailable();
+        if (shared != null) {
+            // runs on the tier's event thread: only note the id, the rows are read by applyRemoteChanges
+            shared.onRemoteInvalidation((cache, key) -> {
+                if (cache.equals(MovieCache.NAME)) {
+                    changedRemotely.add(Long.valueOf(key));
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            loading = true;
+        }
+        try {
+            long afterId = 0;
+            List<MovieRow> batch;
+            do {
+                batch = movieRepository.findRatedRowsAfter(afterId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+                synchronized (this) {
+                    for (MovieRow row : batch) {
+                        // a write that committed meanwhile already left the current state
+                        if (!changedWhileLoading.contains(row.id()) && !rankedById.containsKey(row.id())) {
+                            put(new Ranked(row.id(), row.title(), row.director(), row.releaseYear(), row.rating()));
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+        } finally {
+            synchronized (this) {
+                loading = false;
+                changedWhileLoading.clear();
+            }
+        }
+        log.info("Top-rated leaderboards loaded {} rated movies", ratedMovies());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        if (refreshing) {
+            changedWhileRefreshing.add(event.movieId());
+        }
+        apply(event.movieId(), event.changeType() == MovieChangedEvent.ChangeType.DELETED || event.rating() == null
+                ? null
+                : new Ranked(event.movieId(), event.title(), event.director(), event.releaseYear(), event.rating()));
+    }
+
+    /**
+     * Brings the movies written on other nodes up to their committed state.
+     */
+    @Scheduled(fixedDelayString = "${movies.leaderboard.remote-refresh-interval:PT1S}")
+    public void applyRemoteChanges() {
+        if (changedRemotely.isEmpty()) {
+            return;
+        }
+        List<Long> movieIds = new ArrayList<>(changedRemotely);
+        changedRemotely.removeAll(movieIds);
+        synchronized (this) {
+            refreshing = true;
+        }
+        try {
+            Map<Long, MovieRow> rows = new HashMap<>();
+            for (MovieRow row : movieRepository.findRowsByIdIn(movieIds)) {
+                rows.put(row.id(), row);
+            }
+            synchronized (this) {
+                for (Long movieId : movieIds) {
+                    // a local event that committed meanwhile is newer than the row read
+                    if (changedWhileRefreshing.contains(movieId)) {
+                        continue;
+                    }
+                    MovieRow row = rows.get(movieId);
+                    apply(movieId, row == null || row.rating() == null
+                            ? null
+                            : new Ranked(row.id(), row.title(), row.director(), row.releaseYear(), row.rating()));
+                }
+            }
+        } catch (DataAccessException e) {
+            // tried again on the next run
+            changedRemotely.addAll(movieIds);
+            log.warn("Could not update the leaderboards after remote writes: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                refreshing = false;
+                changedWhileRefreshing.clear();
+            }
+        }
+    }
+
+    private void apply(long movieId, Ranked next) {
+        if (loading) {
+            changedWhileLoading.add(movieId);
+        }
+        Ranked current = rankedById.get(movieId);
+        if (Objects.equals(current, next)) {
+            return;
+        }
+        if (current != null) {
+            remove(current);
+        }
+        if (next != null) {
+            put(next);
+        }
+    }
+
+    /**
+     * Best rated movies overall, at most {@code limit}.
+     */
+    public List<TopRatedMovie> top(int limit) {
+        return overall.top(limit);
+    }
+
+    public List<TopRatedMovie> topOfYear(int releaseYear, int limit) {
+        Board board = byYear.get(releaseYear);
+        return board == null ? List.of() : board.top(limit);
+    }
+
+    /**
+     * Best rated movies of a director; the name is matched ignoring case and surrounding blanks.
+     */
+    public List<TopRatedMovie> topOfDirector(String director, int limit) {
+        Board board = byDirector.get(directorKey(director));
+        return board == null ? List.of() : board.top(limit);
+    }
+
+    public synchronized int ratedMovies() {
+        return rankedById.size();
+    }
+
+    private void put(Ranked movie) {
+        rankedById.put(movie.movieId(), movie);
+        overall.add(movie);
+        if (movie.releaseYear() != null) {
+            byYear.computeIfAbsent(movie.releaseYear(), year -> new Board()).add(movie);
+        }
+        if (movie.director() != null && !movie.director().isBlank()) {
+            byDirector.computeIfAbsent(directorKey(movie.director()), key -> new Board()).add(movie);
+        }
+    }
+
+    private void remove(Ranked movie) {
+        rankedById.remove(movie.movieId());
+        overall.remove(movie);
+        if (movie.releaseYear() != null) {
+            removeFrom(byYear, movie.releaseYear(), movie);
+        }
+        if (movie.director() != null && !movie.director().isBlank()) {
+            removeFrom(byDirector, directorKey(movie.director()), movie);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Board> boards, K key, Ranked movie) {
+        Board board = boards.get(key);
+        if (board != null && board.remove(movie) && board.isEmpty()) {
+            boards.remove(key);
+        }
+    }
+
+    private static String directorKey(String director) {
+        return director.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One leaderboard. Mutated only under the outer lock; {@link #top(int)} is read without it.
+     */
+    private final class Board {
+
+        private final NavigableSet<Ranked> ranked = new TreeSet<>(BEST_FIRST);
+        private volatile List<TopRatedMovie> top = List.of();
+        private Ranked lastOfTop;
+
+        List<TopRatedMovie> top(int limit) {
+            List<TopRatedMovie> current = top;
+            return current.size() <= limit ? current : current.subList(0, limit);
+        }
+
+        void add(Ranked movie) {
+            if (ranked.add(movie) && isInTop(movie)) {
+                publishTop();
+            }
+        }
+
+        boolean remove(Ranked movie) {
+            boolean wasInTop = isInTop(movie);
+            boolean removed = ranked.remove(movie);
+            if (removed && wasInTop) {
+                publishTop();
+            }
+            return removed;
+        }
+
+        boolean isEmpty() {
+            return ranked.isEmpty();
+        }
+
+        private boolean isInTop(Ranked movie) {
+            return lastOfTop == null || top.size() < size || BEST_FIRST.compare(movie, lastOfTop) <= 0;
+        }
+
+        private void publishTop() {
+            List<TopRatedMovie> rebuilt = new ArrayList<>(Math.min(size, ranked.size()));
+            Ranked last = null;
+            Iterator<Ranked> iterator = ranked.iterator();
+            while (rebuilt.size() < size && iterator.hasNext()) {
+                last = iterator.next();
+                rebuilt.add(TopRatedMovie.builder()
+                        .rank(rebuilt.size() + 1)
+                        .id(last.movieId())
+                        .title(last.title())
+                        .director(last.director())
+                        .releaseYear(last.releaseYear())
+                        .rating(last.rating())
+                        .build());
+            }
+            lastOfTop = last;
+            top = List.copyOf(rebuilt);
+        }
+    }
+}
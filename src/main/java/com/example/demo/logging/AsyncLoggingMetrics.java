@@ -0,0 +1,33 @@
+package com.example.demo.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the counters of the asynchronous logging pipeline and of sampled loggers.
+ */
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("logging.async.appended", MeteredAsyncAppender.class,
+                        appender -> MeteredAsyncAppender.appendedCount())
+                .description("Log events accepted by the async appender")
+                .register(registry);
+        FunctionCounter.builder("logging.async.dropped", MeteredAsyncAppender.class,
+                        appender -> MeteredAsyncAppender.droppedCount())
+                .description("Log events dropped because the async queue was full or above the discarding threshold")
+                .register(registry);
+        Gauge.builder("logging.async.queue.size", MeteredAsyncAppender::queuedCount)
+                .description("Log events waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("logging.sampled.suppressed", SampledLogger.class,
+                        sampler -> SampledLogger.totalSuppressed())
+                .description("Per-request log lines suppressed by sampling")
+                .register(registry);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback {@link AsyncAppender} that counts the events it drops.
+ * <p>
+ * Configured with {@code neverBlock=true} in {@code logback-spring.xml}: a full queue drops the
+ * event instead of blocking the calling request thread, and once the queue is above the
+ * discarding threshold TRACE/DEBUG/INFO events are discarded to keep room for WARN/ERROR.
+ * The counts are approximate (the queue can drain between the check and the offer) and are
+ * published as metrics by {@link AsyncLoggingMetrics}.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder APPENDED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private static volatile MeteredAsyncAppender current;
+
+    @Override
+    public void start() {
+        super.start();
+        current = this;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 || (remaining < getDiscardingThreshold() && isDiscardable(event))) {
+            DROPPED.increment();
+        } else {
+            APPENDED.increment();
+        }
+        super.append(event);
+    }
+
+    public static long appendedCount() {
+        return APPENDED.sum();
+    }
+
+    public static long droppedCount() {
+        return DROPPED.sum();
+    }
+
+    public static int queuedCount() {
+        MeteredAsyncAppender appender = current;
+        return appender == null || !appender.isStarted() ? 0 : appender.getNumberOfElementsInQueue();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-limited logger for messages emitted once per request or per enrichment.
+ * <p>
+ * Each call site (identified by its format string) may write at most {@code permitsPerSecond}
+ * messages per one-second window, so a burst of one routine line cannot crowd out the rarer
+ * lines of the same class. The rest are counted and reported as a single summary line per call
+ * site when its next window opens. Checks are lock-free, so a hot path pays a map lookup and one
+ * atomic increment per call instead of a console write. Format strings must be constants: the
+ * windows are kept for the lifetime of the logger. Use it for routine progress messages only:
+ * failures go to the plain logger, so that one error is never dropped behind a burst of routine lines.
+ */
+public final class SampledLogger {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final LongAdder TOTAL_SUPPRESSED = new LongAdder();
+
+    /**
+     * Token bucket of one call site, refilled once per window.
+     */
+    private static final class Window {
+
+        private final AtomicLong start = new AtomicLong(System.nanoTime());
+        private final AtomicInteger used = new AtomicInteger();
+        private final LongAdder suppressed = new LongAdder();
+    }
+
+    private final Logger log;
+    private final int permitsPerSecond;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private SampledLogger(Logger log, int permitsPerSecond) {
+        this.log = log;
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public static SampledLogger of(Class<?> type, int permitsPerSecond) {
+        return new SampledLogger(LoggerFactory.getLogger(type), permitsPerSecond);
+    }
+
+    public static long totalSuppressed() {
+        return TOTAL_SUPPRESSED.sum();
+    }
+
+    public void debug(String format, Object... arguments) {
+        if (log.isDebugEnabled() && tryAcquire(format)) {
+            log.debug(format, arguments);
+        }
+    }
+
+    public void info(String format, Object... arguments) {
+        if (log.isInfoEnabled() && tryAcquire(format)) {
+            log.info(format, arguments);
+        }
+    }
+
+    public void warn(String format, Object... arguments) {
+        if (log.isWarnEnabled() && tryAcquire(format)) {
+            log.warn(format, arguments);
+        }
+    }
+
+    public void error(String format, Object... arguments) {
+        if (log.isErrorEnabled() && tryAcquire(format)) {
+            log.error(format, arguments);
+        }
+    }
+
+    private boolean tryAcquire(String format) {
+        Window window = windows.computeIfAbsent(format, key -> new Window());
+        long now = System.nanoTime();
+        long start = window.start.get();
+        if (now - start >= WINDOW_NANOS && window.start.compareAndSet(start, now)) {
+            window.used.set(0);
+            long dropped = window.suppressed.sumThenReset();
+            if (dropped > 0) {
+                log.info("Sampled logging suppressed {} messages \"{}\" in the last {} ms",
+                        dropped, format, TimeUnit.NANOSECONDS.toMillis(now - start));
+            }
+        }
+
+        if (window.used.incrementAndGet() <= permitsPerSecond) {
+            return true;
+        }
+        window.suppressed.increment();
+        TOTAL_SUPPRESSED.increment();
+        return false;
+    }
+}
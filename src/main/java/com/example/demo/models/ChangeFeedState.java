@@ -0,0 +1,27 @@
+package com.example.demo.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row recording up to which change sequence tombstones have been purged. Consumers that
+ * last synced before that point may have missed deletes and must resync from the start.
+ */
+@Entity
+@Table(name = "change_feed_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedState {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long purgedThroughSeq;
+}
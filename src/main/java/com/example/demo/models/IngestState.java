@@ -0,0 +1,28 @@
+package com.example.demo.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Records, per {@link com.example.demo.ingest.IngestLog#id() ingest log}, up to which offset the log has
+ * been written to the database. It is updated in the same transaction as the movies it covers, so a
+ * restart resumes right after them. Each node has its own log and so its own row.
+ */
+@Entity
+@Table(name = "ingest_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestState {
+
+    @Id
+    @Column(length = 36)
+    private String logId;
+
+    private long drainedOffset;
+}
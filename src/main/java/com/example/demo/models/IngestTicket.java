@@ -0,0 +1,51 @@
+package com.example.demo.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a completed bulk ingest request. Tickets still waiting in the ingest log are only known
+ * to the node that accepted them; the row is written together with the ticket's movies.
+ */
+@Entity
+@Table(name = "ingest_tickets")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestTicket {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /**
+     * Movies in the request.
+     */
+    private int movies;
+
+    private int created;
+
+    /**
+     * Movies that already existed, or came twice in the same batch.
+     */
+    private int duplicates;
+
+    private int failed;
+
+    @Column(length = 100)
+    private String requestedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime acceptedAt;
+
+    private LocalDateTime completedAt;
+}
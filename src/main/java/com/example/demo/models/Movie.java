@@ -4,20 +4,35 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import com.example.demo.events.MovieEntityListener;
+import com.example.demo.search.TitleNormalizer;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
-@Table(name = "movies")
+@Table(name = "movies", indexes = {
+        @Index(name = "idx_movies_status_lease", columnList = "ratingStatus, leaseExpiresAt"),
+        @Index(name = "idx_movies_change_seq", columnList = "changeSeq")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = Movie.DEDUP_KEY_CONSTRAINT, columnNames = "dedupKey")
+})
+@EntityListeners(MovieEntityListener.class)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Movie {
+
+    public static final String DEDUP_KEY_CONSTRAINT = "uk_movies_dedup_key";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -39,20 +54,62 @@ public class Movie {
     @Builder.Default
     private RatingStatus ratingStatus = RatingStatus.PENDING;
 
+    // Normalized title|year|director, derived on every write; unique so the same movie is stored once
+    @Column(length = 520)
+    private String dedupKey;
+
+    // Enrichment lease: the node currently responsible for enriching this movie (cluster mode)
+    @Column(length = 100)
+    private String leaseOwner;
+
+    private LocalDateTime leaseExpiresAt;
+
+    // Change feed position: a new sequence number is assigned on every write (see MovieChangeFeed)
+    private Long changeSeq;
+
+    // Optimistic lock: a write based on an outdated copy fails instead of overwriting a concurrent one.
+    // The column default covers rows inserted by plain SQL (seed data, existing databases).
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
 
+    // Rating as last loaded from or written to the database, to tell rating changes from other updates
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Double persistedRating;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private RatingStatus persistedRatingStatus;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        dedupKey = TitleNormalizer.dedupKey(title, releaseYear, director);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        dedupKey = TitleNormalizer.dedupKey(title, releaseYear, director);
+    }
+
+    public void markPersisted() {
+        persistedRating = rating;
+        persistedRatingStatus = ratingStatus;
+    }
+
+    public boolean isRatingChangedSincePersisted() {
+        return !Objects.equals(rating, persistedRating) || ratingStatus != persistedRatingStatus;
     }
 
     public enum RatingStatus {
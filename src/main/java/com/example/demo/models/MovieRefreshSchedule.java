@@ -0,0 +1,36 @@
+package com.example.demo.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a movie's rating is next refreshed, and what its past refreshes learned about it.
+ * Written after each refresh; rows of deleted movies are purged on startup.
+ */
+@Entity
+@Table(name = "movie_refresh_schedule")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieRefreshSchedule {
+    @Id
+    private Long movieId;
+
+    @Column(nullable = false)
+    private LocalDateTime nextRefreshAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lastRefreshedAt;
+
+    // Smoothed rating change found per refresh, in rating points
+    private double volatility;
+}
@@ -0,0 +1,36 @@
+package com.example.demo.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted movie in the change feed, so consumers learn about the delete.
+ * Written in the deleting transaction and purged after the feed's retention.
+ */
+@Entity
+@Table(name = "movie_tombstones", indexes = {
+        @Index(name = "idx_movie_tombstones_change_seq", columnList = "changeSeq")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieTombstone {
+    @Id
+    private Long movieId;
+
+    @Column(nullable = false)
+    private Long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,64 @@
+package com.example.demo.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+/**
+ * One id range of a {@link ReEnrichmentJob}, with its checkpoint: every movie up to {@code lastDoneId}
+ * has been looked up and its result written, and the counters cover exactly those movies.
+ */
+@Entity
+@Table(name = "re_enrichment_chunks", indexes = {
+        @Index(name = "idx_re_enrichment_chunks_job", columnList = "jobId")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReEnrichmentChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long jobId;
+
+    /**
+     * First movie id of the range, inclusive.
+     */
+    private long fromId;
+
+    /**
+     * Last movie id of the range, inclusive.
+     */
+    private long toId;
+
+    private long lastDoneId;
+
+    private long done;
+
+    private long enriched;
+
+    private long notFound;
+
+    private long failed;
+
+    private boolean completed;
+
+    /**
+     * Attempts at the range that stopped on an error before their next checkpoint.
+     */
+    @ColumnDefault("0")
+    private int failures;
+}
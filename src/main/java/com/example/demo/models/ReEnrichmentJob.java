@@ -0,0 +1,70 @@
+package com.example.demo.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A run of the catalog re-enrichment job. Its work is split into {@link ReEnrichmentChunk}s; a job
+ * still RUNNING when the application stops is resumed from the chunks' checkpoints on the next start.
+ * The node running it holds a lease on the row, so in cluster mode only one node works on the job
+ * and another one takes it over once the lease of a crashed owner expires. A job whose chunk failed
+ * {@code max-chunk-failures} times ends FAILED.
+ */
+@Entity
+@Table(name = "re_enrichment_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReEnrichmentJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        /**
+         * A chunk kept failing to reach its next checkpoint; not resumed.
+         */
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private State state;
+
+    /**
+     * Movies in scope when the job started.
+     */
+    private long total;
+
+    private int chunkCount;
+
+    @Column(length = 100)
+    private String requestedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(length = 100)
+    private String ownerNode;
+
+    private LocalDateTime leaseExpiresAt;
+}
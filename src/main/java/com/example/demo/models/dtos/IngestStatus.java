@@ -0,0 +1,64 @@
+package com.example.demo.models.dtos;
+
+import com.example.demo.models.IngestTicket;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of a bulk ingest request")
+public class IngestStatus {
+
+    public enum State {
+        QUEUED,
+        COMPLETED
+    }
+
+    @Schema(description = "Ticket identifier", example = "3f1c2a9e-6b1d-4c1e-9d55-0b7f5f0f4a21")
+    private String ticketId;
+
+    @Schema(description = "QUEUED until the movies are written, then COMPLETED", example = "QUEUED")
+    private State state;
+
+    @Schema(description = "Movies in the request", example = "500")
+    private int movies;
+
+    @Schema(description = "Movies inserted", example = "480")
+    private int created;
+
+    @Schema(description = "Movies that already existed or came twice", example = "19")
+    private int duplicates;
+
+    @Schema(description = "Movies that could not be written", example = "1")
+    private int failed;
+
+    @Schema(description = "User who sent the request", example = "admin")
+    private String requestedBy;
+
+    @Schema(description = "When the request was accepted")
+    private LocalDateTime acceptedAt;
+
+    @Schema(description = "When the movies were written")
+    private LocalDateTime completedAt;
+
+    public static IngestStatus fromEntity(IngestTicket ticket) {
+        return IngestStatus.builder()
+                .ticketId(ticket.getId())
+                .state(State.COMPLETED)
+                .movies(ticket.getMovies())
+                .created(ticket.getCreated())
+                .duplicates(ticket.getDuplicates())
+                .failed(ticket.getFailed())
+                .requestedBy(ticket.getRequestedBy())
+                .acceptedAt(ticket.getAcceptedAt())
+                .completedAt(ticket.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.models.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "One entry of the change feed: the current state of a written movie, or a tombstone")
+public class MovieChange {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    @Schema(description = "Position in the change feed", example = "1042")
+    private long sequence;
+
+    @Schema(description = "UPSERT carries the movie's current state, DELETE is a tombstone", example = "UPSERT")
+    private Type type;
+
+    @Schema(description = "Movie identifier", example = "1")
+    private Long movieId;
+
+    @Schema(description = "Current state of the movie (UPSERT only)")
+    private MovieResponse movie;
+
+    @Schema(description = "When the movie was deleted (DELETE only)")
+    private LocalDateTime deletedAt;
+}
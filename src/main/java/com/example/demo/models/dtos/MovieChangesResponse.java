@@ -0,0 +1,34 @@
+package com.example.demo.models.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of the change feed")
+public class MovieChangesResponse {
+
+    @Schema(description = "Changes after the requested sequence, oldest first; each movie appears at most once")
+    private List<MovieChange> changes;
+
+    @Schema(description = "Pass as since on the next request", example = "1042")
+    private long nextSince;
+
+    @Schema(description = "Where the feed stood when the snapshot started (since=0): pass as snapshotFrom on the "
+            + "following requests", example = "1042")
+    private Long snapshotFrom;
+
+    @Schema(description = "More changes are available right away")
+    private boolean hasMore;
+
+    @Schema(description = "Tombstones after since (or after snapshotFrom, while paging a snapshot) were already "
+            + "purged: drop the local copy and sync again from 0")
+    private boolean resyncRequired;
+}
@@ -2,6 +2,7 @@ package com.example.demo.models.dtos;
 
 
 import com.example.demo.models.Movie;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,6 +10,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -41,6 +43,10 @@ public class MovieResponse {
     @Schema(description = "When the movie was last updated")
     private LocalDateTime updatedAt;
 
+    @Schema(description = "Existing movies with a very similar title (only set on create)")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<TitleMatch> possibleDuplicates;
+
     public static MovieResponse fromEntity(Movie movie) {
         return MovieResponse.builder()
                 .id(movie.getId())
@@ -0,0 +1,98 @@
+package com.example.demo.models.dtos;
+
+import com.example.demo.models.Movie;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact read model of a movie for list results and the list cache.
+ * <p>
+ * Serializes exactly like {@link MovieResponse}, but holds primitives instead of boxed numbers, epoch
+ * milliseconds (taken as UTC, which round-trips exactly) instead of two {@link LocalDateTime}s, the status
+ * enum instead of a string, and a deduplicated director string, which retains less than half the heap of a
+ * {@code MovieResponse} per row (see {@code MovieRowFootprintBenchmarkTest}). Absent values are stored as
+ * sentinels and written as {@code null}.
+ */
+@JsonPropertyOrder({"id", "title", "director", "releaseYear", "rating", "ratingStatus", "createdAt", "updatedAt"})
+@Schema(implementation = MovieResponse.class)
+public record MovieRow(
+        long id,
+        String title,
+        String director,
+        @JsonIgnore int year,
+        @JsonIgnore double ratingValue,
+        Movie.RatingStatus ratingStatus,
+        @JsonIgnore long createdAtMillis,
+        @JsonIgnore long updatedAtMillis) {
+
+    private static final int NO_YEAR = 0;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    // directors repeat across many rows; past this many distinct names new ones are kept as they are
+    private static final int MAX_POOLED_DIRECTORS = 10_000;
+    private static final Map<String, String> DIRECTORS = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor expression target of the repository's row queries.
+     */
+    public MovieRow(Long id, String title, String director, Integer releaseYear, Double rating,
+                    Movie.RatingStatus ratingStatus, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, title, dedupDirector(director), releaseYear == null ? NO_YEAR : releaseYear,
+                rating == null ? Double.NaN : rating, ratingStatus, toMillis(createdAt), toMillis(updatedAt));
+    }
+
+    public static MovieRow fromEntity(Movie movie) {
+        return new MovieRow(movie.getId(), movie.getTitle(), movie.getDirector(), movie.getReleaseYear(),
+                movie.getRating(), movie.getRatingStatus(), movie.getCreatedAt(), movie.getUpdatedAt());
+    }
+
+    @JsonProperty("releaseYear")
+    public Integer releaseYear() {
+        return year == NO_YEAR ? null : year;
+    }
+
+    @JsonProperty("rating")
+    public Double rating() {
+        return Double.isNaN(ratingValue) ? null : ratingValue;
+    }
+
+    @JsonProperty("createdAt")
+    public LocalDateTime createdAt() {
+        return toDateTime(createdAtMillis);
+    }
+
+    @JsonProperty("updatedAt")
+    public LocalDateTime updatedAt() {
+        return toDateTime(updatedAtMillis);
+    }
+
+    private static String dedupDirector(String director) {
+        if (director == null) {
+            return null;
+        }
+        String pooled = DIRECTORS.get(director);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (DIRECTORS.size() >= MAX_POOLED_DIRECTORS) {
+            return director;
+        }
+        pooled = DIRECTORS.putIfAbsent(director, director);
+        return pooled != null ? pooled : director;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? NO_TIMESTAMP : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return millis == NO_TIMESTAMP ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.models.dtos;
+
+import com.example.demo.history.RatingChange;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One change of a movie's rating")
+public class RatingHistoryEntry {
+
+    @Schema(description = "When the change was committed")
+    private LocalDateTime changedAt;
+
+    @Schema(description = "Rating before the change", example = "8.7")
+    private Double previousRating;
+
+    @Schema(description = "Rating after the change", example = "8.8")
+    private Double rating;
+
+    @Schema(description = "Status of rating enrichment after the change", example = "ENRICHED")
+    private String ratingStatus;
+
+    public static RatingHistoryEntry fromChange(RatingChange change) {
+        return RatingHistoryEntry.builder()
+                .changedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(change.timestampMillis()), ZoneId.systemDefault()))
+                .previousRating(change.oldRating())
+                .rating(change.newRating())
+                .ratingStatus(change.status().name())
+                .build();
+    }
+}
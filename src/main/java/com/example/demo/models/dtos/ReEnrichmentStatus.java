@@ -0,0 +1,65 @@
+package com.example.demo.models.dtos;
+
+import com.example.demo.models.ReEnrichmentJob;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of the catalog re-enrichment job")
+public class ReEnrichmentStatus {
+
+    @Schema(description = "Job identifier", example = "1")
+    private Long jobId;
+
+    @Schema(description = "RUNNING, COMPLETED, CANCELLED or FAILED", example = "RUNNING")
+    private ReEnrichmentJob.State state;
+
+    @Schema(description = "Movies in scope when the job started (all but PENDING ones)", example = "12000")
+    private long total;
+
+    @Schema(description = "Movies looked up so far", example = "4500")
+    private long done;
+
+    @Schema(description = "Lookups that found a rating", example = "4300")
+    private long enriched;
+
+    @Schema(description = "Lookups that found no rating; the movie keeps its previous rating", example = "150")
+    private long notFound;
+
+    @Schema(description = "Lookups that failed; the movie keeps its previous rating", example = "50")
+    private long failed;
+
+    @Schema(description = "Number of id-range chunks", example = "12")
+    private int chunks;
+
+    @Schema(description = "Chunks finished", example = "4")
+    private int chunksCompleted;
+
+    @Schema(description = "Lookups per second since the job was (re)started", example = "4.9")
+    private double throughputPerSecond;
+
+    @Schema(description = "Estimated seconds until the job finishes, while it is running", example = "1530")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long etaSeconds;
+
+    @Schema(description = "User who started the job", example = "admin")
+    private String requestedBy;
+
+    @Schema(description = "Node that runs or last ran the job", example = "node-1")
+    private String ownerNode;
+
+    @Schema(description = "When the job was started")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "When the job completed or was cancelled")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.models.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Movie whose title is similar to the searched one")
+public class TitleMatch {
+
+    @Schema(description = "Movie identifier", example = "1")
+    private Long id;
+
+    @Schema(description = "Movie title", example = "The Shawshank Redemption")
+    private String title;
+
+    @Schema(description = "Trigram similarity to the searched title (0-1)", example = "0.72")
+    private double similarity;
+}
@@ -0,0 +1,33 @@
+package com.example.demo.models.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Place of a movie on a top-rated leaderboard")
+public class TopRatedMovie {
+
+    @Schema(description = "Position on the leaderboard, starting at 1", example = "1")
+    private int rank;
+
+    @Schema(description = "Movie identifier", example = "1")
+    private Long id;
+
+    @Schema(description = "Movie title", example = "The Shawshank Redemption")
+    private String title;
+
+    @Schema(description = "Director name", example = "Frank Darabont")
+    private String director;
+
+    @Schema(description = "Year the movie was released", example = "1994")
+    private Integer releaseYear;
+
+    @Schema(description = "Rating from external API (0-10 scale)", example = "9.3")
+    private double rating;
+}
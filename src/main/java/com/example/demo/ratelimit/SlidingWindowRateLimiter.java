@@ -0,0 +1,167 @@
+package com.example.demo.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory sliding-window rate limiter, one counter per key.
+ * <p>
+ * Each key holds a single {@code long}: the current window number (32 bits), the count of the previous
+ * window and the count of the current one (16 bits each). The request rate is estimated as
+ * {@code previous * (share of the previous window still inside the sliding window) + current}, which
+ * smooths the burst a fixed window allows at its boundary. A check is one map lookup and a CAS loop on
+ * that word, so it takes no locks; the map itself is lock-striped for inserts. Memory stays bounded by
+ * {@code maxKeys}: beyond it, keys idle for two windows are dropped, and if the map is still full new
+ * keys share one overflow counter.
+ */
+public class SlidingWindowRateLimiter {
+
+    /** Highest limit a 16-bit window count can enforce. */
+    public static final int MAX_LIMIT = 0xFFFF;
+
+    private static final String OVERFLOW_KEY = "\u0000overflow";
+
+    /**
+     * Outcome of a check. {@code resetSeconds} is the time until the current window ends.
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long resetSeconds) {
+
+        /**
+         * {@code RateLimit-*} headers (IETF draft), plus {@code Retry-After} on a rejection.
+         */
+        public HttpHeaders toHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("RateLimit-Limit", String.valueOf(limit));
+            headers.set("RateLimit-Remaining", String.valueOf(remaining));
+            headers.set("RateLimit-Reset", String.valueOf(resetSeconds));
+            if (!allowed) {
+                headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(resetSeconds));
+            }
+            return headers;
+        }
+    }
+
+    private final long windowMillis;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public SlidingWindowRateLimiter(Duration window, int maxKeys) {
+        this(window, maxKeys, System::currentTimeMillis);
+    }
+
+    public SlidingWindowRateLimiter(Duration window, int maxKeys, LongSupplier clock) {
+        this.windowMillis = window.toMillis();
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Rate limit window must be positive");
+        }
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Counts one request for {@code key} if that keeps it within {@code limit} per window.
+     */
+    public Decision tryAcquire(String key, int limit) {
+        return tryAcquire(key, limit, 1);
+    }
+
+    /**
+     * Counts {@code permits} requests for {@code key} at once, all or none.
+     */
+    public Decision tryAcquire(String key, int limit, int permits) {
+        int cappedLimit = Math.min(limit, MAX_LIMIT);
+        long now = clock.getAsLong();
+        long windowId = now / windowMillis;
+        long intoWindow = now % windowMillis;
+        double previousWeight = 1 - (double) intoWindow / windowMillis;
+        long resetSeconds = Math.max(1, (windowMillis - intoWindow + 999) / 1000);
+        AtomicLong counter = counterFor(key, windowId);
+
+        while (true) {
+            long state = counter.get();
+            int previous;
+            int current;
+            if ((int) (state >>> 32) == (int) windowId) {
+                previous = (int) (state >>> 16) & 0xFFFF;
+                current = (int) state & 0xFFFF;
+            } else {
+                previous = (int) (state >>> 32) == (int) (windowId - 1) ? (int) state & 0xFFFF : 0;
+                current = 0;
+            }
+            double estimate = previous * previousWeight + current;
+            if (estimate + permits > cappedLimit) {
+                return new Decision(false, cappedLimit, 0, resetSeconds);
+            }
+            long next = (windowId << 32) | ((long) previous << 16) | (current + permits);
+            if (counter.compareAndSet(state, next)) {
+                return new Decision(true, cappedLimit, (int) (cappedLimit - estimate - permits), resetSeconds);
+            }
+        }
+    }
+
+    /**
+     * Gives back {@code permits} counted for {@code key} that turned out not to be spent, from the current
+     * window first. Permits whose window has slid out are already free.
+     */
+    public void release(String key, int permits) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null || permits <= 0) {
+            return;
+        }
+        long windowId = clock.getAsLong() / windowMillis;
+        while (true) {
+            long state = counter.get();
+            long stateWindow = (int) (state >>> 32);
+            if (stateWindow != (int) windowId && stateWindow != (int) (windowId - 1)) {
+                return;
+            }
+            int previous = (int) (state >>> 16) & 0xFFFF;
+            int current = (int) state & 0xFFFF;
+            int fromCurrent = Math.min(current, permits);
+            // counted in the window before the state's own when the state is still the last window's
+            int fromPrevious = stateWindow == (int) windowId ? Math.min(previous, permits - fromCurrent) : 0;
+            long next = (state & 0xFFFFFFFF00000000L) | ((long) (previous - fromPrevious) << 16)
+                    | (current - fromCurrent);
+            if (counter.compareAndSet(state, next)) {
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private AtomicLong counterFor(String key, long windowId) {
+        AtomicLong counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= maxKeys) {
+            sweep(windowId);
+            if (counters.size() >= maxKeys) {
+                return counters.computeIfAbsent(OVERFLOW_KEY, k -> new AtomicLong());
+            }
+        }
+        return counters.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private void sweep(long windowId) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            counters.values().removeIf(counter -> (int) (counter.get() >>> 32) < (int) (windowId - 1));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.ratelimit;
+
+import com.example.demo.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user request budgets. Each {@link Budget} has its own sliding window and a default limit, which can
+ * be overridden per user name: {@code api.rate-limit.<budget>.limit | window | users.<name>}. Expensive
+ * endpoints can get a limit of their own ({@code api.rate-limit.endpoints}), spent on top of the read or
+ * write budget. Rejections are counted in {@code api.rate-limit.rejected} tagged with the budget, or with
+ * the endpoint's method and path.
+ */
+@Component
+@Slf4j
+public class UserRateLimits {
+
+    /**
+     * What a request spends. {@code ENRICHMENT} is charged for every OMDb lookup a request triggers
+     * (create, or update with a new title) and protects the shared upstream quota.
+     */
+    public enum Budget {
+        READ("read", 600, "PT1M"),
+        WRITE("write", 60, "PT1M"),
+        ENRICHMENT("enrichment", 100, "PT1H");
+
+        private final String key;
+        private final int defaultLimit;
+        private final String defaultWindow;
+
+        Budget(String key, int defaultLimit, String defaultWindow) {
+            this.key = key;
+            this.defaultLimit = defaultLimit;
+            this.defaultWindow = defaultWindow;
+        }
+    }
+
+    /**
+     * Limit of one endpoint per user: {@code api.rate-limit.endpoints[i].method | path | limit | window}.
+     * {@code path} is an Ant-style pattern and a missing {@code method} matches any; the first matching
+     * entry applies.
+     */
+    public record EndpointLimit(String method, String path, int limit, @DefaultValue("PT1M") Duration window) {
+
+        private boolean matches(String requestMethod, String requestPath) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && PATH_MATCHER.match(path, requestPath);
+        }
+
+        private String tag() {
+            return method == null ? path : method + " " + path;
+        }
+    }
+
+    private record EndpointRule(EndpointLimit endpoint, SlidingWindowRateLimiter limiter) {
+    }
+
+    private static final String PREFIX = "api.rate-limit.";
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<Budget, SlidingWindowRateLimiter> limiters = new EnumMap<>(Budget.class);
+    private final Map<Budget, Integer> defaultLimits = new EnumMap<>(Budget.class);
+    // resolved once per user, the property lookup is far slower than the check itself
+    private final Map<Budget, Map<String, Integer>> userLimits = new EnumMap<>(Budget.class);
+    private final List<EndpointRule> endpointRules = new ArrayList<>();
+    private final boolean enabled;
+
+    public UserRateLimits(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.enabled = environment.getProperty(PREFIX + "enabled", Boolean.class, true);
+        int maxKeys = environment.getProperty(PREFIX + "max-keys", Integer.class, 100_000);
+        for (Budget budget : Budget.values()) {
+            String prefix = PREFIX + budget.key;
+            int limit = environment.getProperty(prefix + ".limit", Integer.class, budget.defaultLimit);
+            SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(
+                    DurationStyle.detectAndParse(environment.getProperty(prefix + ".window", budget.defaultWindow)),
+                    maxKeys);
+            limiters.put(budget, limiter);
+            defaultLimits.put(budget, limit);
+            userLimits.put(budget, new ConcurrentHashMap<>());
+            Gauge.builder("api.rate-limit.keys", limiter, SlidingWindowRateLimiter::size)
+                    .tag("budget", budget.key)
+                    .register(meterRegistry);
+            log.info("Rate limit '{}': {} per {}", budget.key, limit,
+                    environment.getProperty(prefix + ".window", budget.defaultWindow));
+        }
+        for (EndpointLimit endpoint : Binder.get(environment)
+                .bind(PREFIX + "endpoints", Bindable.listOf(EndpointLimit.class))
+                .orElse(List.of())) {
+            endpointRules.add(new EndpointRule(endpoint, new SlidingWindowRateLimiter(endpoint.window(), maxKeys)));
+            log.info("Rate limit '{}': {} per {}", endpoint.tag(), endpoint.limit(), endpoint.window());
+        }
+    }
+
+    /**
+     * Spends one unit of {@code budget} for {@code user}; null when rate limiting is disabled.
+     */
+    public SlidingWindowRateLimiter.Decision tryAcquire(Budget budget, String user) {
+        return tryAcquire(budget, user, 1);
+    }
+
+    /**
+     * Spends {@code units} of {@code budget} for {@code user}, all or none; null when rate limiting is disabled.
+     */
+    public SlidingWindowRateLimiter.Decision tryAcquire(Budget budget, String user, int units) {
+        if (!enabled) {
+            return null;
+        }
+        SlidingWindowRateLimiter.Decision decision = limiters.get(budget)
+                .tryAcquire(user, limitFor(budget, user), units);
+        if (!decision.allowed()) {
+            meterRegistry.counter("api.rate-limit.rejected", "budget", budget.key).increment();
+        }
+        return decision;
+    }
+
+    /**
+     * Spends one unit of the limit of the first endpoint limit matching {@code method path} for {@code user};
+     * null when no endpoint limit matches or rate limiting is disabled.
+     */
+    public SlidingWindowRateLimiter.Decision tryAcquireEndpoint(String method, String path, String user) {
+        if (!enabled) {
+            return null;
+        }
+        for (EndpointRule rule : endpointRules) {
+            if (rule.endpoint().matches(method, path)) {
+                SlidingWindowRateLimiter.Decision decision = rule.limiter().tryAcquire(user, rule.endpoint().limit());
+                if (!decision.allowed()) {
+                    meterRegistry.counter("api.rate-limit.rejected", "budget", rule.endpoint().tag()).increment();
+                }
+                return decision;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gives back one unit of {@code budget} spent by a request that was rejected after all.
+     */
+    public void release(Budget budget, String user) {
+        if (enabled && user != null) {
+            limiters.get(budget).release(user, 1);
+        }
+    }
+
+    /**
+     * Charges one enrichment to the authenticated user. Work without a user (background jobs, startup)
+     * is not charged.
+     *
+     * @throws RateLimitExceededException when the user's enrichment budget is spent
+     */
+    public void chargeEnrichment() {
+        chargeEnrichment(1);
+    }
+
+    /**
+     * Charges {@code enrichments} at once, for requests that create several movies.
+     *
+     * @throws RateLimitExceededException when the user's enrichment budget cannot cover all of them
+     */
+    public void chargeEnrichment(int enrichments) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return;
+        }
+        SlidingWindowRateLimiter.Decision decision = tryAcquire(Budget.ENRICHMENT, authentication.getName(),
+                enrichments);
+        if (decision != null && !decision.allowed()) {
+            throw new RateLimitExceededException("Enrichment quota exceeded for user " + authentication.getName(),
+                    decision);
+        }
+    }
+
+    /**
+     * Gives back {@code enrichments} charged to {@code user} that were not made, e.g. ingested movies that
+     * turned out to be duplicates.
+     */
+    public void refundEnrichment(String user, int enrichments) {
+        if (enabled && user != null) {
+            limiters.get(Budget.ENRICHMENT).release(user, enrichments);
+        }
+    }
+
+    private int limitFor(Budget budget, String user) {
+        return userLimits.get(budget).computeIfAbsent(user,
+                key -> environment.getProperty(PREFIX + budget.key + ".users." + user, Integer.class,
+                        defaultLimits.get(budget)));
+    }
+}
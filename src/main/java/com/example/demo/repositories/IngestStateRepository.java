@@ -0,0 +1,9 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.IngestState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IngestStateRepository extends JpaRepository<IngestState, String> {
+}
@@ -0,0 +1,17 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.MovieRefreshSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface MovieRefreshScheduleRepository extends JpaRepository<MovieRefreshSchedule, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MovieRefreshSchedule s WHERE NOT EXISTS (SELECT m.id FROM Movie m WHERE m.id = s.movieId)")
+    int deleteOrphans();
+}
@@ -1,9 +1,17 @@
 package com.example.demo.repositories;
 
 import com.example.demo.models.Movie;
+import com.example.demo.models.dtos.MovieRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,5 +26,143 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
 
     List<Movie> findByReleaseYear(Integer releaseYear);
 
+    Optional<Movie> findByDedupKey(String dedupKey);
+
     List<Movie> findByRatingStatus(Movie.RatingStatus status);
+
+    String MOVIE_ROW_SELECT = "SELECT new com.example.demo.models.dtos.MovieRow(m.id, m.title, m.director, " +
+            "m.releaseYear, m.rating, m.ratingStatus, m.createdAt, m.updatedAt) FROM Movie m ";
+
+    /**
+     * Every movie as a compact row, ordered by id, without materializing entities.
+     */
+    @Query(MOVIE_ROW_SELECT + "ORDER BY m.id")
+    List<MovieRow> findAllRows();
+
+    /**
+     * One page of compact rows ordered by id.
+     */
+    @Query(MOVIE_ROW_SELECT + "ORDER BY m.id")
+    List<MovieRow> findRows(Pageable pageable);
+
+    /**
+     * Keyset-paged compact rows of the movies that have a rating, for loading the leaderboards.
+     */
+    @Query(MOVIE_ROW_SELECT + "WHERE m.rating IS NOT NULL AND m.id > :afterId ORDER BY m.id")
+    List<MovieRow> findRatedRowsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Compact rows of the given movies, for updating the leaderboards after writes on other nodes.
+     */
+    @Query(MOVIE_ROW_SELECT + "WHERE m.id IN :ids")
+    List<MovieRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Movies written after {@code afterSeq} (up to {@code upToSeq}), in change feed order.
+     */
+    List<Movie> findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(
+            long afterSeq, long upToSeq, Pageable pageable);
+
+    interface TitleView {
+        Long getId();
+
+        String getTitle();
+
+        String getDedupKey();
+    }
+
+    /**
+     * Keyset-paged (id, title, dedup key) rows, for loading in-memory indexes without materializing entities.
+     */
+    @Query("SELECT m.id AS id, m.title AS title, m.dedupKey AS dedupKey FROM Movie m WHERE m.id > :afterId ORDER BY m.id")
+    List<TitleView> findTitlesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    interface IdRange {
+        Long getMinId();
+
+        Long getMaxId();
+
+        long getMovies();
+    }
+
+    /**
+     * Id range and number of the movies a re-enrichment covers: all but those still PENDING.
+     */
+    @Query("SELECT MIN(m.id) AS minId, MAX(m.id) AS maxId, COUNT(m) AS movies FROM Movie m " +
+            "WHERE m.ratingStatus <> com.example.demo.models.Movie$RatingStatus.PENDING")
+    IdRange findReEnrichmentRange();
+
+    /**
+     * Keyset-paged ids in {@code (afterId, toId]} that a re-enrichment covers.
+     */
+    @Query("SELECT m.id FROM Movie m WHERE m.id > :afterId AND m.id <= :toId " +
+            "AND m.ratingStatus <> com.example.demo.models.Movie$RatingStatus.PENDING ORDER BY m.id")
+    List<Long> findReEnrichableIds(@Param("afterId") long afterId, @Param("toId") long toId, Pageable pageable);
+
+    interface RefreshView {
+        Long getId();
+
+        Integer getReleaseYear();
+
+        Double getRating();
+
+        LocalDateTime getUpdatedAt();
+
+        LocalDateTime getNextRefreshAt();
+
+        Double getVolatility();
+    }
+
+    /**
+     * Keyset-paged refresh state of ENRICHED and NOT_FOUND movies, with their stored schedule if they have one.
+     */
+    @Query("SELECT m.id AS id, m.releaseYear AS releaseYear, m.rating AS rating, m.updatedAt AS updatedAt, " +
+            "s.nextRefreshAt AS nextRefreshAt, s.volatility AS volatility " +
+            "FROM Movie m LEFT JOIN MovieRefreshSchedule s ON s.movieId = m.id WHERE m.id > :afterId " +
+            "AND m.ratingStatus IN (com.example.demo.models.Movie$RatingStatus.ENRICHED, " +
+            "com.example.demo.models.Movie$RatingStatus.NOT_FOUND) ORDER BY m.id")
+    List<RefreshView> findRefreshableAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Candidate PENDING movies that nobody holds a live enrichment lease on.
+     */
+    @Query(value = "SELECT id FROM movies WHERE rating_status = 'PENDING' " +
+            "AND (lease_expires_at IS NULL OR lease_expires_at < :now) ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Atomically takes the enrichment lease on one movie if it is still claimable.
+     * Returns 1 if this node won the lease, 0 if another node got there first. Bumps the version,
+     * so a copy of the movie loaded before the claim cannot be saved over it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Movie m SET m.leaseOwner = :owner, m.leaseExpiresAt = :expiresAt, m.version = m.version + 1 " +
+            "WHERE m.id = :id AND m.ratingStatus = com.example.demo.models.Movie$RatingStatus.PENDING " +
+            "AND (m.leaseExpiresAt IS NULL OR m.leaseExpiresAt < :now)")
+    int tryClaim(@Param("id") Long id, @Param("owner") String owner,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    /**
+     * Heartbeat: extends the leases a node still holds.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Movie m SET m.leaseExpiresAt = :expiresAt WHERE m.leaseOwner = :owner AND m.id IN :ids")
+    int extendLeases(@Param("owner") String owner, @Param("ids") Collection<Long> ids,
+                     @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Gives up the enrichment lease on one movie before its result is written, if this node holds it or
+     * nobody does and the movie still has the enriched title (a null title matches any). Returns 0 if
+     * another node holds it or the movie was renamed. The row stays locked until the writing transaction
+     * ends and the version is bumped, so no claim can slip in between this check and the write.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Movie m SET m.leaseOwner = NULL, m.leaseExpiresAt = NULL, m.version = m.version + 1 " +
+            "WHERE m.id = :id AND (m.leaseOwner IS NULL OR m.leaseOwner = :owner) " +
+            "AND (:title IS NULL OR m.title = :title)")
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner, @Param("title") String title);
 }
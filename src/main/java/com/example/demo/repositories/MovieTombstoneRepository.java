@@ -0,0 +1,26 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.MovieTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MovieTombstoneRepository extends JpaRepository<MovieTombstone, Long> {
+
+    List<MovieTombstone> findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(
+            long afterSeq, long upToSeq, Pageable pageable);
+
+    @Query("SELECT MAX(t.changeSeq) FROM MovieTombstone t WHERE t.deletedAt < :cutoff")
+    Long findMaxChangeSeqDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM MovieTombstone t WHERE t.changeSeq <= :seq")
+    int deleteUpToChangeSeq(@Param("seq") long seq);
+}
@@ -0,0 +1,13 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.ReEnrichmentChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReEnrichmentChunkRepository extends JpaRepository<ReEnrichmentChunk, Long> {
+
+    List<ReEnrichmentChunk> findByJobIdOrderByFromIdAsc(Long jobId);
+}
@@ -0,0 +1,53 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.ReEnrichmentJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReEnrichmentJobRepository extends JpaRepository<ReEnrichmentJob, Long> {
+
+    Optional<ReEnrichmentJob> findFirstByOrderByIdDesc();
+
+    List<ReEnrichmentJob> findByState(ReEnrichmentJob.State state);
+
+    /**
+     * Takes the lease on a RUNNING job if nobody holds it, it expired, or this node already holds it.
+     * Returns 1 if this node now owns the job, 0 if another node still works on it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReEnrichmentJob j SET j.ownerNode = :owner, j.leaseExpiresAt = :expiresAt " +
+            "WHERE j.id = :id AND j.state = com.example.demo.models.ReEnrichmentJob$State.RUNNING " +
+            "AND (j.ownerNode IS NULL OR j.ownerNode = :owner OR j.leaseExpiresAt < :now)")
+    int tryClaim(@Param("id") Long id, @Param("owner") String owner,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    /**
+     * Heartbeat: extends the lease while the job is still RUNNING and owned by the node.
+     * Returns 0 if the job was cancelled or taken over meanwhile.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReEnrichmentJob j SET j.leaseExpiresAt = :expiresAt " +
+            "WHERE j.id = :id AND j.ownerNode = :owner " +
+            "AND j.state = com.example.demo.models.ReEnrichmentJob$State.RUNNING")
+    int extendLease(@Param("id") Long id, @Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Gives up the lease of a job interrupted on this node, so another node can resume it right away.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReEnrichmentJob j SET j.ownerNode = NULL, j.leaseExpiresAt = NULL " +
+            "WHERE j.id = :id AND j.ownerNode = :owner")
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
+}
@@ -0,0 +1,129 @@
+package com.example.demo.search;
+
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.repositories.MovieRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory hash index from a movie's dedup key (normalized title|year|director) to its id,
+ * so a create can recognise an existing movie without a query.
+ * <p>
+ * The unique constraint on {@code movies.dedup_key} stays the source of truth: the index can lag a
+ * concurrent insert by one commit, in which case the insert fails and the caller looks the winner up
+ * in the database. Loaded on startup and kept current by {@link MovieChangedEvent}s after commit.
+ */
+@Component
+@Slf4j
+public class DuplicateMovieIndex {
+
+    private static final int LOAD_BATCH_SIZE = 5_000;
+
+    private final MovieRepository movieRepository;
+    private final Map<String, Long> idsByKey = new HashMap<>();
+    private final Map<Long, String> keysById = new HashMap<>();
+    private final Set<Long> deletedWhileLoading = new HashSet<>();
+    private final Counter hits;
+    private boolean loading;
+
+    public DuplicateMovieIndex(MovieRepository movieRepository, MeterRegistry meterRegistry) {
+        this.movieRepository = movieRepository;
+        this.hits = Counter.builder("movies.dedup.hits")
+                .description("Creates answered with an existing movie")
+                .register(meterRegistry);
+        Gauge.builder("movies.dedup.size", this, DuplicateMovieIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            loading = true;
+        }
+        try {
+            long afterId = 0;
+            List<MovieRepository.TitleView> batch;
+            do {
+                batch = movieRepository.findTitlesAfter(afterId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+                synchronized (this) {
+                    for (MovieRepository.TitleView view : batch) {
+                        if (view.getDedupKey() != null && !deletedWhileLoading.contains(view.getId())
+                                && !keysById.containsKey(view.getId())) {
+                            put(view.getId(), view.getDedupKey());
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+        } finally {
+            synchronized (this) {
+                loading = false;
+                deletedWhileLoading.clear();
+            }
+        }
+        log.info("Duplicate movie index loaded {} keys", size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        switch (event.changeType()) {
+            case CREATED, UPDATED -> {
+                remove(event.movieId());
+                if (event.dedupKey() != null) {
+                    put(event.movieId(), event.dedupKey());
+                }
+            }
+            case DELETED -> {
+                if (loading) {
+                    deletedWhileLoading.add(event.movieId());
+                }
+                remove(event.movieId());
+            }
+            case RATING_UPDATED -> {
+                // title, year and director did not change
+            }
+        }
+    }
+
+    /**
+     * Id of the stored movie with the same normalized title, year and director, if any.
+     */
+    public synchronized Optional<Long> find(String title, Integer releaseYear, String director) {
+        Long movieId = idsByKey.get(TitleNormalizer.dedupKey(title, releaseYear, director));
+        if (movieId != null) {
+            hits.increment();
+        }
+        return Optional.ofNullable(movieId);
+    }
+
+    public synchronized int size() {
+        return idsByKey.size();
+    }
+
+    private void put(Long movieId, String key) {
+        idsByKey.put(key, movieId);
+        keysById.put(movieId, key);
+    }
+
+    private void remove(Long movieId) {
+        String key = keysById.remove(movieId);
+        if (key != null) {
+            idsByKey.remove(key, movieId);
+        }
+    }
+}
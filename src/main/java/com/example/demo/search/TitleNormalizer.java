@@ -0,0 +1,34 @@
+package com.example.demo.search;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical form of titles and names for matching: lower case, accents stripped,
+ * punctuation and runs of whitespace collapsed to single spaces.
+ */
+public final class TitleNormalizer {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TitleNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD);
+        String withoutMarks = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutMarks).replaceAll(" ").trim();
+    }
+
+    /**
+     * Identity of a movie for duplicate detection: normalized title, year and director,
+     * e.g. {@code the godfather|1972|francis ford coppola}.
+     */
+    public static String dedupKey(String title, Integer releaseYear, String director) {
+        return normalize(title) + "|" + (releaseYear == null ? "" : releaseYear) + "|" + normalize(director);
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.demo.search;
+
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.models.dtos.TitleMatch;
+import com.example.demo.repositories.MovieRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over movie titles for "did you mean" lookups and near-duplicate detection.
+ * <p>
+ * Titles are normalized ({@link TitleNormalizer}) and split into padded
+ * character trigrams; each trigram keeps a posting list of movie ids. A query only scores the
+ * movies sharing at least one trigram with it, ranked by Jaccard similarity of the trigram sets.
+ * Latency stays bounded on large catalogs because rare trigrams are read first, very common ones
+ * are skipped once candidates were found, at most {@code max-candidates} movies are scored and at most
+ * {@code max-results} matches are returned, whatever limit the caller asks for. Posting lists are kept
+ * sorted, so a rename or delete finds its id by binary search instead of scanning popular trigrams.
+ * <p>
+ * Loaded from the database on startup and kept current by {@link MovieChangedEvent}s after commit.
+ */
+@Component
+@Slf4j
+public class TitleSimilarityIndex {
+
+    private static final int LOAD_BATCH_SIZE = 5_000;
+
+    private record IndexedTitle(String title, long[] trigrams) {
+    }
+
+    private final MovieRepository movieRepository;
+    private final int maxCandidates;
+    private final int commonTrigramThreshold;
+    private final int maxResults;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedTitle> titles = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Set<Long> deletedWhileLoading = new HashSet<>();
+    private final Timer searchTimer;
+    private boolean loading;
+
+    public TitleSimilarityIndex(MovieRepository movieRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${movies.title-index.max-candidates:20000}") int maxCandidates,
+                                @Value("${movies.title-index.common-trigram-threshold:50000}") int commonTrigramThreshold,
+                                @Value("${movies.title-index.max-results:100}") int maxResults) {
+        this.movieRepository = movieRepository;
+        this.maxCandidates = maxCandidates;
+        this.commonTrigramThreshold = commonTrigramThreshold;
+        this.maxResults = maxResults;
+        this.searchTimer = Timer.builder("movies.title-index.search")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("movies.title-index.size", this, TitleSimilarityIndex::size).register(meterRegistry);
+    }
+
+    /**
+     * Loads every title in id order, in batches, so the whole table is never held in memory as entities.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        setLoading(true);
+        try {
+            long afterId = 0;
+            List<MovieRepository.TitleView> batch;
+            do {
+                batch = movieRepository.findTitlesAfter(afterId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (MovieRepository.TitleView view : batch) {
+                        if (!deletedWhileLoading.contains(view.getId()) && !titles.containsKey(view.getId())) {
+                            put(view.getId(), view.getTitle());
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+        } finally {
+            setLoading(false);
+        }
+        log.info("Title similarity index loaded {} titles in {} ms", size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        switch (event.changeType()) {
+            case CREATED, UPDATED -> index(event.movieId(), event.title());
+            case DELETED -> remove(event.movieId());
+            case RATING_UPDATED -> {
+                // the title did not change
+            }
+        }
+    }
+
+    /**
+     * Adds or re-indexes a movie title.
+     */
+    public void index(Long movieId, String title) {
+        lock.writeLock().lock();
+        try {
+            IndexedTitle existing = titles.get(movieId);
+            if (existing != null && existing.title().equals(title)) {
+                return;
+            }
+            if (existing != null) {
+                unlink(movieId, existing);
+            }
+            put(movieId, title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long movieId) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                deletedWhileLoading.add(movieId);
+            }
+            IndexedTitle existing = titles.remove(movieId);
+            if (existing != null) {
+                unlink(movieId, existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} (at most {@code max-results}) titles with a similarity of at least
+     * {@code minSimilarity} (0-1), best match first.
+     */
+    public List<TitleMatch> search(String query, int limit, double minSimilarity) {
+        return searchTimer.record(() -> doSearch(query, limit, minSimilarity, null));
+    }
+
+    /**
+     * Near-duplicates of a title, excluding the movie itself when it is already indexed.
+     */
+    public List<TitleMatch> findSimilar(String title, Long excludeId, int limit, double minSimilarity) {
+        return searchTimer.record(() -> doSearch(title, limit, minSimilarity, excludeId));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return titles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<TitleMatch> doSearch(String query, int requestedLimit, double minSimilarity, Long excludeId) {
+        long[] queryTrigrams = trigrams(query);
+        int limit = Math.min(requestedLimit, maxResults);
+        if (queryTrigrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Rarest trigrams first: they are the most selective and the cheapest to read
+            List<PostingList> lists = new ArrayList<>(queryTrigrams.length);
+            for (long trigram : queryTrigrams) {
+                PostingList list = postings.get(trigram);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+
+            Map<Long, int[]> shared = new HashMap<>();
+            for (PostingList list : lists) {
+                boolean admitNew = shared.size() < maxCandidates
+                        && (shared.isEmpty() || list.size() <= commonTrigramThreshold);
+                for (int i = 0; i < list.size(); i++) {
+                    long movieId = list.get(i);
+                    int[] count = shared.get(movieId);
+                    if (count != null) {
+                        count[0]++;
+                    } else if (admitNew && shared.size() < maxCandidates) {
+                        shared.put(movieId, new int[]{1});
+                    }
+                }
+            }
+
+            PriorityQueue<TitleMatch> best = new PriorityQueue<>(Comparator.comparingDouble(TitleMatch::getSimilarity));
+            for (Map.Entry<Long, int[]> candidate : shared.entrySet()) {
+                Long movieId = candidate.getKey();
+                if (movieId.equals(excludeId)) {
+                    continue;
+                }
+                IndexedTitle indexed = titles.get(movieId);
+                int common = candidate.getValue()[0];
+                double similarity = (double) common / (queryTrigrams.length + indexed.trigrams().length - common);
+                if (similarity < minSimilarity) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(new TitleMatch(movieId, indexed.title(), similarity));
+                } else if (similarity > best.peek().getSimilarity()) {
+                    best.poll();
+                    best.add(new TitleMatch(movieId, indexed.title(), similarity));
+                }
+            }
+
+            List<TitleMatch> result = new ArrayList<>(best);
+            result.sort(Comparator.comparingDouble(TitleMatch::getSimilarity).reversed()
+                    .thenComparing(TitleMatch::getId));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Long movieId, String title) {
+        IndexedTitle indexed = new IndexedTitle(title, trigrams(title));
+        titles.put(movieId, indexed);
+        for (long trigram : indexed.trigrams()) {
+            postings.computeIfAbsent(trigram, t -> new PostingList()).add(movieId);
+        }
+    }
+
+    private void unlink(Long movieId, IndexedTitle indexed) {
+        for (long trigram : indexed.trigrams()) {
+            PostingList list = postings.get(trigram);
+            if (list != null && list.remove(movieId) && list.size() == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private void setLoading(boolean loading) {
+        lock.writeLock().lock();
+        try {
+            this.loading = loading;
+            if (!loading) {
+                deletedWhileLoading.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct trigrams of every word, padded with two leading blanks and one trailing blank
+     * (the pg_trgm convention), so short words and word starts still match. Each trigram is
+     * packed into a long, 16 bits per character.
+     */
+    static long[] trigrams(String title) {
+        String normalized = TitleNormalizer.normalize(title);
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        Set<Long> trigrams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        long[] result = new long[trigrams.size()];
+        int i = 0;
+        for (Long trigram : trigrams) {
+            result[i++] = trigram;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Growable array of movie ids in ascending order. Ids are mostly added in increasing order (loaded by
+     * id, new movies get higher ids), so an add is usually an append; lookups for removal are a binary
+     * search and the tail is shifted with one array copy.
+     */
+    private static final class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int index = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                index = -index - 1;
+            } else if (index < size) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
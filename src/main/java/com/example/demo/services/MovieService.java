@@ -1,29 +1,99 @@
 package com.example.demo.services;
 
+import com.example.demo.cache.IdempotencyKeyStore;
+import com.example.demo.cache.MovieCache;
+import com.example.demo.exceptions.IdempotencyKeyReusedException;
+import com.example.demo.exceptions.JobNotFoundException;
 import com.example.demo.exceptions.MovieNotFoundException;
+import com.example.demo.feed.MovieChangeFeed;
+import com.example.demo.history.RatingJournal;
+import com.example.demo.ingest.MovieIngest;
+import com.example.demo.leaderboard.TopRatedLeaderboards;
+import com.example.demo.logging.SampledLogger;
 import com.example.demo.models.Movie;
+import com.example.demo.models.dtos.IngestStatus;
+import com.example.demo.models.dtos.MovieChangesResponse;
 import com.example.demo.models.dtos.MovieRequest;
 import com.example.demo.models.dtos.MovieResponse;
+import com.example.demo.models.dtos.MovieRow;
+import com.example.demo.models.dtos.RatingHistoryEntry;
+import com.example.demo.models.dtos.ReEnrichmentStatus;
+import com.example.demo.models.dtos.TitleMatch;
+import com.example.demo.models.dtos.TopRatedMovie;
+import com.example.demo.ratelimit.UserRateLimits;
 import com.example.demo.repositories.MovieRepository;
+import com.example.demo.search.DuplicateMovieIndex;
+import com.example.demo.search.TitleNormalizer;
+import com.example.demo.search.TitleSimilarityIndex;
+import com.example.demo.services.enrichment.EnrichmentNode;
+import com.example.demo.services.enrichment.ReEnrichmentJobRunner;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class MovieService {
 
+    private static final SampledLogger sampledLog = SampledLogger.of(MovieService.class, 20);
+
     private final MovieRepository movieRepository;
     private final RatingEnrichmentService ratingEnrichmentService;
+    private final EnrichmentNode enrichmentNode;
+    private final TitleSimilarityIndex titleSimilarityIndex;
+    private final DuplicateMovieIndex duplicateMovieIndex;
+    private final IdempotencyKeyStore idempotencyKeyStore;
+    private final RatingJournal ratingJournal;
+    private final MovieChangeFeed movieChangeFeed;
+    private final UserRateLimits userRateLimits;
+    private final TopRatedLeaderboards topRatedLeaderboards;
+    private final ReEnrichmentJobRunner reEnrichmentJobRunner;
+    private final MovieCache movieCache;
+    private final MovieIngest movieIngest;
+
+    @Value("${movies.title-index.duplicate-similarity:0.6}")
+    private double duplicateSimilarity;
+
+    /**
+     * Outcome of an idempotent create: the stored movie, and whether this call inserted it.
+     */
+    public record CreateResult(MovieResponse movie, boolean created) {
+    }
 
     @Transactional
     public MovieResponse createMovie(MovieRequest request) {
-        log.info("Creating movie: {}", request.getTitle());
+        return createMovie(request, null).movie();
+    }
+
+    /**
+     * Creates a movie unless the same one already exists: a movie previously created with this
+     * idempotency key, or one with the same normalized title, year and director. An existing movie
+     * is returned as-is, without another insert or enrichment.
+     *
+     * @throws IdempotencyKeyReusedException if the user sent this idempotency key with a different request
+     */
+    @Transactional
+    public CreateResult createMovie(MovieRequest request, String idempotencyKey) {
+        Optional<Movie> existing = findExisting(request, idempotencyKey);
+        if (existing.isPresent()) {
+            sampledLog.info("Movie '{}' already exists with id: {}", request.getTitle(), existing.get().getId());
+            rememberIdempotencyKey(idempotencyKey, request, existing.get().getId());
+            return new CreateResult(MovieResponse.fromEntity(existing.get()), false);
+        }
+
+        sampledLog.info("Creating movie: {}", request.getTitle());
+        userRateLimits.chargeEnrichment();
 
         Movie movie = Movie.builder()
                 .title(request.getTitle())
@@ -32,39 +102,160 @@ public class MovieService {
                 .ratingStatus(Movie.RatingStatus.PENDING)
                 .build();
 
+        List<TitleMatch> possibleDuplicates = titleSimilarityIndex.findSimilar(
+                request.getTitle(), null, 5, duplicateSimilarity);
+        if (!possibleDuplicates.isEmpty()) {
+            sampledLog.info("Movie '{}' looks like {} existing title(s)", request.getTitle(), possibleDuplicates.size());
+        }
+
+        // This node enriches the movie itself; other nodes only take over if the lease expires
+        enrichmentNode.takeLease(movie);
+
         Movie savedMovie = movieRepository.save(movie);
-        log.info("Movie created with id: {}", savedMovie.getId());
+        sampledLog.info("Movie created with id: {}", savedMovie.getId());
+        rememberIdempotencyKey(idempotencyKey, request, savedMovie.getId());
 
         // Trigger async rating enrichment
-        ratingEnrichmentService.enrichMovieRating(savedMovie.getId());
+        enrichAfterCommit(savedMovie.getId());
 
-        return MovieResponse.fromEntity(savedMovie);
+        MovieResponse response = MovieResponse.fromEntity(savedMovie);
+        response.setPossibleDuplicates(possibleDuplicates);
+        return new CreateResult(response, true);
     }
 
+    /**
+     * Looks the movie up by its dedup key in the database. Used after an insert lost the race
+     * against a concurrent identical create, when the in-memory index may not have caught up yet.
+     */
     @Transactional(readOnly = true)
-    public List<MovieResponse> getAllMovies() {
-        log.debug("Fetching all movies");
-        return movieRepository.findAll().stream()
-                .map(MovieResponse::fromEntity)
-                .collect(Collectors.toList());
+    public Optional<MovieResponse> findStoredDuplicate(MovieRequest request, String idempotencyKey) {
+        Optional<Movie> existing = movieRepository.findByDedupKey(
+                TitleNormalizer.dedupKey(request.getTitle(), request.getReleaseYear(), request.getDirector()));
+        existing.ifPresent(movie -> rememberIdempotencyKey(idempotencyKey, request, movie.getId()));
+        return existing.map(MovieResponse::fromEntity);
+    }
+
+    /**
+     * Creates a movie from the ingest log inside the writer's batch transaction; false if it already
+     * exists. Enrichment is queued in the background lane, so a bulk ingest does not hold up interactive
+     * creates, and the quota was charged when the request was accepted.
+     */
+    @Transactional
+    public boolean createIngestedMovie(MovieRequest request) {
+        if (duplicateMovieIndex.find(request.getTitle(), request.getReleaseYear(), request.getDirector())
+                .flatMap(movieRepository::findById).isPresent()) {
+            return false;
+        }
+        Movie movie = Movie.builder()
+                .title(request.getTitle())
+                .director(request.getDirector())
+                .releaseYear(request.getReleaseYear())
+                .ratingStatus(Movie.RatingStatus.PENDING)
+                .build();
+        enrichmentNode.takeLease(movie);
+        Movie savedMovie = movieRepository.save(movie);
+        enrichInBackgroundAfterCommit(savedMovie.getId());
+        return true;
     }
 
+    private Optional<Movie> findExisting(MovieRequest request, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<Movie> created = idempotencyKeyStore.find(idempotencyKey, request)
+                    .flatMap(movieRepository::findById);
+            if (created.isPresent()) {
+                return created;
+            }
+        }
+        return duplicateMovieIndex.find(request.getTitle(), request.getReleaseYear(), request.getDirector())
+                .flatMap(movieRepository::findById);
+    }
+
+    private void rememberIdempotencyKey(String idempotencyKey, MovieRequest request, Long movieId) {
+        if (idempotencyKey != null) {
+            idempotencyKeyStore.put(idempotencyKey, request, movieId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<MovieRow> getAllMovies() {
+        sampledLog.debug("Fetching all movies");
+        return movieRepository.findAllRows();
+    }
+
+    /**
+     * Returns one page of movies ordered by id.
+     */
     @Transactional(readOnly = true)
+    public List<MovieRow> getMoviesPage(int page, int size) {
+        sampledLog.debug("Fetching movies page {} (size {})", page, size);
+        return movieRepository.findRows(PageRequest.of(page, size));
+    }
+
+    /**
+     * Fuzzy title lookup, best match first.
+     */
+    public List<TitleMatch> searchByTitle(String title, int limit, double minSimilarity) {
+        sampledLog.debug("Fuzzy title search: {}", title);
+        return titleSimilarityIndex.search(title, limit, minSimilarity);
+    }
+
+    /**
+     * Best rated movies, optionally of one release year or one director. Served from the materialized
+     * leaderboards, not the database.
+     */
+    public List<TopRatedMovie> getTopRated(Integer releaseYear, String director, int limit) {
+        sampledLog.debug("Fetching top rated movies (year {}, director {})", releaseYear, director);
+        if (releaseYear != null) {
+            return topRatedLeaderboards.topOfYear(releaseYear, limit);
+        }
+        if (director != null) {
+            return topRatedLeaderboards.topOfDirector(director, limit);
+        }
+        return topRatedLeaderboards.top(limit);
+    }
+
+    /**
+     * Served from the {@link MovieCache}; only a miss in both tiers reads the database.
+     */
     public MovieResponse getMovieById(Long id) {
-        log.debug("Fetching movie with id: {}", id);
-        Movie movie = movieRepository.findById(id)
-                .orElseThrow(() -> new MovieNotFoundException(id));
-        return MovieResponse.fromEntity(movie);
+        sampledLog.debug("Fetching movie with id: {}", id);
+        return movieCache.get(id, () -> movieRepository.findById(id)
+                .map(MovieResponse::fromEntity)
+                .orElseThrow(() -> new MovieNotFoundException(id)));
+    }
+
+    /**
+     * Rating changes of a movie between {@code from} and {@code to} (both optional), oldest first.
+     * Read from the rating journal, not the database.
+     */
+    public List<RatingHistoryEntry> getRatingHistory(Long id, LocalDateTime from, LocalDateTime to, int limit) {
+        sampledLog.debug("Fetching rating history of movie with id: {}", id);
+        if (!movieRepository.existsById(id)) {
+            throw new MovieNotFoundException(id);
+        }
+        long fromMillis = from == null ? Long.MIN_VALUE : from.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return ratingJournal.read(id, fromMillis, toMillis, limit).stream()
+                .map(RatingHistoryEntry::fromChange)
+                .collect(Collectors.toList());
+    }
+
+    public MovieChangesResponse getChanges(long since, long snapshotFrom, int limit) {
+        sampledLog.debug("Fetching catalog changes after sequence: {}", since);
+        return movieChangeFeed.read(since, snapshotFrom, limit);
     }
 
     @Transactional
     public MovieResponse updateMovie(Long id, MovieRequest request) {
-        log.info("Updating movie with id: {}", id);
+        sampledLog.info("Updating movie with id: {}", id);
 
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new MovieNotFoundException(id));
 
         boolean titleChanged = !movie.getTitle().equals(request.getTitle());
+        if (titleChanged) {
+            userRateLimits.chargeEnrichment();
+        }
 
         movie.setTitle(request.getTitle());
         movie.setDirector(request.getDirector());
@@ -74,13 +265,14 @@ public class MovieService {
         if (titleChanged) {
             movie.setRating(null);
             movie.setRatingStatus(Movie.RatingStatus.PENDING);
+            enrichmentNode.takeLease(movie);
         }
 
         Movie updatedMovie = movieRepository.save(movie);
 
         // Trigger re-enrichment if title changed
         if (titleChanged) {
-            ratingEnrichmentService.enrichMovieRating(updatedMovie.getId());
+            enrichAfterCommit(updatedMovie.getId());
         }
 
         return MovieResponse.fromEntity(updatedMovie);
@@ -88,14 +280,86 @@ public class MovieService {
 
     @Transactional
     public void deleteMovie(Long id) {
-        log.info("Deleting movie with id: {}", id);
+        sampledLog.info("Deleting movie with id: {}", id);
 
         if (!movieRepository.existsById(id)) {
             throw new MovieNotFoundException(id);
         }
 
         movieRepository.deleteById(id);
-        log.info("Movie deleted successfully");
+        sampledLog.info("Movie deleted successfully");
+    }
+
+    /**
+     * Starts re-enriching the whole catalog in the background, or resumes an interrupted run.
+     */
+    public ReEnrichmentStatus startReEnrichment() {
+        sampledLog.info("Starting catalog re-enrichment");
+        return reEnrichmentJobRunner.start();
+    }
+
+    public ReEnrichmentStatus getReEnrichmentStatus() {
+        return reEnrichmentJobRunner.status();
+    }
+
+    public ReEnrichmentStatus cancelReEnrichment() {
+        sampledLog.info("Cancelling catalog re-enrichment");
+        return reEnrichmentJobRunner.cancel();
+    }
+
+    public IngestStatus ingestMovies(List<MovieRequest> movies) {
+        return movieIngest.accept(movies);
+    }
+
+    public IngestStatus getIngestStatus(String ticketId) {
+        return movieIngest.status(ticketId)
+                .orElseThrow(() -> new JobNotFoundException("Ingest ticket " + ticketId + " not found"));
+    }
+
+    /**
+     * Starts enrichment once the surrounding transaction has committed. Started earlier, the
+     * enrichment thread could read the row before this write and save the stale copy back over it.
+     */
+    private void enrichAfterCommit(Long movieId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enrich(movieId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enrich(movieId);
+            }
+        });
+    }
+
+    /**
+     * The lease taken with the write is heartbeated while the enrichment waits in the queue and runs.
+     */
+    private void enrich(Long movieId) {
+        enrichmentNode.trackLease(movieId);
+        try {
+            ratingEnrichmentService.enrichMovieRating(movieId);
+        } catch (TaskRejectedException e) {
+            enrichmentNode.untrackLease(movieId);
+            throw e;
+        }
+    }
+
+    private void enrichInBackgroundAfterCommit(Long movieId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enrichmentNode.trackLease(movieId);
+                try {
+                    ratingEnrichmentService.enrichMovieRatingInBackground(movieId);
+                } catch (TaskRejectedException e) {
+                    enrichmentNode.untrackLease(movieId);
+                    // the movie stays PENDING; the recovery sweep enriches it once the lease expires
+                    sampledLog.warn("Background lane full, enrichment of movie {} left to the recovery sweep", movieId);
+                }
+            }
+        });
     }
 
     @Transactional
@@ -104,7 +368,7 @@ public class MovieService {
             movie.setRating(rating);
             movie.setRatingStatus(status);
             movieRepository.save(movie);
-            log.info("Updated rating for movie {}: {} (status: {})",
+            sampledLog.info("Updated rating for movie {}: {} (status: {})",
                     movieId, rating, status);
         });
     }
@@ -1,20 +1,17 @@
 package com.example.demo.services;
 
+import com.example.demo.cache.RatingLookupCache;
+import com.example.demo.logging.SampledLogger;
 import com.example.demo.models.Movie;
 import com.example.demo.repositories.MovieRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.services.enrichment.EnrichmentNode;
+import com.example.demo.services.enrichment.EnrichmentResultBuffer;
+import com.example.demo.services.rating.RatingProviderFanOut;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 @Service
@@ -22,132 +19,116 @@ import java.util.Optional;
 @Slf4j
 public class RatingEnrichmentService {
 
-    private final MovieRepository movieRepository;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
-
-    @Value("${omdb.api.key:demo}")
-    private String omdbApiKey;
+    private static final SampledLogger enrichmentLog = SampledLogger.of(RatingEnrichmentService.class, 20);
 
-    @Value("${omdb.api.url:http://www.omdbapi.com/}")
-    private String omdbApiUrl;
+    private final MovieRepository movieRepository;
+    private final RatingProviderFanOut ratingProviderFanOut;
+    private final EnrichmentNode enrichmentNode;
+    private final EnrichmentResultBuffer enrichmentResultBuffer;
+    private final RatingLookupCache ratingLookupCache;
 
     /**
-     * Asynchronously fetches movie rating from OMDb API and updates the movie record.
+     * Asynchronously fetches the movie rating from the rating providers and updates the movie record.
      * This method returns immediately, allowing the calling endpoint to respond
      * without waiting for the external API call.
+     * The caller tracks the movie's lease ({@link EnrichmentNode#trackLease(Long)}); it is untracked here
+     * once the enrichment ends.
      */
     @Async("taskExecutor")
     public void enrichMovieRating(Long movieId) {
-        log.info("Starting async rating enrichment for movie id: {}", movieId);
-
         try {
-            Optional<Movie> movieOptional = movieRepository.findById(movieId);
-
-            if (movieOptional.isEmpty()) {
-                log.warn("Movie not found for enrichment: {}", movieId);
-                return;
-            }
-
-            Movie movie = movieOptional.get();
-            String title = movie.getTitle();
-
-            // Call OMDb API
-            Double rating = fetchRatingFromOmdb(title, movie.getReleaseYear());
-
-            if (rating != null) {
-                movie.setRating(rating);
-                movie.setRatingStatus(Movie.RatingStatus.ENRICHED);
-                log.info("Successfully enriched movie '{}' with rating: {}", title, rating);
-            } else {
-                movie.setRatingStatus(Movie.RatingStatus.NOT_FOUND);
-                log.info("No rating found for movie: {}", title);
-            }
-
-            movieRepository.save(movie);
-
-        } catch (Exception e) {
-            log.error("Error enriching movie rating for id {}: {}", movieId, e.getMessage());
-            movieRepository.findById(movieId).ifPresent(movie -> {
-                movie.setRatingStatus(Movie.RatingStatus.ERROR);
-                movieRepository.save(movie);
-            });
+            enrichNow(movieId);
+        } finally {
+            enrichmentNode.untrackLease(movieId);
         }
     }
 
     /**
-     * Fetches movie rating from OMDb API.
-     * Returns the IMDb rating normalized to a 0-10 scale.
+     * Same as {@link #enrichMovieRating(Long)}, but queued in the background lane so that
+     * bulk work (imports, recovery sweeps) never delays interactive enrichment.
      */
-    private Double fetchRatingFromOmdb(String title, Integer year) {
+    @Async("backgroundTaskExecutor")
+    public void enrichMovieRatingInBackground(Long movieId) {
         try {
-            String encodedTitle = URLEncoder.encode(title, StandardCharsets.UTF_8);
+            enrichNow(movieId);
+        } finally {
+            enrichmentNode.untrackLease(movieId);
+        }
+    }
 
-            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(omdbApiUrl)
-                    .queryParam("apikey", omdbApiKey)
-                    .queryParam("t", encodedTitle)
-                    .queryParam("type", "movie");
+    /**
+     * Runs the enrichment on the calling thread. Used by callers that schedule the work
+     * themselves, such as the cluster work claimer. The result is written shortly after,
+     * in a batch, by the {@link EnrichmentResultBuffer}.
+     */
+    public void enrichNow(Long movieId) {
+        EnrichmentResultBuffer.Outcome outcome = lookUp(movieId, false);
+        if (outcome != null) {
+            // Written in a batch with other results; a flush failure keeps the result for the next flush
+            enrichmentResultBuffer.submit(outcome);
+        }
+    }
 
-            if (year != null) {
-                builder.queryParam("y", year);
-            }
+    /**
+     * Looks the rating of an already enriched movie up again, on the calling thread (re-enrichment, refresh).
+     * Unlike {@link #enrichNow(Long)}, it skips the {@link RatingLookupCache}, and a failed lookup or one that
+     * finds no rating leaves the stored rating and status as they are: a movie keeps its last known rating
+     * rather than ending up NOT_FOUND with a rating.
+     * Returns the outcome, or null if the movie is gone or another node holds its lease.
+     */
+    public EnrichmentResultBuffer.Outcome refreshNow(Long movieId) {
+        EnrichmentResultBuffer.Outcome outcome = lookUp(movieId, true);
+        if (outcome != null && outcome.status() == Movie.RatingStatus.ENRICHED) {
+            enrichmentResultBuffer.submit(outcome);
+        }
+        return outcome;
+    }
 
-            String url = builder.build(false).toUriString();
-            log.debug("Calling OMDb API: {}", url.replace(omdbApiKey, "***"));
+    /**
+     * @param fresh ask the providers even if the answer is cached (and cache the new answer)
+     */
+    private EnrichmentResultBuffer.Outcome lookUp(Long movieId, boolean fresh) {
+        enrichmentLog.info("Starting async rating enrichment for movie id: {}", movieId);
 
-            String response = restTemplate.getForObject(url, String.class);
+        String title = null;
+        try {
+            Optional<Movie> movieOptional = movieRepository.findById(movieId);
 
-            if (response == null) {
-                log.warn("Empty response from OMDb API");
+            if (movieOptional.isEmpty()) {
+                enrichmentLog.warn("Movie not found for enrichment: {}", movieId);
                 return null;
             }
 
-            JsonNode jsonNode = objectMapper.readTree(response);
+            Movie movie = movieOptional.get();
+            title = movie.getTitle();
 
-            // Check if response indicates success
-            if (jsonNode.has("Response") && "False".equals(jsonNode.get("Response").asText())) {
-                String error = jsonNode.has("Error") ? jsonNode.get("Error").asText() : "Unknown error";
-                log.warn("OMDb API error: {}", error);
+            if (!enrichmentNode.mayComplete(movie)) {
+                enrichmentLog.info("Skipping enrichment of movie {}: lease held by {}", movieId, movie.getLeaseOwner());
                 return null;
             }
 
-            // Extract IMDb rating
-            if (jsonNode.has("imdbRating")) {
-                String imdbRating = jsonNode.get("imdbRating").asText();
-                if (!"N/A".equals(imdbRating)) {
-                    return Double.parseDouble(imdbRating);
-                }
+            // Ask all rating providers; the first rating found wins
+            Double rating;
+            if (fresh) {
+                Optional<Double> answer = ratingProviderFanOut.fetchRating(title, movie.getReleaseYear());
+                ratingLookupCache.put(title, movie.getReleaseYear(), answer);
+                rating = answer.orElse(null);
+            } else {
+                rating = ratingLookupCache.get(title, movie.getReleaseYear(),
+                        () -> ratingProviderFanOut.fetchRating(movie.getTitle(), movie.getReleaseYear())).orElse(null);
             }
 
-            // Fallback: try to get rating from Ratings array
-            if (jsonNode.has("Ratings") && jsonNode.get("Ratings").isArray()) {
-                for (JsonNode ratingNode : jsonNode.get("Ratings")) {
-                    String source = ratingNode.get("Source").asText();
-                    String value = ratingNode.get("Value").asText();
-
-                    if ("Internet Movie Database".equals(source)) {
-                        // Format: "8.5/10"
-                        return Double.parseDouble(value.split("/")[0]);
-                    } else if ("Rotten Tomatoes".equals(source)) {
-                        // Format: "93%"
-                        int percentage = Integer.parseInt(value.replace("%", ""));
-                        return percentage / 10.0;
-                    } else if ("Metacritic".equals(source)) {
-                        // Format: "80/100"
-                        return Double.parseDouble(value.split("/")[0]) / 10.0;
-                    }
-                }
+            if (rating != null) {
+                enrichmentLog.info("Successfully enriched movie '{}' with rating: {}", title, rating);
+                return new EnrichmentResultBuffer.Outcome(movieId, title, rating, Movie.RatingStatus.ENRICHED);
             }
+            enrichmentLog.info("No rating found for movie: {}", title);
+            return new EnrichmentResultBuffer.Outcome(movieId, title, null, Movie.RatingStatus.NOT_FOUND);
 
-            log.warn("No valid rating found in OMDb response");
-            return null;
-
-        } catch (RestClientException e) {
-            log.error("REST client error calling OMDb API: {}", e.getMessage());
-            throw new RuntimeException("Failed to call OMDb API", e);
         } catch (Exception e) {
-            log.error("Error parsing OMDb API response: {}", e.getMessage());
-            throw new RuntimeException("Failed to parse OMDb API response", e);
+            // failures are never sampled: a rare error must not hide behind routine log volume
+            log.error("Error enriching movie rating for id {}: {}", movieId, e.toString());
+            return new EnrichmentResultBuffer.Outcome(movieId, title, null, Movie.RatingStatus.ERROR);
         }
     }
 }
@@ -0,0 +1,11 @@
+package com.example.demo.services.enrichment;
+
+/**
+ * Priority lanes of the enrichment scheduler.
+ * INTERACTIVE carries single create/update requests made by a user,
+ * BACKGROUND carries bulk work such as imports and recovery sweeps.
+ */
+public enum EnrichmentLane {
+    INTERACTIVE,
+    BACKGROUND
+}
@@ -0,0 +1,100 @@
+package com.example.demo.services.enrichment;
+
+import com.example.demo.models.Movie;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identity of this application instance for lease-based enrichment work sharing.
+ * <p>
+ * With {@code enrichment.cluster.enabled=false} (single node) leases are never taken and
+ * every enrichment may complete. In cluster mode a movie is only enriched by the node holding
+ * its lease, and an expired lease (crashed node) can be claimed by any other node. Leases of
+ * enrichments that are queued or running here are tracked, so that they are heartbeated
+ * whether the movie was claimed or leased on create/update.
+ */
+@Component
+@Getter
+@Slf4j
+public class EnrichmentNode {
+
+    private final boolean clusterEnabled;
+    private final String nodeId;
+    private final Duration leaseDuration;
+    // movie id -> enrichments of it queued or running on this node
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, Integer> trackedLeases = new ConcurrentHashMap<>();
+
+    public EnrichmentNode(@Value("${enrichment.cluster.enabled:false}") boolean clusterEnabled,
+                          @Value("${enrichment.cluster.node-id:}") String nodeId,
+                          @Value("${enrichment.cluster.lease-duration:PT60S}") Duration leaseDuration) {
+        this.clusterEnabled = clusterEnabled;
+        this.nodeId = StringUtils.hasText(nodeId)
+                ? nodeId
+                : ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.leaseDuration = leaseDuration;
+        if (clusterEnabled) {
+            log.info("Enrichment cluster mode enabled, node id: {}, lease duration: {}", this.nodeId, leaseDuration);
+        }
+    }
+
+    /**
+     * Takes the lease on a movie this node is about to enrich itself (create/update path).
+     */
+    public void takeLease(Movie movie) {
+        if (clusterEnabled) {
+            movie.setLeaseOwner(nodeId);
+            movie.setLeaseExpiresAt(leaseExpiry());
+        }
+    }
+
+    /**
+     * Whether this node may enrich the movie: it holds the lease, or nobody does. Only a hint for skipping
+     * work on a loaded copy; the result is written under {@code MovieRepository.releaseLease}, which
+     * checks the lease again in the database.
+     */
+    public boolean mayComplete(Movie movie) {
+        return !clusterEnabled || movie.getLeaseOwner() == null || nodeId.equals(movie.getLeaseOwner());
+    }
+
+    /**
+     * Marks an enrichment of the movie as queued on this node, so that its lease is heartbeated until
+     * {@link #untrackLease(Long)}. Call once the lease is committed; every call needs its untrack.
+     */
+    public void trackLease(Long movieId) {
+        if (clusterEnabled) {
+            trackedLeases.merge(movieId, 1, Integer::sum);
+        }
+    }
+
+    public void untrackLease(Long movieId) {
+        trackedLeases.computeIfPresent(movieId, (id, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Movies whose leases this node must keep alive.
+     */
+    public List<Long> trackedLeases() {
+        return List.copyOf(trackedLeases.keySet());
+    }
+
+    public int trackedLeaseCount() {
+        return trackedLeases.size();
+    }
+
+    public LocalDateTime leaseExpiry() {
+        return LocalDateTime.now().plus(leaseDuration);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.services.enrichment;
+
+import com.example.demo.models.Movie;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.services.RatingEnrichmentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Re-queues movies that were left PENDING (e.g. by a restart while enrichment was queued)
+ * in the background lane, so the sweep never competes with interactive enrichment.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "enrichment.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class EnrichmentRecoverySweep {
+
+    private final MovieRepository movieRepository;
+    private final RatingEnrichmentService ratingEnrichmentService;
+    private final EnrichmentNode node;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requeuePendingMovies() {
+        List<Movie> pending = movieRepository.findByRatingStatus(Movie.RatingStatus.PENDING);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        log.info("Recovery sweep: re-queuing {} pending movies for enrichment", pending.size());
+        int queued = 0;
+        try {
+            for (Movie movie : pending) {
+                // paired with the untrack at the end of the enrichment
+                node.trackLease(movie.getId());
+                try {
+                    ratingEnrichmentService.enrichMovieRatingInBackground(movie.getId());
+                } catch (TaskRejectedException e) {
+                    node.untrackLease(movie.getId());
+                    throw e;
+                }
+                queued++;
+            }
+        } catch (TaskRejectedException e) {
+            log.warn("Recovery sweep stopped after {} movies: {}", queued, e.getMessage());
+        }
+    }
+}
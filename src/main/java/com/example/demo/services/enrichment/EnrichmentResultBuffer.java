@@ -0,0 +1,273 @@
+package com.example.demo.services.enrichment;
+
+import com.example.demo.models.Movie;
+import com.example.demo.repositories.MovieRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for enrichment results.
+ * <p>
+ * Workers hand their outcome to the buffer instead of saving the movie in a transaction of its own.
+ * Outcomes are keyed by movie id, so a movie enriched twice before the next flush is written once
+ * with the latest result. A flush writes up to {@code batch-size} movies per transaction; it runs every
+ * {@code flush-interval}, as soon as a full batch is waiting, and on shutdown after the enrichment
+ * workers have drained. If the writer falls {@code max-pending} movies behind, submitting workers flush
+ * themselves, which slows enrichment down to the database's pace.
+ * <p>
+ * A flush only applies a result if the title is unchanged and this node may still complete the
+ * enrichment. In cluster mode it first releases the leases of the batch with a conditional update that
+ * checks both in the database and keeps the rows locked until the write. The movie's version is checked
+ * on write, so an edit committed between the read and the write fails the batch instead of being
+ * overwritten. A failed batch is written again
+ * one result per transaction, against the new state, so one result that cannot be written does not hold
+ * back the others. A result that still fails is kept for the next flush, and the flush throws so callers
+ * do not take it as done; after {@code max-attempts} failed writes it is dropped
+ * ({@code enrichment.write-behind.dropped}) and the movie keeps its stored state. Outcomes still buffered
+ * when the process dies are lost; those movies stay PENDING and are picked up by the recovery sweep.
+ */
+@Component
+@Slf4j
+public class EnrichmentResultBuffer {
+
+    /**
+     * Result of one enrichment. A null rating leaves the stored rating as it is.
+     */
+    public record Outcome(Long movieId, String title, Double rating, Movie.RatingStatus status) {
+    }
+
+    private final MovieRepository movieRepository;
+    private final EnrichmentNode enrichmentNode;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxPending;
+    private final int maxAttempts;
+    private final Map<Long, Outcome> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> failedWrites = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private final Counter coalesced;
+    private final Counter stale;
+    private final Counter failures;
+    private final Counter dropped;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+
+    public EnrichmentResultBuffer(MovieRepository movieRepository,
+                                  EnrichmentNode enrichmentNode,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${enrichment.write-behind.flush-interval:PT0.2S}") Duration flushInterval,
+                                  @Value("${enrichment.write-behind.batch-size:100}") int batchSize,
+                                  @Value("${enrichment.write-behind.max-pending:10000}") int maxPending,
+                                  @Value("${enrichment.write-behind.max-attempts:3}") int maxAttempts) {
+        this.movieRepository = movieRepository;
+        this.enrichmentNode = enrichmentNode;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.coalesced = Counter.builder("enrichment.write-behind.coalesced")
+                .description("Results replaced by a newer result for the same movie before being written")
+                .register(meterRegistry);
+        this.stale = Counter.builder("enrichment.write-behind.stale")
+                .description("Results dropped because the movie was renamed or re-leased in the meantime")
+                .register(meterRegistry);
+        this.failures = Counter.builder("enrichment.write-behind.failures").register(meterRegistry);
+        this.dropped = Counter.builder("enrichment.write-behind.dropped")
+                .description("Results given up after max-attempts failed writes")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("enrichment.write-behind.flush")
+                .description("Time to write one batch of results")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("enrichment.write-behind.batch-size")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+        Gauge.builder("enrichment.write-behind.pending", pending, Map::size).register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("enrichment-flush-"));
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void submit(Outcome outcome) {
+        if (pending.put(outcome.movieId(), outcome) != null) {
+            coalesced.increment();
+        }
+        int size = pending.size();
+        if (size >= maxPending) {
+            flush();
+        } else if (size >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Writes everything buffered so far, one transaction per batch.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            Map<Long, Outcome> batch;
+            do {
+                batch = drain();
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } while (batch.size() == batchSize);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops the periodic flush and writes what is left. The enrichment scheduler also flushes once its
+     * workers have finished, so results of tasks completed during shutdown are not lost.
+     */
+    @PreDestroy
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Enrichment write-behind buffer flushed on shutdown");
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Flushing enrichment results failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private Map<Long, Outcome> drain() {
+        Map<Long, Outcome> batch = new HashMap<>();
+        Iterator<Long> ids = pending.keySet().iterator();
+        while (ids.hasNext() && batch.size() < batchSize) {
+            Long movieId = ids.next();
+            Outcome outcome = pending.remove(movieId);
+            if (outcome != null) {
+                batch.put(movieId, outcome);
+            }
+        }
+        return batch;
+    }
+
+    private void write(Map<Long, Outcome> batch) {
+        long started = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+            batchSizes.record(batch.size());
+            failedWrites.keySet().removeAll(batch.keySet());
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Writing {} enrichment results failed, writing them one by one: {}", batch.size(),
+                    e.getMessage());
+            writeOneByOne(batch);
+        } finally {
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Fallback for a failed batch, one transaction per result.
+     *
+     * @throws RuntimeException the last failure, if a result was kept for the next flush
+     */
+    private void writeOneByOne(Map<Long, Outcome> batch) {
+        RuntimeException kept = null;
+        for (Outcome outcome : batch.values()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(Map.of(outcome.movieId(), outcome)));
+                failedWrites.remove(outcome.movieId());
+            } catch (RuntimeException e) {
+                int attempts = failedWrites.merge(outcome.movieId(), 1, Integer::sum);
+                if (attempts >= maxAttempts) {
+                    failedWrites.remove(outcome.movieId());
+                    dropped.increment();
+                    log.error("Dropping the enrichment result of movie {} after {} failed writes: {}",
+                            outcome.movieId(), attempts, e.getMessage());
+                } else {
+                    // keep the result for the next flush, unless a newer one arrived meanwhile
+                    pending.putIfAbsent(outcome.movieId(), outcome);
+                    kept = e;
+                }
+            }
+        }
+        if (kept != null) {
+            throw kept;
+        }
+    }
+
+    private void apply(Map<Long, Outcome> batch) {
+        List<Movie> changed = new ArrayList<>(batch.size());
+        for (Movie movie : movieRepository.findAllById(completable(batch))) {
+            Outcome outcome = batch.get(movie.getId());
+            if (outcome.title() != null && !outcome.title().equals(movie.getTitle())) {
+                stale.increment();
+                continue;
+            }
+            if (outcome.rating() != null) {
+                movie.setRating(outcome.rating());
+            }
+            movie.setRatingStatus(outcome.status());
+            changed.add(movie);
+        }
+        movieRepository.saveAll(changed);
+    }
+
+    /**
+     * Releases the leases of the batch in the writing transaction and returns the movies this node may
+     * complete. Checking the lease on the loaded movie and saving it later would let another node claim
+     * it in between; the conditional update keeps the row locked until the results are written.
+     */
+    private Collection<Long> completable(Map<Long, Outcome> batch) {
+        if (!enrichmentNode.isClusterEnabled()) {
+            return batch.keySet();
+        }
+        List<Long> held = new ArrayList<>(batch.size());
+        for (Outcome outcome : batch.values()) {
+            if (movieRepository.releaseLease(outcome.movieId(), enrichmentNode.getNodeId(), outcome.title()) == 1) {
+                held.add(outcome.movieId());
+            } else {
+                stale.increment();
+            }
+        }
+        return held;
+    }
+}
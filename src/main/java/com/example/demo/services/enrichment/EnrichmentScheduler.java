@@ -0,0 +1,269 @@
+package com.example.demo.services.enrichment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executes enrichment tasks from several priority lanes on one shared worker pool.
+ * <p>
+ * Every lane has its own bounded queue and concurrency cap. Idle workers pick the next
+ * task with smooth weighted round-robin over the lanes that have queued work and free
+ * concurrency, so a large bulk backlog in the background lane cannot starve interactive
+ * requests, and the background lane still makes progress while interactive work arrives.
+ */
+@Slf4j
+public class EnrichmentScheduler {
+
+    public record LaneSettings(int weight, int maxConcurrency, int queueCapacity) {
+    }
+
+    private final Map<EnrichmentLane, Lane> lanes = new EnumMap<>(EnrichmentLane.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final List<Thread> workers = new ArrayList<>();
+    private final int poolSize;
+    private final ThreadFactory threadFactory;
+
+    private boolean waitForTasksToCompleteOnShutdown = true;
+    private int awaitTerminationSeconds = 30;
+    private Runnable afterShutdown = () -> {
+    };
+    private boolean shutdown;
+
+    public EnrichmentScheduler(int poolSize, Map<EnrichmentLane, LaneSettings> settings,
+                               ThreadFactory threadFactory, MeterRegistry meterRegistry) {
+        this.poolSize = poolSize;
+        this.threadFactory = threadFactory;
+        for (EnrichmentLane lane : EnrichmentLane.values()) {
+            LaneSettings laneSettings = settings.get(lane);
+            if (laneSettings == null) {
+                throw new IllegalArgumentException("Missing settings for lane " + lane);
+            }
+            lanes.put(lane, new Lane(lane, laneSettings, meterRegistry));
+        }
+    }
+
+    public void setWaitForTasksToCompleteOnShutdown(boolean waitForTasksToCompleteOnShutdown) {
+        this.waitForTasksToCompleteOnShutdown = waitForTasksToCompleteOnShutdown;
+    }
+
+    public void setAwaitTerminationSeconds(int awaitTerminationSeconds) {
+        this.awaitTerminationSeconds = awaitTerminationSeconds;
+    }
+
+    /**
+     * Runs once the workers have finished on shutdown (or the termination wait ran out),
+     * e.g. to write results the last tasks buffered.
+     */
+    public void setAfterShutdown(Runnable afterShutdown) {
+        this.afterShutdown = afterShutdown;
+    }
+
+    public void initialize() {
+        for (int i = 0; i < poolSize; i++) {
+            Thread worker = threadFactory.newThread(this::runWorker);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("Enrichment scheduler started with {} workers, lanes: {}", poolSize, lanes.values());
+    }
+
+    /**
+     * Returns an executor view that submits every task to the given lane.
+     */
+    public TaskExecutor executor(EnrichmentLane lane) {
+        return task -> submit(lane, task);
+    }
+
+    public void submit(EnrichmentLane laneId, Runnable task) {
+        Lane lane = lanes.get(laneId);
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new TaskRejectedException("Enrichment scheduler is shut down");
+            }
+            if (lane.queue.size() >= lane.settings.queueCapacity()) {
+                lane.rejected.increment();
+                throw new TaskRejectedException("Enrichment lane " + laneId + " is full ("
+                        + lane.settings.queueCapacity() + " queued tasks)");
+            }
+            lane.queue.addLast(new QueuedTask(task, System.nanoTime()));
+            lane.submitted.increment();
+            stateChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth(EnrichmentLane laneId) {
+        lock.lock();
+        try {
+            return lanes.get(laneId).queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount(EnrichmentLane laneId) {
+        lock.lock();
+        try {
+            return lanes.get(laneId).active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            if (!waitForTasksToCompleteOnShutdown) {
+                lanes.values().forEach(lane -> lane.queue.clear());
+            }
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(awaitTerminationSeconds);
+        for (Thread worker : workers) {
+            if (!waitForTasksToCompleteOnShutdown) {
+                worker.interrupt();
+            }
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.stream().filter(Thread::isAlive).forEach(Thread::interrupt);
+        try {
+            afterShutdown.run();
+        } catch (RuntimeException e) {
+            log.error("Enrichment scheduler shutdown callback failed", e);
+        }
+        log.info("Enrichment scheduler shut down");
+    }
+
+    private void runWorker() {
+        while (true) {
+            Lane lane;
+            QueuedTask queued;
+            lock.lock();
+            try {
+                while ((lane = pickLane()) == null) {
+                    if (shutdown && isDrained()) {
+                        return;
+                    }
+                    stateChanged.await();
+                }
+                queued = lane.queue.pollFirst();
+                lane.active++;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            lane.waitTime.record(System.nanoTime() - queued.enqueuedAt(), TimeUnit.NANOSECONDS);
+            try {
+                queued.task().run();
+            } catch (Throwable e) {
+                log.error("Enrichment task failed in lane {}", lane.id, e);
+            } finally {
+                lock.lock();
+                try {
+                    lane.active--;
+                    lane.completed.increment();
+                    stateChanged.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Smooth weighted round-robin over the lanes that can run a task right now.
+     * Must be called while holding the lock.
+     */
+    private Lane pickLane() {
+        Lane best = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.queue.isEmpty() || lane.active >= lane.settings.maxConcurrency()) {
+                continue;
+            }
+            lane.currentWeight += lane.settings.weight();
+            totalWeight += lane.settings.weight();
+            if (best == null || lane.currentWeight > best.currentWeight) {
+                best = lane;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= totalWeight;
+        }
+        return best;
+    }
+
+    private boolean isDrained() {
+        return lanes.values().stream().allMatch(lane -> lane.queue.isEmpty());
+    }
+
+    private record QueuedTask(Runnable task, long enqueuedAt) {
+    }
+
+    private final class Lane {
+        private final EnrichmentLane id;
+        private final LaneSettings settings;
+        private final ArrayDeque<QueuedTask> queue = new ArrayDeque<>();
+        private final Counter submitted;
+        private final Counter completed;
+        private final Counter rejected;
+        private final Timer waitTime;
+        private int active;
+        private int currentWeight;
+
+        private Lane(EnrichmentLane id, LaneSettings settings, MeterRegistry registry) {
+            this.id = id;
+            this.settings = settings;
+            String tag = id.name().toLowerCase();
+            this.submitted = Counter.builder("enrichment.lane.submitted").tag("lane", tag).register(registry);
+            this.completed = Counter.builder("enrichment.lane.completed").tag("lane", tag).register(registry);
+            this.rejected = Counter.builder("enrichment.lane.rejected").tag("lane", tag).register(registry);
+            this.waitTime = Timer.builder("enrichment.lane.wait")
+                    .description("Time a task spent queued before a worker picked it up")
+                    .tag("lane", tag)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .maximumExpectedValue(Duration.ofMinutes(5))
+                    .register(registry);
+            Gauge.builder("enrichment.lane.queue.depth", () -> getQueueDepth(id))
+                    .tag("lane", tag).register(registry);
+            Gauge.builder("enrichment.lane.active", () -> getActiveCount(id))
+                    .tag("lane", tag).register(registry);
+        }
+
+        @Override
+        public String toString() {
+            return id + "(weight=" + settings.weight() + ", maxConcurrency=" + settings.maxConcurrency()
+                    + ", queueCapacity=" + settings.queueCapacity() + ")";
+        }
+    }
+}
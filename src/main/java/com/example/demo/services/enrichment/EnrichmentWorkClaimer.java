@@ -0,0 +1,101 @@
+package com.example.demo.services.enrichment;
+
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.services.RatingEnrichmentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Shares enrichment work between application instances through the database.
+ * <p>
+ * Every node polls for PENDING movies without a live lease and claims them one row at a time
+ * with a conditional update, so each movie is won by exactly one node. Claimed movies run in
+ * the background lane; the node heartbeats the leases of the movies it is still working on
+ * ({@link EnrichmentNode#trackLease(Long)}), claimed or leased on create/update, and leases of a crashed node simply expire and are claimed by the others.
+ * Enabled with {@code enrichment.cluster.enabled=true}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "enrichment.cluster.enabled", havingValue = "true")
+public class EnrichmentWorkClaimer {
+
+    private final MovieRepository movieRepository;
+    private final RatingEnrichmentService ratingEnrichmentService;
+    private final EnrichmentScheduler enrichmentScheduler;
+    private final EnrichmentNode node;
+    private final int batchSize;
+    private final Counter claimed;
+    private final Counter lostClaims;
+
+    public EnrichmentWorkClaimer(MovieRepository movieRepository,
+                                 RatingEnrichmentService ratingEnrichmentService,
+                                 EnrichmentScheduler enrichmentScheduler,
+                                 EnrichmentNode node,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${enrichment.cluster.batch-size:20}") int batchSize) {
+        this.movieRepository = movieRepository;
+        this.ratingEnrichmentService = ratingEnrichmentService;
+        this.enrichmentScheduler = enrichmentScheduler;
+        this.node = node;
+        this.batchSize = batchSize;
+        this.claimed = Counter.builder("enrichment.cluster.claimed").register(meterRegistry);
+        this.lostClaims = Counter.builder("enrichment.cluster.claims.lost")
+                .description("Claim attempts another node won first")
+                .register(meterRegistry);
+        Gauge.builder("enrichment.cluster.in-flight", node, EnrichmentNode::trackedLeaseCount).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${enrichment.cluster.poll-interval:PT2S}")
+    public void claimBatch() {
+        // Only claim what this node can start soon, so unclaimed work stays available to idle nodes
+        int capacity = batchSize - enrichmentScheduler.getQueueDepth(EnrichmentLane.BACKGROUND);
+        if (capacity <= 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> candidates = movieRepository.findClaimableIds(now, capacity);
+        for (Long movieId : candidates) {
+            if (movieRepository.tryClaim(movieId, node.getNodeId(), node.leaseExpiry(), now) == 0) {
+                lostClaims.increment();
+                continue;
+            }
+            claimed.increment();
+            node.trackLease(movieId);
+            try {
+                enrichmentScheduler.submit(EnrichmentLane.BACKGROUND, () -> {
+                    try {
+                        ratingEnrichmentService.enrichNow(movieId);
+                    } finally {
+                        node.untrackLease(movieId);
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                // The lease expires and the movie is claimed again later, here or on another node
+                node.untrackLease(movieId);
+                log.warn("Could not queue claimed movie {}: {}", movieId, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${enrichment.cluster.heartbeat-interval:PT20S}")
+    public void heartbeat() {
+        List<Long> leased = node.trackedLeases();
+        if (leased.isEmpty()) {
+            return;
+        }
+        int extended = movieRepository.extendLeases(node.getNodeId(), leased, node.leaseExpiry());
+        log.debug("Extended {} enrichment leases held by {}", extended, node.getNodeId());
+    }
+}
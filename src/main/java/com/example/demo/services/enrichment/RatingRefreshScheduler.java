@@ -0,0 +1,370 @@
+package com.example.demo.services.enrichment;
+
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.models.Movie;
+import com.example.demo.models.MovieRefreshSchedule;
+import com.example.demo.ratelimit.SlidingWindowRateLimiter;
+import com.example.demo.repositories.MovieRefreshScheduleRepository;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.services.RatingEnrichmentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Staleness-aware rating refresh. Every ENRICHED or NOT_FOUND movie has a next refresh time in a
+ * time-ordered index, and each poll queues only the movies that are due in the background lane.
+ * <p>
+ * The refresh interval follows the movie's age: {@code min-interval} for a release of the current year,
+ * growing with the square of the age up to {@code max-interval}, because old ratings barely move. It
+ * shrinks with the movie's volatility, the smoothed rating change that past refreshes found. A movie
+ * whose rating moved by {@code volatility-step} per refresh is refreshed twice as often as its age
+ * alone suggests. Schedules are stored after each refresh. A movie without one is first due an age
+ * interval after its {@code updatedAt}.
+ * <p>
+ * A poll queues at most {@code batch-size} movies minus the background lane's depth, so refreshes never
+ * crowd out the enrichment of new movies. Lookups are also paced by the refresh's own outbound budget
+ * ({@code rate-limit} per {@code window}), as the re-enrichment job is, so a backlog of due movies after a
+ * restart cannot exhaust the OMDb quota; movies over the budget stay due for the next poll. A refresh that
+ * finds no rating keeps the movie's previous rating. The index is per node; the cluster profile disables it.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "enrichment.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class RatingRefreshScheduler {
+
+    private static final String RATE_LIMIT_KEY = "rating-refresh";
+    private static final int LOAD_BATCH_SIZE = 5_000;
+    private static final double VOLATILITY_SMOOTHING = 0.5;
+    private static final double JITTER = 0.1;
+    private static final Comparator<Due> DUE_FIRST = Comparator.comparingLong(Due::atMillis)
+            .thenComparingLong(Due::movieId);
+
+    private record Due(long atMillis, long movieId) {
+    }
+
+    /**
+     * Refresh state of one movie. {@code due} is null while its refresh is queued or running.
+     */
+    private static final class Tracked {
+        Integer releaseYear;
+        Double rating;
+        double volatility;
+        Due due;
+    }
+
+    private final MovieRepository movieRepository;
+    private final MovieRefreshScheduleRepository scheduleRepository;
+    private final RatingEnrichmentService ratingEnrichmentService;
+    private final EnrichmentScheduler enrichmentScheduler;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final double volatilityStep;
+    private final int batchSize;
+    private final int rateLimit;
+    private final SlidingWindowRateLimiter rateLimiter;
+    private final Map<Long, Tracked> trackedById = new HashMap<>();
+    private final NavigableSet<Due> dueIndex = new TreeSet<>(DUE_FIRST);
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+    private boolean loading;
+    private final Counter changed;
+    private final Counter unchanged;
+    private final Counter notFound;
+    private final Counter failed;
+    private final Counter throttled;
+
+    public RatingRefreshScheduler(MovieRepository movieRepository,
+                                  MovieRefreshScheduleRepository scheduleRepository,
+                                  RatingEnrichmentService ratingEnrichmentService,
+                                  EnrichmentScheduler enrichmentScheduler,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${enrichment.refresh.min-interval:P1D}") Duration minInterval,
+                                  @Value("${enrichment.refresh.max-interval:P180D}") Duration maxInterval,
+                                  @Value("${enrichment.refresh.volatility-step:0.1}") double volatilityStep,
+                                  @Value("${enrichment.refresh.batch-size:20}") int batchSize,
+                                  @Value("${enrichment.refresh.rate-limit:120}") int rateLimit,
+                                  @Value("${enrichment.refresh.window:PT1M}") Duration window) {
+        this.movieRepository = movieRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.ratingEnrichmentService = ratingEnrichmentService;
+        this.enrichmentScheduler = enrichmentScheduler;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval.compareTo(minInterval) < 0 ? minInterval : maxInterval;
+        this.volatilityStep = volatilityStep;
+        this.batchSize = batchSize;
+        this.rateLimit = Math.min(rateLimit, SlidingWindowRateLimiter.MAX_LIMIT);
+        this.rateLimiter = new SlidingWindowRateLimiter(window, 1);
+        this.changed = lookups(meterRegistry, "changed");
+        this.unchanged = lookups(meterRegistry, "unchanged");
+        this.notFound = lookups(meterRegistry, "not_found");
+        this.failed = lookups(meterRegistry, "failed");
+        this.throttled = Counter.builder("enrichment.refresh.throttled")
+                .description("Due refreshes postponed by the refresh outbound budget")
+                .register(meterRegistry);
+        Gauge.builder("enrichment.refresh.scheduled", this, RatingRefreshScheduler::scheduledMovies)
+                .description("Movies with a scheduled rating refresh")
+                .register(meterRegistry);
+        Gauge.builder("enrichment.refresh.lag", this, RatingRefreshScheduler::lagSeconds)
+                .description("Seconds the most overdue refresh is past its due time")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("enrichment.refresh.lookups").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            loading = true;
+        }
+        try {
+            int purged = scheduleRepository.deleteOrphans();
+            if (purged > 0) {
+                log.info("Removed {} refresh schedules of deleted movies", purged);
+            }
+            long afterId = 0;
+            List<MovieRepository.RefreshView> batch;
+            do {
+                batch = movieRepository.findRefreshableAfter(afterId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+                synchronized (this) {
+                    for (MovieRepository.RefreshView view : batch) {
+                        // a write that committed meanwhile already scheduled (or dropped) the movie
+                        if (!changedWhileLoading.contains(view.getId()) && !trackedById.containsKey(view.getId())) {
+                            track(view);
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+        } finally {
+            synchronized (this) {
+                loading = false;
+                changedWhileLoading.clear();
+            }
+        }
+        log.info("Rating refresh scheduled for {} movies", scheduledMovies());
+    }
+
+    private void track(MovieRepository.RefreshView view) {
+        Tracked movie = new Tracked();
+        movie.releaseYear = view.getReleaseYear();
+        movie.rating = view.getRating();
+        movie.volatility = view.getVolatility() == null ? 0 : view.getVolatility();
+        long dueAt = view.getNextRefreshAt() != null
+                ? toMillis(view.getNextRefreshAt())
+                : toMillis(view.getUpdatedAt()) + jittered(intervalFor(movie.releaseYear, movie.volatility));
+        trackedById.put(view.getId(), movie);
+        schedule(view.getId(), movie, dueAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        if (loading) {
+            changedWhileLoading.add(event.movieId());
+        }
+        Tracked movie = trackedById.get(event.movieId());
+        boolean refreshable = event.changeType() != MovieChangedEvent.ChangeType.DELETED
+                && (event.ratingStatus() == Movie.RatingStatus.ENRICHED
+                || event.ratingStatus() == Movie.RatingStatus.NOT_FOUND);
+        if (!refreshable) {
+            // deleted, or back to PENDING after a title change: regular enrichment takes over
+            if (movie != null) {
+                trackedById.remove(event.movieId());
+                if (movie.due != null) {
+                    dueIndex.remove(movie.due);
+                }
+            }
+            return;
+        }
+        if (movie == null) {
+            movie = new Tracked();
+            trackedById.put(event.movieId(), movie);
+            schedule(event.movieId(), movie,
+                    System.currentTimeMillis() + jittered(intervalFor(event.releaseYear(), 0)));
+        }
+        movie.releaseYear = event.releaseYear();
+        movie.rating = event.rating();
+    }
+
+    /**
+     * Queues the movies that are due, as many as the background lane can start soon and the outbound budget
+     * allows.
+     */
+    @Scheduled(fixedDelayString = "${enrichment.refresh.poll-interval:PT10S}")
+    public void dispatchDue() {
+        int capacity = batchSize - enrichmentScheduler.getQueueDepth(EnrichmentLane.BACKGROUND);
+        if (capacity <= 0) {
+            return;
+        }
+        List<Long> due = takeDue(capacity, System.currentTimeMillis());
+        for (int i = 0; i < due.size(); i++) {
+            Long movieId = due.get(i);
+            if (!rateLimiter.tryAcquire(RATE_LIMIT_KEY, rateLimit).allowed()) {
+                // still due on the next poll
+                throttled.increment(due.size() - i);
+                requeue(due.subList(i, due.size()));
+                return;
+            }
+            try {
+                enrichmentScheduler.submit(EnrichmentLane.BACKGROUND, () -> refresh(movieId));
+            } catch (TaskRejectedException e) {
+                // still due on the next poll, and the lookup was not spent
+                rateLimiter.release(RATE_LIMIT_KEY, 1);
+                requeue(due.subList(i, due.size()));
+                log.warn("Could not queue rating refreshes: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private synchronized List<Long> takeDue(int limit, long now) {
+        List<Long> due = new ArrayList<>(Math.min(limit, dueIndex.size()));
+        while (due.size() < limit && !dueIndex.isEmpty() && dueIndex.first().atMillis() <= now) {
+            Due next = dueIndex.pollFirst();
+            trackedById.get(next.movieId()).due = null;
+            due.add(next.movieId());
+        }
+        return due;
+    }
+
+    private synchronized void requeue(List<Long> movieIds) {
+        long now = System.currentTimeMillis();
+        for (Long movieId : movieIds) {
+            Tracked movie = trackedById.get(movieId);
+            if (movie != null && movie.due == null) {
+                schedule(movieId, movie, now);
+            }
+        }
+    }
+
+    void refresh(Long movieId) {
+        EnrichmentResultBuffer.Outcome outcome = ratingEnrichmentService.refreshNow(movieId);
+        if (outcome == null) {
+            // gone, or another node holds its lease; a later write schedules it again
+            synchronized (this) {
+                Tracked movie = trackedById.get(movieId);
+                if (movie != null && movie.due == null) {
+                    trackedById.remove(movieId);
+                }
+            }
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        double volatility;
+        long nextAt;
+        synchronized (this) {
+            Tracked movie = trackedById.get(movieId);
+            if (movie == null || movie.due != null) {
+                return;
+            }
+            if (outcome.status() == Movie.RatingStatus.ERROR) {
+                failed.increment();
+                nextAt = now + jittered(minInterval);
+            } else {
+                double change = 0;
+                if (outcome.status() == Movie.RatingStatus.NOT_FOUND) {
+                    notFound.increment();
+                } else if (movie.rating != null && outcome.rating() != null) {
+                    change = Math.abs(outcome.rating() - movie.rating);
+                }
+                if (outcome.status() == Movie.RatingStatus.ENRICHED) {
+                    (change > 0 ? changed : unchanged).increment();
+                    movie.rating = outcome.rating();
+                }
+                // NOT_FOUND keeps the stored rating, so the next change is measured against it
+                movie.volatility = (1 - VOLATILITY_SMOOTHING) * movie.volatility + VOLATILITY_SMOOTHING * change;
+                nextAt = now + jittered(intervalFor(movie.releaseYear, movie.volatility));
+            }
+            volatility = movie.volatility;
+            schedule(movieId, movie, nextAt);
+        }
+
+        try {
+            scheduleRepository.save(MovieRefreshSchedule.builder()
+                    .movieId(movieId)
+                    .nextRefreshAt(toDateTime(nextAt))
+                    .lastRefreshedAt(toDateTime(now))
+                    .volatility(volatility)
+                    .build());
+        } catch (DataAccessException e) {
+            // the in-memory schedule stands; after a restart the movie is due by its age again
+            log.warn("Could not store the refresh schedule of movie {}: {}", movieId, e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh interval of a movie released in {@code releaseYear} (null: unknown, treated as old) whose
+     * refreshes found an average rating change of {@code volatility}, before jitter.
+     */
+    public Duration intervalFor(Integer releaseYear, double volatility) {
+        if (releaseYear == null) {
+            return maxInterval;
+        }
+        long age = Math.max(0, Year.now().getValue() - releaseYear);
+        double byAge = minInterval.toMillis() * (double) (age + 1) * (age + 1);
+        double interval = byAge / (1 + volatility / volatilityStep);
+        return Duration.ofMillis((long) Math.max(minInterval.toMillis(), Math.min(maxInterval.toMillis(), interval)));
+    }
+
+    public synchronized int scheduledMovies() {
+        return trackedById.size();
+    }
+
+    public synchronized double lagSeconds() {
+        if (dueIndex.isEmpty()) {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - dueIndex.first().atMillis()) / 1000.0;
+    }
+
+    private void schedule(long movieId, Tracked movie, long atMillis) {
+        movie.due = new Due(atMillis, movieId);
+        dueIndex.add(movie.due);
+    }
+
+    // Spreads movies enriched together (an import) over time, so they do not all come due at once
+    private static long jittered(Duration interval) {
+        return (long) (interval.toMillis() * (1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER)));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? System.currentTimeMillis()
+                : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,593 @@
+package com.example.demo.services.enrichment;
+
+import com.example.demo.exceptions.JobAlreadyRunningException;
+import com.example.demo.exceptions.JobNotFoundException;
+import com.example.demo.models.Movie;
+import com.example.demo.models.ReEnrichmentChunk;
+import com.example.demo.models.ReEnrichmentJob;
+import com.example.demo.models.dtos.ReEnrichmentStatus;
+import com.example.demo.ratelimit.SlidingWindowRateLimiter;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.repositories.ReEnrichmentChunkRepository;
+import com.example.demo.repositories.ReEnrichmentJobRepository;
+import com.example.demo.services.RatingEnrichmentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admin-triggered re-enrichment of the whole catalog, for when the rating source changed or ratings
+ * went stale. Every movie that is not PENDING is looked up again.
+ * <p>
+ * The id space is split into chunks of {@code chunk-size} ids, which {@code workers} threads take one
+ * at a time. A worker reads a chunk in pages of {@code checkpoint-every} ids. After each page it flushes
+ * the write-behind buffer and saves the chunk's checkpoint (last id done and outcome counters), so a
+ * job interrupted by a restart resumes where it stopped: on startup, or when it is started again.
+ * Lookups are paced by the job's own outbound budget ({@code rate-limit} per {@code window}), so a
+ * re-enrichment cannot exhaust the OMDb quota that interactive enrichment relies on. A failed lookup,
+ * or one that finds no rating, keeps the movie's previous rating and status. A chunk that stops on an
+ * error (a flush or checkpoint that cannot be written) is retried from its checkpoint after a growing
+ * pause; once it has failed {@code max-chunk-failures} times, counted across restarts, the workers stop
+ * and the job ends FAILED instead of being resumed forever.
+ * <p>
+ * One job runs at a time. The node running it holds a lease on the job row, taken and resumed only with a
+ * conditional update and heartbeated every {@code heartbeat-interval}, so two nodes never work on the same
+ * job. In cluster mode an idle node adopts a RUNNING job whose lease expired (crashed owner), and an owner
+ * whose heartbeat finds the job cancelled or taken over stops its workers.
+ */
+@Component
+@Slf4j
+public class ReEnrichmentJobRunner {
+
+    private static final String RATE_LIMIT_KEY = "re-enrichment";
+    private static final long CHUNK_RETRY_PAUSE_MILLIS = 1_000;
+
+    private final MovieRepository movieRepository;
+    private final ReEnrichmentJobRepository jobRepository;
+    private final ReEnrichmentChunkRepository chunkRepository;
+    private final RatingEnrichmentService ratingEnrichmentService;
+    private final EnrichmentResultBuffer enrichmentResultBuffer;
+    private final EnrichmentNode node;
+    private final int workers;
+    private final int chunkSize;
+    private final int checkpointEvery;
+    private final int rateLimit;
+    private final long throttlePauseMillis;
+    private final int maxChunkFailures;
+    private final SlidingWindowRateLimiter rateLimiter;
+    private final Counter enriched;
+    private final Counter notFound;
+    private final Counter failed;
+    private final Counter throttled;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Run current;
+
+    public ReEnrichmentJobRunner(MovieRepository movieRepository,
+                                 ReEnrichmentJobRepository jobRepository,
+                                 ReEnrichmentChunkRepository chunkRepository,
+                                 RatingEnrichmentService ratingEnrichmentService,
+                                 EnrichmentResultBuffer enrichmentResultBuffer,
+                                 EnrichmentNode node,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${enrichment.re-enrichment.workers:2}") int workers,
+                                 @Value("${enrichment.re-enrichment.chunk-size:1000}") int chunkSize,
+                                 @Value("${enrichment.re-enrichment.checkpoint-every:50}") int checkpointEvery,
+                                 @Value("${enrichment.re-enrichment.rate-limit:300}") int rateLimit,
+                                 @Value("${enrichment.re-enrichment.window:PT1M}") Duration window,
+                                 @Value("${enrichment.re-enrichment.max-chunk-failures:3}") int maxChunkFailures) {
+        this.movieRepository = movieRepository;
+        this.jobRepository = jobRepository;
+        this.chunkRepository = chunkRepository;
+        this.ratingEnrichmentService = ratingEnrichmentService;
+        this.enrichmentResultBuffer = enrichmentResultBuffer;
+        this.node = node;
+        this.workers = Math.max(1, workers);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.checkpointEvery = Math.max(1, checkpointEvery);
+        this.rateLimit = Math.min(rateLimit, SlidingWindowRateLimiter.MAX_LIMIT);
+        // roughly the spacing of lookups at the configured rate
+        this.throttlePauseMillis = Math.max(10, window.toMillis() / Math.max(1, this.rateLimit));
+        this.rateLimiter = new SlidingWindowRateLimiter(window, 1);
+        this.maxChunkFailures = Math.max(1, maxChunkFailures);
+        this.enriched = lookups(meterRegistry, "enriched");
+        this.notFound = lookups(meterRegistry, "not_found");
+        this.failed = lookups(meterRegistry, "failed");
+        this.throttled = Counter.builder("enrichment.re-enrichment.throttled")
+                .description("Waits for the re-enrichment outbound budget")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("enrichment.re-enrichment.lookups").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /**
+     * Starts a new job over the current catalog, or resumes an interrupted one.
+     *
+     * @throws JobAlreadyRunningException if a job is running on this node, or on another one that holds its lease
+     */
+    public ReEnrichmentStatus start() {
+        lock.lock();
+        try {
+            if (isActive(current)) {
+                throw new JobAlreadyRunningException(
+                        "Re-enrichment job " + current.job.getId() + " is already running");
+            }
+            List<ReEnrichmentJob> interrupted = jobRepository.findByState(ReEnrichmentJob.State.RUNNING);
+            if (!interrupted.isEmpty()) {
+                ReEnrichmentJob job = latest(interrupted);
+                if (!claim(job)) {
+                    throw new JobAlreadyRunningException(
+                            "Re-enrichment job " + job.getId() + " is already running on node " + job.getOwnerNode());
+                }
+                return resume(job);
+            }
+
+            MovieRepository.IdRange range = movieRepository.findReEnrichmentRange();
+            ReEnrichmentJob job = jobRepository.save(ReEnrichmentJob.builder()
+                    .state(ReEnrichmentJob.State.RUNNING)
+                    .total(range.getMovies())
+                    .requestedBy(currentUser())
+                    .startedAt(LocalDateTime.now())
+                    .ownerNode(node.getNodeId())
+                    .leaseExpiresAt(node.leaseExpiry())
+                    .build());
+            List<ReEnrichmentChunk> chunks = new ArrayList<>();
+            if (range.getMinId() != null) {
+                for (long from = range.getMinId(); from <= range.getMaxId(); from += chunkSize) {
+                    chunks.add(ReEnrichmentChunk.builder()
+                            .jobId(job.getId())
+                            .fromId(from)
+                            .toId(Math.min(from + chunkSize - 1, range.getMaxId()))
+                            .lastDoneId(from - 1)
+                            .build());
+                }
+            }
+            chunks = chunkRepository.saveAll(chunks);
+            job.setChunkCount(chunks.size());
+            job = jobRepository.save(job);
+            log.info("Re-enrichment job {} started by {}: {} movies in {} chunks",
+                    job.getId(), job.getRequestedBy(), job.getTotal(), chunks.size());
+            current = launch(job, chunks);
+            return status(current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels the running (or interrupted) job. Workers stop after their current lookup; work done so
+     * far is kept. A job running on another node stops at that node's next heartbeat. Cancelling a
+     * finished job changes nothing.
+     */
+    public ReEnrichmentStatus cancel() {
+        lock.lock();
+        try {
+            Run run = current;
+            if (isActive(run)) {
+                run.cancelled = true;
+                run.job.setState(ReEnrichmentJob.State.CANCELLED);
+                jobRepository.save(run.job);
+                log.info("Re-enrichment job {} cancelled", run.job.getId());
+                return status(run);
+            }
+            ReEnrichmentJob job = latestJob();
+            if (job.getState() == ReEnrichmentJob.State.RUNNING) {
+                job.setState(ReEnrichmentJob.State.CANCELLED);
+                job.setFinishedAt(LocalDateTime.now());
+                job = jobRepository.save(job);
+                log.info("Interrupted re-enrichment job {} cancelled", job.getId());
+            }
+            return storedStatus(job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Progress of the running job, or of the last one.
+     *
+     * @throws JobNotFoundException if no job was ever started
+     */
+    public ReEnrichmentStatus status() {
+        Run run = current;
+        return isActive(run) ? status(run) : storedStatus(latestJob());
+    }
+
+    /**
+     * Resumes a RUNNING job whose lease is free or expired. A job another node is still working on is
+     * left to it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJob() {
+        lock.lock();
+        try {
+            List<ReEnrichmentJob> interrupted = jobRepository.findByState(ReEnrichmentJob.State.RUNNING);
+            if (interrupted.isEmpty() || isActive(current)) {
+                return;
+            }
+            ReEnrichmentJob job = latest(interrupted);
+            if (claim(job)) {
+                resume(job);
+            } else {
+                log.debug("Re-enrichment job {} is running on node {}", job.getId(), job.getOwnerNode());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cluster mode: extends the lease of the job running here, and stops it if it was cancelled or taken
+     * over meanwhile; an idle node adopts a job whose owner stopped heartbeating.
+     */
+    @Scheduled(fixedDelayString = "${enrichment.cluster.heartbeat-interval:PT20S}")
+    public void heartbeat() {
+        if (!node.isClusterEnabled()) {
+            return;
+        }
+        Run run = current;
+        if (!isActive(run)) {
+            resumeInterruptedJob();
+            return;
+        }
+        if (jobRepository.extendLease(run.job.getId(), node.getNodeId(), node.leaseExpiry()) == 0) {
+            // stays as the database has it: cancelled, or resumed by the node that took the lease over
+            log.warn("Re-enrichment job {} was cancelled or taken over by another node, stopping here",
+                    run.job.getId());
+            run.stopping = true;
+        }
+    }
+
+    /**
+     * Stops the workers and leaves the job RUNNING, so the next start resumes it from its checkpoints.
+     * The lease is given up, so in cluster mode another node can resume it right away.
+     */
+    @PreDestroy
+    public void shutdown() {
+        Run run = current;
+        if (!isActive(run)) {
+            return;
+        }
+        run.stopping = true;
+        run.executor.shutdown();
+        try {
+            if (!run.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                run.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            jobRepository.releaseLease(run.job.getId(), node.getNodeId());
+        } catch (RuntimeException e) {
+            log.debug("Could not release the lease of re-enrichment job {}: {}", run.job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Takes the job's lease for this node. A single node owns every job, including one its previous
+     * process left with a lease that has yet to expire.
+     */
+    private boolean claim(ReEnrichmentJob job) {
+        LocalDateTime expiresAt = node.leaseExpiry();
+        if (node.isClusterEnabled()
+                && jobRepository.tryClaim(job.getId(), node.getNodeId(), expiresAt, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        job.setOwnerNode(node.getNodeId());
+        job.setLeaseExpiresAt(expiresAt);
+        if (!node.isClusterEnabled()) {
+            jobRepository.save(job);
+        }
+        return true;
+    }
+
+    private ReEnrichmentStatus resume(ReEnrichmentJob job) {
+        List<ReEnrichmentChunk> chunks = chunkRepository.findByJobIdOrderByFromIdAsc(job.getId());
+        log.info("Resuming re-enrichment job {}: {} of {} chunks left", job.getId(),
+                chunks.stream().filter(chunk -> !chunk.isCompleted()).count(), chunks.size());
+        current = launch(job, chunks);
+        return status(current);
+    }
+
+    private Run launch(ReEnrichmentJob job, List<ReEnrichmentChunk> chunks) {
+        Run run = new Run(job, chunks,
+                Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("re-enrichment-")));
+        List<CompletableFuture<Void>> workerRuns = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            workerRuns.add(CompletableFuture.runAsync(() -> work(run), run.executor));
+        }
+        run.executor.shutdown();
+        run.finished = CompletableFuture.allOf(workerRuns.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> finish(run));
+        return run;
+    }
+
+    private void work(Run run) {
+        ReEnrichmentChunk chunk;
+        while (!run.halted() && (chunk = run.pending.poll()) != null) {
+            try {
+                process(run, chunk);
+            } catch (RuntimeException e) {
+                failed(run, chunk, e);
+            }
+        }
+    }
+
+    /**
+     * Queues the chunk again from its last checkpoint, or fails the job once the chunk used up its attempts.
+     */
+    private void failed(Run run, ReEnrichmentChunk chunk, RuntimeException e) {
+        chunk.setFailures(chunk.getFailures() + 1);
+        try {
+            chunkRepository.save(chunk);
+        } catch (RuntimeException saveError) {
+            log.debug("Could not record the failure of re-enrichment chunk {}: {}", chunk.getId(),
+                    saveError.getMessage());
+        }
+        if (chunk.getFailures() >= maxChunkFailures) {
+            run.failedChunks.incrementAndGet();
+            log.error("Re-enrichment of ids {}-{} failed {} times, last at {}: {}", chunk.getFromId(),
+                    chunk.getToId(), chunk.getFailures(), chunk.getLastDoneId(), e.getMessage());
+            return;
+        }
+        log.warn("Re-enrichment of ids {}-{} stopped at {}, retrying: {}", chunk.getFromId(), chunk.getToId(),
+                chunk.getLastDoneId(), e.getMessage());
+        try {
+            Thread.sleep(CHUNK_RETRY_PAUSE_MILLIS * chunk.getFailures());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        // a stopped job resumes it from the database instead
+        if (!run.halted()) {
+            run.pending.add(chunk);
+        }
+    }
+
+    private void process(Run run, ReEnrichmentChunk chunk) {
+        while (!run.halted()) {
+            List<Long> ids = movieRepository.findReEnrichableIds(chunk.getLastDoneId(), chunk.getToId(),
+                    PageRequest.ofSize(checkpointEvery));
+            if (ids.isEmpty()) {
+                chunk.setCompleted(true);
+                chunkRepository.save(chunk);
+                run.chunksCompleted.incrementAndGet();
+                return;
+            }
+
+            long lastDoneId = chunk.getLastDoneId();
+            int done = 0;
+            int pageEnriched = 0;
+            int pageNotFound = 0;
+            int pageFailed = 0;
+            for (Long movieId : ids) {
+                if (!awaitPermit(run)) {
+                    break;
+                }
+                EnrichmentResultBuffer.Outcome result = ratingEnrichmentService.refreshNow(movieId);
+                Movie.RatingStatus outcome = result == null ? null : result.status();
+                if (outcome == Movie.RatingStatus.ENRICHED) {
+                    pageEnriched++;
+                    enriched.increment();
+                } else if (outcome == Movie.RatingStatus.NOT_FOUND) {
+                    pageNotFound++;
+                    notFound.increment();
+                } else if (outcome == Movie.RatingStatus.ERROR) {
+                    pageFailed++;
+                    failed.increment();
+                }
+                lastDoneId = movieId;
+                done++;
+                run.done.incrementAndGet();
+            }
+            if (done == 0) {
+                return;
+            }
+
+            // results must be stored before the checkpoint moves past them
+            try {
+                enrichmentResultBuffer.flush();
+            } catch (RuntimeException e) {
+                // the page is looked up again from the checkpoint
+                run.done.addAndGet(-done);
+                throw e;
+            }
+            chunk.setLastDoneId(lastDoneId);
+            chunk.setDone(chunk.getDone() + done);
+            chunk.setEnriched(chunk.getEnriched() + pageEnriched);
+            chunk.setNotFound(chunk.getNotFound() + pageNotFound);
+            chunk.setFailed(chunk.getFailed() + pageFailed);
+            run.enriched.addAndGet(pageEnriched);
+            run.notFound.addAndGet(pageNotFound);
+            run.failed.addAndGet(pageFailed);
+            // if this write fails, a retry goes on from the checkpoint held here and stores it with the next one
+            chunkRepository.save(chunk);
+        }
+    }
+
+    private boolean awaitPermit(Run run) {
+        while (!run.halted()) {
+            if (rateLimiter.tryAcquire(RATE_LIMIT_KEY, rateLimit).allowed()) {
+                return true;
+            }
+            throttled.increment();
+            try {
+                Thread.sleep(throttlePauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void finish(Run run) {
+        lock.lock();
+        try {
+            ReEnrichmentJob job = run.job;
+            if (run.cancelled) {
+                job.setFinishedAt(LocalDateTime.now());
+            } else if (!run.stopping && run.failedChunks.get() > 0) {
+                job.setState(ReEnrichmentJob.State.FAILED);
+                job.setFinishedAt(LocalDateTime.now());
+            } else if (!run.stopping) {
+                job.setState(ReEnrichmentJob.State.COMPLETED);
+                job.setFinishedAt(LocalDateTime.now());
+            } else {
+                // stays RUNNING: resumed on the next start
+                log.info("Re-enrichment job {} interrupted after {} of {} movies", job.getId(), run.done.get(),
+                        job.getTotal());
+                return;
+            }
+            jobRepository.save(job);
+            log.info("Re-enrichment job {} {}: {} movies ({} enriched, {} not found, {} failed)", job.getId(),
+                    job.getState().name().toLowerCase(Locale.ROOT), run.done.get(), run.enriched.get(), run.notFound.get(),
+                    run.failed.get());
+        } catch (RuntimeException e) {
+            log.warn("Could not record the end of re-enrichment job {}: {}", run.job.getId(), e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReEnrichmentStatus status(Run run) {
+        ReEnrichmentJob job = run.job;
+        long done = run.done.get();
+        double seconds = (System.nanoTime() - run.startedNanos) / 1e9;
+        double throughput = seconds > 0 ? (done - run.doneAtStart) / seconds : 0;
+        Long eta = job.getState() == ReEnrichmentJob.State.RUNNING && throughput > 0
+                ? (long) Math.ceil(Math.max(0, job.getTotal() - done) / throughput)
+                : null;
+        return ReEnrichmentStatus.builder()
+                .jobId(job.getId())
+                .state(job.getState())
+                .total(job.getTotal())
+                .done(done)
+                .enriched(run.enriched.get())
+                .notFound(run.notFound.get())
+                .failed(run.failed.get())
+                .chunks(job.getChunkCount())
+                .chunksCompleted(run.chunksCompleted.get())
+                .throughputPerSecond(Math.round(throughput * 10) / 10.0)
+                .etaSeconds(eta)
+                .requestedBy(job.getRequestedBy())
+                .ownerNode(job.getOwnerNode())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private ReEnrichmentStatus storedStatus(ReEnrichmentJob job) {
+        List<ReEnrichmentChunk> chunks = chunkRepository.findByJobIdOrderByFromIdAsc(job.getId());
+        long done = chunks.stream().mapToLong(ReEnrichmentChunk::getDone).sum();
+        double seconds = job.getFinishedAt() == null ? 0
+                : Duration.between(job.getStartedAt(), job.getFinishedAt()).toMillis() / 1000.0;
+        return ReEnrichmentStatus.builder()
+                .jobId(job.getId())
+                .state(job.getState())
+                .total(job.getTotal())
+                .done(done)
+                .enriched(chunks.stream().mapToLong(ReEnrichmentChunk::getEnriched).sum())
+                .notFound(chunks.stream().mapToLong(ReEnrichmentChunk::getNotFound).sum())
+                .failed(chunks.stream().mapToLong(ReEnrichmentChunk::getFailed).sum())
+                .chunks(job.getChunkCount())
+                .chunksCompleted((int) chunks.stream().filter(ReEnrichmentChunk::isCompleted).count())
+                .throughputPerSecond(seconds > 0 ? Math.round(done / seconds * 10) / 10.0 : 0)
+                .requestedBy(job.getRequestedBy())
+                .ownerNode(job.getOwnerNode())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private ReEnrichmentJob latestJob() {
+        return jobRepository.findFirstByOrderByIdDesc()
+                .orElseThrow(() -> new JobNotFoundException("No re-enrichment job has been started"));
+    }
+
+    private static ReEnrichmentJob latest(List<ReEnrichmentJob> jobs) {
+        return jobs.stream().max(Comparator.comparing(ReEnrichmentJob::getId)).orElseThrow();
+    }
+
+    private static boolean isActive(Run run) {
+        return run != null && !run.finished.isDone();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? null
+                : authentication.getName();
+    }
+
+    /**
+     * One execution of a job on this node: from start or resume until its workers stop.
+     */
+    private static final class Run {
+
+        private final ReEnrichmentJob job;
+        private final Queue<ReEnrichmentChunk> pending = new ConcurrentLinkedQueue<>();
+        private final ExecutorService executor;
+        private final AtomicLong done = new AtomicLong();
+        private final AtomicLong enriched = new AtomicLong();
+        private final AtomicLong notFound = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicInteger chunksCompleted = new AtomicInteger();
+        private final AtomicInteger failedChunks = new AtomicInteger();
+        private final long doneAtStart;
+        private final long startedNanos = System.nanoTime();
+        private volatile boolean cancelled;
+        private volatile boolean stopping;
+        private volatile CompletableFuture<Void> finished;
+
+        private Run(ReEnrichmentJob job, List<ReEnrichmentChunk> chunks, ExecutorService executor) {
+            this.job = job;
+            this.executor = executor;
+            for (ReEnrichmentChunk chunk : chunks) {
+                // resumed chunks start from their checkpoint
+                done.addAndGet(chunk.getDone());
+                enriched.addAndGet(chunk.getEnriched());
+                notFound.addAndGet(chunk.getNotFound());
+                failed.addAndGet(chunk.getFailed());
+                if (chunk.isCompleted()) {
+                    chunksCompleted.incrementAndGet();
+                } else {
+                    pending.add(chunk);
+                }
+            }
+            this.doneAtStart = done.get();
+        }
+
+        private boolean halted() {
+            return cancelled || stopping || failedChunks.get() > 0;
+        }
+    }
+}
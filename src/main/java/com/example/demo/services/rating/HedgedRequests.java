@@ -0,0 +1,173 @@
+package com.example.demo.services.rating;
+
+import com.example.demo.exceptions.RatingProviderException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a blocking request and, if it is still outstanding after the observed p95 latency, sends
+ * an identical second (hedged) request and returns whichever succeeds first; the other is cancelled.
+ * <p>
+ * Hedges are capped by a token budget ({@code maxHedgeRatio} of requests, e.g. 0.1 = at most 10% extra
+ * load), so a slow upstream is not hit twice for everything. The whole call, hedge included, must finish
+ * within {@code deadline}. Until {@code minSamples} latencies have been seen, {@code initialDelay} is used.
+ * Failed attempts count towards the latency percentile like successful ones, and a call that runs into the
+ * deadline adds the deadline as a sample, so an upstream that slows down by failing or hanging raises the
+ * hedge delay instead of hiding from it. Attempts cancelled because the other one answered are not sampled.
+ */
+public class HedgedRequests {
+
+    private static final int WINDOW = 1024;
+    private static final double MAX_STORED_TOKENS = 10;
+
+    public record Settings(Duration deadline, double percentile, Duration initialDelay, Duration minDelay,
+                           double maxHedgeRatio, int minSamples) {
+    }
+
+    private final Settings settings;
+    private final LatencyTracker latencies;
+    private final ExecutorService executor;
+    private final Timer attemptTimer;
+    private final Counter hedgesSent;
+    private final Counter hedgeWins;
+    private final Counter budgetExhausted;
+    private final Counter deadlineExceeded;
+    private double hedgeTokens;
+
+    public HedgedRequests(String name, Settings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.latencies = new LatencyTracker(WINDOW, settings.percentile());
+        this.executor = Executors.newCachedThreadPool(new CustomizableThreadFactory(name + "-request-"));
+        this.attemptTimer = Timer.builder("enrichment.hedge.attempt")
+                .description("Latency of single successful upstream requests")
+                .tag("client", name)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.hedgesSent = Counter.builder("enrichment.hedge.sent").tag("client", name).register(meterRegistry);
+        this.hedgeWins = Counter.builder("enrichment.hedge.wins")
+                .description("Hedged requests that answered before the original")
+                .tag("client", name)
+                .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("enrichment.hedge.budget-exhausted")
+                .tag("client", name)
+                .register(meterRegistry);
+        this.deadlineExceeded = Counter.builder("enrichment.hedge.deadline-exceeded")
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("enrichment.hedge.delay", this, h -> h.hedgeDelayNanos() / 1e6)
+                .description("Current hedge delay in ms (observed latency percentile)")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> request) {
+        long deadline = System.nanoTime() + settings.deadline().toNanos();
+        earnHedgeToken();
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> attempts = new ArrayList<>(2);
+        attempts.add(completion.submit(() -> timed(request)));
+        try {
+            Future<T> done = completion.poll(Math.min(hedgeDelayNanos(), remaining(deadline)), TimeUnit.NANOSECONDS);
+            if (done == null && remaining(deadline) > 0 && takeHedgeToken()) {
+                hedgesSent.increment();
+                attempts.add(completion.submit(() -> timed(request)));
+            }
+
+            int outstanding = attempts.size();
+            RuntimeException failure = null;
+            while (outstanding > 0) {
+                if (done == null) {
+                    done = completion.poll(remaining(deadline), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        deadlineExceeded.increment();
+                        // the outstanding attempts took at least this long; they are cancelled before they finish
+                        latencies.record(settings.deadline().toNanos());
+                        throw new RatingProviderException("No answer within the " + settings.deadline() + " deadline");
+                    }
+                }
+                outstanding--;
+                try {
+                    T result = done.get();
+                    if (attempts.size() > 1 && done == attempts.get(1)) {
+                        hedgeWins.increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new RatingProviderException("Request failed", e.getCause());
+                }
+                done = null;
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RatingProviderException("Interrupted while waiting for the upstream", e);
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private long hedgeDelayNanos() {
+        long observed = latencies.size() >= settings.minSamples()
+                ? latencies.percentileNanos()
+                : settings.initialDelay().toNanos();
+        return Math.max(observed, settings.minDelay().toNanos());
+    }
+
+    private <T> T timed(Supplier<T> request) {
+        long started = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = request.get();
+            succeeded = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            // a cancelled attempt was cut short, its latency says nothing about the upstream
+            if (!Thread.currentThread().isInterrupted()) {
+                latencies.record(elapsed);
+                if (succeeded) {
+                    attemptTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+
+    private synchronized void earnHedgeToken() {
+        hedgeTokens = Math.min(MAX_STORED_TOKENS, hedgeTokens + settings.maxHedgeRatio());
+    }
+
+    private synchronized boolean takeHedgeToken() {
+        if (hedgeTokens >= 1) {
+            hedgeTokens -= 1;
+            return true;
+        }
+        budgetExhausted.increment();
+        return false;
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.services.rating;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of the most recent call latencies with a cached percentile.
+ * The percentile is recomputed every {@code window / 16} samples, not on every read.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private final int recomputeEvery;
+    private int next;
+    private int size;
+    private int sinceRecompute;
+    private long cachedNanos = -1;
+    private final double percentile;
+
+    public LatencyTracker(int window, double percentile) {
+        this.samples = new long[window];
+        this.recomputeEvery = Math.max(1, window / 16);
+        this.percentile = percentile;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        if (++sinceRecompute >= recomputeEvery) {
+            cachedNanos = -1;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * The tracked percentile of the window in nanoseconds, or -1 with no samples yet.
+     */
+    public synchronized long percentileNanos() {
+        if (size == 0) {
+            return -1;
+        }
+        if (cachedNanos < 0) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            cachedNanos = sorted[Math.max(0, Math.min(size - 1, (int) Math.ceil(percentile * size) - 1))];
+            sinceRecompute = 0;
+        }
+        return cachedNanos;
+    }
+}
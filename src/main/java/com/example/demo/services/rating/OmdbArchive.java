@@ -0,0 +1,123 @@
+package com.example.demo.services.rating;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Recorded OMDb responses, stored as a gzip file of binary records:
+ * {@code version byte, lookup key (UTF), HTTP status (short), latency in microseconds (int), body length (int),
+ * body (UTF-8)}.
+ * <p>
+ * A recording session appends a new gzip member, so archives grow across sessions and a later response
+ * for the same lookup replaces an earlier one on load. Records are flushed one by one; a recording cut off
+ * by a crash loses at most the record being written.
+ */
+public final class OmdbArchive {
+
+    private static final int VERSION = 1;
+
+    /**
+     * One recorded response.
+     */
+    public record Entry(int status, int latencyMicros, String body) {
+    }
+
+    private OmdbArchive() {
+    }
+
+    /**
+     * Lookup key of a request: the title, lower-cased and trimmed, and the year if any.
+     */
+    public static String key(String title, String year) {
+        return title.trim().toLowerCase(Locale.ROOT) + '|' + (year == null ? "" : year.trim());
+    }
+
+    /**
+     * Reads every record of an archive, the latest one per key.
+     */
+    public static Map<String, Entry> load(Path file) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw)))) {
+            int version;
+            while ((version = in.read()) >= 0) {
+                if (version != VERSION) {
+                    throw new IOException("Unsupported OMDb archive record version " + version + " in " + file);
+                }
+                String key = in.readUTF();
+                int status = in.readShort();
+                int latencyMicros = in.readInt();
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                entries.put(key, new Entry(status, latencyMicros, new String(body, StandardCharsets.UTF_8)));
+            }
+        } catch (EOFException e) {
+            // truncated last record of an interrupted recording: keep what was complete
+        }
+        return entries;
+    }
+
+    /**
+     * Appends a new session to the archive (created if missing). Thread-safe.
+     */
+    public static Writer append(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        return new Writer(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        // not synchronized: a virtual thread writing the file would pin its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Writer(OutputStream file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(file, true)));
+        }
+
+        public void write(String key, Entry entry) throws IOException {
+            byte[] body = entry.body().getBytes(StandardCharsets.UTF_8);
+            lock.lock();
+            try {
+                out.writeByte(VERSION);
+                out.writeUTF(key);
+                out.writeShort(entry.status());
+                out.writeInt(entry.latencyMicros());
+                out.writeInt(body.length);
+                out.write(body);
+                out.flush();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            lock.lock();
+            try {
+                out.close();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.services.rating;
+
+import com.example.demo.exceptions.RatingProviderException;
+import com.example.demo.logging.SampledLogger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Ratings from the OMDb API: the IMDb rating, or the first Rotten Tomatoes / Metacritic score
+ * in the response when IMDb has none. Requests are hedged (see {@link HedgedRequests}), so one
+ * hung connection costs the observed p95 latency instead of the full read timeout.
+ */
+@Component
+public class OmdbRatingProvider implements RatingProvider, DisposableBean {
+
+    private static final SampledLogger providerLog = SampledLogger.of(OmdbRatingProvider.class, 20);
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final HedgedRequests hedgedRequests;
+
+    @Value("${omdb.api.key:demo}")
+    private String omdbApiKey;
+
+    @Value("${omdb.api.url:http://www.omdbapi.com/}")
+    private String omdbApiUrl;
+
+    public OmdbRatingProvider(RestTemplate restTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${omdb.hedging.deadline:PT4S}") Duration deadline,
+                              @Value("${omdb.hedging.percentile:0.95}") double percentile,
+                              @Value("${omdb.hedging.initial-delay:PT0.5S}") Duration initialDelay,
+                              @Value("${omdb.hedging.min-delay:PT0.05S}") Duration minDelay,
+                              @Value("${omdb.hedging.max-hedge-ratio:0.1}") double maxHedgeRatio) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.hedgedRequests = new HedgedRequests(name(), new HedgedRequests.Settings(
+                deadline, percentile, initialDelay, minDelay, maxHedgeRatio, 20), meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "omdb";
+    }
+
+    /**
+     * Fetches movie rating from OMDb API.
+     * Returns the IMDb rating normalized to a 0-10 scale.
+     */
+    @Override
+    public Optional<Double> fetchRating(String title, Integer year) {
+        try {
+            String encodedTitle = URLEncoder.encode(title, StandardCharsets.UTF_8);
+
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(omdbApiUrl)
+                    .queryParam("apikey", omdbApiKey)
+                    .queryParam("t", encodedTitle)
+                    .queryParam("type", "movie");
+
+            if (year != null) {
+                builder.queryParam("y", year);
+            }
+
+            String url = builder.build(false).toUriString();
+            providerLog.debug("Calling OMDb API: {}", url.replace(omdbApiKey, "***"));
+
+            String response = hedgedRequests.call(() -> restTemplate.getForObject(url, String.class));
+
+            if (response == null) {
+                providerLog.warn("Empty response from OMDb API");
+                return Optional.empty();
+            }
+
+            JsonNode jsonNode = objectMapper.readTree(response);
+
+            // Check if response indicates success
+            if (jsonNode.has("Response") && "False".equals(jsonNode.get("Response").asText())) {
+                String error = jsonNode.has("Error") ? jsonNode.get("Error").asText() : "Unknown error";
+                providerLog.warn("OMDb API error: {}", error);
+                return Optional.empty();
+            }
+
+            // Extract IMDb rating
+            if (jsonNode.has("imdbRating")) {
+                String imdbRating = jsonNode.get("imdbRating").asText();
+                if (!"N/A".equals(imdbRating)) {
+                    return Optional.of(Double.parseDouble(imdbRating));
+                }
+            }
+
+            // Fallback: try to get rating from Ratings array
+            if (jsonNode.has("Ratings") && jsonNode.get("Ratings").isArray()) {
+                for (JsonNode ratingNode : jsonNode.get("Ratings")) {
+                    String source = ratingNode.get("Source").asText();
+                    String value = ratingNode.get("Value").asText();
+
+                    if ("Internet Movie Database".equals(source)) {
+                        // Format: "8.5/10"
+                        return Optional.of(Double.parseDouble(value.split("/")[0]));
+                    } else if ("Rotten Tomatoes".equals(source)) {
+                        // Format: "93%"
+                        int percentage = Integer.parseInt(value.replace("%", ""));
+                        return Optional.of(percentage / 10.0);
+                    } else if ("Metacritic".equals(source)) {
+                        // Format: "80/100"
+                        return Optional.of(Double.parseDouble(value.split("/")[0]) / 10.0);
+                    }
+                }
+            }
+
+            providerLog.warn("No valid rating found in OMDb response");
+            return Optional.empty();
+
+        } catch (RestClientException e) {
+            throw new RatingProviderException("Failed to call OMDb API: " + e.getMessage(), e);
+        } catch (RatingProviderException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RatingProviderException("Failed to parse OMDb API response: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        hedgedRequests.shutdown();
+    }
+}
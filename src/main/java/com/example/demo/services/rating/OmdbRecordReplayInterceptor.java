@@ -0,0 +1,200 @@
+package com.example.demo.services.rating;
+
+import com.example.demo.logging.SampledLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records OMDb responses to an {@link OmdbArchive}, or replays them without touching the network.
+ * <p>
+ * {@code RECORD} passes every lookup through and appends the response, with its latency, to the archive.
+ * {@code REPLAY} answers from the archive (a lookup that was never recorded gets OMDb's "Movie not found!"
+ * answer) after a simulated latency, and fails a share of lookups with an I/O error. Latency is drawn from
+ * a log-normal distribution fitted to the configured median and p99, or is the recorded latency when the
+ * median is zero. Replay keeps hedging, parsing and the rest of the enrichment pipeline in the loop, so
+ * enrichment can be load-tested offline without spending OMDb quota.
+ */
+@Slf4j
+public class OmdbRecordReplayInterceptor implements ClientHttpRequestInterceptor, DisposableBean {
+
+    private static final SampledLogger recordLog = SampledLogger.of(OmdbRecordReplayInterceptor.class, 50);
+    private static final String NOT_FOUND_BODY = "{\"Response\":\"False\",\"Error\":\"Movie not found!\"}";
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.326;
+
+    public enum Mode { RECORD, REPLAY }
+
+    private final Mode mode;
+    private final Map<String, OmdbArchive.Entry> recorded;
+    private final OmdbArchive.Writer writer;
+    private final double logMedianMicros;
+    private final double logSigma;
+    private final double errorRate;
+    private final Counter replayed;
+    private final Counter missing;
+    private final Counter injectedErrors;
+
+    public OmdbRecordReplayInterceptor(Mode mode, Path archive, Duration medianLatency, Duration p99Latency,
+                                       double errorRate, MeterRegistry meterRegistry) throws IOException {
+        this.mode = mode;
+        this.errorRate = errorRate;
+        if (mode == Mode.REPLAY) {
+            this.recorded = OmdbArchive.load(archive);
+            this.writer = null;
+            log.info("Replaying {} recorded OMDb responses from {}", recorded.size(), archive);
+        } else {
+            this.recorded = Map.of();
+            this.writer = OmdbArchive.append(archive);
+            log.info("Recording OMDb responses to {}", archive);
+        }
+        long medianMicros = medianLatency.toNanos() / 1000;
+        long p99Micros = Math.max(medianMicros, p99Latency.toNanos() / 1000);
+        this.logMedianMicros = medianMicros > 0 ? Math.log(medianMicros) : Double.NaN;
+        this.logSigma = medianMicros > 0 ? Math.log((double) p99Micros / medianMicros) / Z_99 : 0;
+        this.replayed = Counter.builder("omdb.replay.responses").tag("result", "replayed").register(meterRegistry);
+        this.missing = Counter.builder("omdb.replay.responses").tag("result", "missing").register(meterRegistry);
+        this.injectedErrors = Counter.builder("omdb.replay.responses").tag("result", "error").register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String key = key(request);
+        if (mode == Mode.RECORD) {
+            return record(key, request, body, execution);
+        }
+
+        OmdbArchive.Entry entry = recorded.get(key);
+        sleep(entry);
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.increment();
+            throw new IOException("Simulated OMDb failure");
+        }
+        if (entry == null) {
+            missing.increment();
+            return new ReplayedResponse(200, NOT_FOUND_BODY);
+        }
+        replayed.increment();
+        return new ReplayedResponse(entry.status(), entry.body());
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private ClientHttpResponse record(String key, HttpRequest request, byte[] body,
+                                      ClientHttpRequestExecution execution) throws IOException {
+        long started = System.nanoTime();
+        ClientHttpResponse response = execution.execute(request, body);
+        byte[] content;
+        int status;
+        try (response) {
+            content = StreamUtils.copyToByteArray(response.getBody());
+            status = response.getStatusCode().value();
+        }
+        int latencyMicros = (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - started) / 1000);
+        String text = new String(content, StandardCharsets.UTF_8);
+        try {
+            writer.write(key, new OmdbArchive.Entry(status, latencyMicros, text));
+        } catch (IOException e) {
+            recordLog.warn("Could not record OMDb response for '{}': {}", key, e.getMessage());
+        }
+        return new ReplayedResponse(status, text);
+    }
+
+    private void sleep(OmdbArchive.Entry entry) throws IOException {
+        long micros;
+        if (!Double.isNaN(logMedianMicros)) {
+            micros = (long) Math.exp(logMedianMicros + logSigma * ThreadLocalRandom.current().nextGaussian());
+        } else {
+            micros = entry == null ? 0 : entry.latencyMicros();
+        }
+        if (micros <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(micros / 1000, (int) (micros % 1000) * 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during simulated OMDb latency", e);
+        }
+    }
+
+    private static String key(HttpRequest request) {
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams();
+        String title = query.getFirst("t");
+        String year = query.getFirst("y");
+        return OmdbArchive.key(title == null ? "" : decode(title), year == null ? null : decode(year));
+    }
+
+    /**
+     * The provider encodes the title and RestTemplate encodes the URL again, so undo both.
+     */
+    private static String decode(String value) {
+        String decoded = URLDecoder.decode(value, StandardCharsets.UTF_8);
+        return decoded.contains("%") ? URLDecoder.decode(decoded, StandardCharsets.UTF_8) : decoded;
+    }
+
+    private static final class ReplayedResponse implements ClientHttpResponse {
+
+        private final int status;
+        private final byte[] body;
+
+        private ReplayedResponse(int status, String body) {
+            this.status = status;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(status);
+        }
+
+        @Override
+        public String getStatusText() {
+            return "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(body.length);
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
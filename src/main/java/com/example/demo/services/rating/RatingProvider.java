@@ -0,0 +1,26 @@
+package com.example.demo.services.rating;
+
+import com.example.demo.exceptions.RatingProviderException;
+
+import java.util.Optional;
+
+/**
+ * A source of movie ratings, queried by {@link RatingProviderFanOut}.
+ * <p>
+ * Implementations block until they have an answer; timeouts, concurrency limits and hedging are
+ * applied around them. Ratings are normalized to a 0-10 scale.
+ */
+public interface RatingProvider {
+
+    /**
+     * Short, stable name used in configuration ({@code enrichment.providers.<name>.*}) and metrics.
+     */
+    String name();
+
+    /**
+     * Returns the rating, or empty if the provider does not know the movie.
+     *
+     * @throws RatingProviderException if the provider could not be asked (network, parsing, ...)
+     */
+    Optional<Double> fetchRating(String title, Integer year);
+}
@@ -0,0 +1,264 @@
+package com.example.demo.services.rating;
+
+import com.example.demo.exceptions.RatingProviderException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asks every {@link RatingProvider} for a rating and returns the first one found.
+ * <p>
+ * Each provider starts after its {@code hedge-delay} (zero: immediately, in parallel with the others),
+ * so a backup provider is only called when the primary is slow. As soon as one provider finds a rating,
+ * providers that have not started yet are skipped and running ones are cancelled. Every provider has
+ * its own timeout and concurrency budget; a provider over budget is skipped rather than queued, so one
+ * slow upstream cannot hold up enrichment. Settings per provider name:
+ * {@code enrichment.providers.<name>.timeout | max-concurrency | hedge-delay}.
+ * <p>
+ * The result is empty when at least one provider answered and none knew the movie; if every provider
+ * failed, a {@link RatingProviderException} is thrown.
+ */
+@Component
+@Slf4j
+public class RatingProviderFanOut implements DisposableBean {
+
+    private static final String PREFIX = "enrichment.providers.";
+
+    private final List<ProviderSlot> slots = new ArrayList<>();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timers;
+    private final Duration overallDeadline;
+
+    public RatingProviderFanOut(List<RatingProvider> providers, Environment environment, MeterRegistry meterRegistry) {
+        Duration deadline = Duration.ZERO;
+        for (RatingProvider provider : providers) {
+            String name = provider.name();
+            ProviderSlot slot = new ProviderSlot(provider,
+                    DurationStyle.detectAndParse(environment.getProperty(PREFIX + name + ".timeout", "10s")),
+                    DurationStyle.detectAndParse(environment.getProperty(PREFIX + name + ".hedge-delay", "0s")),
+                    environment.getProperty(PREFIX + name + ".max-concurrency", Integer.class, 10),
+                    meterRegistry);
+            slots.add(slot);
+            Duration latest = slot.hedgeDelay.plus(slot.timeout);
+            if (latest.compareTo(deadline) > 0) {
+                deadline = latest;
+            }
+            log.info("Rating provider '{}': timeout {}, hedge delay {}, max concurrency {}",
+                    name, slot.timeout, slot.hedgeDelay, slot.maxConcurrency);
+        }
+        this.overallDeadline = deadline;
+        // Unbounded on purpose: concurrency is bounded per provider by its permits
+        this.workers = Executors.newCachedThreadPool(new CustomizableThreadFactory("rating-provider-"));
+        this.timers = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("rating-provider-timer-"));
+    }
+
+    public Optional<Double> fetchRating(String title, Integer year) {
+        if (slots.isEmpty()) {
+            throw new RatingProviderException("No rating providers configured");
+        }
+        Lookup lookup = new Lookup(title, year);
+        for (ProviderSlot slot : slots) {
+            if (slot.hedgeDelay.isZero()) {
+                lookup.start(slot);
+            } else {
+                lookup.scheduled.add(timers.schedule(() -> lookup.start(slot),
+                        slot.hedgeDelay.toMillis(), TimeUnit.MILLISECONDS));
+            }
+        }
+
+        try {
+            return lookup.result.get(overallDeadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RatingProviderException("No rating provider answered within " + overallDeadline);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RatingProviderException cause
+                    ? cause
+                    : new RatingProviderException("Rating lookup failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RatingProviderException("Interrupted while waiting for rating providers", e);
+        } finally {
+            lookup.cancelRemaining();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timers.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * One lookup across all providers: the first rating found completes {@link #result}.
+     */
+    private final class Lookup {
+
+        private final String title;
+        private final Integer year;
+        private final CompletableFuture<Optional<Double>> result = new CompletableFuture<>();
+        private final AtomicInteger unsettled = new AtomicInteger(slots.size());
+        private final AtomicBoolean anyAnswered = new AtomicBoolean();
+        private final List<Future<?>> scheduled = new CopyOnWriteArrayList<>();
+        private final List<Future<?>> running = new CopyOnWriteArrayList<>();
+
+        Lookup(String title, Integer year) {
+            this.title = title;
+            this.year = year;
+        }
+
+        void start(ProviderSlot slot) {
+            if (result.isDone()) {
+                slot.record(Outcome.SKIPPED, 0);
+                settle();
+                return;
+            }
+            if (!slot.permits.tryAcquire()) {
+                slot.record(Outcome.REJECTED, 0);
+                settle();
+                return;
+            }
+
+            AtomicBoolean settled = new AtomicBoolean();
+            AtomicBoolean started = new AtomicBoolean();
+            AtomicBoolean permitHeld = new AtomicBoolean(true);
+            Runnable releasePermit = () -> {
+                if (permitHeld.compareAndSet(true, false)) {
+                    slot.permits.release();
+                }
+            };
+            long startedAt = System.nanoTime();
+            FutureTask<Void> call = new FutureTask<>(() -> {
+                started.set(true);
+                try {
+                    Optional<Double> rating = slot.provider.fetchRating(title, year);
+                    if (settled.compareAndSet(false, true)) {
+                        slot.record(rating.isPresent() ? Outcome.FOUND : Outcome.NOT_FOUND, System.nanoTime() - startedAt);
+                        if (rating.isPresent()) {
+                            if (result.complete(rating)) {
+                                slot.wins.increment();
+                            }
+                        } else {
+                            anyAnswered.set(true);
+                        }
+                        settle();
+                    }
+                } catch (RuntimeException e) {
+                    if (settled.compareAndSet(false, true)) {
+                        slot.record(Thread.currentThread().isInterrupted() ? Outcome.CANCELLED : Outcome.ERROR,
+                                System.nanoTime() - startedAt);
+                        log.debug("Rating provider '{}' failed: {}", slot.provider.name(), e.getMessage());
+                        settle();
+                    }
+                } finally {
+                    releasePermit.run();
+                }
+            }, null) {
+                @Override
+                protected void done() {
+                    // Cancelled before a worker picked it up: the body never runs to release the permit
+                    if (!started.get()) {
+                        releasePermit.run();
+                    }
+                }
+            };
+            running.add(call);
+            workers.execute(call);
+
+            scheduled.add(timers.schedule(() -> {
+                if (settled.compareAndSet(false, true)) {
+                    slot.record(Outcome.TIMEOUT, System.nanoTime() - startedAt);
+                    call.cancel(true);
+                    settle();
+                }
+            }, slot.timeout.toMillis(), TimeUnit.MILLISECONDS));
+        }
+
+        private void settle() {
+            if (unsettled.decrementAndGet() == 0 && !result.isDone()) {
+                if (anyAnswered.get()) {
+                    result.complete(Optional.empty());
+                } else {
+                    result.completeExceptionally(new RatingProviderException("All rating providers failed"));
+                }
+            }
+        }
+
+        /**
+         * Skips providers that have not started and interrupts the ones still running. A provider blocked
+         * in non-interruptible I/O keeps its permit until its own client timeout.
+         */
+        void cancelRemaining() {
+            scheduled.forEach(future -> future.cancel(false));
+            running.forEach(call -> call.cancel(true));
+        }
+    }
+
+    private enum Outcome {
+        FOUND, NOT_FOUND, ERROR, TIMEOUT, CANCELLED, REJECTED, SKIPPED
+    }
+
+    private static final class ProviderSlot {
+
+        private final RatingProvider provider;
+        private final Duration timeout;
+        private final Duration hedgeDelay;
+        private final int maxConcurrency;
+        private final Semaphore permits;
+        private final Counter wins;
+        private final Map<Outcome, Timer> calls = new EnumMap<>(Outcome.class);
+
+        ProviderSlot(RatingProvider provider, Duration timeout, Duration hedgeDelay, int maxConcurrency,
+                     MeterRegistry meterRegistry) {
+            this.provider = provider;
+            this.timeout = timeout;
+            this.hedgeDelay = hedgeDelay;
+            this.maxConcurrency = maxConcurrency;
+            this.permits = new Semaphore(maxConcurrency);
+            this.wins = Counter.builder("enrichment.provider.wins")
+                    .description("Lookups answered first by this provider")
+                    .tag("provider", provider.name())
+                    .register(meterRegistry);
+            Gauge.builder("enrichment.provider.in-flight", permits, p -> maxConcurrency - p.availablePermits())
+                    .tag("provider", provider.name())
+                    .register(meterRegistry);
+            for (Outcome outcome : Outcome.values()) {
+                calls.put(outcome, Timer.builder("enrichment.provider.calls")
+                        .tag("provider", provider.name())
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry));
+            }
+        }
+
+        void record(Outcome outcome, long nanos) {
+            calls.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
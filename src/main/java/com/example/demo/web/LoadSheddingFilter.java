@@ -0,0 +1,107 @@
+package com.example.demo.web;
+
+import com.example.demo.models.dtos.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Sheds API requests beyond an {@link AdaptiveConcurrencyLimit} with an immediate 503 and
+ * {@code Retry-After}, instead of letting Tomcat queue them until clients time out.
+ * Reads (GET, HEAD) and writes (admin-only POST, PUT, DELETE) have separate limits, so a burst of
+ * one cannot starve the other. Metrics, tagged {@code budget=read|write}:
+ * {@code http.server.concurrency.limit}, {@code http.server.concurrency.in-flight} and
+ * {@code http.server.concurrency.rejected}.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final String retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final Counter readRejected;
+    private final Counter writeRejected;
+
+    public LoadSheddingFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit,
+                              Duration retryAfter, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.objectMapper = objectMapper;
+        this.readRejected = register("read", readLimit, meterRegistry);
+        this.writeRejected = register("write", writeLimit, meterRegistry);
+    }
+
+    private static Counter register(String budget, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+        Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive limit on concurrent API requests")
+                .tag("budget", budget)
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("budget", budget)
+                .register(meterRegistry);
+        return Counter.builder("http.server.concurrency.rejected")
+                .description("API requests shed with 503 because the concurrency limit was reached")
+                .tag("budget", budget)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        AdaptiveConcurrencyLimit limit = read ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            (read ? readRejected : writeRejected).increment();
+            reject(request, response);
+            return;
+        }
+
+        int inFlightAtStart = limit.getInFlight();
+        long started = System.nanoTime();
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            // 5xx under load is mostly pool or connection timeouts: treat it as overload
+            dropped = response.getStatus() >= 500;
+        } finally {
+            if (dropped) {
+                limit.onDropped();
+            } else {
+                limit.onSuccess(System.nanoTime() - started, inFlightAtStart);
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message("Server is overloaded, retry later")
+                .path(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
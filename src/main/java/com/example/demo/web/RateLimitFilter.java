@@ -0,0 +1,89 @@
+package com.example.demo.web;
+
+import com.example.demo.models.dtos.ErrorResponse;
+import com.example.demo.ratelimit.SlidingWindowRateLimiter;
+import com.example.demo.ratelimit.UserRateLimits;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Applies the per-user {@code read} (GET, HEAD) and {@code write} budgets of {@link UserRateLimits} to API
+ * requests, and the endpoint limit on top when one matches. Runs after Spring Security, so the user is
+ * known; unauthenticated requests are left to security to reject. Every response carries
+ * {@code RateLimit-*} headers of the tighter limit; a request over either gets 429 with {@code Retry-After}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final UserRateLimits userRateLimits;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(UserRateLimits userRateLimits, ObjectMapper objectMapper) {
+        this.userRateLimits = userRateLimits;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        UserRateLimits.Budget budget = read ? UserRateLimits.Budget.READ : UserRateLimits.Budget.WRITE;
+        SlidingWindowRateLimiter.Decision decision = userRateLimits.tryAcquire(budget, authentication.getName());
+        if (decision == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        SlidingWindowRateLimiter.Decision endpoint = decision.allowed()
+                ? userRateLimits.tryAcquireEndpoint(request.getMethod(), request.getRequestURI(),
+                authentication.getName())
+                : null;
+        if (endpoint != null && (!endpoint.allowed() || endpoint.remaining() < decision.remaining())) {
+            if (!endpoint.allowed()) {
+                // the request is not served, so it does not spend the general budget either
+                userRateLimits.release(budget, authentication.getName());
+            }
+            decision = endpoint;
+        }
+        decision.toHeaders().forEach((name, values) -> response.setHeader(name, values.get(0)));
+        if (!decision.allowed()) {
+            reject(request, response);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .message("Rate limit exceeded, retry later")
+                .path(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -1,6 +1,9 @@
 use movie_schema;
 -- Drop table if exists (for clean re-initialization)
 DROP TABLE IF EXISTS movies;
+DROP TABLE IF EXISTS movie_tombstones;
+DROP TABLE IF EXISTS change_feed_state;
+DROP SEQUENCE IF EXISTS movie_change_seq;
 
 -- ============================================
 -- Movies Table
@@ -14,8 +17,14 @@ CREATE TABLE movies (
                         rating_status   VARCHAR(20)     DEFAULT 'PENDING',
                         created_at      TIMESTAMP       DEFAULT CURRENT_TIMESTAMP,
                         updated_at      TIMESTAMP       DEFAULT CURRENT_TIMESTAMP,
+                        dedup_key       VARCHAR(520),
+                        lease_owner     VARCHAR(100),
+                        lease_expires_at TIMESTAMP,
+                        change_seq      BIGINT,
+                        version         BIGINT          DEFAULT 0 NOT NULL,
 
     -- Constraints
+                        CONSTRAINT uk_movies_dedup_key UNIQUE (dedup_key),
                         CONSTRAINT chk_release_year CHECK (release_year IS NULL OR (release_year >= 1888 AND release_year <= 2100)),
                         CONSTRAINT chk_rating CHECK (rating IS NULL OR (rating >= 0 AND rating <= 10)),
                         CONSTRAINT chk_rating_status CHECK (rating_status IN ('PENDING', 'ENRICHED', 'NOT_FOUND', 'ERROR'))
@@ -27,4 +36,84 @@ CREATE TABLE movies (
 CREATE INDEX idx_movies_title ON movies(title);
 CREATE INDEX idx_movies_director ON movies(director);
 CREATE INDEX idx_movies_release_year ON movies(release_year);
-CREATE INDEX idx_movies_rating_status ON movies(rating_status);
\ No newline at end of file
+CREATE INDEX idx_movies_rating_status ON movies(rating_status);
+CREATE INDEX idx_movies_status_lease ON movies(rating_status, lease_expires_at);
+CREATE INDEX idx_movies_change_seq ON movies(change_seq);
+
+-- ============================================
+-- Change feed (GET /api/movies/changes)
+-- ============================================
+CREATE SEQUENCE movie_change_seq;
+
+CREATE TABLE movie_tombstones (
+                        movie_id        BIGINT          PRIMARY KEY,
+                        change_seq      BIGINT          NOT NULL,
+                        deleted_at      TIMESTAMP       NOT NULL
+);
+CREATE INDEX idx_movie_tombstones_change_seq ON movie_tombstones(change_seq);
+
+CREATE TABLE change_feed_state (
+                        id                  INTEGER     PRIMARY KEY,
+                        purged_through_seq  BIGINT      NOT NULL
+);
+
+-- ============================================
+-- Catalog re-enrichment job (POST /api/movies/re-enrichment)
+-- ============================================
+CREATE TABLE re_enrichment_jobs (
+                        id              BIGINT          AUTO_INCREMENT PRIMARY KEY,
+                        state           VARCHAR(20)     NOT NULL,
+                        total           BIGINT          NOT NULL,
+                        chunk_count     INTEGER         NOT NULL,
+                        requested_by    VARCHAR(100),
+                        started_at      TIMESTAMP       NOT NULL,
+                        finished_at     TIMESTAMP,
+                        owner_node      VARCHAR(100),
+                        lease_expires_at TIMESTAMP,
+
+                        CONSTRAINT chk_re_enrichment_state CHECK (state IN ('RUNNING', 'COMPLETED', 'CANCELLED', 'FAILED'))
+);
+
+CREATE TABLE re_enrichment_chunks (
+                        id              BIGINT          AUTO_INCREMENT PRIMARY KEY,
+                        job_id          BIGINT          NOT NULL,
+                        from_id         BIGINT          NOT NULL,
+                        to_id           BIGINT          NOT NULL,
+                        last_done_id    BIGINT          NOT NULL,
+                        done            BIGINT          NOT NULL,
+                        enriched        BIGINT          NOT NULL,
+                        not_found       BIGINT          NOT NULL,
+                        failed          BIGINT          NOT NULL,
+                        completed       BOOLEAN         NOT NULL,
+                        failures        INTEGER         DEFAULT 0 NOT NULL
+);
+CREATE INDEX idx_re_enrichment_chunks_job ON re_enrichment_chunks(job_id);
+
+-- ============================================
+-- Staleness-aware rating refresh (RatingRefreshScheduler)
+-- ============================================
+CREATE TABLE movie_refresh_schedule (
+                        movie_id            BIGINT      PRIMARY KEY,
+                        next_refresh_at     TIMESTAMP   NOT NULL,
+                        last_refreshed_at   TIMESTAMP   NOT NULL,
+                        volatility          DOUBLE      NOT NULL
+);
+
+-- ============================================
+-- Async bulk ingest (POST /api/movies/ingest)
+-- ============================================
+CREATE TABLE ingest_state (
+                        log_id              VARCHAR(36) PRIMARY KEY,
+                        drained_offset      BIGINT      NOT NULL
+);
+
+CREATE TABLE ingest_tickets (
+                        id              VARCHAR(36)     PRIMARY KEY,
+                        movies          INTEGER         NOT NULL,
+                        created         INTEGER         NOT NULL,
+                        duplicates      INTEGER         NOT NULL,
+                        failed          INTEGER         NOT NULL,
+                        requested_by    VARCHAR(100),
+                        accepted_at     TIMESTAMP       NOT NULL,
+                        completed_at    TIMESTAMP
+);
@@ -1,14 +1,14 @@
-INSERT INTO movies (title, director, release_year, rating, rating_status, created_at, updated_at)
-VALUES ('The Shawshank Redemption', 'Frank Darabont', 1994, 9.3, 'ENRICHED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO movies (title, director, release_year, rating, rating_status, dedup_key, created_at, updated_at)
+VALUES ('The Shawshank Redemption', 'Frank Darabont', 1994, 9.3, 'ENRICHED', 'the shawshank redemption|1994|frank darabont', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
-INSERT INTO movies (title, director, release_year, rating, rating_status, created_at, updated_at)
-VALUES ('The Godfather', 'Francis Ford Coppola', 1972, 9.2, 'ENRICHED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO movies (title, director, release_year, rating, rating_status, dedup_key, created_at, updated_at)
+VALUES ('The Godfather', 'Francis Ford Coppola', 1972, 9.2, 'ENRICHED', 'the godfather|1972|francis ford coppola', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
-INSERT INTO movies (title, director, release_year, rating, rating_status, created_at, updated_at)
-VALUES ('The Dark Knight', 'Christopher Nolan', 2008, 9.0, 'ENRICHED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO movies (title, director, release_year, rating, rating_status, dedup_key, created_at, updated_at)
+VALUES ('The Dark Knight', 'Christopher Nolan', 2008, 9.0, 'ENRICHED', 'the dark knight|2008|christopher nolan', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
-INSERT INTO movies (title, director, release_year, rating, rating_status, created_at, updated_at)
-VALUES ('Pulp Fiction', 'Quentin Tarantino', 1994, 8.9, 'ENRICHED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO movies (title, director, release_year, rating, rating_status, dedup_key, created_at, updated_at)
+VALUES ('Pulp Fiction', 'Quentin Tarantino', 1994, 8.9, 'ENRICHED', 'pulp fiction|1994|quentin tarantino', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
-INSERT INTO movies (title, director, release_year, rating, rating_status, created_at, updated_at)
-VALUES ('Inception', 'Christopher Nolan', 2010, 8.8, 'ENRICHED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
\ No newline at end of file
+INSERT INTO movies (title, director, release_year, rating, rating_status, dedup_key, created_at, updated_at)
+VALUES ('Inception', 'Christopher Nolan', 2010, 8.8, 'ENRICHED', 'inception|2010|christopher nolan', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
\ No newline at end of file
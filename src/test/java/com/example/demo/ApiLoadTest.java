@@ -0,0 +1,269 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repeatable local load test: boots the real application on a random port with the given
+ * profile (H2 in memory, OMDb pointed at a closed local port) and drives every
+ * {@code MovieController} endpoint over HTTP with concurrent clients.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ApiLoadTest}. Tunables (system properties):
+ * {@code loadtest.concurrency} (16), {@code loadtest.duration-seconds} (10), {@code loadtest.seed-movies} (200).
+ * The per-endpoint p50/p99 latency and throughput are printed and appended to
+ * {@code target/load-test-report.txt}.
+ */
+@Tag("benchmark")
+class ApiLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 10);
+    private static final int SEED_MOVIES = Integer.getInteger("loadtest.seed-movies", 200);
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final String ADMIN = basicAuth("admin", "admin123");
+    private static final String USER = basicAuth("user", "user123");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @ParameterizedTest(name = "profile={0}")
+    @ValueSource(strings = {"default", "production"})
+    @DisplayName("Load test all movie endpoints")
+    void loadTest(String profile) throws Exception {
+        try (ConfigurableApplicationContext context = startApplication(profile)) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/movies";
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < SEED_MOVIES; i++) {
+                ids.add(createMovie(baseUrl, "Seed Movie " + i));
+            }
+
+            Queue<Long> created = new ConcurrentLinkedQueue<>();
+            List<Result> results = new ArrayList<>();
+
+            // Warm up JIT, pool and caches before measuring
+            run("warm-up", Math.max(1, DURATION_SECONDS / 2),
+                    () -> send(get(baseUrl + "/" + randomId(ids), USER)));
+
+            results.add(run("GET /api/movies", DURATION_SECONDS,
+                    () -> send(get(baseUrl, USER))));
+            results.add(run("GET /api/movies/{id}", DURATION_SECONDS,
+                    () -> send(get(baseUrl + "/" + randomId(ids), USER))));
+            AtomicLong sequence = new AtomicLong();
+            results.add(run("POST /api/movies", DURATION_SECONDS,
+                    () -> {
+                        HttpResponse<String> response = send(post(baseUrl,
+                                movieJson("Load Movie " + sequence.incrementAndGet())));
+                        Long id = parseId(response.body());
+                        if (id != null) {
+                            created.add(id);
+                        }
+                        return response;
+                    }));
+            // Same title as the seed, so updates do not trigger re-enrichment
+            results.add(run("PUT /api/movies/{id}", DURATION_SECONDS,
+                    () -> {
+                        int index = ThreadLocalRandom.current().nextInt(ids.size());
+                        return send(put(baseUrl + "/" + ids.get(index), movieJson("Seed Movie " + index)));
+                    }));
+            results.add(run("DELETE /api/movies/{id}", DURATION_SECONDS,
+                    () -> {
+                        Long id = created.poll();
+                        return id == null ? null : send(delete(baseUrl + "/" + id));
+                    }));
+
+            report(profile, results);
+            results.forEach(result -> assertThat(result.errors())
+                    .as("errors for %s", result.endpoint()).isZero());
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(String profile) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(MovieLibraryApplication.class);
+        if (!"default".equals(profile)) {
+            builder.profiles(profile);
+        }
+        // command-line arguments, so they take precedence over application.yml
+        return builder.run(
+                "--server.port=0",
+                // Measure the endpoints themselves, not the load shedder or rate limits
+                "--api.load-shedding.enabled=false",
+                "--api.rate-limit.enabled=false",
+                // Keep enrichment local: connections to the discard port fail fast
+                "--omdb.api.url=http://127.0.0.1:9/");
+    }
+
+    private Result run(String endpoint, int durationSeconds, Call call) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < CONCURRENCY; i++) {
+            futures.add(pool.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long begin = System.nanoTime();
+                    HttpResponse<String> response;
+                    try {
+                        response = call.execute();
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (response == null) {
+                        break;
+                    }
+                    if (response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - begin;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] part = future.get();
+            long[] merged = Arrays.copyOf(all, all.length + part.length);
+            System.arraycopy(part, 0, merged, all.length, part.length);
+            all = merged;
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        Arrays.sort(all);
+        return new Result(endpoint, all.length, errors.get(),
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99), all.length / elapsedSeconds);
+    }
+
+    private void report(String profile, List<Result> results) throws IOException {
+        StringBuilder report = new StringBuilder()
+                .append(String.format("%nProfile: %s (concurrency=%d, duration=%ds per endpoint)%n",
+                        profile, CONCURRENCY, DURATION_SECONDS))
+                .append(String.format("%-26s %10s %8s %10s %10s %12s%n",
+                        "Endpoint", "Requests", "Errors", "p50 (ms)", "p99 (ms)", "Req/s"));
+        for (Result result : results) {
+            report.append(String.format("%-26s %10d %8d %10.2f %10.2f %12.1f%n",
+                    result.endpoint(), result.requests(), result.errors(),
+                    result.p50Millis(), result.p99Millis(), result.throughput()));
+        }
+        System.out.println(report);
+        Files.writeString(Path.of("target", "load-test-report.txt"), report,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private Long createMovie(String baseUrl, String title) throws Exception {
+        HttpResponse<String> response = send(post(baseUrl, movieJson(title)));
+        assertThat(response.statusCode()).isEqualTo(201);
+        return parseId(response.body());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private static HttpRequest get(String url, String auth) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Authorization", auth).GET().build();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", ADMIN)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static HttpRequest put(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", ADMIN)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static HttpRequest delete(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Authorization", ADMIN).DELETE().build();
+    }
+
+    private static String movieJson(String title) {
+        int year = 1950 + ThreadLocalRandom.current().nextInt(70);
+        return "{\"title\":\"" + title + "\",\"director\":\"Load Tester\",\"releaseYear\":" + year + "}";
+    }
+
+    private static Long randomId(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static Long parseId(String body) {
+        Matcher matcher = ID_PATTERN.matcher(body);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static String basicAuth(String username, String password) {
+        return "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<String> execute() throws IOException;
+    }
+
+    private record Result(String endpoint, long requests, long errors,
+                          double p50Millis, double p99Millis, double throughput) {
+    }
+}
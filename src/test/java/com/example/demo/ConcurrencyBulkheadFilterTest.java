@@ -0,0 +1,79 @@
+package com.example.demo;
+
+import com.example.demo.web.ConcurrencyBulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyBulkheadFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyBulkheadFilter filter = new ConcurrencyBulkheadFilter(
+            1, Duration.ofMillis(50), new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+
+    @Test
+    @DisplayName("Should pass requests through while permits are free")
+    void shouldPassThroughWithFreePermit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"), response, chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("http.server.bulkhead.rejected").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 and Retry-After when no permit frees up in time")
+    void shouldRejectWhenSaturated() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            entered.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/movies/1"), rejected, chain);
+
+        MockHttpServletResponse actuator = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), actuator, new MockFilterChain());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("\"status\":503");
+        assertThat(actuator.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("http.server.bulkhead.rejected").count()).isEqualTo(1);
+    }
+}
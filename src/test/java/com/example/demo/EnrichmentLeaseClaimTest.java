@@ -0,0 +1,85 @@
+package com.example.demo;
+
+import com.example.demo.models.Movie;
+import com.example.demo.repositories.MovieRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class EnrichmentLeaseClaimTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    private Movie pendingMovie(String title) {
+        return movieRepository.save(Movie.builder()
+                .title(title)
+                .ratingStatus(Movie.RatingStatus.PENDING)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Only one node should win the lease on a movie")
+    void onlyOneNodeShouldWinLease() {
+        Movie movie = pendingMovie("Contested");
+        LocalDateTime now = LocalDateTime.now();
+
+        int nodeA = movieRepository.tryClaim(movie.getId(), "node-a", now.plusMinutes(1), now);
+        int nodeB = movieRepository.tryClaim(movie.getId(), "node-b", now.plusMinutes(1), now);
+
+        assertThat(nodeA).isEqualTo(1);
+        assertThat(nodeB).isZero();
+        assertThat(movieRepository.findClaimableIds(now, 10)).doesNotContain(movie.getId());
+    }
+
+    @Test
+    @DisplayName("Expired lease of a crashed node should be claimable again")
+    void expiredLeaseShouldBeReclaimed() {
+        Movie movie = pendingMovie("Abandoned");
+        LocalDateTime claimedAt = LocalDateTime.now().minusMinutes(5);
+        movieRepository.tryClaim(movie.getId(), "crashed-node", claimedAt.plusMinutes(1), claimedAt);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> claimable = movieRepository.findClaimableIds(now, 10);
+
+        assertThat(claimable).contains(movie.getId());
+        assertThat(movieRepository.tryClaim(movie.getId(), "node-b", now.plusMinutes(1), now)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Heartbeat should extend only the leases the node holds")
+    void heartbeatShouldExtendOwnLeases() {
+        Movie mine = pendingMovie("Mine");
+        Movie theirs = pendingMovie("Theirs");
+        LocalDateTime now = LocalDateTime.now();
+        movieRepository.tryClaim(mine.getId(), "node-a", now.plusSeconds(1), now);
+        movieRepository.tryClaim(theirs.getId(), "node-b", now.plusSeconds(1), now);
+
+        int extended = movieRepository.extendLeases("node-a", List.of(mine.getId(), theirs.getId()),
+                now.plusMinutes(10));
+
+        assertThat(extended).isEqualTo(1);
+        assertThat(movieRepository.findClaimableIds(now.plusMinutes(5), 10))
+                .contains(theirs.getId())
+                .doesNotContain(mine.getId());
+    }
+
+    @Test
+    @DisplayName("Enriched movies should never be claimable")
+    void enrichedMoviesShouldNotBeClaimable() {
+        Movie movie = movieRepository.save(Movie.builder()
+                .title("Done")
+                .ratingStatus(Movie.RatingStatus.ENRICHED)
+                .rating(8.0)
+                .build());
+
+        assertThat(movieRepository.findClaimableIds(LocalDateTime.now(), 100)).doesNotContain(movie.getId());
+    }
+}
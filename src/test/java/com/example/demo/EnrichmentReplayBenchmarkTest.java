@@ -0,0 +1,162 @@
+package com.example.demo;
+
+import com.example.demo.events.RatingChangedEvent;
+import com.example.demo.models.Movie;
+import com.example.demo.models.dtos.MovieRequest;
+import com.example.demo.services.MovieService;
+import com.example.demo.services.rating.OmdbArchive;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Offline throughput of the enrichment pipeline: boots the application with OMDb replayed from a synthetic
+ * archive ({@code omdb.replay.mode=replay}), creates movies through {@code MovieService.createMovie} from
+ * concurrent callers and measures, per movie, the time from create until enrichment wrote a final status.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=EnrichmentReplayBenchmarkTest}. Tunables (system properties):
+ * {@code benchmark.movies} (5000), {@code benchmark.creators} (8), {@code benchmark.latency-median} (PT0.05S),
+ * {@code benchmark.latency-p99} (PT0.3S), {@code benchmark.error-rate} (0.01). A tenth of the titles is not in
+ * the archive and ends as NOT_FOUND. Results are printed and appended to
+ * {@code target/enrichment-benchmark-report.txt}.
+ */
+@Tag("benchmark")
+class EnrichmentReplayBenchmarkTest {
+
+    private static final int MOVIES = Integer.getInteger("benchmark.movies", 5000);
+    private static final int CREATORS = Integer.getInteger("benchmark.creators", 8);
+    private static final String MEDIAN = System.getProperty("benchmark.latency-median", "PT0.05S");
+    private static final String P99 = System.getProperty("benchmark.latency-p99", "PT0.3S");
+    private static final String ERROR_RATE = System.getProperty("benchmark.error-rate", "0.01");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Push movies through create and replayed enrichment and report latency percentiles")
+    void benchmarkEnrichmentPipeline() throws Exception {
+        Path archive = directory.resolve("omdb-archive.bin.gz");
+        try (OmdbArchive.Writer writer = OmdbArchive.append(archive)) {
+            for (int i = 0; i < MOVIES; i++) {
+                if (i % 10 != 9) {
+                    writer.write(OmdbArchive.key(title(i), String.valueOf(year(i))), new OmdbArchive.Entry(200, 0,
+                            "{\"Response\":\"True\",\"imdbRating\":\"" + (1 + i % 90 / 10.0) + "\"}"));
+                }
+            }
+        }
+
+        Map<Long, Long> createdAt = new ConcurrentHashMap<>();
+        Map<Long, Long> finishedAt = new ConcurrentHashMap<>();
+        Map<Long, Movie.RatingStatus> outcomes = new ConcurrentHashMap<>();
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieLibraryApplication.class)
+                // command-line arguments, so they take precedence over application.yml
+                .run("--server.port=0",
+                        "--omdb.replay.mode=replay",
+                        "--omdb.replay.archive=" + archive,
+                        "--omdb.replay.latency.median=" + MEDIAN,
+                        "--omdb.replay.latency.p99=" + P99,
+                        "--omdb.replay.error-rate=" + ERROR_RATE,
+                        // the whole batch is queued at once, as in a bulk import through the API
+                        "--enrichment.scheduler.interactive.queue-capacity=" + MOVIES,
+                        "--api.rate-limit.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.example.demo=WARN",
+                        "--logging.level.org.springframework.jdbc=WARN")) {
+            context.addApplicationListener((ApplicationListener<PayloadApplicationEvent<?>>) event -> {
+                if (event.getPayload() instanceof RatingChangedEvent change
+                        && change.status() != Movie.RatingStatus.PENDING) {
+                    long now = System.nanoTime();
+                    if (finishedAt.putIfAbsent(change.movieId(), now) == null) {
+                        outcomes.put(change.movieId(), change.status());
+                    }
+                }
+            });
+            MovieService movieService = context.getBean(MovieService.class);
+
+            long start = System.nanoTime();
+            AtomicInteger next = new AtomicInteger();
+            ExecutorService creators = Executors.newFixedThreadPool(CREATORS);
+            for (int c = 0; c < CREATORS; c++) {
+                creators.execute(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < MOVIES) {
+                        long begin = System.nanoTime();
+                        Long id = movieService.createMovie(MovieRequest.builder()
+                                .title(title(i)).director("Replay").releaseYear(year(i)).build()).getId();
+                        createdAt.put(id, begin);
+                    }
+                });
+            }
+            creators.shutdown();
+            assertThat(creators.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+            double createSeconds = (System.nanoTime() - start) / 1e9;
+
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(10);
+            while (!finishedAt.keySet().containsAll(createdAt.keySet()) && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            double totalSeconds = (System.nanoTime() - start) / 1e9;
+
+            long[] latencies = createdAt.entrySet().stream()
+                    .filter(entry -> finishedAt.containsKey(entry.getKey()))
+                    .mapToLong(entry -> finishedAt.get(entry.getKey()) - entry.getValue())
+                    .sorted()
+                    .toArray();
+            Map<Movie.RatingStatus, Integer> byStatus = new EnumMap<>(Movie.RatingStatus.class);
+            createdAt.keySet().forEach(id -> byStatus.merge(outcomes.getOrDefault(id, Movie.RatingStatus.PENDING),
+                    1, Integer::sum));
+
+            report(createSeconds, totalSeconds, latencies, byStatus);
+            assertThat(latencies).hasSize(MOVIES);
+        }
+    }
+
+    private void report(double createSeconds, double totalSeconds, long[] latencies,
+                        Map<Movie.RatingStatus, Integer> byStatus) throws Exception {
+        String report = String.format("%nEnrichment replay: %d movies, %d creators, OMDb latency median %s p99 %s, "
+                        + "error rate %s%n", MOVIES, CREATORS, MEDIAN, P99, ERROR_RATE)
+                + String.format("Creates/s %.1f, enriched/s %.1f%n", MOVIES / createSeconds, latencies.length / totalSeconds)
+                + String.format("PENDING -> final status (ms): p50 %.1f, p95 %.1f, p99 %.1f, max %.1f%n",
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.95),
+                percentileMillis(latencies, 0.99), percentileMillis(latencies, 1.0))
+                + String.format("Outcomes: %s%n", byStatus);
+        System.out.println(report);
+        Files.writeString(Path.of("target", "enrichment-benchmark-report.txt"), report,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String title(int i) {
+        return "Replay Movie " + i;
+    }
+
+    private static int year(int i) {
+        return 1950 + i % 70;
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.demo;
+
+import com.example.demo.models.Movie;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.services.enrichment.EnrichmentNode;
+import com.example.demo.services.enrichment.EnrichmentResultBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class EnrichmentResultBufferTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EnrichmentResultBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        // flushed explicitly by the tests
+        buffer = new EnrichmentResultBuffer(movieRepository, new EnrichmentNode(false, "test", Duration.ofMinutes(1)),
+                transactionManager, meterRegistry, Duration.ofHours(1), 100, 10_000, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.close();
+    }
+
+    private Movie pendingMovie(String title) {
+        return movieRepository.save(Movie.builder()
+                .title(title)
+                .ratingStatus(Movie.RatingStatus.PENDING)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should write only the latest result of a movie enriched twice before a flush")
+    void shouldCoalesceResultsPerMovie() {
+        Movie movie = pendingMovie("Alien");
+        buffer.submit(new EnrichmentResultBuffer.Outcome(movie.getId(), "Alien", 8.0, Movie.RatingStatus.ENRICHED));
+        buffer.submit(new EnrichmentResultBuffer.Outcome(movie.getId(), "Alien", 8.5, Movie.RatingStatus.ENRICHED));
+
+        assertThat(buffer.getPendingCount()).isEqualTo(1);
+        buffer.flush();
+
+        Movie stored = movieRepository.findById(movie.getId()).orElseThrow();
+        assertThat(stored.getRating()).isEqualTo(8.5);
+        assertThat(stored.getRatingStatus()).isEqualTo(Movie.RatingStatus.ENRICHED);
+        assertThat(buffer.getPendingCount()).isZero();
+        assertThat(meterRegistry.counter("enrichment.write-behind.coalesced").count()).isEqualTo(1);
+        assertThat(meterRegistry.summary("enrichment.write-behind.batch-size").totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should write many movies in one batch and keep the rating on NOT_FOUND")
+    void shouldWriteBatch() {
+        Movie found = pendingMovie("Heat");
+        Movie missing = pendingMovie("Unknown Film");
+        missing.setRating(6.0);
+        movieRepository.save(missing);
+
+        buffer.submit(new EnrichmentResultBuffer.Outcome(found.getId(), "Heat", 8.25, Movie.RatingStatus.ENRICHED));
+        buffer.submit(new EnrichmentResultBuffer.Outcome(missing.getId(), "Unknown Film", null,
+                Movie.RatingStatus.NOT_FOUND));
+        buffer.flush();
+
+        assertThat(movieRepository.findById(found.getId()).orElseThrow().getRating()).isEqualTo(8.25);
+        Movie notFound = movieRepository.findById(missing.getId()).orElseThrow();
+        assertThat(notFound.getRatingStatus()).isEqualTo(Movie.RatingStatus.NOT_FOUND);
+        assertThat(notFound.getRating()).isEqualTo(6.0);
+        assertThat(meterRegistry.timer("enrichment.write-behind.flush").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop a result for a movie renamed after enrichment started")
+    void shouldDropStaleResult() {
+        Movie movie = pendingMovie("Old Title");
+        buffer.submit(new EnrichmentResultBuffer.Outcome(movie.getId(), "Older Title", 7.0,
+                Movie.RatingStatus.ENRICHED));
+
+        buffer.flush();
+
+        Movie stored = movieRepository.findById(movie.getId()).orElseThrow();
+        assertThat(stored.getRatingStatus()).isEqualTo(Movie.RatingStatus.PENDING);
+        assertThat(stored.getRating()).isNull();
+        assertThat(meterRegistry.counter("enrichment.write-behind.stale").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should only write results of movies whose lease this node holds or nobody holds")
+    void shouldCheckLeaseOnWrite() {
+        Movie mine = pendingMovie("Mine");
+        Movie theirs = pendingMovie("Theirs");
+        Movie free = pendingMovie("Free");
+        LocalDateTime now = LocalDateTime.now();
+        movieRepository.tryClaim(mine.getId(), "node-a", now.plusMinutes(1), now);
+        movieRepository.tryClaim(theirs.getId(), "node-b", now.plusMinutes(1), now);
+        EnrichmentResultBuffer nodeA = new EnrichmentResultBuffer(movieRepository,
+                new EnrichmentNode(true, "node-a", Duration.ofMinutes(1)), transactionManager, meterRegistry,
+                Duration.ofHours(1), 100, 10_000, 3);
+        try {
+            for (Movie movie : List.of(mine, theirs, free)) {
+                nodeA.submit(new EnrichmentResultBuffer.Outcome(movie.getId(), movie.getTitle(), 7.5,
+                        Movie.RatingStatus.ENRICHED));
+            }
+            nodeA.flush();
+        } finally {
+            nodeA.close();
+        }
+
+        Movie storedMine = movieRepository.findById(mine.getId()).orElseThrow();
+        assertThat(storedMine.getRating()).isEqualTo(7.5);
+        assertThat(storedMine.getLeaseOwner()).isNull();
+        assertThat(movieRepository.findById(free.getId()).orElseThrow().getRating()).isEqualTo(7.5);
+        Movie storedTheirs = movieRepository.findById(theirs.getId()).orElseThrow();
+        assertThat(storedTheirs.getRatingStatus()).isEqualTo(Movie.RatingStatus.PENDING);
+        assertThat(storedTheirs.getLeaseOwner()).isEqualTo("node-b");
+        assertThat(meterRegistry.counter("enrichment.write-behind.stale").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should write around a result that always fails and drop it after max-attempts flushes")
+    @SuppressWarnings("unchecked")
+    void shouldDropPoisonedResult() {
+        Map<Long, Movie> movies = new HashMap<>();
+        for (long id = 1; id <= 3; id++) {
+            movies.put(id, Movie.builder().id(id).title("Movie " + id).ratingStatus(Movie.RatingStatus.PENDING)
+                    .build());
+        }
+        List<Long> written = new ArrayList<>();
+        MovieRepository repository = mock(MovieRepository.class);
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            List<Movie> found = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> found.add(movies.get(id)));
+            return found;
+        });
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<Movie> saved = invocation.getArgument(0);
+            if (saved.stream().anyMatch(movie -> movie.getId() == 2)) {
+                throw new DataIntegrityViolationException("row 2 cannot be written");
+            }
+            saved.forEach(movie -> written.add(movie.getId()));
+            return saved;
+        });
+        EnrichmentResultBuffer poisoned = new EnrichmentResultBuffer(repository,
+                new EnrichmentNode(false, "test", Duration.ofMinutes(1)), mock(PlatformTransactionManager.class),
+                meterRegistry, Duration.ofHours(1), 100, 10_000, 2);
+        try {
+            for (long id = 1; id <= 3; id++) {
+                poisoned.submit(new EnrichmentResultBuffer.Outcome(id, "Movie " + id, 7.0,
+                        Movie.RatingStatus.ENRICHED));
+            }
+
+            assertThatThrownBy(poisoned::flush).isInstanceOf(DataIntegrityViolationException.class);
+            assertThat(written).containsExactlyInAnyOrder(1L, 3L);
+            assertThat(poisoned.getPendingCount()).isEqualTo(1);
+
+            poisoned.flush();
+            assertThat(poisoned.getPendingCount()).isZero();
+            assertThat(meterRegistry.counter("enrichment.write-behind.dropped").count()).isEqualTo(1);
+        } finally {
+            poisoned.close();
+        }
+    }
+}
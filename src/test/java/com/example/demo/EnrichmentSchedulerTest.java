@@ -0,0 +1,118 @@
+package com.example.demo;
+
+import com.example.demo.services.enrichment.EnrichmentLane;
+import com.example.demo.services.enrichment.EnrichmentScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EnrichmentSchedulerTest {
+
+    private EnrichmentScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.setWaitForTasksToCompleteOnShutdown(false);
+            scheduler.shutdown();
+        }
+    }
+
+    private EnrichmentScheduler newScheduler(int poolSize, int backgroundConcurrency, int queueCapacity) {
+        EnrichmentScheduler created = new EnrichmentScheduler(
+                poolSize,
+                Map.of(
+                        EnrichmentLane.INTERACTIVE, new EnrichmentScheduler.LaneSettings(4, poolSize, queueCapacity),
+                        EnrichmentLane.BACKGROUND, new EnrichmentScheduler.LaneSettings(1, backgroundConcurrency, queueCapacity)),
+                new CustomizableThreadFactory("test-enrichment-"),
+                new SimpleMeterRegistry());
+        created.setAwaitTerminationSeconds(5);
+        created.initialize();
+        return created;
+    }
+
+    @Test
+    @DisplayName("Interactive task should not wait behind a background backlog")
+    void interactiveTaskShouldJumpBackgroundBacklog() throws Exception {
+        scheduler = newScheduler(2, 1, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < 5_000; i++) {
+            scheduler.submit(EnrichmentLane.BACKGROUND, () -> awaitQuietly(release));
+        }
+
+        CountDownLatch interactiveDone = new CountDownLatch(1);
+        scheduler.submit(EnrichmentLane.INTERACTIVE, interactiveDone::countDown);
+
+        assertThat(interactiveDone.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(scheduler.getQueueDepth(EnrichmentLane.BACKGROUND)).isGreaterThan(4_000);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should never exceed per-lane concurrency")
+    void shouldRespectLaneConcurrency() throws Exception {
+        scheduler = newScheduler(4, 2, 100);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            scheduler.submit(EnrichmentLane.BACKGROUND, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleepQuietly(5);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject tasks when a lane queue is full")
+    void shouldRejectWhenLaneIsFull() {
+        scheduler = newScheduler(1, 1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        scheduler.submit(EnrichmentLane.BACKGROUND, () -> awaitQuietly(release));
+        sleepQuietly(50);
+        scheduler.submit(EnrichmentLane.BACKGROUND, () -> { });
+        scheduler.submit(EnrichmentLane.BACKGROUND, () -> { });
+
+        assertThatThrownBy(() -> scheduler.submit(EnrichmentLane.BACKGROUND, () -> { }))
+                .isInstanceOf(TaskRejectedException.class);
+
+        // Other lanes are unaffected
+        scheduler.submit(EnrichmentLane.INTERACTIVE, () -> { });
+        release.countDown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"production", "fast-startup"})
+class FastStartupProfileTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    @DisplayName("Should serve movies with lazily initialized beans")
+    void shouldServeMoviesLazily() throws Exception {
+        mockMvc.perform(get("/api/movies"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    @DisplayName("Should not expose the OpenAPI document or the H2 console")
+    void shouldDisableDevelopmentEndpoints() throws Exception {
+        mockMvc.perform(get("/v3/api-docs"))
+                .andExpect(status().isNotFound());
+        // MockMvc only goes through the DispatcherServlet, so the console servlet is checked by its registration
+        List<String> servletMappings = applicationContext.getBeansOfType(ServletRegistrationBean.class).values().stream()
+                .flatMap(registration -> ((ServletRegistrationBean<?>) registration).getUrlMappings().stream())
+                .toList();
+        assertThat(servletMappings)
+                .contains("/")
+                .noneMatch(mapping -> mapping.startsWith("/h2-console"));
+    }
+}
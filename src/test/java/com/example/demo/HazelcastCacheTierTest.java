@@ -0,0 +1,85 @@
+package com.example.demo;
+
+import com.example.demo.cache.HazelcastCacheTier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two embedded members on the loopback interface, as two application nodes on one host would run.
+ */
+class HazelcastCacheTierTest {
+
+    private static HazelcastCacheTier nodeA;
+    private static HazelcastCacheTier nodeB;
+
+    @BeforeAll
+    static void startMembers() throws IOException {
+        // free ports, so a running node or a parallel build does not join this cluster
+        int portA = freePort();
+        int portB = freePort();
+        List<String> members = List.of("127.0.0.1:" + portA, "127.0.0.1:" + portB);
+        nodeA = new HazelcastCacheTier("cache-tier-test", portA, members);
+        nodeB = new HazelcastCacheTier("cache-tier-test", portB, members);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @AfterAll
+    static void stopMembers() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    @DisplayName("Should share entries and send invalidations to the other members only")
+    void shouldShareEntriesAndInvalidations() throws InterruptedException {
+        List<String> receivedByA = new CopyOnWriteArrayList<>();
+        List<String> receivedByB = new CopyOnWriteArrayList<>();
+        nodeA.onRemoteInvalidation((cache, key) -> receivedByA.add(cache + ":" + key));
+        nodeB.onRemoteInvalidation((cache, key) -> receivedByB.add(cache + ":" + key));
+
+        nodeA.put("movies", "1", "Heat".getBytes(StandardCharsets.UTF_8), Duration.ofMinutes(1));
+        assertThat(new String(nodeB.get("movies", "1").value(), StandardCharsets.UTF_8)).isEqualTo("Heat");
+
+        nodeA.invalidate("movies", "1", Duration.ofMinutes(1));
+        assertThat(nodeB.get("movies", "1").value()).isNull();
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (receivedByB.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(receivedByB).containsExactly("movies:1");
+        assertThat(receivedByA).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should refuse a conditional put once the key was written or invalidated since it was read")
+    void shouldRefuseOutdatedPut() {
+        Duration ttl = Duration.ofMinutes(1);
+        long read = nodeA.get("movies", "2").version();
+        nodeB.invalidate("movies", "2", ttl);
+
+        assertThat(nodeA.putIfVersion("movies", "2", "Heat".getBytes(StandardCharsets.UTF_8), read, ttl)).isFalse();
+        assertThat(nodeA.get("movies", "2").value()).isNull();
+
+        long reread = nodeA.get("movies", "2").version();
+        assertThat(nodeA.putIfVersion("movies", "2", "Heat (1995)".getBytes(StandardCharsets.UTF_8), reread, ttl))
+                .isTrue();
+        assertThat(new String(nodeB.get("movies", "2").value(), StandardCharsets.UTF_8)).isEqualTo("Heat (1995)");
+    }
+}
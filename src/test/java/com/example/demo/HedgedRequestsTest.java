@@ -0,0 +1,116 @@
+package com.example.demo;
+
+import com.example.demo.exceptions.RatingProviderException;
+import com.example.demo.services.rating.HedgedRequests;
+import com.example.demo.services.rating.LatencyTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgedRequestsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgedRequests hedgedRequests;
+
+    @AfterEach
+    void tearDown() {
+        if (hedgedRequests != null) {
+            hedgedRequests.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer from the hedged request when the first one hangs")
+    void shouldAnswerFromHedgeWhenFirstHangs() {
+        hedgedRequests = hedged(Duration.ofSeconds(3), 1.0);
+        AtomicInteger calls = new AtomicInteger();
+
+        long started = System.nanoTime();
+        String result = hedgedRequests.call(() -> calls.incrementAndGet() == 1 ? sleep(5_000, "first") : "hedge");
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(calls).hasValue(2);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+        assertThat(meterRegistry.get("enrichment.hedge.wins").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not hedge beyond the hedge budget")
+    void shouldRespectHedgeBudget() {
+        hedgedRequests = hedged(Duration.ofSeconds(3), 0.0);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedgedRequests.call(() -> {
+            calls.incrementAndGet();
+            return sleep(300, "slow");
+        });
+
+        assertThat(result).isEqualTo("slow");
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("enrichment.hedge.budget-exhausted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should give up at the deadline when every attempt hangs")
+    void shouldGiveUpAtDeadline() {
+        hedgedRequests = hedged(Duration.ofMillis(400), 1.0);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> hedgedRequests.call(() -> sleep(5_000, "never")))
+                .isInstanceOf(RatingProviderException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2_000);
+    }
+
+    @Test
+    @DisplayName("Should count the latency of failed requests towards the hedge delay")
+    void shouldTrackLatencyOfFailures() {
+        hedgedRequests = hedged(Duration.ofSeconds(3), 0.0);
+
+        for (int i = 0; i < 20; i++) {
+            assertThatThrownBy(() -> hedgedRequests.call(() -> {
+                sleep(30, "failing");
+                throw new RatingProviderException("upstream error");
+            })).isInstanceOf(RatingProviderException.class);
+        }
+
+        // observed from the failures, no longer the 100 ms initial delay
+        assertThat(meterRegistry.get("enrichment.hedge.delay").gauge().value()).isBetween(30.0, 99.0);
+    }
+
+    @Test
+    @DisplayName("Should track the latency percentile over the window")
+    void shouldTrackPercentile() {
+        LatencyTracker tracker = new LatencyTracker(100, 0.95);
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+        assertThat(tracker.percentileNanos()).isEqualTo(95);
+
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1_000);
+        }
+        assertThat(tracker.percentileNanos()).isEqualTo(1_000);
+    }
+
+    private HedgedRequests hedged(Duration deadline, double maxHedgeRatio) {
+        return new HedgedRequests("test", new HedgedRequests.Settings(
+                deadline, 0.95, Duration.ofMillis(100), Duration.ofMillis(10), maxHedgeRatio, 20), meterRegistry);
+    }
+
+    private static String sleep(long millis, String result) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+}
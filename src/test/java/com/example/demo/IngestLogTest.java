@@ -0,0 +1,120 @@
+package com.example.demo;
+
+import com.example.demo.ingest.IngestLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestLogTest {
+
+    @TempDir
+    Path directory;
+
+    private IngestLog ingestLog;
+
+    @AfterEach
+    void tearDown() {
+        if (ingestLog != null) {
+            ingestLog.close();
+        }
+    }
+
+    private IngestLog open() throws IOException {
+        // 17-byte records: a segment rolls after every third
+        return new IngestLog(directory.toString(), DataSize.ofBytes(40), false, false,
+                new SimpleMeterRegistry());
+    }
+
+    private static byte[] payload(int i) {
+        return ("request-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<IngestLog.Entry> entries) {
+        return entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".ingest")).sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should read records in order across rolled segments and after reopening")
+    void shouldReadAcrossSegmentsAndReopen() throws IOException {
+        ingestLog = open();
+        for (int i = 0; i < 10; i++) {
+            ingestLog.append(payload(i));
+        }
+        assertThat(ingestLog.segmentCount()).isEqualTo(4);
+
+        List<IngestLog.Entry> firstFive = ingestLog.read(0, 5);
+        assertThat(payloads(firstFive)).containsExactly("request-0", "request-1", "request-2", "request-3", "request-4");
+        assertThat(payloads(ingestLog.read(firstFive.get(4).nextOffset(), 100)))
+                .containsExactly("request-5", "request-6", "request-7", "request-8", "request-9");
+
+        long end = ingestLog.endOffset();
+        ingestLog.close();
+        ingestLog = open();
+
+        assertThat(ingestLog.endOffset()).isEqualTo(end);
+        assertThat(ingestLog.read(0, 100)).hasSize(10);
+    }
+
+    @Test
+    @DisplayName("Should drop a torn record at the end of the log when reopening")
+    void shouldRecoverFromTornWrite() throws IOException {
+        ingestLog = open();
+        ingestLog.append(payload(0));
+        ingestLog.append(payload(1));
+        long end = ingestLog.endOffset();
+        ingestLog.close();
+
+        // header and half of a payload: the process died in the middle of an append
+        Path segment = segmentFiles().get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 9, 1, 2, 3, 4, 'r', 'e', 'q'}, StandardOpenOption.APPEND);
+
+        ingestLog = open();
+
+        assertThat(ingestLog.endOffset()).isEqualTo(end);
+        assertThat(payloads(ingestLog.read(0, 100))).containsExactly("request-0", "request-1");
+        ingestLog.append(payload(2));
+        assertThat(payloads(ingestLog.read(end, 100))).containsExactly("request-2");
+    }
+
+    @Test
+    @DisplayName("Should delete drained segments and keep offsets growing")
+    void shouldTruncateDrainedSegments() throws IOException {
+        ingestLog = open();
+        for (int i = 0; i < 10; i++) {
+            ingestLog.append(payload(i));
+        }
+        List<IngestLog.Entry> entries = ingestLog.read(0, 100);
+
+        ingestLog.truncateBefore(entries.get(5).nextOffset());
+
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(ingestLog.startOffset()).isEqualTo(entries.get(6).offset());
+        assertThat(payloads(ingestLog.read(entries.get(5).nextOffset(), 100)))
+                .containsExactly("request-6", "request-7", "request-8", "request-9");
+
+        // the active segment is kept even when drained, so the next append continues after it
+        long end = ingestLog.endOffset();
+        ingestLog.truncateBefore(end);
+        assertThat(ingestLog.segmentCount()).isEqualTo(1);
+        assertThat(ingestLog.append(payload(10))).isEqualTo(end);
+    }
+}
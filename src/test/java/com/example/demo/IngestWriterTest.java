@@ -0,0 +1,229 @@
+package com.example.demo;
+
+import com.example.demo.ingest.IngestLog;
+import com.example.demo.ingest.IngestWriter;
+import com.example.demo.ingest.MovieIngest;
+import com.example.demo.models.IngestState;
+import com.example.demo.models.IngestTicket;
+import com.example.demo.models.dtos.MovieRequest;
+import com.example.demo.ratelimit.UserRateLimits;
+import com.example.demo.repositories.IngestStateRepository;
+import com.example.demo.repositories.IngestTicketRepository;
+import com.example.demo.services.MovieService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ingest nodes over one fake database: movies created in a transaction become visible (and count as
+ * duplicates) only once it commits, and are dropped if it rolls back.
+ */
+class IngestWriterTest {
+
+    /**
+     * One node: its own log, accepting side and writer.
+     */
+    private final class Node {
+
+        private final Path directory;
+        private IngestLog ingestLog;
+        private MovieIngest movieIngest;
+        private IngestWriter writer;
+
+        Node(Path directory) throws IOException {
+            this.directory = directory;
+            open();
+        }
+
+        void open() throws IOException {
+            ingestLog = new IngestLog(directory.toString(), DataSize.ofMegabytes(1), false, true,
+                    new SimpleMeterRegistry());
+            movieIngest = new MovieIngest(ingestLog, ticketRepository, userRateLimits, objectMapper,
+                    new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofSeconds(1));
+            writer = new IngestWriter(ingestLog, movieIngest, movieService, stateRepository, ticketRepository,
+                    transactionManager, new SimpleMeterRegistry(), 10, Duration.ofMillis(20), Duration.ofMillis(1), 2);
+        }
+
+        String accept(String... titles) {
+            List<MovieRequest> movies = new ArrayList<>();
+            for (String title : titles) {
+                movies.add(MovieRequest.builder().title(title).releaseYear(2000).build());
+            }
+            return movieIngest.accept(movies).getTicketId();
+        }
+
+        void restart() throws Exception {
+            stop();
+            open();
+            writer.start();
+        }
+
+        void stop() throws InterruptedException {
+            writer.stop();
+            ingestLog.close();
+        }
+    }
+
+    /**
+     * Commits or drops the movies created since the transaction began.
+     */
+    private final class FakeTransactionManager implements PlatformTransactionManager {
+
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            uncommitted.clear();
+            return new SimpleTransactionStatus();
+        }
+
+        public void commit(TransactionStatus status) {
+            committed.addAll(uncommitted);
+            uncommitted.clear();
+        }
+
+        public void rollback(TransactionStatus status) {
+            uncommitted.clear();
+        }
+    }
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<String> committed = new CopyOnWriteArrayList<>();
+    private final List<String> uncommitted = new CopyOnWriteArrayList<>();
+    private final Map<String, IngestState> states = new ConcurrentHashMap<>();
+    private final Map<String, IngestTicket> tickets = new ConcurrentHashMap<>();
+    private final PlatformTransactionManager transactionManager = new FakeTransactionManager();
+    private final UserRateLimits userRateLimits = mock(UserRateLimits.class);
+    private final MovieService movieService = mock(MovieService.class);
+    private final IngestStateRepository stateRepository = mock(IngestStateRepository.class);
+    private final IngestTicketRepository ticketRepository = mock(IngestTicketRepository.class);
+    private final List<Node> nodes = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(movieService.createIngestedMovie(any())).thenAnswer(invocation -> {
+            String title = invocation.<MovieRequest>getArgument(0).getTitle();
+            if (title.startsWith("Poison")) {
+                throw new IllegalStateException("Cannot write " + title);
+            }
+            if (committed.contains(title) || uncommitted.contains(title)) {
+                return false;
+            }
+            uncommitted.add(title);
+            return true;
+        });
+        when(stateRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(states.get(invocation.<String>getArgument(0))));
+        when(stateRepository.save(any())).thenAnswer(invocation -> {
+            IngestState state = invocation.getArgument(0);
+            states.put(state.getLogId(), state);
+            return state;
+        });
+        when(ticketRepository.saveAll(any())).thenAnswer(invocation -> {
+            Collection<IngestTicket> saved = invocation.getArgument(0);
+            saved.forEach(ticket -> tickets.put(ticket.getId(), ticket));
+            return List.copyOf(saved);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        SecurityContextHolder.clearContext();
+        for (Node node : nodes) {
+            node.stop();
+        }
+    }
+
+    private Node node(String name) throws IOException {
+        Node node = new Node(directory.resolve(name));
+        nodes.add(node);
+        return node;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should resume each node's log at its own offset and write queued requests after a restart")
+    void shouldResumeOwnLogAfterRestart() throws Exception {
+        Node nodeA = node("a");
+        Node nodeB = node("b");
+        String first = nodeA.accept("Heat", "Ronin");
+        nodeA.writer.start();
+        await(() -> tickets.containsKey(first));
+
+        // node B accepted requests but was stopped before writing them
+        String queued = nodeB.accept("Alien");
+        String queuedToo = nodeB.accept("Aliens", "Alien 3");
+        nodeB.restart();
+        await(() -> tickets.containsKey(queued) && tickets.containsKey(queuedToo));
+
+        nodeA.restart();
+        String second = nodeA.accept("Collateral");
+        await(() -> tickets.containsKey(second));
+
+        assertThat(committed).containsExactlyInAnyOrder("Heat", "Ronin", "Alien", "Aliens", "Alien 3", "Collateral");
+        assertThat(tickets.get(queuedToo).getCreated()).isEqualTo(2);
+        assertThat(tickets.values()).allSatisfy(ticket -> assertThat(ticket.getDuplicates()).isZero());
+        assertThat(states).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should write the rest of a failing batch, count each movie once and refund only skipped ones")
+    void shouldWriteAroundFailingMovie() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "editor", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        committed.add("Ronin");
+        Node node = node("a");
+        String ticketId = node.accept("Heat", "Poison", "Ronin", "Collateral");
+        node.writer.start();
+        await(() -> tickets.containsKey(ticketId));
+
+        IngestTicket ticket = tickets.get(ticketId);
+        assertThat(ticket.getCreated()).isEqualTo(2);
+        assertThat(ticket.getDuplicates()).isEqualTo(1);
+        assertThat(ticket.getFailed()).isEqualTo(1);
+        assertThat(committed).containsExactlyInAnyOrder("Ronin", "Heat", "Collateral");
+        verify(userRateLimits).chargeEnrichment(4);
+        // the refund follows the commit of the ticket
+        verify(userRateLimits, timeout(1000)).refundEnrichment("editor", 2);
+    }
+}
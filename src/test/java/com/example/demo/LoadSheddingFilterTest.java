@@ -0,0 +1,113 @@
+package com.example.demo;
+
+import com.example.demo.web.AdaptiveConcurrencyLimit;
+import com.example.demo.web.LoadSheddingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadSheddingFilterTest {
+
+    private static final long MILLI = 1_000_000;
+
+    @Test
+    @DisplayName("Should raise the limit while latency stays at the baseline and cut it when latency climbs")
+    void shouldAdaptLimitToLatency() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 2.0);
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.onSuccess(10 * MILLI, limit.getLimit());
+        }
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(10);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.onSuccess(100 * MILLI, limit.getLimit());
+        }
+        assertThat(limit.getLimit()).isLessThan(grown / 2);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not grow the limit while it is mostly unused")
+    void shouldNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 2.0);
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.onSuccess(10 * MILLI, 1);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should back off after failed requests")
+    void shouldBackOffOnDrops() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 2.0);
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.onDropped();
+        }
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should shed reads beyond the limit with 503 and Retry-After while writes still pass")
+    void shouldShedPerBudget() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoadSheddingFilter filter = new LoadSheddingFilter(
+                new AdaptiveConcurrencyLimit(1, 1, 1, 2.0), new AdaptiveConcurrencyLimit(1, 1, 1, 2.0),
+                Duration.ofSeconds(2), new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            entered.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain readChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/movies/1"), rejected, readChain);
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        MockFilterChain writeChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/movies"), write, writeChain);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertThat(readChain.getRequest()).isNull();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(writeChain.getRequest()).isNotNull();
+        assertThat(meterRegistry.get("http.server.concurrency.rejected").tag("budget", "read").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("http.server.concurrency.rejected").tag("budget", "write").counter().count())
+                .isZero();
+        assertThat(meterRegistry.get("http.server.concurrency.limit").tag("budget", "read").gauge().value())
+                .isEqualTo(1);
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.demo;
 
+import com.example.demo.models.ChangeFeedState;
 import com.example.demo.models.Movie;
 import com.example.demo.models.dtos.MovieRequest;
+import com.example.demo.repositories.ChangeFeedStateRepository;
 import com.example.demo.repositories.MovieRepository;
+import com.example.demo.services.MovieService;
+import com.example.demo.services.RatingEnrichmentService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,11 +17,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -32,6 +45,19 @@ class MovieControllerTest {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ChangeFeedStateRepository changeFeedStateRepository;
+
+    /**
+     * Stubbed: these tests cover the API, and a background enrichment of the previous test's movies
+     * would race with the cleanup below.
+     */
+    @MockBean
+    private RatingEnrichmentService ratingEnrichmentService;
+
     @BeforeEach
     void setUp() {
         movieRepository.deleteAll();
@@ -93,7 +119,89 @@ class MovieControllerTest {
             mockMvc.perform(get("/api/movies"))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$", hasSize(1)))
-                    .andExpect(jsonPath("$[0].title", is("The Matrix")));
+                    .andExpect(jsonPath("$[0].title", is("The Matrix")))
+                    .andExpect(jsonPath("$[0].director", is("Wachowskis")))
+                    .andExpect(jsonPath("$[0].releaseYear", is(1999)))
+                    .andExpect(jsonPath("$[0].rating", nullValue()))
+                    .andExpect(jsonPath("$[0].ratingStatus", is("PENDING")))
+                    .andExpect(jsonPath("$[0].createdAt", matchesPattern("\\d{4}-\\d{2}-\\d{2}T.*")));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return requested page ordered by id")
+        void shouldReturnRequestedPage() throws Exception {
+            // Given
+            for (int i = 1; i <= 5; i++) {
+                movieRepository.save(Movie.builder().title("Movie " + i).build());
+            }
+
+            // When & Then
+            mockMvc.perform(get("/api/movies").param("page", "1").param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[0].title", is("Movie 3")))
+                    .andExpect(jsonPath("$[1].title", is("Movie 4")));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return 400 for invalid page size")
+        void shouldReturn400ForInvalidPageSize() throws Exception {
+            mockMvc.perform(get("/api/movies").param("page", "0").param("size", "0"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.validationErrors.size", notNullValue()));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should not serve a cached list after a write")
+        void shouldNotServeStaleCachedList() throws Exception {
+            // Given
+            Movie movie = movieRepository.save(Movie.builder()
+                    .title("Original Title")
+                    .build());
+            mockMvc.perform(get("/api/movies"))
+                    .andExpect(jsonPath("$[0].title", is("Original Title")));
+
+            // When
+            MovieRequest request = MovieRequest.builder()
+                    .title("Updated Title")
+                    .build();
+            mockMvc.perform(put("/api/movies/{id}", movie.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+
+            // Then
+            mockMvc.perform(get("/api/movies"))
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].title", is("Updated Title")));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return compact CBOR when requested via Accept")
+        void shouldReturnCborWhenRequested() throws Exception {
+            // Given
+            Movie saved = movieRepository.save(Movie.builder()
+                    .title("Inception")
+                    .director("Christopher Nolan")
+                    .releaseYear(2010)
+                    .build());
+
+            // When
+            MvcResult result = mockMvc.perform(get("/api/movies").accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andReturn();
+
+            // Then
+            JsonNode body = new ObjectMapper(new CBORFactory())
+                    .readTree(result.getResponse().getContentAsByteArray());
+            assertThat(body.get(0).get("title").asText()).isEqualTo("Inception");
+            assertThat(body.get(0).get("createdAt").asLong())
+                    .isEqualTo(saved.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
         }
     }
 
@@ -131,6 +239,258 @@ class MovieControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/movies/{id}/history")
+    class GetRatingHistory {
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should list rating changes oldest first")
+        void shouldListRatingChanges() throws Exception {
+            Movie saved = movieRepository.save(Movie.builder().title("Heat").releaseYear(1995).build());
+            movieService.updateMovieRating(saved.getId(), 8.5, Movie.RatingStatus.ENRICHED);
+            movieService.updateMovieRating(saved.getId(), 8.75, Movie.RatingStatus.ENRICHED);
+
+            mockMvc.perform(get("/api/movies/{id}/history", saved.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[0].previousRating").value(nullValue()))
+                    .andExpect(jsonPath("$[0].rating", is(8.5)))
+                    .andExpect(jsonPath("$[1].previousRating", is(8.5)))
+                    .andExpect(jsonPath("$[1].rating", is(8.75)))
+                    .andExpect(jsonPath("$[1].ratingStatus", is("ENRICHED")));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return 404 when movie not found")
+        void shouldReturn404WhenNotFound() throws Exception {
+            mockMvc.perform(get("/api/movies/{id}/history", 999))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/movies/changes")
+    class GetChanges {
+
+        private long currentPosition() throws Exception {
+            MvcResult result = mockMvc.perform(get("/api/movies/changes").param("limit", "5000"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            return objectMapper.readTree(result.getResponse().getContentAsString()).get("nextSince").asLong();
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return each changed movie once and a tombstone for a deleted one")
+        void shouldReturnCompactedChanges() throws Exception {
+            long since = currentPosition();
+            Movie kept = movieRepository.save(Movie.builder().title("Heat").releaseYear(1995).build());
+            Movie deleted = movieRepository.save(Movie.builder().title("Alien").releaseYear(1979).build());
+            kept.setDirector("Michael Mann");
+            movieRepository.save(kept);
+            movieRepository.deleteById(deleted.getId());
+
+            mockMvc.perform(get("/api/movies/changes").param("since", String.valueOf(since)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.changes", hasSize(2)))
+                    .andExpect(jsonPath("$.changes[0].type", is("UPSERT")))
+                    .andExpect(jsonPath("$.changes[0].movie.director", is("Michael Mann")))
+                    .andExpect(jsonPath("$.changes[1].type", is("DELETE")))
+                    .andExpect(jsonPath("$.changes[1].movieId", is(deleted.getId().intValue())))
+                    .andExpect(jsonPath("$.hasMore", is(false)))
+                    .andExpect(jsonPath("$.resyncRequired", is(false)));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should page through changes with the nextSince cursor")
+        void shouldPageWithCursor() throws Exception {
+            long since = currentPosition();
+            movieRepository.save(Movie.builder().title("Heat").build());
+            movieRepository.save(Movie.builder().title("Alien").build());
+
+            MvcResult first = mockMvc.perform(get("/api/movies/changes")
+                            .param("since", String.valueOf(since)).param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.changes[0].movie.title", is("Heat")))
+                    .andExpect(jsonPath("$.hasMore", is(true)))
+                    .andReturn();
+            long next = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextSince").asLong();
+
+            mockMvc.perform(get("/api/movies/changes").param("since", String.valueOf(next)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.changes", hasSize(1)))
+                    .andExpect(jsonPath("$.changes[0].movie.title", is("Alien")))
+                    .andExpect(jsonPath("$.nextSince", greaterThan((int) next)));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should serve a fresh consumer after tombstones were purged and resync an old one")
+        void shouldServeFreshConsumerAfterPurge() throws Exception {
+            movieRepository.save(Movie.builder().title("Heat").build());
+            changeFeedStateRepository.save(new ChangeFeedState(ChangeFeedState.ID, currentPosition()));
+            try {
+                mockMvc.perform(get("/api/movies/changes").param("since", "0"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.changes[*].movie.title", hasItem("Heat")))
+                        .andExpect(jsonPath("$.resyncRequired", is(false)));
+
+                mockMvc.perform(get("/api/movies/changes").param("since", "1"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.resyncRequired", is(true)));
+            } finally {
+                changeFeedStateRepository.deleteAll();
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should page a snapshot past purged tombstones and resync it only for a purge after its start")
+        void shouldPageSnapshotAfterPurge() throws Exception {
+            movieRepository.save(Movie.builder().title("Heat").build());
+            Movie deleted = movieRepository.save(Movie.builder().title("Alien").build());
+            movieRepository.save(Movie.builder().title("Ronin").build());
+            movieRepository.deleteById(deleted.getId());
+            changeFeedStateRepository.save(new ChangeFeedState(ChangeFeedState.ID, currentPosition()));
+            try {
+                MvcResult first = mockMvc.perform(get("/api/movies/changes").param("since", "0").param("limit", "1"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.hasMore", is(true)))
+                        .andExpect(jsonPath("$.resyncRequired", is(false)))
+                        .andReturn();
+                JsonNode page = objectMapper.readTree(first.getResponse().getContentAsString());
+                String snapshotFrom = page.get("snapshotFrom").asText();
+
+                mockMvc.perform(get("/api/movies/changes").param("since", page.get("nextSince").asText())
+                                .param("snapshotFrom", snapshotFrom).param("limit", "1"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.changes", hasSize(1)))
+                        .andExpect(jsonPath("$.snapshotFrom", is(Integer.parseInt(snapshotFrom))))
+                        .andExpect(jsonPath("$.resyncRequired", is(false)));
+
+                // a deletion after the snapshot started, purged before the consumer read it
+                movieRepository.deleteAll();
+                changeFeedStateRepository.save(new ChangeFeedState(ChangeFeedState.ID, currentPosition()));
+                mockMvc.perform(get("/api/movies/changes").param("since", page.get("nextSince").asText())
+                                .param("snapshotFrom", snapshotFrom))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.resyncRequired", is(true)));
+            } finally {
+                changeFeedStateRepository.deleteAll();
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return 400 for a negative sequence number")
+        void shouldReturn400ForNegativeSince() throws Exception {
+            mockMvc.perform(get("/api/movies/changes").param("since", "-1"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/movies/search")
+    class SearchByTitle {
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should find a movie by a misspelled title")
+        void shouldFindMisspelledTitle() throws Exception {
+            movieRepository.save(Movie.builder().title("The Shawshank Redemption").build());
+            movieRepository.save(Movie.builder().title("Inception").build());
+
+            mockMvc.perform(get("/api/movies/search").param("title", "shawshenk redemtion"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].title", is("The Shawshank Redemption")))
+                    .andExpect(jsonPath("$[0].similarity", greaterThan(0.3)));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return 400 for a blank title")
+        void shouldReturn400ForBlankTitle() throws Exception {
+            mockMvc.perform(get("/api/movies/search").param("title", " "))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/movies/top-rated")
+    class GetTopRated {
+
+        private Movie rated(String title, String director, int year, double rating) {
+            return movieRepository.save(Movie.builder()
+                    .title(title)
+                    .director(director)
+                    .releaseYear(year)
+                    .rating(rating)
+                    .ratingStatus(Movie.RatingStatus.ENRICHED)
+                    .build());
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should rank rated movies overall and per year as ratings change")
+        void shouldRankAndFollowRatingChanges() throws Exception {
+            // Given
+            rated("Heat", "Michael Mann", 1995, 8.25);
+            Movie seven = rated("Se7en", "David Fincher", 1995, 8.5);
+            rated("Alien", "Ridley Scott", 1979, 8.5);
+            movieRepository.save(Movie.builder().title("Unrated").releaseYear(1995).build());
+
+            // When
+            movieService.updateMovieRating(seven.getId(), 7.75, Movie.RatingStatus.ENRICHED);
+
+            // Then
+            mockMvc.perform(get("/api/movies/top-rated"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(3)))
+                    .andExpect(jsonPath("$[0].title", is("Alien")))
+                    .andExpect(jsonPath("$[0].rank", is(1)))
+                    .andExpect(jsonPath("$[2].title", is("Se7en")));
+            mockMvc.perform(get("/api/movies/top-rated/years/{year}", 1995).param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].title", is("Heat")))
+                    .andExpect(jsonPath("$[0].rating", is(8.25)));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should rank a director's movies ignoring case and drop deleted ones")
+        void shouldRankByDirector() throws Exception {
+            // Given
+            rated("Inception", "Christopher Nolan", 2010, 8.75);
+            Movie deleted = rated("Memento", "Christopher Nolan", 2000, 8.5);
+            rated("Tenet", "Christopher Nolan", 2020, 7.25);
+            rated("Heat", "Michael Mann", 1995, 8.25);
+
+            // When
+            movieRepository.deleteById(deleted.getId());
+
+            // Then
+            mockMvc.perform(get("/api/movies/top-rated/directors/{director}", "christopher nolan"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].title", contains("Inception", "Tenet")));
+            mockMvc.perform(get("/api/movies/top-rated/directors/{director}", "Nobody"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(0)));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return 400 for invalid limit")
+        void shouldReturn400ForInvalidLimit() throws Exception {
+            mockMvc.perform(get("/api/movies/top-rated").param("limit", "101"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     @DisplayName("POST /api/movies")
     class CreateMovie {
@@ -170,6 +530,111 @@ class MovieControllerTest {
                     .andExpect(jsonPath("$.ratingStatus", is("PENDING")));
         }
 
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should flag an existing movie with a near-identical title")
+        void shouldFlagPossibleDuplicate() throws Exception {
+            Movie existing = movieRepository.save(Movie.builder()
+                    .title("The Shawshank Redemption")
+                    .build());
+            MovieRequest request = MovieRequest.builder()
+                    .title("Shawshank Redemption")
+                    .build();
+
+            mockMvc.perform(post("/api/movies")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.possibleDuplicates", hasSize(1)))
+                    .andExpect(jsonPath("$.possibleDuplicates[0].id", is(existing.getId().intValue())));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should return the existing movie instead of inserting a duplicate")
+        void shouldReturnExistingMovieForDuplicate() throws Exception {
+            Movie existing = movieRepository.save(Movie.builder()
+                    .title("The Godfather")
+                    .director("Francis Ford Coppola")
+                    .releaseYear(1972)
+                    .build());
+            MovieRequest request = MovieRequest.builder()
+                    .title("the  GODFATHER")
+                    .director("Francis Ford Coppola")
+                    .releaseYear(1972)
+                    .build();
+
+            mockMvc.perform(post("/api/movies")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id", is(existing.getId().intValue())))
+                    .andExpect(jsonPath("$.title", is("The Godfather")));
+
+            assertThat(movieRepository.count()).isEqualTo(1);
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should return the first result when retried with the same Idempotency-Key")
+        void shouldHonourIdempotencyKey() throws Exception {
+            MovieRequest request = MovieRequest.builder()
+                    .title("Heat")
+                    .releaseYear(1995)
+                    .build();
+            MvcResult first = mockMvc.perform(post("/api/movies")
+                            .header("Idempotency-Key", "import-42")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            long id = objectMapper.readTree(first.getResponse().getContentAsString()).get("id").asLong();
+
+            mockMvc.perform(post("/api/movies")
+                            .header("Idempotency-Key", "import-42")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id", is((int) id)))
+                    .andExpect(jsonPath("$.title", is("Heat")));
+
+            assertThat(movieRepository.count()).isEqualTo(1);
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should return 422 when an Idempotency-Key is reused with a different body")
+        void shouldRejectReusedIdempotencyKey() throws Exception {
+            MovieRequest request = MovieRequest.builder()
+                    .title("Heat")
+                    .releaseYear(1995)
+                    .build();
+            mockMvc.perform(post("/api/movies")
+                            .header("Idempotency-Key", "import-43")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+
+            request.setTitle("Heat (Director's Cut)");
+            mockMvc.perform(post("/api/movies")
+                            .header("Idempotency-Key", "import-43")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(jsonPath("$.message", containsString("import-43")));
+
+            // another user's key of the same name is a different key
+            mockMvc.perform(post("/api/movies")
+                            .with(user("importer").roles("ADMIN"))
+                            .header("Idempotency-Key", "import-43")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.title", is("Heat (Director's Cut)")));
+
+            assertThat(movieRepository.count()).isEqualTo(2);
+        }
+
         @Test
         @WithMockUser(roles = "ADMIN")
         @DisplayName("Should return 400 for invalid input")
@@ -203,6 +668,87 @@ class MovieControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("POST /api/movies/ingest")
+    class IngestMovies {
+
+        private JsonNode awaitCompleted(String location) throws Exception {
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (true) {
+                MvcResult result = mockMvc.perform(get(location))
+                        .andExpect(status().isOk())
+                        .andReturn();
+                JsonNode ticket = objectMapper.readTree(result.getResponse().getContentAsString());
+                if ("COMPLETED".equals(ticket.get("state").asText()) || System.nanoTime() > deadline) {
+                    return ticket;
+                }
+                Thread.sleep(20);
+            }
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should accept movies with 202 and create them in the background")
+        void shouldIngestMovies() throws Exception {
+            movieRepository.save(Movie.builder().title("Alien").releaseYear(1979).build());
+            List<MovieRequest> movies = List.of(
+                    MovieRequest.builder().title("Alien").releaseYear(1979).build(),
+                    MovieRequest.builder().title("Aliens").releaseYear(1986).build(),
+                    MovieRequest.builder().title("ALIENS").releaseYear(1986).build(),
+                    MovieRequest.builder().title("Alien 3").releaseYear(1992).build());
+
+            MvcResult accepted = mockMvc.perform(post("/api/movies/ingest")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(movies)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Location", startsWith("/api/movies/ingest/")))
+                    .andExpect(jsonPath("$.state", is("QUEUED")))
+                    .andExpect(jsonPath("$.movies", is(4)))
+                    .andReturn();
+
+            JsonNode ticket = awaitCompleted(accepted.getResponse().getHeader("Location"));
+
+            assertThat(ticket.get("state").asText()).isEqualTo("COMPLETED");
+            assertThat(ticket.get("created").asInt()).isEqualTo(2);
+            assertThat(ticket.get("duplicates").asInt()).isEqualTo(2);
+            assertThat(ticket.get("failed").asInt()).isZero();
+            assertThat(movieRepository.findAll()).extracting(Movie::getTitle)
+                    .containsExactlyInAnyOrder("Alien", "Aliens", "Alien 3");
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should reject the request when one movie is invalid")
+        void shouldReturn400ForInvalidMovie() throws Exception {
+            List<MovieRequest> movies = List.of(
+                    MovieRequest.builder().title("Heat").releaseYear(1995).build(),
+                    MovieRequest.builder().title("").build());
+
+            mockMvc.perform(post("/api/movies/ingest")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(movies)))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        @DisplayName("Should return 403 for USER role")
+        void shouldReturn403ForUser() throws Exception {
+            mockMvc.perform(post("/api/movies/ingest")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[{\"title\":\"Heat\"}]"))
+                    .andExpect(status().isForbidden());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should return 404 for an unknown ticket")
+        void shouldReturn404ForUnknownTicket() throws Exception {
+            mockMvc.perform(get("/api/movies/ingest/no-such-ticket"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Nested
     @DisplayName("PUT /api/movies/{id}")
     class UpdateMovie {
@@ -250,6 +796,30 @@ class MovieControllerTest {
                     .andExpect(jsonPath("$.releaseYear", is(2001)));
         }
 
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        @DisplayName("Should return 409 when the update would duplicate another movie")
+        void shouldReturn409ForDuplicateUpdate() throws Exception {
+            movieRepository.save(Movie.builder()
+                    .title("Alien")
+                    .releaseYear(1979)
+                    .build());
+            Movie movie = movieRepository.save(Movie.builder()
+                    .title("Aliens")
+                    .releaseYear(1986)
+                    .build());
+
+            MovieRequest request = MovieRequest.builder()
+                    .title("Alien")
+                    .releaseYear(1979)
+                    .build();
+
+            mockMvc.perform(put("/api/movies/{id}", movie.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isConflict());
+        }
+
         @Test
         @WithMockUser(roles = "ADMIN")
         @DisplayName("Should return 404 when movie not found")
@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import com.example.demo.cache.MovieListCache;
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.models.Movie;
+import com.example.demo.models.dtos.MovieRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MovieListCacheTest {
+
+    private MovieListCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<Jackson2ObjectMapperBuilder> builders = mock(ObjectProvider.class);
+        when(builders.getObject()).thenAnswer(invocation -> Jackson2ObjectMapperBuilder.json());
+        cache = new MovieListCache(new ObjectMapper(), builders, new SimpleMeterRegistry(), 2);
+    }
+
+    private static MovieListCache.Key page(int page) {
+        return new MovieListCache.Key(page, 1, MediaType.APPLICATION_JSON);
+    }
+
+    private Supplier<List<MovieRow>> loader(long id) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(new MovieRow(id, "Movie " + id, "Director", 2000, null, Movie.RatingStatus.PENDING,
+                    null, null));
+        };
+    }
+
+    @Test
+    @DisplayName("Should drop the least recently used page instead of refusing new ones when full")
+    void shouldEvictLeastRecentlyUsedPage() {
+        cache.get(page(0), loader(1));
+        cache.get(page(1), loader(2));
+        cache.get(page(0), loader(1));
+
+        cache.get(page(2), loader(3));
+        assertThat(loads).hasValue(3);
+
+        cache.get(page(0), loader(1));
+        cache.get(page(2), loader(3));
+        assertThat(loads).hasValue(3);
+        cache.get(page(1), loader(2));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Should not store a page loaded while a change committed")
+    void shouldNotStorePageLoadedDuringChange() {
+        Movie movie = Movie.builder().id(1L).title("Movie 1").build();
+        Supplier<List<MovieRow>> racingLoader = () -> {
+            List<MovieRow> rows = loader(1).get();
+            cache.onMovieChanged(MovieChangedEvent.updated(movie));
+            return rows;
+        };
+
+        cache.get(page(0), racingLoader);
+        cache.get(page(0), loader(1));
+
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo;
+
+import com.example.demo.models.Movie;
+import com.example.demo.models.dtos.MovieResponse;
+import com.example.demo.models.dtos.MovieRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap cost per row of a list result held as {@link MovieResponse}s versus {@link MovieRow}s: bytes allocated
+ * to build the list (thread allocation counter) and bytes still retained by it after a full GC (heap usage
+ * delta). Strings are copied per row, as Hibernate hands them out.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=MovieRowFootprintBenchmarkTest}; {@code benchmark.rows} (1000000)
+ * sets the row count. Results are printed and appended to {@code target/row-footprint-report.txt}.
+ */
+@Tag("benchmark")
+class MovieRowFootprintBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final String[] DIRECTORS = {"Christopher Nolan", "Quentin Tarantino", "Frank Darabont",
+            "Greta Gerwig", "Denis Villeneuve", "Hayao Miyazaki", "Kathryn Bigelow", "Bong Joon-ho"};
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    @DisplayName("Compare heap bytes per row of MovieResponse and MovieRow lists")
+    void compareFootprint() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+
+        Footprint response = measure("MovieResponse", i -> MovieResponse.fromEntity(movie(i, now)));
+        Footprint row = measure("MovieRow", i -> MovieRow.fromEntity(movie(i, now)));
+
+        StringBuilder report = new StringBuilder(String.format("%nList result footprint, %,d rows%n", ROWS))
+                .append(String.format("%-14s %22s %22s%n", "Read model", "Allocated B/row", "Retained B/row"));
+        for (Footprint footprint : List.of(response, row)) {
+            report.append(String.format("%-14s %22.1f %22.1f%n", footprint.model(),
+                    (double) footprint.allocated() / ROWS, (double) footprint.retained() / ROWS));
+        }
+        report.append(String.format("Retained reduction: %.0f%%%n",
+                100.0 * (response.retained() - row.retained()) / response.retained()));
+        System.out.println(report);
+        Files.writeString(Path.of("target", "row-footprint-report.txt"), report,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        assertThat(row.retained()).isLessThan(response.retained());
+    }
+
+    /**
+     * Builds the list from transient entities, so only the read model itself stays reachable.
+     */
+    private Footprint measure(String model, IntFunction<Object> toReadModel) {
+        long baseline = usedHeapAfterGc();
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+
+        List<Object> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(toReadModel.apply(i));
+        }
+
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        long retained = usedHeapAfterGc() - baseline;
+        assertThat(rows).hasSize(ROWS);
+        return new Footprint(model, allocated, retained);
+    }
+
+    private long usedHeapAfterGc() {
+        long used = Long.MAX_VALUE;
+        // a few rounds, until the heap stops shrinking
+        for (int round = 0; round < 5; round++) {
+            System.gc();
+            long now = memoryMXBean.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                break;
+            }
+            used = now;
+        }
+        return used;
+    }
+
+    private static Movie movie(int i, LocalDateTime now) {
+        return Movie.builder()
+                .id((long) i + 1)
+                .title("Movie Title Number " + i)
+                .director(new String(DIRECTORS[i % DIRECTORS.length]))
+                .releaseYear(1950 + i % 70)
+                .rating(i % 3 == 0 ? null : (i % 100) / 10.0)
+                .ratingStatus(i % 3 == 0 ? Movie.RatingStatus.PENDING : Movie.RatingStatus.ENRICHED)
+                .createdAt(now.minusSeconds(i))
+                .updatedAt(now.minusNanos(i * 1_000L))
+                .build();
+    }
+
+    private record Footprint(String model, long allocated, long retained) {
+    }
+}
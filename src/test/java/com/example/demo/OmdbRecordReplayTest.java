@@ -0,0 +1,101 @@
+package com.example.demo;
+
+import com.example.demo.exceptions.RatingProviderException;
+import com.example.demo.services.rating.OmdbArchive;
+import com.example.demo.services.rating.OmdbRatingProvider;
+import com.example.demo.services.rating.OmdbRecordReplayInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OmdbRecordReplayTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OmdbRatingProvider provider(OmdbRecordReplayInterceptor interceptor, String url) {
+        OmdbRatingProvider provider = new OmdbRatingProvider(
+                new RestTemplateBuilder().additionalInterceptors(interceptor).build(), new ObjectMapper(),
+                meterRegistry, Duration.ofSeconds(4), 0.95, Duration.ofSeconds(1), Duration.ofMillis(50), 0.1);
+        ReflectionTestUtils.setField(provider, "omdbApiUrl", url);
+        ReflectionTestUtils.setField(provider, "omdbApiKey", "demo");
+        return provider;
+    }
+
+    @Test
+    @DisplayName("Should replay recorded lookups without the network")
+    void shouldRecordAndReplay() throws Exception {
+        Path archive = directory.resolve("omdb.bin.gz");
+        AtomicInteger calls = new AtomicInteger();
+        HttpServer stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16);
+        stub.createContext("/", exchange -> {
+            calls.incrementAndGet();
+            String rating = exchange.getRequestURI().getRawQuery().contains("Inception") ? "8.8" : "8.3";
+            byte[] body = ("{\"Response\":\"True\",\"imdbRating\":\"" + rating + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+        String url = "http://127.0.0.1:" + stub.getAddress().getPort() + "/";
+        try {
+            OmdbRecordReplayInterceptor recorder = new OmdbRecordReplayInterceptor(
+                    OmdbRecordReplayInterceptor.Mode.RECORD, archive, Duration.ZERO, Duration.ZERO, 0, meterRegistry);
+            OmdbRatingProvider recording = provider(recorder, url);
+            assertThat(recording.fetchRating("Inception", 2010)).contains(8.8);
+            assertThat(recording.fetchRating("Amélie 100%", null)).contains(8.3);
+            recording.destroy();
+            recorder.destroy();
+        } finally {
+            stub.stop(0);
+        }
+
+        assertThat(OmdbArchive.load(archive)).containsKeys("inception|2010", "amélie 100%|");
+        OmdbRecordReplayInterceptor replayer = new OmdbRecordReplayInterceptor(
+                OmdbRecordReplayInterceptor.Mode.REPLAY, archive, Duration.ofMillis(1), Duration.ofMillis(5), 0,
+                meterRegistry);
+        OmdbRatingProvider replaying = provider(replayer, url);
+        assertThat(replaying.fetchRating("Inception", 2010)).contains(8.8);
+        assertThat(replaying.fetchRating("Amélie 100%", null)).contains(8.3);
+        assertThat(replaying.fetchRating("Never Recorded", null)).isEmpty();
+        replaying.destroy();
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("omdb.replay.responses").tag("result", "replayed").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should fail replayed lookups at the configured error rate")
+    void shouldInjectErrors() throws Exception {
+        Path archive = directory.resolve("omdb.bin.gz");
+        try (OmdbArchive.Writer writer = OmdbArchive.append(archive)) {
+            writer.write(OmdbArchive.key("Heat", "1995"),
+                    new OmdbArchive.Entry(200, 1_000, "{\"Response\":\"True\",\"imdbRating\":\"8.3\"}"));
+        }
+        OmdbRecordReplayInterceptor replayer = new OmdbRecordReplayInterceptor(
+                OmdbRecordReplayInterceptor.Mode.REPLAY, archive, Duration.ZERO, Duration.ZERO, 1.0, meterRegistry);
+        OmdbRatingProvider replaying = provider(replayer, "http://127.0.0.1:9/");
+
+        assertThatThrownBy(() -> replaying.fetchRating("Heat", 1995)).isInstanceOf(RatingProviderException.class);
+        replaying.destroy();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo;
+
+import com.example.demo.config.RestTemplateConfig;
+import com.example.demo.services.rating.OmdbRecordReplayInterceptor;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lookups/sec and TCP connections opened by the outbound rating client against a local OMDb stub,
+ * before (JDK HttpURLConnection) and after (pooled keep-alive HttpClient).
+ * Run with {@code mvn test -Pbenchmark -Dtest=RatingClientBenchmarkTest}.
+ */
+@Tag("benchmark")
+class RatingClientBenchmarkTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 16);
+    private static final int SECONDS = Integer.getInteger("benchmark.duration-seconds", 5);
+    // Simulated TCP + TLS 1.2 setup (about three round trips) on a WAN link, paid by the first request on each new connection
+    private static final int HANDSHAKE_MILLIS = Integer.getInteger("benchmark.handshake-millis", 100);
+    // Enrichment lookups arrive in bursts, so connections sit idle between them
+    private static final int THINK_MILLIS = Integer.getInteger("benchmark.think-millis", 20);
+    private static final byte[] OMDB_RESPONSE = ("{\"Title\":\"Inception\",\"Year\":\"2010\",\"imdbRating\":\"8.8\","
+            + "\"Ratings\":[{\"Source\":\"Internet Movie Database\",\"Value\":\"8.8/10\"}],\"Response\":\"True\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @Test
+    @DisplayName("Compare lookups/sec of the JDK client and the pooled client")
+    void comparePooledAndUnpooledClients() throws Exception {
+        HttpServer stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        stub.setExecutor(Executors.newFixedThreadPool(CONCURRENCY * 2));
+        stub.createContext("/", exchange -> {
+            if (clientPorts.add(exchange.getRemoteAddress().getPort())) {
+                sleep(HANDSHAKE_MILLIS);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, OMDB_RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(OMDB_RESPONSE);
+            }
+        });
+        stub.start();
+        String url = "http://127.0.0.1:" + stub.getAddress().getPort() + "/?apikey=demo&t=Inception&type=movie";
+
+        try {
+            SimpleClientHttpRequestFactory jdkFactory = new SimpleClientHttpRequestFactory();
+            jdkFactory.setConnectTimeout(5_000);
+            jdkFactory.setReadTimeout(10_000);
+            Result before = run("JDK HttpURLConnection", new RestTemplate(jdkFactory), url);
+
+            RestTemplateConfig config = new RestTemplateConfig();
+            ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(2));
+            ReflectionTestUtils.setField(config, "readTimeout", Duration.ofSeconds(5));
+            ReflectionTestUtils.setField(config, "maxConnections", 50);
+            ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", 20);
+            ReflectionTestUtils.setField(config, "keepAlive", Duration.ofSeconds(30));
+            ReflectionTestUtils.setField(config, "idleEviction", Duration.ofSeconds(30));
+            ReflectionTestUtils.setField(config, "connectionTimeToLive", Duration.ofMinutes(5));
+            ReflectionTestUtils.setField(config, "validateAfterInactivity", Duration.ofSeconds(2));
+            ReflectionTestUtils.setField(config, "poolTimeout", Duration.ofSeconds(1));
+            PoolingHttpClientConnectionManager connectionManager = config.ratingClientConnectionManager();
+            Result after;
+            try (CloseableHttpClient httpClient = config.ratingHttpClient(connectionManager)) {
+                after = run("Pooled HttpClient 5", config.restTemplate(new RestTemplateBuilder(), httpClient,
+                        new StaticListableBeanFactory().getBeanProvider(OmdbRecordReplayInterceptor.class)), url);
+            }
+
+            System.out.printf("%n%-24s %14s %18s%n", "Client", "Lookups/sec", "TCP connections");
+            for (Result result : new Result[]{before, after}) {
+                System.out.printf("%-24s %14.0f %18d%n", result.client(), result.lookupsPerSecond(), result.connections());
+            }
+
+            assertThat(after.connections()).isLessThanOrEqualTo(CONCURRENCY);
+        } finally {
+            stub.stop(0);
+            ((ExecutorService) stub.getExecutor()).shutdownNow();
+        }
+    }
+
+    private Result run(String client, RestTemplate restTemplate, String url) throws InterruptedException {
+        // Warm up, then measure with a fresh connection count
+        measure(restTemplate, url, 1);
+        clientPorts.clear();
+        long lookups = measure(restTemplate, url, SECONDS);
+        return new Result(client, (double) lookups / SECONDS, clientPorts.size());
+    }
+
+    private static long measure(RestTemplate restTemplate, String url, int seconds) throws InterruptedException {
+        AtomicLong lookups = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    String body = restTemplate.getForObject(url, String.class);
+                    if (body != null && body.contains("imdbRating")) {
+                        lookups.incrementAndGet();
+                    }
+                    sleep(ThreadLocalRandom.current().nextInt(THINK_MILLIS + 1));
+                }
+                return null;
+            });
+        }
+        clients.shutdown();
+        assertThat(clients.awaitTermination(seconds + 30L, TimeUnit.SECONDS)).isTrue();
+        return lookups.get();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(String client, double lookupsPerSecond, int connections) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demo;
+
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.history.RatingChange;
+import com.example.demo.history.RatingJournal;
+import com.example.demo.models.Movie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RatingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private RatingJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private RatingJournal open() throws IOException {
+        // 64 records per segment
+        return new RatingJournal(directory.toString(), DataSize.ofBytes(64 * 33), Duration.ZERO, false,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should return one movie's changes in order across rolled segments")
+    void shouldReadChangesAcrossSegments() throws IOException {
+        journal = open();
+        for (int i = 0; i < 300; i++) {
+            journal.append(i % 3, i == 0 ? null : (double) i - 1, (double) i, Movie.RatingStatus.ENRICHED);
+        }
+
+        List<RatingChange> changes = journal.read(1, Long.MIN_VALUE, Long.MAX_VALUE, 1000);
+
+        assertThat(journal.segmentCount()).isEqualTo(5);
+        assertThat(changes).hasSize(100);
+        assertThat(changes).extracting(RatingChange::newRating).startsWith(1.0, 4.0, 7.0).endsWith(298.0);
+        assertThat(changes).extracting(RatingChange::timestampMillis).isSorted();
+        assertThat(journal.read(1, Long.MIN_VALUE, Long.MAX_VALUE, 10)).hasSize(10);
+        assertThat(journal.read(7, Long.MIN_VALUE, Long.MAX_VALUE, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should only return changes inside the time range")
+    void shouldFilterByTimeRange() throws Exception {
+        journal = open();
+        journal.append(1, null, 7.0, Movie.RatingStatus.ENRICHED);
+        Thread.sleep(5);
+        long from = System.currentTimeMillis();
+        journal.append(1, 7.0, 7.5, Movie.RatingStatus.ENRICHED);
+        long to = System.currentTimeMillis();
+        Thread.sleep(5);
+        journal.append(1, 7.5, null, Movie.RatingStatus.PENDING);
+
+        List<RatingChange> changes = journal.read(1, from, to, 10);
+
+        assertThat(changes).singleElement().satisfies(change -> {
+            assertThat(change.oldRating()).isEqualTo(7.0);
+            assertThat(change.newRating()).isEqualTo(7.5);
+        });
+        assertThat(journal.read(1, to + 1, Long.MAX_VALUE, 10)).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.newRating()).isNull();
+                    assertThat(change.status()).isEqualTo(Movie.RatingStatus.PENDING);
+                });
+    }
+
+    @Test
+    @DisplayName("Should recover written records after reopening")
+    void shouldRecoverAfterReopen() throws IOException {
+        journal = open();
+        for (int i = 0; i < 100; i++) {
+            journal.append(5, null, (double) i, Movie.RatingStatus.ENRICHED);
+        }
+        journal.close();
+
+        journal = open();
+        journal.append(5, 99.0, 100.0, Movie.RatingStatus.ENRICHED);
+
+        assertThat(journal.read(5, Long.MIN_VALUE, Long.MAX_VALUE, 1000))
+                .extracting(RatingChange::newRating).hasSize(101).endsWith(99.0, 100.0);
+    }
+
+    @Test
+    @DisplayName("Should drop the records of deleted movies when compacting sealed segments")
+    void shouldCompactDeletedMovies() throws IOException {
+        journal = open();
+        for (int i = 0; i < 200; i++) {
+            journal.append(i % 2, null, (double) i, Movie.RatingStatus.ENRICHED);
+        }
+        journal.onMovieChanged(MovieChangedEvent.deleted(Movie.builder().id(0L).title("Deleted").build()));
+        long sizeBefore = journal.sizeInBytes();
+
+        journal.compact();
+
+        assertThat(journal.sizeInBytes()).isLessThan(sizeBefore);
+        assertThat(journal.read(0, Long.MIN_VALUE, Long.MAX_VALUE, 1000)).isEmpty();
+        assertThat(journal.read(1, Long.MIN_VALUE, Long.MAX_VALUE, 1000)).hasSize(100);
+
+        journal.close();
+        journal = open();
+        assertThat(journal.read(1, Long.MIN_VALUE, Long.MAX_VALUE, 1000)).hasSize(100);
+    }
+
+    @Test
+    @DisplayName("Should leave the segments of a closed journal to the next start")
+    void shouldNotCompactAfterClose() throws IOException {
+        journal = open();
+        for (int i = 0; i < 200; i++) {
+            journal.append(i % 2, null, (double) i, Movie.RatingStatus.ENRICHED);
+        }
+        journal.onMovieChanged(MovieChangedEvent.deleted(Movie.builder().id(0L).title("Deleted").build()));
+        long sizeBefore = journal.sizeInBytes();
+        journal.close();
+
+        journal.compact();
+
+        assertThat(journal.sizeInBytes()).isEqualTo(sizeBefore);
+        journal = open();
+        assertThat(journal.read(1, Long.MIN_VALUE, Long.MAX_VALUE, 1000)).hasSize(100);
+    }
+
+    @Test
+    @DisplayName("Should refuse to start without a directory when one is required")
+    void shouldRequireDirectory() {
+        assertThatThrownBy(() -> new RatingJournal("", DataSize.ofKilobytes(4), Duration.ZERO, true,
+                new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("movies.rating-history.directory");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo;
+
+import com.example.demo.exceptions.RatingProviderException;
+import com.example.demo.services.rating.RatingProvider;
+import com.example.demo.services.rating.RatingProviderFanOut;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RatingProviderFanOutTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private RatingProviderFanOut fanOut;
+
+    @AfterEach
+    void tearDown() {
+        if (fanOut != null) {
+            fanOut.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the fastest rating without waiting for a slow provider")
+    void shouldNotWaitForSlowProvider() throws InterruptedException {
+        CountDownLatch slowCancelled = new CountDownLatch(1);
+        fanOut = fanOut(
+                new StubProvider("slow", () -> {
+                    try {
+                        Thread.sleep(5_000);
+                    } catch (InterruptedException e) {
+                        slowCancelled.countDown();
+                        Thread.currentThread().interrupt();
+                    }
+                    return Optional.of(1.0);
+                }),
+                new StubProvider("fast", () -> Optional.of(8.5)));
+
+        long started = System.nanoTime();
+        Optional<Double> rating = fanOut.fetchRating("Inception", 2010);
+
+        assertThat(rating).contains(8.5);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+        assertThat(slowCancelled.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should use another provider when one fails or times out")
+    void shouldSurviveFailingAndHangingProviders() {
+        environment.setProperty("enrichment.providers.hanging.timeout", "PT0.2S");
+        fanOut = fanOut(
+                new StubProvider("failing", () -> {
+                    throw new RatingProviderException("upstream down");
+                }),
+                new StubProvider("hanging", () -> {
+                    sleepUninterruptibly(2_000);
+                    return Optional.of(1.0);
+                }),
+                new StubProvider("good", () -> {
+                    sleepUninterruptibly(50);
+                    return Optional.of(7.0);
+                }));
+
+        assertThat(fanOut.fetchRating("Heat", 1995)).contains(7.0);
+    }
+
+    @Test
+    @DisplayName("Should only call the backup provider after its hedge delay")
+    void shouldHedgeAfterDelay() {
+        environment.setProperty("enrichment.providers.backup.hedge-delay", "PT0.3S");
+        AtomicInteger backupCalls = new AtomicInteger();
+        fanOut = fanOut(
+                new StubProvider("primary", () -> Optional.of(9.0)),
+                new StubProvider("backup", () -> {
+                    backupCalls.incrementAndGet();
+                    return Optional.of(2.0);
+                }));
+
+        assertThat(fanOut.fetchRating("Alien", 1979)).contains(9.0);
+        sleepUninterruptibly(500);
+        assertThat(backupCalls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should return empty when providers answered but none knows the movie")
+    void shouldReturnEmptyWhenNotFound() {
+        fanOut = fanOut(
+                new StubProvider("a", Optional::empty),
+                new StubProvider("b", () -> {
+                    throw new RatingProviderException("upstream down");
+                }));
+
+        assertThat(fanOut.fetchRating("Unknown", null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should fail when every provider fails")
+    void shouldFailWhenAllProvidersFail() {
+        fanOut = fanOut(new StubProvider("a", () -> {
+            throw new RatingProviderException("upstream down");
+        }));
+
+        assertThatThrownBy(() -> fanOut.fetchRating("Heat", 1995))
+                .isInstanceOf(RatingProviderException.class);
+    }
+
+    private RatingProviderFanOut fanOut(RatingProvider... providers) {
+        return new RatingProviderFanOut(List.of(providers), environment, new SimpleMeterRegistry());
+    }
+
+    private static void sleepUninterruptibly(long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                // keep sleeping, like a blocking socket read
+            }
+        }
+    }
+
+    private record StubProvider(String name, RatingCall call) implements RatingProvider {
+
+        @Override
+        public Optional<Double> fetchRating(String title, Integer year) {
+            return call.get();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RatingCall {
+        Optional<Double> get();
+    }
+}
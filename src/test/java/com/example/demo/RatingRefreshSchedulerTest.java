@@ -0,0 +1,233 @@
+package com.example.demo;
+
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.models.Movie;
+import com.example.demo.models.MovieRefreshSchedule;
+import com.example.demo.repositories.MovieRefreshScheduleRepository;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.services.RatingEnrichmentService;
+import com.example.demo.services.enrichment.EnrichmentLane;
+import com.example.demo.services.enrichment.EnrichmentResultBuffer;
+import com.example.demo.services.enrichment.EnrichmentScheduler;
+import com.example.demo.services.enrichment.RatingRefreshScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingRefreshSchedulerTest {
+
+    private static final int THIS_YEAR = Year.now().getValue();
+
+    private MovieRepository movieRepository;
+    private MovieRefreshScheduleRepository scheduleRepository;
+    private RatingEnrichmentService ratingEnrichmentService;
+    private EnrichmentScheduler enrichmentScheduler;
+    private SimpleMeterRegistry meterRegistry;
+    private RatingRefreshScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository = mock(MovieRepository.class);
+        scheduleRepository = mock(MovieRefreshScheduleRepository.class);
+        ratingEnrichmentService = mock(RatingEnrichmentService.class);
+        enrichmentScheduler = mock(EnrichmentScheduler.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // run queued refreshes inline
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(enrichmentScheduler).submit(eq(EnrichmentLane.BACKGROUND), any());
+        scheduler = scheduler(Duration.ofDays(1), Duration.ofDays(180), 120);
+    }
+
+    private RatingRefreshScheduler scheduler(Duration minInterval, Duration maxInterval, int rateLimit) {
+        return new RatingRefreshScheduler(movieRepository, scheduleRepository, ratingEnrichmentService,
+                enrichmentScheduler, meterRegistry, minInterval, maxInterval, 0.1, 20,
+                rateLimit, Duration.ofMinutes(1));
+    }
+
+    private static MovieRepository.RefreshView view(long id, int releaseYear, double rating,
+                                                    LocalDateTime updatedAt, LocalDateTime nextRefreshAt) {
+        return new MovieRepository.RefreshView() {
+            public Long getId() {
+                return id;
+            }
+
+            public Integer getReleaseYear() {
+                return releaseYear;
+            }
+
+            public Double getRating() {
+                return rating;
+            }
+
+            public LocalDateTime getUpdatedAt() {
+                return updatedAt;
+            }
+
+            public LocalDateTime getNextRefreshAt() {
+                return nextRefreshAt;
+            }
+
+            public Double getVolatility() {
+                return nextRefreshAt == null ? null : 0.0;
+            }
+        };
+    }
+
+    private void refreshReturns(long movieId, Double rating) {
+        when(ratingEnrichmentService.refreshNow(movieId)).thenReturn(new EnrichmentResultBuffer.Outcome(movieId,
+                "Movie " + movieId, rating, rating == null ? Movie.RatingStatus.NOT_FOUND : Movie.RatingStatus.ENRICHED));
+    }
+
+    private Map<Long, MovieRefreshSchedule> savedSchedules(int expected) {
+        ArgumentCaptor<MovieRefreshSchedule> saved = ArgumentCaptor.forClass(MovieRefreshSchedule.class);
+        verify(scheduleRepository, times(expected)).save(saved.capture());
+        return saved.getAllValues().stream()
+                .collect(Collectors.toMap(MovieRefreshSchedule::getMovieId, Function.identity()));
+    }
+
+    @Test
+    @DisplayName("Should refresh new releases often and old movies rarely")
+    void shouldDeriveIntervalFromAgeAndVolatility() {
+        assertThat(scheduler.intervalFor(THIS_YEAR, 0)).isEqualTo(Duration.ofDays(1));
+        assertThat(scheduler.intervalFor(THIS_YEAR - 2, 0)).isEqualTo(Duration.ofDays(9));
+        assertThat(scheduler.intervalFor(THIS_YEAR - 2, 0.1)).isEqualTo(Duration.ofHours(108));
+        assertThat(scheduler.intervalFor(1972, 0)).isEqualTo(Duration.ofDays(180));
+        assertThat(scheduler.intervalFor(THIS_YEAR - 2, 100)).isEqualTo(Duration.ofDays(1));
+        assertThat(scheduler.intervalFor(null, 0)).isEqualTo(Duration.ofDays(180));
+    }
+
+    @Test
+    @DisplayName("Should queue only the movies that are due")
+    void shouldDispatchOnlyDueMovies() {
+        LocalDateTime now = LocalDateTime.now();
+        when(movieRepository.findRefreshableAfter(eq(0L), any())).thenReturn(List.of(
+                view(1L, THIS_YEAR, 7.0, now.minusDays(3), now.minusHours(1)),  // stored schedule, due
+                view(2L, THIS_YEAR, 7.0, now.minusDays(3), now.plusDays(1)),    // stored schedule, not due
+                view(3L, 1994, 9.3, now.minusYears(2), null),                   // never refreshed, due by age
+                view(4L, 1994, 9.3, now.minusDays(1), null)));                  // never refreshed, fresh
+        refreshReturns(1L, 7.0);
+        refreshReturns(3L, 9.3);
+        scheduler.load();
+
+        scheduler.dispatchDue();
+
+        verify(ratingEnrichmentService).refreshNow(1L);
+        verify(ratingEnrichmentService).refreshNow(3L);
+        verify(ratingEnrichmentService, never()).refreshNow(2L);
+        verify(ratingEnrichmentService, never()).refreshNow(4L);
+        Map<Long, MovieRefreshSchedule> saved = savedSchedules(2);
+        assertThat(saved.get(1L).getNextRefreshAt()).isAfter(now.plusHours(20));
+        assertThat(saved.get(3L).getNextRefreshAt()).isAfter(now.plusDays(150));
+        assertThat(scheduler.lagSeconds()).isZero();
+
+        // nothing is due again right away
+        scheduler.dispatchDue();
+        verify(ratingEnrichmentService, times(2)).refreshNow(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should refresh a movie sooner when its rating keeps moving")
+    void shouldShortenIntervalOfVolatileMovies() {
+        LocalDateTime now = LocalDateTime.now();
+        when(movieRepository.findRefreshableAfter(eq(0L), any())).thenReturn(List.of(
+                view(1L, THIS_YEAR - 2, 7.0, now.minusDays(10), now.minusMinutes(1)),
+                view(2L, THIS_YEAR - 2, 7.0, now.minusDays(10), now.minusMinutes(1))));
+        refreshReturns(1L, 7.5);
+        refreshReturns(2L, 7.0);
+        scheduler.load();
+
+        scheduler.dispatchDue();
+
+        Map<Long, MovieRefreshSchedule> saved = savedSchedules(2);
+        assertThat(saved.get(1L).getVolatility()).isEqualTo(0.25);
+        assertThat(saved.get(2L).getVolatility()).isZero();
+        // 9 days / (1 + 0.25 / 0.1) = about 2.6 days, against 9 days unchanged (both +-10%)
+        assertThat(saved.get(1L).getNextRefreshAt()).isBefore(now.plusDays(3));
+        assertThat(saved.get(2L).getNextRefreshAt()).isAfter(now.plusDays(8));
+    }
+
+    @Test
+    @DisplayName("Should keep the previous rating when a refresh finds none")
+    void shouldKeepRatingWhenNotFound() throws InterruptedException {
+        // every refresh is due again after a millisecond
+        scheduler = scheduler(Duration.ofMillis(1), Duration.ofMillis(1), 120);
+        LocalDateTime now = LocalDateTime.now();
+        when(movieRepository.findRefreshableAfter(eq(0L), any())).thenReturn(List.of(
+                view(1L, THIS_YEAR, 7.0, now.minusDays(1), now.minusMinutes(1))));
+        scheduler.load();
+
+        refreshReturns(1L, null);
+        scheduler.dispatchDue();
+        Thread.sleep(5);
+        refreshReturns(1L, 7.5);
+        scheduler.dispatchDue();
+
+        ArgumentCaptor<MovieRefreshSchedule> saved = ArgumentCaptor.forClass(MovieRefreshSchedule.class);
+        verify(scheduleRepository, times(2)).save(saved.capture());
+        // measured against 7.0, not against the missing rating
+        assertThat(saved.getAllValues().get(1).getVolatility()).isEqualTo(0.25);
+    }
+
+    @Test
+    @DisplayName("Should postpone due refreshes beyond the outbound budget")
+    void shouldPaceRefreshesByBudget() {
+        scheduler = scheduler(Duration.ofDays(1), Duration.ofDays(180), 2);
+        LocalDateTime now = LocalDateTime.now();
+        when(movieRepository.findRefreshableAfter(eq(0L), any())).thenReturn(List.of(
+                view(1L, THIS_YEAR, 7.0, now.minusDays(3), now.minusHours(3)),
+                view(2L, THIS_YEAR, 7.0, now.minusDays(3), now.minusHours(2)),
+                view(3L, THIS_YEAR, 7.0, now.minusDays(3), now.minusHours(1))));
+        refreshReturns(1L, 7.0);
+        refreshReturns(2L, 7.0);
+        scheduler.load();
+
+        scheduler.dispatchDue();
+        scheduler.dispatchDue();
+
+        verify(ratingEnrichmentService).refreshNow(1L);
+        verify(ratingEnrichmentService).refreshNow(2L);
+        verify(ratingEnrichmentService, never()).refreshNow(3L);
+        // movie 3 stayed due and was postponed by both polls
+        assertThat(meterRegistry.counter("enrichment.refresh.throttled").count()).isEqualTo(2);
+        assertThat(scheduler.scheduledMovies()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should track movies once enriched and drop them when deleted")
+    void shouldFollowMovieChanges() {
+        Movie movie = Movie.builder().id(7L).title("Dune: Part Two").releaseYear(THIS_YEAR).build();
+        scheduler.onMovieChanged(MovieChangedEvent.created(movie));
+        assertThat(scheduler.scheduledMovies()).isZero();
+
+        movie.setRating(8.5);
+        movie.setRatingStatus(Movie.RatingStatus.ENRICHED);
+        scheduler.onMovieChanged(MovieChangedEvent.ratingUpdated(movie));
+        assertThat(scheduler.scheduledMovies()).isEqualTo(1);
+
+        scheduler.onMovieChanged(MovieChangedEvent.deleted(movie));
+        assertThat(scheduler.scheduledMovies()).isZero();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo;
+
+import com.example.demo.models.Movie;
+import com.example.demo.models.ReEnrichmentChunk;
+import com.example.demo.models.ReEnrichmentJob;
+import com.example.demo.models.dtos.ReEnrichmentStatus;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.repositories.ReEnrichmentChunkRepository;
+import com.example.demo.repositories.ReEnrichmentJobRepository;
+import com.example.demo.services.enrichment.EnrichmentResultBuffer;
+import com.example.demo.services.enrichment.ReEnrichmentJobRunner;
+import com.example.demo.services.rating.OmdbArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Re-enrichment against OMDb replayed from an archive: every title rates 9.0, except "Refresh 4",
+ * which OMDb does not know.
+ */
+@SpringBootTest(properties = {
+        "omdb.replay.mode=replay",
+        "omdb.replay.latency.median=PT0S",
+        "omdb.replay.error-rate=0",
+        "enrichment.re-enrichment.workers=2",
+        "enrichment.re-enrichment.chunk-size=3",
+        "enrichment.re-enrichment.checkpoint-every=2",
+        "enrichment.re-enrichment.max-chunk-failures=2"
+})
+class ReEnrichmentJobTest {
+
+    private static final int MOVIES = 8;
+    private static final Path ARCHIVE = writeArchive();
+
+    @DynamicPropertySource
+    static void archive(DynamicPropertyRegistry registry) {
+        registry.add("omdb.replay.archive", ARCHIVE::toString);
+    }
+
+    @Autowired
+    private ReEnrichmentJobRunner runner;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ReEnrichmentJobRepository jobRepository;
+
+    @Autowired
+    private ReEnrichmentChunkRepository chunkRepository;
+
+    @SpyBean
+    private EnrichmentResultBuffer enrichmentResultBuffer;
+
+    private final List<Movie> movies = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        chunkRepository.deleteAll();
+        jobRepository.deleteAll();
+        movieRepository.deleteAll();
+        movies.clear();
+        for (int i = 0; i < MOVIES; i++) {
+            movies.add(movieRepository.save(Movie.builder()
+                    .title("Refresh " + i)
+                    .releaseYear(2000 + i)
+                    .rating(5.0)
+                    .ratingStatus(Movie.RatingStatus.ENRICHED)
+                    .build()));
+        }
+    }
+
+    private static Path writeArchive() {
+        try {
+            Path archive = Files.createTempFile("re-enrichment", ".bin.gz");
+            archive.toFile().deleteOnExit();
+            try (OmdbArchive.Writer writer = OmdbArchive.append(archive)) {
+                for (int i = 0; i < MOVIES; i++) {
+                    if (i != 4) {
+                        writer.write(OmdbArchive.key("Refresh " + i, String.valueOf(2000 + i)),
+                                new OmdbArchive.Entry(200, 0, "{\"Response\":\"True\",\"imdbRating\":\"9.0\"}"));
+                    }
+                }
+            }
+            return archive;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ReEnrichmentStatus awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        ReEnrichmentStatus status = runner.status();
+        while (status.getState() == ReEnrichmentJob.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = runner.status();
+        }
+        return status;
+    }
+
+    @Test
+    @DisplayName("Should refresh every enriched movie in parallel chunks and report progress")
+    void shouldRefreshWholeCatalog() throws Exception {
+        ReEnrichmentStatus started = runner.start();
+        assertThat(started.getTotal()).isEqualTo(MOVIES);
+        assertThat(started.getChunks()).isEqualTo(3);
+
+        ReEnrichmentStatus finished = awaitFinished();
+
+        assertThat(finished.getState()).isEqualTo(ReEnrichmentJob.State.COMPLETED);
+        assertThat(finished.getDone()).isEqualTo(MOVIES);
+        assertThat(finished.getEnriched()).isEqualTo(MOVIES - 1);
+        assertThat(finished.getNotFound()).isEqualTo(1);
+        assertThat(finished.getChunksCompleted()).isEqualTo(3);
+        assertThat(finished.getEtaSeconds()).isNull();
+        assertThat(movieRepository.findById(movies.get(0).getId()).orElseThrow().getRating()).isEqualTo(9.0);
+        // not found on refresh: keeps its last known rating instead of becoming NOT_FOUND with a rating
+        Movie unknown = movieRepository.findById(movies.get(4).getId()).orElseThrow();
+        assertThat(unknown.getRatingStatus()).isEqualTo(Movie.RatingStatus.ENRICHED);
+        assertThat(unknown.getRating()).isEqualTo(5.0);
+    }
+
+    @Test
+    @DisplayName("Should resume an interrupted job from its checkpoints")
+    void shouldResumeFromCheckpoint() throws Exception {
+        // Given: a job that stopped after the first chunk and two movies of the second
+        long firstId = movies.get(0).getId();
+        ReEnrichmentJob job = jobRepository.save(ReEnrichmentJob.builder()
+                .state(ReEnrichmentJob.State.RUNNING)
+                .total(MOVIES)
+                .chunkCount(2)
+                .startedAt(LocalDateTime.now())
+                .build());
+        chunkRepository.save(ReEnrichmentChunk.builder().jobId(job.getId())
+                .fromId(firstId).toId(firstId + 3).lastDoneId(firstId + 3)
+                .done(4).enriched(4).completed(true).build());
+        chunkRepository.save(ReEnrichmentChunk.builder().jobId(job.getId())
+                .fromId(firstId + 4).toId(firstId + MOVIES - 1).lastDoneId(firstId + 5)
+                .done(2).notFound(1).enriched(1).build());
+
+        // When
+        runner.resumeInterruptedJob();
+        ReEnrichmentStatus finished = awaitFinished();
+
+        // Then: only the movies after the checkpoint were looked up
+        assertThat(finished.getState()).isEqualTo(ReEnrichmentJob.State.COMPLETED);
+        assertThat(finished.getDone()).isEqualTo(MOVIES);
+        assertThat(finished.getEnriched()).isEqualTo(7);
+        assertThat(movieRepository.findById(firstId + 5).orElseThrow().getRating()).isEqualTo(5.0);
+        assertThat(movieRepository.findById(firstId + 6).orElseThrow().getRating()).isEqualTo(9.0);
+    }
+
+    @Test
+    @DisplayName("Should end the job FAILED once a chunk keeps failing to reach its checkpoint")
+    void shouldFailJobAfterRepeatedChunkFailures() throws Exception {
+        doThrow(new QueryTimeoutException("database unavailable")).when(enrichmentResultBuffer).flush();
+
+        runner.start();
+        ReEnrichmentStatus finished = awaitFinished();
+
+        assertThat(finished.getState()).isEqualTo(ReEnrichmentJob.State.FAILED);
+        assertThat(finished.getFinishedAt()).isNotNull();
+        assertThat(finished.getDone()).isZero();
+        assertThat(chunkRepository.findAll()).anySatisfy(chunk -> assertThat(chunk.getFailures()).isEqualTo(2));
+        assertThat(jobRepository.findByState(ReEnrichmentJob.State.RUNNING)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should cancel an interrupted job instead of resuming it")
+    void shouldCancelInterruptedJob() {
+        jobRepository.save(ReEnrichmentJob.builder()
+                .state(ReEnrichmentJob.State.RUNNING)
+                .total(MOVIES)
+                .startedAt(LocalDateTime.now())
+                .build());
+
+        ReEnrichmentStatus cancelled = runner.cancel();
+
+        assertThat(cancelled.getState()).isEqualTo(ReEnrichmentJob.State.CANCELLED);
+        assertThat(cancelled.getFinishedAt()).isNotNull();
+        assertThat(jobRepository.findByState(ReEnrichmentJob.State.RUNNING)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should let another node claim a running job only once its lease expired")
+    void shouldClaimJobOnlyAfterLeaseExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        ReEnrichmentJob job = jobRepository.save(ReEnrichmentJob.builder()
+                .state(ReEnrichmentJob.State.RUNNING)
+                .total(MOVIES)
+                .startedAt(now)
+                .ownerNode("node-1")
+                .leaseExpiresAt(now.plusMinutes(1))
+                .build());
+
+        assertThat(jobRepository.tryClaim(job.getId(), "node-2", now.plusMinutes(1), now)).isZero();
+        assertThat(jobRepository.extendLease(job.getId(), "node-1", now.plusMinutes(2))).isEqualTo(1);
+
+        assertThat(jobRepository.tryClaim(job.getId(), "node-2", now.plusMinutes(3), now.plusMinutes(2).plusSeconds(1)))
+                .isEqualTo(1);
+        assertThat(jobRepository.extendLease(job.getId(), "node-1", now.plusMinutes(3))).isZero();
+        assertThat(jobRepository.findById(job.getId()).orElseThrow().getOwnerNode()).isEqualTo("node-2");
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.demo.logging.SampledLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SampledLoggerTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SampledLoggerTest.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        logger.setLevel(Level.INFO);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+    }
+
+    @Test
+    @DisplayName("Should sample each call site on its own budget")
+    void shouldSamplePerCallSite() {
+        SampledLogger sampledLog = SampledLogger.of(SampledLoggerTest.class, 2);
+
+        for (int i = 0; i < 10; i++) {
+            sampledLog.info("Routine line {}", i);
+        }
+        sampledLog.info("Rare line");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("Routine line 0", "Routine line 1", "Rare line");
+    }
+}
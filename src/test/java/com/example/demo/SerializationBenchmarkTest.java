@@ -0,0 +1,115 @@
+package com.example.demo;
+
+import com.example.demo.config.WebConfig;
+import com.example.demo.models.dtos.MovieResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes on the wire and serialization CPU per 10k movies for every representation of the
+ * list endpoint. Run with {@code mvn test -Pbenchmark -Dtest=SerializationBenchmarkTest}.
+ */
+@Tag("benchmark")
+class SerializationBenchmarkTest {
+
+    private static final int MOVIES = 10_000;
+    private static final int WARM_UP_ITERATIONS = 30;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    @Test
+    @DisplayName("Compare JSON, gzip JSON, CBOR and Smile for 10k movies")
+    void compareRepresentations() throws IOException {
+        List<MovieResponse> movies = movies();
+
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ObjectMapper cbor = WebConfig.compactBinaryMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory());
+        ObjectMapper smile = WebConfig.compactBinaryMapper(Jackson2ObjectMapperBuilder.json(), new SmileFactory());
+
+        List<Measurement> measurements = List.of(
+                measure("JSON", movies, json, false),
+                measure("JSON + gzip", movies, json, true),
+                measure("CBOR", movies, cbor, false),
+                measure("CBOR + gzip", movies, cbor, true),
+                measure("Smile", movies, smile, false),
+                measure("Smile + gzip", movies, smile, true));
+
+        System.out.printf("%n%-14s %14s %10s %18s%n", "Format", "Bytes/10k", "vs JSON", "CPU ms/10k");
+        long jsonBytes = measurements.get(0).bytes();
+        for (Measurement measurement : measurements) {
+            System.out.printf("%-14s %14d %9.0f%% %18.2f%n", measurement.format(), measurement.bytes(),
+                    100.0 * measurement.bytes() / jsonBytes, measurement.cpuMillis());
+        }
+
+        assertThat(measurements.get(2).bytes()).isLessThan(jsonBytes);
+        assertThat(measurements.get(4).bytes()).isLessThan(jsonBytes);
+    }
+
+    private Measurement measure(String format, List<MovieResponse> movies, ObjectMapper mapper, boolean gzip)
+            throws IOException {
+        int size = 0;
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            size = serialize(movies, mapper, gzip).length;
+        }
+        long cpuStart = threadMXBean.getCurrentThreadCpuTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            serialize(movies, mapper, gzip);
+        }
+        double cpuMillis = (threadMXBean.getCurrentThreadCpuTime() - cpuStart) / 1e6 / MEASURED_ITERATIONS;
+        return new Measurement(format, size, cpuMillis);
+    }
+
+    private static byte[] serialize(List<MovieResponse> movies, ObjectMapper mapper, boolean gzip)
+            throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(movies);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(out, movies);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<MovieResponse> movies() {
+        String[] directors = {"Christopher Nolan", "Quentin Tarantino", "Frank Darabont", "Greta Gerwig"};
+        LocalDateTime now = LocalDateTime.now();
+        List<MovieResponse> movies = new ArrayList<>(MOVIES);
+        for (int i = 0; i < MOVIES; i++) {
+            movies.add(MovieResponse.builder()
+                    .id((long) i + 1)
+                    .title("Movie Title Number " + i)
+                    .director(directors[i % directors.length])
+                    .releaseYear(1950 + i % 70)
+                    .rating((i % 100) / 10.0)
+                    .ratingStatus("ENRICHED")
+                    .createdAt(now.minusMinutes(i))
+                    .updatedAt(now)
+                    .build());
+        }
+        return movies;
+    }
+
+    private record Measurement(String format, long bytes, double cpuMillis) {
+    }
+}
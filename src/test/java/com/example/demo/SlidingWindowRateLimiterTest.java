@@ -0,0 +1,199 @@
+package com.example.demo;
+
+import com.example.demo.ratelimit.SlidingWindowRateLimiter;
+import com.example.demo.ratelimit.UserRateLimits;
+import com.example.demo.web.RateLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(60_000 * 1000);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should allow the limit per window and weight the previous window as it slides out")
+    void shouldSlideWindow() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(Duration.ofMinutes(1), 100, clock::get);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("user", 10).allowed()).isTrue();
+        }
+        SlidingWindowRateLimiter.Decision rejected = limiter.tryAcquire("user", 10);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.resetSeconds()).isEqualTo(60);
+        assertThat(limiter.tryAcquire("other", 10).remaining()).isEqualTo(9);
+
+        // half-way into the next window, half of the previous 10 still count
+        clock.addAndGet(90_000);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("user", 10).allowed()).isTrue();
+        }
+        assertThat(limiter.tryAcquire("user", 10).allowed()).isFalse();
+
+        // two windows later nothing counts anymore
+        clock.addAndGet(120_000);
+        assertThat(limiter.tryAcquire("user", 10).remaining()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should take several permits at once, or none of them")
+    void shouldAcquirePermitsAllOrNothing() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(Duration.ofMinutes(1), 100, clock::get);
+
+        assertThat(limiter.tryAcquire("user", 10, 7).remaining()).isEqualTo(3);
+        assertThat(limiter.tryAcquire("user", 10, 4).allowed()).isFalse();
+        assertThat(limiter.tryAcquire("user", 10, 3).allowed()).isTrue();
+        assertThat(limiter.tryAcquire("user", 10).allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should give back released permits, including those counted in the previous window")
+    void shouldReleasePermits() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(Duration.ofMinutes(1), 100, clock::get);
+
+        limiter.tryAcquire("user", 10, 10);
+        limiter.release("user", 4);
+        assertThat(limiter.tryAcquire("user", 10, 4).allowed()).isTrue();
+        assertThat(limiter.tryAcquire("user", 10).allowed()).isFalse();
+
+        // at the start of the next window all 10 still count; releasing 6 leaves room for 6
+        clock.addAndGet(60_000);
+        limiter.release("user", 6);
+        assertThat(limiter.tryAcquire("user", 10, 6).allowed()).isTrue();
+        assertThat(limiter.tryAcquire("user", 10).allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should admit exactly the limit under concurrent checks")
+    void shouldBeExactUnderContention() throws Exception {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(Duration.ofMinutes(1), 100, clock::get);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    int allowed = 0;
+                    for (int i = 0; i < 10_000; i++) {
+                        if (limiter.tryAcquire("user", 5_000).allowed()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+            assertThat(total).isEqualTo(5_000);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the number of tracked keys bounded")
+    void shouldBoundKeys() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(Duration.ofMinutes(1), 10, clock::get);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("user-" + i, 1_000);
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(11);
+
+        // idle keys are dropped once they are two windows old
+        clock.addAndGet(180_000);
+        limiter.tryAcquire("fresh", 1_000);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should send rate limit headers and reject a user over the write budget with 429")
+    void shouldRejectOverBudget() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("api.rate-limit.write.limit", "1")
+                .withProperty("api.rate-limit.write.users.admin", "2");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimitFilter filter = new RateLimitFilter(new UserRateLimits(environment, meterRegistry),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "editor", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/movies"), first, new MockFilterChain());
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/movies"), second, chain);
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("RateLimit-Limit")).isEqualTo("1");
+        assertThat(first.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(second.getHeader("Retry-After")).isNotNull();
+        assertThat(chain.getRequest()).isNull();
+        assertThat(meterRegistry.get("api.rate-limit.rejected").tag("budget", "write").counter().count())
+                .isEqualTo(1);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        MockHttpServletResponse admin = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/movies"), admin, new MockFilterChain());
+        assertThat(admin.getHeader("RateLimit-Limit")).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("Should apply an endpoint limit on top of the write budget without spending the budget on a rejection")
+    void shouldApplyEndpointLimit() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("api.rate-limit.write.limit", "5")
+                .withProperty("api.rate-limit.endpoints[0].method", "POST")
+                .withProperty("api.rate-limit.endpoints[0].path", "/api/movies/ingest")
+                .withProperty("api.rate-limit.endpoints[0].limit", "1");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimitFilter filter = new RateLimitFilter(new UserRateLimits(environment, meterRegistry),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "editor", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/movies/ingest"), first, new MockFilterChain());
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/movies/ingest"), second, new MockFilterChain());
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/movies"), other, new MockFilterChain());
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("RateLimit-Limit")).isEqualTo("1");
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(other.getStatus()).isEqualTo(200);
+        assertThat(other.getHeader("RateLimit-Limit")).isEqualTo("5");
+        // the rejected ingest was not charged to the write budget
+        assertThat(other.getHeader("RateLimit-Remaining")).isEqualTo("3");
+        assertThat(meterRegistry.get("api.rate-limit.rejected").tag("budget", "POST /api/movies/ingest").counter()
+                .count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo;
+
+import com.example.demo.models.dtos.TitleMatch;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.search.TitleSimilarityIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Fuzzy title search latency on a large synthetic catalog.
+ * Run with {@code mvn test -Pbenchmark -Dtest=TitleSearchBenchmarkTest}.
+ */
+@Tag("benchmark")
+class TitleSearchBenchmarkTest {
+
+    private static final int TITLES = 1_000_000;
+    private static final int QUERIES = 2_000;
+    private static final String[] WORDS = {
+            "the", "dark", "knight", "return", "of", "king", "star", "wars", "empire", "strikes", "back",
+            "lord", "rings", "godfather", "part", "matrix", "pulp", "fiction", "fight", "club", "forrest",
+            "gump", "inception", "interstellar", "gladiator", "titanic", "avatar", "alien", "jaws", "rocky",
+            "casablanca", "vertigo", "psycho", "memento", "amelie", "parasite", "whiplash", "heat", "seven"};
+
+    @Test
+    @DisplayName("Search 1M titles with misspelled queries")
+    void searchLargeCatalog() {
+        Random random = new Random(42);
+        TitleSimilarityIndex index = new TitleSimilarityIndex(mock(MovieRepository.class), new SimpleMeterRegistry(),
+                20_000, 50_000, 100);
+        String[] titles = new String[TITLES];
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < TITLES; i++) {
+            titles[i] = randomTitle(random) + " " + i;
+            index.index((long) i + 1, titles[i]);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        long[] latencies = new long[QUERIES];
+        int hits = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            int target = random.nextInt(TITLES);
+            String query = misspell(titles[target], random);
+            long start = System.nanoTime();
+            List<TitleMatch> matches = index.search(query, 10, 0.3);
+            latencies[q] = System.nanoTime() - start;
+            if (matches.stream().anyMatch(m -> m.getId() == target + 1)) {
+                hits++;
+            }
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("%nIndexed %d titles in %d ms, heap used %d MB%n", TITLES, buildMillis,
+                (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024 * 1024));
+        System.out.printf("Search p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms, recall@10 %.1f%%%n",
+                latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 95 / 100] / 1e6,
+                latencies[QUERIES * 99 / 100] / 1e6, latencies[QUERIES - 1] / 1e6, 100.0 * hits / QUERIES);
+
+        assertThat(hits).isGreaterThan(QUERIES / 2);
+    }
+
+    private static String randomTitle(Random random) {
+        int words = 2 + random.nextInt(3);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            title.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    /**
+     * Drops one letter of a non-numeric word, like a typical typo.
+     */
+    private static String misspell(String title, Random random) {
+        String[] words = title.split(" ");
+        int w = random.nextInt(words.length - 1);
+        if (words[w].length() > 3) {
+            int pos = 1 + random.nextInt(words[w].length() - 2);
+            words[w] = words[w].substring(0, pos) + words[w].substring(pos + 1);
+        }
+        return String.join(" ", words);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo;
+
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.models.Movie;
+import com.example.demo.models.dtos.TitleMatch;
+import com.example.demo.repositories.MovieRepository;
+import com.example.demo.search.TitleSimilarityIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TitleSimilarityIndexTest {
+
+    private TitleSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TitleSimilarityIndex(mock(MovieRepository.class), new SimpleMeterRegistry(), 20_000, 50_000, 100);
+        index.index(1L, "The Shawshank Redemption");
+        index.index(2L, "The Godfather");
+        index.index(3L, "The Godfather Part II");
+        index.index(4L, "Amélie");
+    }
+
+    @Test
+    @DisplayName("Should rank the closest titles first")
+    void shouldRankClosestTitlesFirst() {
+        List<TitleMatch> matches = index.search("godfater", 10, 0.2);
+
+        assertThat(matches).extracting(TitleMatch::getId).containsExactly(2L, 3L);
+        assertThat(matches.get(0).getSimilarity()).isGreaterThan(matches.get(1).getSimilarity());
+    }
+
+    @Test
+    @DisplayName("Should ignore case, accents and punctuation")
+    void shouldIgnoreCaseAccentsAndPunctuation() {
+        assertThat(index.search("AMELIE!", 1, 0.9)).extracting(TitleMatch::getId).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Should return at most limit matches above the threshold")
+    void shouldRespectLimitAndThreshold() {
+        assertThat(index.search("the", 2, 0.0)).hasSize(2);
+        assertThat(index.search("Inception", 10, 0.3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should follow title changes and deletes")
+    void shouldFollowChangesAndDeletes() {
+        Movie renamed = Movie.builder().id(1L).title("Inception").build();
+        index.onMovieChanged(MovieChangedEvent.updated(renamed));
+        index.onMovieChanged(MovieChangedEvent.deleted(Movie.builder().id(2L).title("The Godfather").build()));
+
+        assertThat(index.search("shawshank", 10, 0.2)).isEmpty();
+        assertThat(index.search("inception", 10, 0.9)).extracting(TitleMatch::getId).containsExactly(1L);
+        assertThat(index.search("godfather", 10, 0.2)).extracting(TitleMatch::getId).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should not report a movie as its own duplicate")
+    void shouldExcludeSelfFromDuplicates() {
+        assertThat(index.findSimilar("The Godfather", 2L, 5, 0.6)).extracting(TitleMatch::getId)
+                .doesNotContain(2L);
+    }
+
+    @Test
+    @DisplayName("Should cap results at max-results and keep other titles when removing from a shared trigram")
+    void shouldCapResultsAndRemoveFromSortedPostings() {
+        TitleSimilarityIndex capped = new TitleSimilarityIndex(mock(MovieRepository.class), new SimpleMeterRegistry(),
+                20_000, 50_000, 3);
+        for (long id = 10; id >= 1; id--) {
+            capped.index(id, "Alien " + id);
+        }
+        capped.remove(5L);
+        capped.index(7L, "Aliens");
+
+        List<TitleMatch> matches = capped.search("alien", 100, 0.0);
+
+        assertThat(matches).hasSize(3);
+        assertThat(capped.search("alien 5", 100, 0.7)).isEmpty();
+        assertThat(capped.search("aliens", 1, 0.9)).extracting(TitleMatch::getId).containsExactly(7L);
+        assertThat(capped.size()).isEqualTo(9);
+    }
+}
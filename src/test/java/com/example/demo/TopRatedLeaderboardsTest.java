@@ -0,0 +1,102 @@
+package com.example.demo;
+
+import com.example.demo.cache.MovieCache;
+import com.example.demo.cache.SharedCacheTier;
+import com.example.demo.events.MovieChangedEvent;
+import com.example.demo.leaderboard.TopRatedLeaderboards;
+import com.example.demo.models.Movie;
+import com.example.demo.models.dtos.MovieRow;
+import com.example.demo.models.dtos.TopRatedMovie;
+import com.example.demo.repositories.MovieRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TopRatedLeaderboardsTest {
+
+    private final MovieRepository movieRepository = mock(MovieRepository.class);
+    private final SharedCacheTier sharedCacheTier = mock(SharedCacheTier.class);
+    private TopRatedLeaderboards leaderboards;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<SharedCacheTier> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(sharedCacheTier);
+        leaderboards = new TopRatedLeaderboards(movieRepository, provider, new SimpleMeterRegistry(), 2);
+        rate(1L, "The Godfather", 1972, 9.2);
+        rate(2L, "The Godfather Part II", 1974, 9.0);
+        rate(3L, "The Conversation", 1974, 7.8);
+    }
+
+    private void rate(Long id, String title, int year, Double rating) {
+        leaderboards.onMovieChanged(MovieChangedEvent.ratingUpdated(Movie.builder()
+                .id(id).title(title).director("Francis Ford Coppola").releaseYear(year).rating(rating).build()));
+    }
+
+    @Test
+    @DisplayName("Should keep only the configured number of movies on each board")
+    void shouldKeepTopK() {
+        assertThat(leaderboards.top(10)).extracting(TopRatedMovie::getId).containsExactly(1L, 2L);
+        assertThat(leaderboards.topOfDirector(" FRANCIS FORD COPPOLA ", 10)).extracting(TopRatedMovie::getId)
+                .containsExactly(1L, 2L);
+        assertThat(leaderboards.topOfYear(1974, 1)).extracting(TopRatedMovie::getId).containsExactly(2L);
+        assertThat(leaderboards.ratedMovies()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should promote the next movie when one leaves the top")
+    void shouldPromoteOnRemoval() {
+        leaderboards.onMovieChanged(MovieChangedEvent.deleted(Movie.builder().id(1L).title("The Godfather").build()));
+        rate(2L, "The Godfather Part II", 1974, null);
+
+        assertThat(leaderboards.top(10)).extracting(TopRatedMovie::getId).containsExactly(3L);
+        assertThat(leaderboards.top(10).get(0).getRank()).isEqualTo(1);
+        assertThat(leaderboards.topOfYear(1972, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should move a movie between boards when its year changes")
+    void shouldFollowYearChanges() {
+        rate(3L, "The Conversation", 1972, 9.5);
+
+        assertThat(leaderboards.top(10)).extracting(TopRatedMovie::getId).containsExactly(3L, 1L);
+        assertThat(leaderboards.topOfYear(1972, 10)).extracting(TopRatedMovie::getId).containsExactly(3L, 1L);
+        assertThat(leaderboards.topOfYear(1974, 10)).extracting(TopRatedMovie::getId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should apply writes made on other nodes once their invalidations arrive")
+    @SuppressWarnings("unchecked")
+    void shouldApplyRemoteWrites() {
+        ArgumentCaptor<BiConsumer<String, String>> listener = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(sharedCacheTier).onRemoteInvalidation(listener.capture());
+        LocalDateTime now = LocalDateTime.now();
+        when(movieRepository.findRowsByIdIn(any())).thenReturn(List.of(
+                new MovieRow(3L, "The Conversation", "Francis Ford Coppola", 1974, 9.5, Movie.RatingStatus.ENRICHED,
+                        now, now)));
+
+        // movie 1 was deleted and movie 3 re-rated on another node
+        listener.getValue().accept(MovieCache.NAME, "1");
+        listener.getValue().accept(MovieCache.NAME, "3");
+        listener.getValue().accept("ratings", "2");
+        assertThat(leaderboards.top(10)).extracting(TopRatedMovie::getId).containsExactly(1L, 2L);
+        leaderboards.applyRemoteChanges();
+
+        assertThat(leaderboards.top(10)).extracting(TopRatedMovie::getId).containsExactly(3L, 2L);
+        assertThat(leaderboards.ratedMovies()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo;
+
+import com.example.demo.cache.SharedCacheTier;
+import com.example.demo.cache.TwoTierCache;
+import com.example.demo.models.dtos.MovieResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes, each with its own near cache, over one in-memory shared tier.
+ */
+class TwoTierCacheTest {
+
+    /**
+     * Shared tier of one node: the entries are common to all nodes, invalidations reach the others, unless
+     * the receiving node holds them back to play a late delivery.
+     */
+    private static final class InMemoryTier implements SharedCacheTier {
+
+        private final Map<String, Entry> entries;
+        private final List<InMemoryTier> nodes;
+        private final List<BiConsumer<String, String>> listeners = new ArrayList<>();
+        private final Map<String, Duration> ttls = new ConcurrentHashMap<>();
+        private boolean holdInvalidations;
+
+        InMemoryTier(Map<String, Entry> entries, List<InMemoryTier> nodes) {
+            this.entries = entries;
+            this.nodes = nodes;
+            nodes.add(this);
+        }
+
+        public Entry get(String cache, String key) {
+            return entries.getOrDefault(cache + ':' + key, new Entry(null, 0));
+        }
+
+        public boolean putIfVersion(String cache, String key, byte[] value, long expectedVersion, Duration ttl) {
+            ttls.put(cache + ':' + key, ttl);
+            return expectedVersion == entries.compute(cache + ':' + key, (k, current) ->
+                    current == null || current.version() == expectedVersion
+                            ? new Entry(value, expectedVersion)
+                            : current).version();
+        }
+
+        public void put(String cache, String key, byte[] value, Duration ttl) {
+            ttls.put(cache + ':' + key, ttl);
+            entries.compute(cache + ':' + key, (k, current) ->
+                    new Entry(value, current == null ? 1 : current.version() + 1));
+        }
+
+        public void invalidate(String cache, String key, Duration ttl) {
+            put(cache, key, null, ttl);
+            nodes.stream().filter(node -> node != this && !node.holdInvalidations)
+                    .forEach(node -> node.listeners.forEach(listener -> listener.accept(cache, key)));
+        }
+
+        public void onRemoteInvalidation(BiConsumer<String, String> listener) {
+            listeners.add(listener);
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<String> remotelyEvicted = new ArrayList<>();
+    private MeterRegistry registryA;
+    private TwoTierCache<MovieResponse> nodeA;
+    private TwoTierCache<MovieResponse> nodeB;
+    private InMemoryTier tierA;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, SharedCacheTier.Entry> shared = new ConcurrentHashMap<>();
+        List<InMemoryTier> nodes = new ArrayList<>();
+        registryA = new SimpleMeterRegistry();
+        tierA = new InMemoryTier(shared, nodes);
+        nodeA = cache(tierA, registryA);
+        nodeB = cache(new InMemoryTier(shared, nodes), new SimpleMeterRegistry());
+    }
+
+    private TwoTierCache<MovieResponse> cache(SharedCacheTier tier, MeterRegistry registry) {
+        return new TwoTierCache<>("movies", MovieResponse.class, tier, objectMapper, 2, Duration.ofMinutes(1),
+                Duration.ofMinutes(10), registry, remotelyEvicted::add);
+    }
+
+    private MovieResponse load(long id, String title) {
+        loads.incrementAndGet();
+        return MovieResponse.builder().id(id).title(title).ratingStatus("PENDING")
+                .createdAt(LocalDateTime.of(2024, 5, 1, 12, 0)).build();
+    }
+
+    private double gets(String tier, String result) {
+        return registryA.get("cache.gets").tag("tier", tier).tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should load once and serve other nodes from the shared tier")
+    void shouldShareLoadsBetweenNodes() {
+        nodeA.get("1", () -> load(1, "Heat"));
+        nodeA.get("1", () -> load(1, "Heat"));
+        MovieResponse fromB = nodeB.get("1", () -> load(1, "Heat"));
+
+        assertThat(loads).hasValue(1);
+        assertThat(fromB.getTitle()).isEqualTo("Heat");
+        assertThat(fromB.getCreatedAt()).isEqualTo(LocalDateTime.of(2024, 5, 1, 12, 0));
+        assertThat(gets("near", "hit")).isEqualTo(1);
+        assertThat(gets("near", "miss")).isEqualTo(1);
+        assertThat(gets("shared", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop an invalidated key from the other nodes' near caches")
+    void shouldPropagateInvalidation() {
+        nodeA.get("1", () -> load(1, "Heat"));
+        nodeB.get("1", () -> load(1, "Heat"));
+
+        nodeA.invalidate("1");
+
+        assertThat(nodeB.get("1", () -> load(1, "Heat (1995)")).getTitle()).isEqualTo("Heat (1995)");
+        assertThat(nodeA.get("1", () -> load(1, "Heat (1995)")).getTitle()).isEqualTo("Heat (1995)");
+        assertThat(loads).hasValue(2);
+        assertThat(remotelyEvicted).containsExactly("1");
+    }
+
+    @Test
+    @DisplayName("Should not cache a value loaded while the key was invalidated")
+    void shouldNotCacheRacingLoad() {
+        nodeA.get("1", () -> {
+            MovieResponse stale = load(1, "Heat");
+            nodeB.invalidate("1");
+            return stale;
+        });
+
+        assertThat(nodeA.get("1", () -> load(1, "Heat (1995)")).getTitle()).isEqualTo("Heat (1995)");
+    }
+
+    @Test
+    @DisplayName("Should not share a value loaded before another node's write, however late its invalidation")
+    void shouldNotShareValueLoadedBeforeRemoteWrite() {
+        tierA.holdInvalidations = true;
+        nodeA.get("1", () -> {
+            MovieResponse stale = load(1, "Heat");
+            nodeB.invalidate("1");
+            return stale;
+        });
+
+        assertThat(nodeB.get("1", () -> load(1, "Heat (1995)")).getTitle()).isEqualTo("Heat (1995)");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should keep the near cache within its bound")
+    void shouldBoundNearCache() {
+        for (long id = 1; id <= 5; id++) {
+            long movieId = id;
+            nodeA.get(String.valueOf(id), () -> load(movieId, "Movie " + movieId));
+        }
+
+        assertThat(nodeA.nearSize()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep a value with a shorter lifetime for that long in both tiers")
+    void shouldApplyValueTtl() throws InterruptedException {
+        // movies without a rating stand for "not found" answers here
+        TwoTierCache<MovieResponse> cache = new TwoTierCache<>("movies", MovieResponse.class, tierA, objectMapper, 2,
+                Duration.ofMinutes(1), Duration.ofMinutes(10),
+                movie -> movie.getRating() == null ? Duration.ofMillis(1) : Duration.ofMinutes(10),
+                new SimpleMeterRegistry(), key -> {
+                });
+
+        cache.get("1", () -> load(1, "Heat"));
+        cache.put("2", MovieResponse.builder().id(2L).title("Ronin").rating(7.2).ratingStatus("ENRICHED").build());
+        Thread.sleep(5);
+
+        assertThat(tierA.ttls).containsEntry("movies:1", Duration.ofMillis(1))
+                .containsEntry("movies:2", Duration.ofMinutes(10));
+        // the in-memory tier does not expire entries: the reload shows that the near entry did
+        tierA.entries.clear();
+        cache.get("1", () -> load(1, "Heat"));
+        cache.get("2", () -> load(2, "Ronin"));
+        assertThat(loads).hasValue(2);
+    }
+}
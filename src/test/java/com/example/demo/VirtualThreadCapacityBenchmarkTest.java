@@ -0,0 +1,175 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Highest number of concurrent clients each threading mode sustains: clients are ramped up
+ * ({@code 50, 100, 200, ...}) against an endpoint that blocks for {@code benchmark.blocking-millis}
+ * (a slow JDBC round trip), and a level counts as sustained while p99 stays under
+ * {@code benchmark.p99-slo-millis} with no errors. Tomcat keeps its default 200 threads.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=VirtualThreadCapacityBenchmarkTest}; the virtual mode
+ * only runs on Java 21+ and is skipped otherwise.
+ */
+@Tag("benchmark")
+class VirtualThreadCapacityBenchmarkTest {
+
+    private static final int BLOCKING_MILLIS = Integer.getInteger("benchmark.blocking-millis", 100);
+    private static final int P99_SLO_MILLIS = Integer.getInteger("benchmark.p99-slo-millis", 500);
+    private static final int MAX_CLIENTS = Integer.getInteger("benchmark.max-clients", 1600);
+    private static final int SECONDS_PER_LEVEL = Integer.getInteger("benchmark.seconds-per-level", 5);
+
+    @ParameterizedTest(name = "mode={0}")
+    @ValueSource(strings = {"platform", "virtual-threads"})
+    @DisplayName("Ramp concurrent clients until p99 exceeds the SLO")
+    void rampConcurrentClients(String mode) throws Exception {
+        boolean virtual = "virtual-threads".equals(mode);
+        Assumptions.assumeTrue(!virtual || Runtime.version().feature() >= 21,
+                "Virtual threads need Java 21 (running " + Runtime.version() + ")");
+
+        try (ConfigurableApplicationContext context = startApplication(virtual)) {
+            String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/benchmark/blocking?millis=" + BLOCKING_MILLIS;
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+            int sustained = 0;
+            System.out.printf("%n%-16s %8s %10s %10s %8s %10s%n", mode, "Clients", "p50 ms", "p99 ms", "Errors", "Req/s");
+            for (int clients = 50; clients <= MAX_CLIENTS; clients *= 2) {
+                Level level = runLevel(client, url, clients);
+                System.out.printf("%-16s %8d %10d %10d %8d %10.0f%n", "", clients,
+                        level.p50Millis(), level.p99Millis(), level.errors(), level.requestsPerSecond());
+                if (level.errors() > 0 || level.p99Millis() > P99_SLO_MILLIS) {
+                    break;
+                }
+                sustained = clients;
+            }
+            System.out.printf("%s: max sustainable concurrent clients = %d%n", mode, sustained);
+            assertThat(sustained).isPositive();
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(boolean virtual) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(
+                MovieLibraryApplication.class, BenchmarkEndpointConfig.class)
+                .properties(
+                        "server.port=0",
+                        "omdb.api.url=http://127.0.0.1:9/",
+                        "logging.level.root=WARN");
+        if (virtual) {
+            builder.profiles("virtual-threads");
+        }
+        return builder.run();
+    }
+
+    private static Level runLevel(HttpClient client, String url, int clients) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(SECONDS_PER_LEVEL).toNanos();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+
+        List<CompletableFuture<Void>> loops = new ArrayList<>(clients);
+        long started = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            loops.add(loop(client, request, deadline, latencies, errors));
+        }
+        CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).join();
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            return new Level(0, 0, errors.get() + 1, 0);
+        }
+        return new Level(percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), errors.get(),
+                sorted.length / elapsedSeconds);
+    }
+
+    /**
+     * One client: sends the next request as soon as the previous answer arrives, without holding a thread.
+     */
+    private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long deadline,
+                                                ConcurrentLinkedQueue<Long> latencies, AtomicLong errors) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long begin = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    } else {
+                        latencies.add(System.nanoTime() - begin);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, request, deadline, latencies, errors));
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return Duration.ofNanos(sorted[Math.max(0, index)]).toMillis();
+    }
+
+    private record Level(long p50Millis, long p99Millis, long errors, double requestsPerSecond) {
+    }
+
+    /**
+     * Blocking endpoint outside {@code /api}, served without authentication so BCrypt does not
+     * turn a thread-capacity benchmark into a CPU benchmark.
+     */
+    @Configuration
+    static class BenchmarkEndpointConfig {
+
+        @Bean
+        @Order(0)
+        public SecurityFilterChain benchmarkFilterChain(HttpSecurity http) throws Exception {
+            return http.securityMatcher("/benchmark/**")
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .build();
+        }
+
+        @Bean
+        public BlockingEndpoint blockingEndpoint() {
+            return new BlockingEndpoint();
+        }
+    }
+
+    @RestController
+    static class BlockingEndpoint {
+
+        @GetMapping("/benchmark/blocking")
+        public String block(@RequestParam int millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return "ok";
+        }
+    }
+}